@@ -45,6 +45,7 @@ import org.thingsboard.server.actors.service.ActorService;
 import org.thingsboard.server.actors.tenant.DebugTbRateLimits;
 import org.thingsboard.server.cache.limits.RateLimitService;
 import org.thingsboard.server.cluster.TbClusterService;
+import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.event.CalculatedFieldDebugEvent;
 import org.thingsboard.server.common.data.event.ErrorEvent;
 import org.thingsboard.server.common.data.event.LifecycleEvent;
@@ -141,7 +142,10 @@ import org.thingsboard.server.utils.DebugModeRateLimitsConfig;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -582,6 +586,20 @@ public class ActorSystemContext {
     @Getter
     private long ruleNodeErrorPersistFrequency;
 
+    @Value("${actors.rule.chain.fusion.enabled:false}")
+    @Getter
+    private boolean ruleChainFusionEnabled;
+
+    @Value("${actors.rule.chain.fusion.max_depth:16}")
+    @Getter
+    private int ruleChainFusionMaxDepth;
+
+    @Value("${actors.rule.chain.fusion.node_types:org.thingsboard.rule.engine.filter.TbMsgTypeSwitchNode,org.thingsboard.rule.engine.filter.TbMsgTypeFilterNode,org.thingsboard.rule.engine.filter.TbOriginatorTypeSwitchNode,org.thingsboard.rule.engine.filter.TbOriginatorTypeFilterNode,org.thingsboard.rule.engine.filter.TbCheckMessageNode,org.thingsboard.rule.engine.transform.TbCopyKeysNode,org.thingsboard.rule.engine.transform.TbRenameKeysNode,org.thingsboard.rule.engine.transform.TbDeleteKeysNode,org.thingsboard.rule.engine.transform.TbJsonPathNode}")
+    private String ruleChainFusionNodeTypesStr;
+
+    @Getter
+    private Set<String> ruleChainFusionNodeTypes;
+
     @Value("${actors.statistics.enabled:true}")
     @Getter
     private boolean statisticsEnabled;
@@ -604,6 +622,8 @@ public class ActorSystemContext {
     @PostConstruct
     public void init() {
         this.localCacheType = "caffeine".equals(cacheType);
+        this.ruleChainFusionNodeTypes = StringUtils.isBlank(ruleChainFusionNodeTypesStr) ? Collections.emptySet() :
+                Arrays.stream(ruleChainFusionNodeTypesStr.split(",")).map(String::trim).filter(type -> !type.isEmpty()).collect(Collectors.toUnmodifiableSet());
     }
 
     @Value("${actors.tenant.create_components_on_init:true}")
@@ -19,9 +19,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.TbActorCtx;
 import org.thingsboard.server.actors.TbActorException;
+import org.thingsboard.server.actors.TbCoalescingActor;
 import org.thingsboard.server.actors.service.ContextAwareActor;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.MsgType;
 import org.thingsboard.server.common.msg.TbActorMsg;
 import org.thingsboard.server.common.msg.rpc.FromDeviceRpcResponseActorMsg;
 import org.thingsboard.server.common.msg.rpc.RemoveRpcActorMsg;
@@ -30,10 +32,12 @@ import org.thingsboard.server.common.msg.rule.engine.DeviceAttributesEventNotifi
 import org.thingsboard.server.common.msg.rule.engine.DeviceEdgeUpdateMsg;
 import org.thingsboard.server.common.msg.rule.engine.DeviceNameOrTypeUpdateMsg;
 import org.thingsboard.server.common.msg.timeout.DeviceActorServerSideRpcTimeoutMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
+import org.thingsboard.server.gen.transport.TransportProtos.TransportToDeviceActorMsg;
 import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
 
 @Slf4j
-public class DeviceActor extends ContextAwareActor {
+public class DeviceActor extends ContextAwareActor implements TbCoalescingActor {
 
     private final DeviceActorMessageProcessor processor;
 
@@ -97,4 +101,42 @@ public class DeviceActor extends ContextAwareActor {
         return true;
     }
 
+    @Override
+    public Object getCoalescingKey(TbActorMsg msg) {
+        switch (msg.getMsgType()) {
+            case SESSION_TIMEOUT_MSG:
+                return MsgType.SESSION_TIMEOUT_MSG;
+            case TRANSPORT_TO_DEVICE_ACTOR_MSG:
+                TransportToDeviceActorMsg transportMsg = ((TransportToDeviceActorMsgWrapper) msg).getMsg();
+                if (isSessionActivityOnly(transportMsg)) {
+                    SessionInfoProto sessionInfo = transportMsg.getSessionInfo();
+                    return new SessionActivityKey(sessionInfo.getSessionIdMSB(), sessionInfo.getSessionIdLSB());
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public void onCoalesced(TbActorMsg dropped, TbActorMsg retained) {
+        if (dropped instanceof TransportToDeviceActorMsgWrapper wrapper) {
+            wrapper.getCallback().onSuccess();
+        }
+    }
+
+    private static boolean isSessionActivityOnly(TransportToDeviceActorMsg msg) {
+        return msg.hasSubscriptionInfo() && !msg.hasSessionEvent() && !msg.hasGetAttributes()
+                && !msg.hasSubscribeToAttributes() && !msg.hasSubscribeToRPC() && !msg.hasToDeviceRPCCallResponse()
+                && !msg.hasClaimDevice() && !msg.hasProvisionDevice() && !msg.hasRpcResponseStatusMsg()
+                && !msg.hasSendPendingRPC() && !msg.hasUplinkNotificationMsg();
+    }
+
+    /**
+     * Session activity reports only carry the latest activity time and subscription flags of the session,
+     * so the newest report in the mailbox makes the older ones redundant.
+     */
+    private record SessionActivityKey(long sessionIdMSB, long sessionIdLSB) {
+    }
+
 }
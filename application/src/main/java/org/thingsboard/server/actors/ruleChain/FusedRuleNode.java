@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.ruleChain;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.stats.StatsPersistMsg;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.queue.PartitionChangeMsg;
+
+/**
+ * Rule node instance that is executed inline by the rule chain actor instead of its own rule node actor.
+ * Only used for synchronous and stateless rule nodes, see {@link ActorSystemContext#getRuleChainFusionNodeTypes()}.
+ */
+@Slf4j
+final class FusedRuleNode {
+
+    private final ActorSystemContext systemContext;
+    private final String ruleChainName;
+    @Getter
+    private final RuleNodeCtx nodeCtx;
+    private final RuleNodeActorMessageProcessor processor;
+
+    private long messagesProcessed;
+    private long errorsOccurred;
+    private long lastPersistedErrorTs;
+
+    FusedRuleNode(ActorSystemContext systemContext, String ruleChainName, RuleNodeCtx nodeCtx) {
+        this.systemContext = systemContext;
+        this.ruleChainName = ruleChainName;
+        this.nodeCtx = nodeCtx;
+        this.processor = new RuleNodeActorMessageProcessor(nodeCtx.getTenantId(), ruleChainName, systemContext, nodeCtx);
+    }
+
+    RuleNodeId getId() {
+        return nodeCtx.getSelf().getId();
+    }
+
+    void start() throws Exception {
+        processor.start(null);
+    }
+
+    void update() throws Exception {
+        processor.onUpdate(null);
+    }
+
+    void stop() {
+        try {
+            processor.stop(null);
+        } catch (Exception e) {
+            log.warn("[{}][{}] Failed to stop fused rule node: {}", nodeCtx.getTenantId(), getId(), e.getMessage());
+        }
+    }
+
+    void onPartitionChangeMsg(PartitionChangeMsg msg) {
+        try {
+            processor.onPartitionChangeMsg(msg);
+        } catch (Exception e) {
+            logAndPersist("onClusterEventMsg", e);
+        }
+    }
+
+    /**
+     * Mirrors the processing of {@link RuleChainToRuleNodeMsg} by the {@link RuleNodeActor}.
+     */
+    void onMsg(TbMsg msg, String fromRelationType) {
+        if (!msg.isValid()) {
+            if (log.isTraceEnabled()) {
+                log.trace("Skip processing of message: {} because it is no longer valid!", msg);
+            }
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("[{}][{}][{}] Going to process rule engine msg: {}", ruleChainName, getId(), processor.getComponentName(), msg);
+        }
+        try {
+            processor.onRuleChainToRuleNodeMsg(new RuleChainToRuleNodeMsg(new DefaultTbContext(systemContext, ruleChainName, nodeCtx), msg, fromRelationType));
+            messagesProcessed++;
+        } catch (Exception e) {
+            logAndPersist("onRuleMsg", e);
+        }
+    }
+
+    private void logAndPersist(String method, Exception e) {
+        errorsOccurred++;
+        log.trace("[{}][{}][{}] Failed to process method: {}", getId(), nodeCtx.getTenantId(), processor.getComponentName(), method);
+        log.trace("Debug Error: ", e);
+        long ts = System.currentTimeMillis();
+        if (ts - lastPersistedErrorTs > systemContext.getRuleNodeErrorPersistFrequency()) {
+            systemContext.persistError(nodeCtx.getTenantId(), getId(), method, e);
+            lastPersistedErrorTs = ts;
+        }
+    }
+
+    void persistStats() {
+        StatsPersistMsg msg = new StatsPersistMsg(messagesProcessed, errorsOccurred, nodeCtx.getTenantId(), getId());
+        messagesProcessed = 0;
+        errorsOccurred = 0;
+        if (!msg.isEmpty()) {
+            systemContext.getStatsActor().tell(msg);
+        }
+    }
+
+}
@@ -19,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.common.util.DebugModeUtil;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.TbActorCtx;
+import org.thingsboard.server.actors.TbActorId;
 import org.thingsboard.server.actors.TbActorRef;
 import org.thingsboard.server.actors.TbEntityActorId;
 import org.thingsboard.server.actors.service.DefaultActorService;
@@ -36,6 +37,7 @@ import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.rule.RuleChain;
 import org.thingsboard.server.common.data.rule.RuleChainType;
 import org.thingsboard.server.common.data.rule.RuleNode;
+import org.thingsboard.server.common.msg.TbActorMsg;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.plugin.ComponentLifecycleMsg;
 import org.thingsboard.server.common.msg.plugin.RuleNodeUpdatedMsg;
@@ -53,6 +55,7 @@ import org.thingsboard.server.queue.common.TbQueueTbMsgCallbackWrapper;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -72,6 +75,13 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
     private final Map<RuleNodeId, List<RuleNodeRelation>> nodeRoutes;
     private final RuleChainService service;
     private final TbClusterService clusterService;
+    private final Map<RuleNodeId, FusedRuleNode> fusedNodes;
+    private final TbActorRef fusedChainRef;
+    private final boolean fusionEnabled;
+    private final int fusionMaxDepth;
+    private volatile Thread fusionThread;
+    private int fusionDepth;
+    private long fusedHops;
     private String ruleChainName;
 
     private RuleNodeId firstId;
@@ -87,6 +97,10 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         this.nodeRoutes = new HashMap<>();
         this.service = systemContext.getRuleChainService();
         this.clusterService = systemContext.getClusterService();
+        this.fusedNodes = new HashMap<>();
+        this.fusedChainRef = new FusedChainActorRef();
+        this.fusionEnabled = systemContext.isRuleChainFusionEnabled();
+        this.fusionMaxDepth = systemContext.getRuleChainFusionMaxDepth();
     }
 
     @Override
@@ -107,6 +121,7 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                     TbActorRef ruleNodeActor = createRuleNodeActor(context, ruleNode);
                     nodeActors.put(ruleNode.getId(), new RuleNodeCtx(tenantId, self, ruleNodeActor, ruleNode));
                 }
+                initFusedNodes(ruleNodeList);
                 initRoutes(ruleChain, ruleNodeList);
                 started = true;
             }
@@ -143,6 +158,7 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                 removed.getSelfActor().tellWithHighPriority(new ComponentLifecycleMsg(tenantId, removed.getSelf().getId(), ComponentLifecycleEvent.DELETED));
             });
 
+            initFusedNodes(ruleNodeList);
             initRoutes(ruleChain, ruleNodeList);
         }
     }
@@ -152,6 +168,8 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         log.trace("[{}][{}] Stopping rule chain with {} nodes", tenantId, entityId, nodeActors.size());
         nodeActors.values().stream().map(RuleNodeCtx::getSelfActor).map(TbActorRef::getActorId).forEach(ctx::stop);
         nodeActors.clear();
+        fusedNodes.values().forEach(FusedRuleNode::stop);
+        fusedNodes.clear();
         nodeRoutes.clear();
         started = false;
     }
@@ -160,6 +178,19 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
     public void onPartitionChangeMsg(PartitionChangeMsg msg) {
         log.debug("[{}][{}] onPartitionChangeMsg: [{}]", tenantId, entityId, msg);
         nodeActors.values().stream().map(RuleNodeCtx::getSelfActor).forEach(actorRef -> actorRef.tellWithHighPriority(msg));
+        fusedNodes.values().forEach(fusedNode -> fusedNode.onPartitionChangeMsg(msg));
+    }
+
+    void onStatsPersistTick() {
+        fusedNodes.values().forEach(FusedRuleNode::persistStats);
+        if (fusedHops > 0) {
+            log.debug("[{}][{}] Saved {} actor mailbox hops by executing fused rule nodes inline", tenantId, entityId, fusedHops);
+            fusedHops = 0;
+        }
+    }
+
+    long getFusedHops() {
+        return fusedHops;
     }
 
     private TbActorRef createRuleNodeActor(TbActorCtx ctx, RuleNode ruleNode) {
@@ -169,6 +200,45 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
                 () -> true);
     }
 
+    private void initFusedNodes(List<RuleNode> ruleNodeList) {
+        if (!fusionEnabled) {
+            return;
+        }
+        Set<RuleNodeId> fusibleNodes = new HashSet<>();
+        for (RuleNode ruleNode : ruleNodeList) {
+            if (!isFusible(ruleNode)) {
+                continue;
+            }
+            fusibleNodes.add(ruleNode.getId());
+            FusedRuleNode fusedNode = fusedNodes.get(ruleNode.getId());
+            try {
+                if (fusedNode == null) {
+                    RuleNodeCtx nodeCtx = nodeActors.get(ruleNode.getId());
+                    fusedNode = new FusedRuleNode(systemContext, ruleChainName, new RuleNodeCtx(tenantId, fusedChainRef, nodeCtx.getSelfActor(), ruleNode));
+                    fusedNode.start();
+                    fusedNodes.put(ruleNode.getId(), fusedNode);
+                } else {
+                    fusedNode.update();
+                }
+            } catch (Exception e) {
+                log.warn("[{}][{}][{}] Failed to init fused rule node. Messages will be delivered via rule node actor", tenantId, entityId, ruleNode.getId(), e);
+                fusibleNodes.remove(ruleNode.getId());
+            }
+        }
+        fusedNodes.values().removeIf(fusedNode -> {
+            if (fusibleNodes.contains(fusedNode.getId())) {
+                return false;
+            }
+            fusedNode.stop();
+            return true;
+        });
+        log.debug("[{}][{}] Executing {} rule nodes inline", tenantId, entityId, fusedNodes.size());
+    }
+
+    private boolean isFusible(RuleNode ruleNode) {
+        return !ruleNode.isSingletonMode() && systemContext.getRuleChainFusionNodeTypes().contains(ruleNode.getType());
+    }
+
     private void initRoutes(RuleChain ruleChain, List<RuleNode> ruleNodeList) {
         nodeRoutes.clear();
         // Populating the routes map;
@@ -400,6 +470,11 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
 
     private void pushMsgToNode(RuleNodeCtx nodeCtx, TbMsg msg, String fromRelationType) {
         if (nodeCtx != null) {
+            FusedRuleNode fusedNode = fusedNodes.isEmpty() ? null : fusedNodes.get(nodeCtx.getSelf().getId());
+            if (fusedNode != null && fusionDepth < fusionMaxDepth) {
+                pushMsgToFusedNode(fusedNode, msg, fromRelationType);
+                return;
+            }
             var tbCtx = new DefaultTbContext(systemContext, ruleChainName, nodeCtx);
             nodeCtx.getSelfActor().tell(new RuleChainToRuleNodeMsg(tbCtx, msg, fromRelationType));
         } else {
@@ -408,10 +483,53 @@ public class RuleChainActorMessageProcessor extends ComponentMsgProcessor<RuleCh
         }
     }
 
+    private void pushMsgToFusedNode(FusedRuleNode fusedNode, TbMsg msg, String fromRelationType) {
+        if (fusionDepth++ == 0) {
+            fusionThread = Thread.currentThread();
+        }
+        try {
+            fusedHops++;
+            fusedNode.onMsg(msg, fromRelationType);
+        } finally {
+            if (--fusionDepth == 0) {
+                fusionThread = null;
+            }
+        }
+    }
+
     @Override
     protected RuleNodeException getInactiveException() {
         RuleNode firstRuleNode = firstNode != null ? firstNode.getSelf() : null;
         return new RuleNodeException("Rule Chain is not active!  Failed to initialize.", ruleChainName, firstRuleNode);
     }
 
+    /**
+     * Chain actor reference used by fused rule nodes. Tell next messages produced synchronously by a fused rule node
+     * are processed in the current actor turn; everything else (asynchronous callbacks, other message types)
+     * goes through the rule chain actor mailbox as usual.
+     */
+    private class FusedChainActorRef implements TbActorRef {
+
+        @Override
+        public TbActorId getActorId() {
+            return self.getActorId();
+        }
+
+        @Override
+        public void tell(TbActorMsg actorMsg) {
+            if (fusionThread == Thread.currentThread() && actorMsg instanceof RuleNodeToRuleChainTellNextMsg tellNextMsg) {
+                fusedHops++;
+                onTellNext(tellNextMsg);
+            } else {
+                self.tell(actorMsg);
+            }
+        }
+
+        @Override
+        public void tellWithHighPriority(TbActorMsg actorMsg) {
+            self.tellWithHighPriority(actorMsg);
+        }
+
+    }
+
 }
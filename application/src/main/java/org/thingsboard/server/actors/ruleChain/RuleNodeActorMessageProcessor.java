@@ -61,6 +61,19 @@ public class RuleNodeActorMessageProcessor extends ComponentMsgProcessor<RuleNod
         this.info = new RuleNodeInfo(ruleNodeId, ruleChainName, getName(ruleNode));
     }
 
+    /**
+     * Creates a processor that is hosted by the rule chain actor for fused (inline) execution.
+     * The node context routes tell next calls back to the rule chain processor instead of the actor mailbox.
+     */
+    RuleNodeActorMessageProcessor(TenantId tenantId, String ruleChainName, ActorSystemContext systemContext, RuleNodeCtx nodeCtx) {
+        super(systemContext, tenantId, nodeCtx.getSelf().getId());
+        this.apiUsageClient = systemContext.getApiUsageClient();
+        this.ruleChainName = ruleChainName;
+        this.ruleNode = nodeCtx.getSelf();
+        this.defaultCtx = new DefaultTbContext(systemContext, ruleChainName, nodeCtx);
+        this.info = new RuleNodeInfo(entityId, ruleChainName, getName(ruleNode));
+    }
+
     @Override
     public void start(TbActorCtx context) throws Exception {
         if (isMyNodePartition()) {
@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.actors.service;
 
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
@@ -28,18 +29,25 @@ import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.actors.DefaultTbActorSystem;
 import org.thingsboard.server.actors.TbActorRef;
 import org.thingsboard.server.actors.TbActorSystem;
+import org.thingsboard.server.actors.TbActorSystemMetrics;
 import org.thingsboard.server.actors.TbActorSystemSettings;
+import org.thingsboard.server.actors.TbActorTypeStats;
+import org.thingsboard.server.actors.TbDispatcherStats;
 import org.thingsboard.server.actors.app.AppActor;
 import org.thingsboard.server.actors.app.AppInitMsg;
 import org.thingsboard.server.actors.stats.StatsActor;
+import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.msg.queue.PartitionChangeMsg;
 import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.common.stats.StatsType;
 import org.thingsboard.server.queue.discovery.TbApplicationEventListener;
 import org.thingsboard.server.queue.discovery.event.PartitionChangeEvent;
 import org.thingsboard.server.queue.util.AfterStartUp;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
@@ -52,9 +60,16 @@ public class DefaultActorService extends TbApplicationEventListener<PartitionCha
     public static final String CF_MANAGER_DISPATCHER_NAME = "cf-manager-dispatcher";
     public static final String CF_ENTITY_DISPATCHER_NAME = "cf-entity-dispatcher";
 
+    private static final String PLATFORM_DISPATCHER_TYPE = "platform";
+    private static final String VIRTUAL_DISPATCHER_TYPE = "virtual";
+    private static final String TRACE_PINNED_THREADS_PROPERTY = "jdk.tracePinnedThreads";
+
     @Autowired
     private ActorSystemContext actorContext;
 
+    @Autowired
+    private StatsFactory statsFactory;
+
     private TbActorSystem system;
 
     private TbActorRef appActor;
@@ -65,6 +80,9 @@ public class DefaultActorService extends TbApplicationEventListener<PartitionCha
     @Value("${actors.system.max_actor_init_attempts:10}")
     private int maxActorInitAttempts;
 
+    @Value("${actors.system.coalescing_batch_size:0}")
+    private int coalescingBatchSize;
+
     @Value("${actors.system.scheduler_pool_size:1}")
     private int schedulerPoolSize;
 
@@ -86,20 +104,47 @@ public class DefaultActorService extends TbApplicationEventListener<PartitionCha
     @Value("${actors.system.cfe_dispatcher_pool_size:8}")
     private int calculatedFieldEntityDispatcherSize;
 
+    @Value("${actors.system.app_dispatcher_type:platform}")
+    private String appDispatcherType;
+
+    @Value("${actors.system.tenant_dispatcher_type:platform}")
+    private String tenantDispatcherType;
+
+    @Value("${actors.system.device_dispatcher_type:platform}")
+    private String deviceDispatcherType;
+
+    @Value("${actors.system.rule_dispatcher_type:platform}")
+    private String ruleDispatcherType;
+
+    @Value("${actors.system.cfm_dispatcher_type:platform}")
+    private String calculatedFieldManagerDispatcherType;
+
+    @Value("${actors.system.cfe_dispatcher_type:platform}")
+    private String calculatedFieldEntityDispatcherType;
+
+    @Value("${actors.system.virtual_threads.trace_pinned:}")
+    private String tracePinnedThreads;
+
+    @Value("${actors.system.metrics.enabled:false}")
+    private boolean metricsEnabled;
+
+    @Value("${actors.system.metrics.sample_rate:64}")
+    private int metricsSampleRate;
 
     @PostConstruct
     public void initActorSystem() {
         log.info("Initializing actor system.");
         actorContext.setActorService(this);
-        TbActorSystemSettings settings = new TbActorSystemSettings(actorThroughput, schedulerPoolSize, maxActorInitAttempts);
-        system = new DefaultTbActorSystem(settings);
+        TbActorSystemSettings settings = new TbActorSystemSettings(actorThroughput, schedulerPoolSize, maxActorInitAttempts, coalescingBatchSize);
+        system = new DefaultTbActorSystem(settings, initMetrics());
 
-        system.createDispatcher(APP_DISPATCHER_NAME, initDispatcherExecutor(APP_DISPATCHER_NAME, appDispatcherSize));
-        system.createDispatcher(TENANT_DISPATCHER_NAME, initDispatcherExecutor(TENANT_DISPATCHER_NAME, tenantDispatcherSize));
-        system.createDispatcher(DEVICE_DISPATCHER_NAME, initDispatcherExecutor(DEVICE_DISPATCHER_NAME, deviceDispatcherSize));
-        system.createDispatcher(RULE_DISPATCHER_NAME, initDispatcherExecutor(RULE_DISPATCHER_NAME, ruleDispatcherSize));
-        system.createDispatcher(CF_MANAGER_DISPATCHER_NAME, initDispatcherExecutor(CF_MANAGER_DISPATCHER_NAME, calculatedFieldManagerDispatcherSize));
-        system.createDispatcher(CF_ENTITY_DISPATCHER_NAME, initDispatcherExecutor(CF_ENTITY_DISPATCHER_NAME, calculatedFieldEntityDispatcherSize));
+        initPinnedThreadsTracing();
+        system.createDispatcher(APP_DISPATCHER_NAME, initDispatcherExecutor(APP_DISPATCHER_NAME, appDispatcherSize, appDispatcherType));
+        system.createDispatcher(TENANT_DISPATCHER_NAME, initDispatcherExecutor(TENANT_DISPATCHER_NAME, tenantDispatcherSize, tenantDispatcherType));
+        system.createDispatcher(DEVICE_DISPATCHER_NAME, initDispatcherExecutor(DEVICE_DISPATCHER_NAME, deviceDispatcherSize, deviceDispatcherType));
+        system.createDispatcher(RULE_DISPATCHER_NAME, initDispatcherExecutor(RULE_DISPATCHER_NAME, ruleDispatcherSize, ruleDispatcherType));
+        system.createDispatcher(CF_MANAGER_DISPATCHER_NAME, initDispatcherExecutor(CF_MANAGER_DISPATCHER_NAME, calculatedFieldManagerDispatcherSize, calculatedFieldManagerDispatcherType));
+        system.createDispatcher(CF_ENTITY_DISPATCHER_NAME, initDispatcherExecutor(CF_ENTITY_DISPATCHER_NAME, calculatedFieldEntityDispatcherSize, calculatedFieldEntityDispatcherType));
 
         actorContext.setActorSystem(system);
 
@@ -112,7 +157,22 @@ public class DefaultActorService extends TbApplicationEventListener<PartitionCha
         log.info("Actor system initialized.");
     }
 
-    private ExecutorService initDispatcherExecutor(String dispatcherName, int poolSize) {
+    private ExecutorService initDispatcherExecutor(String dispatcherName, int poolSize, String dispatcherType) {
+        if (VIRTUAL_DISPATCHER_TYPE.equalsIgnoreCase(dispatcherType)) {
+            if (ThingsBoardExecutors.isVirtualThreadSupported()) {
+                try {
+                    ExecutorService executor = ThingsBoardExecutors.newVirtualThreadPerTaskExecutor(dispatcherName);
+                    log.info("[{}] Using virtual thread per task dispatcher", dispatcherName);
+                    return executor;
+                } catch (UnsupportedOperationException e) {
+                    log.warn("[{}] Failed to create virtual thread dispatcher: {}", dispatcherName, e.getMessage());
+                }
+            }
+            log.warn("[{}] Virtual thread dispatcher is not supported by Java {}. Falling back to platform thread pool with size {}",
+                    dispatcherName, Runtime.version().feature(), poolSize);
+        } else if (!PLATFORM_DISPATCHER_TYPE.equalsIgnoreCase(dispatcherType)) {
+            log.warn("[{}] Unknown dispatcher type [{}]. Using platform thread pool", dispatcherName, dispatcherType);
+        }
         if (poolSize == 0) {
             int cores = Runtime.getRuntime().availableProcessors();
             poolSize = Math.max(1, cores / 2);
@@ -124,6 +184,42 @@ public class DefaultActorService extends TbApplicationEventListener<PartitionCha
         }
     }
 
+    private TbActorSystemMetrics initMetrics() {
+        if (!metricsEnabled) {
+            return null;
+        }
+        log.info("Actor system metrics enabled with sample rate {}", metricsSampleRate);
+        String type = StatsType.ACTOR_SYSTEM.getName();
+        return new TbActorSystemMetrics(metricsSampleRate, new TbActorSystemMetrics.Listener() {
+            @Override
+            public void onDispatcherRegistered(TbDispatcherStats stats) {
+                statsFactory.createGauge(type, "dispatcherBacklog", stats, TbDispatcherStats::getBacklog, "dispatcher", stats.getDispatcherId());
+            }
+
+            @Override
+            public void onActorTypeRegistered(TbActorTypeStats stats) {
+                String actorType = stats.getActorType();
+                statsFactory.createGauge(type, "activeActors", stats, TbActorTypeStats::getActive, "actorType", actorType);
+                statsFactory.createGauge(type, "initFailures", stats, TbActorTypeStats::getInitFailures, "actorType", actorType);
+                Timer timer = statsFactory.createTimer(type + ".processing", "actorType", actorType);
+                stats.setRecorder(nanos -> timer.record(nanos, TimeUnit.NANOSECONDS));
+            }
+        });
+    }
+
+    /*
+     * Pinned virtual threads (blocking inside synchronized blocks or native frames) occupy the carrier thread.
+     * The JDK reports them once the property is set, but only if it is set before the first virtual thread starts.
+     * */
+    private void initPinnedThreadsTracing() {
+        if (StringUtils.isNotBlank(tracePinnedThreads)) {
+            if (System.getProperty(TRACE_PINNED_THREADS_PROPERTY) == null) {
+                System.setProperty(TRACE_PINNED_THREADS_PROPERTY, tracePinnedThreads.trim());
+            }
+            log.info("Pinned virtual threads tracing mode: {}", System.getProperty(TRACE_PINNED_THREADS_PROPERTY));
+        }
+    }
+
     @AfterStartUp(order = AfterStartUp.ACTOR_SYSTEM)
     public void onApplicationEvent(ApplicationReadyEvent applicationReadyEvent) {
         log.info("Received application ready event. Sending application init message to actor system");
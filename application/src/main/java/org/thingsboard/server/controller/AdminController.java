@@ -50,6 +50,9 @@ import org.springframework.web.context.request.async.DeferredResult;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.rule.engine.api.MailService;
 import org.thingsboard.rule.engine.api.SmsService;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.TbActorSystem;
+import org.thingsboard.server.actors.TbActorSystemStats;
 import org.thingsboard.server.common.data.AdminSettings;
 import org.thingsboard.server.common.data.FeaturesInfo;
 import org.thingsboard.server.common.data.StringUtils;
@@ -117,6 +120,7 @@ public class AdminController extends BaseController {
     private final UpdateService updateService;
     private final SystemInfoService systemInfoService;
     private final AuditLogService auditLogService;
+    private final ActorSystemContext actorContext;
 
     @Value("${queue.vc.request-timeout:180000}")
     private int vcRequestTimeout;
@@ -394,6 +398,20 @@ public class AdminController extends BaseController {
         return systemInfoService.getSystemInfo();
     }
 
+    @ApiOperation(value = "Get actor system stats (getActorSystemStats)",
+            notes = "Get backlog of the actor system dispatchers, lifecycle counters and sampled message processing time per actor type " +
+                    "and the actors that spent most time processing messages. Available only if 'actors.system.metrics.enabled' is set. "
+                    + SYSTEM_AUTHORITY_PARAGRAPH)
+    @PreAuthorize("hasAuthority('SYS_ADMIN')")
+    @GetMapping(value = "/actorSystem/stats")
+    public TbActorSystemStats getActorSystemStats(
+            @Parameter(description = "Maximum number of the slowest actors to return")
+            @RequestParam(required = false, defaultValue = "10") int topActorsLimit) throws ThingsboardException {
+        TbActorSystem actorSystem = actorContext.getActorSystem();
+        TbActorSystemStats stats = actorSystem != null ? actorSystem.getStats(topActorsLimit) : null;
+        return checkNotNull(stats, "Actor system metrics are disabled");
+    }
+
     @ApiOperation(value = "Get features info (getFeaturesInfo)",
             notes = "Get information about enabled/disabled features. "
                     + SYSTEM_AUTHORITY_PARAGRAPH)
@@ -227,6 +227,15 @@ public class DefaultTbClusterService implements TbClusterService {
         toCoreNfs.incrementAndGet();
     }
 
+    @Override
+    public void pushNotificationToCore(String targetServiceId, TransportProtos.DeviceStateHandoffMsgProto handoffMsg, TbQueueCallback callback) {
+        TopicPartitionInfo tpi = topicService.getNotificationsTopic(ServiceType.TB_CORE, targetServiceId);
+        log.trace("PUSHING device state handoff for partition {} ({} states) to:{}", handoffMsg.getPartition(), handoffMsg.getStatesCount(), tpi);
+        ToCoreNotificationMsg msg = ToCoreNotificationMsg.newBuilder().setDeviceStateHandoffMsg(handoffMsg).build();
+        producerProvider.getTbCoreNotificationsMsgProducer().send(tpi, new TbProtoQueueMsg<>(UUID.randomUUID(), msg), callback);
+        toCoreNfs.incrementAndGet();
+    }
+
     @Override
     public void pushMsgToRuleEngine(TopicPartitionInfo tpi, UUID msgId, ToRuleEngineMsg msg, TbQueueCallback callback) {
         log.trace("PUSHING msg: {} to:{}", msg, tpi);
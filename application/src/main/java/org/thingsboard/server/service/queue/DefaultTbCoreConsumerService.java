@@ -30,6 +30,7 @@ import org.thingsboard.common.util.DonAsynchron;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.calculatedField.MultipleTbCallback;
 import org.thingsboard.server.common.data.JavaSerDesUtil;
 import org.thingsboard.server.common.data.alarm.AlarmInfo;
 import org.thingsboard.server.common.data.edqs.ToCoreEdqsMsg;
@@ -278,6 +279,9 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
                     } else if (toCoreMsg.hasToDeviceActorMsg()) {
                         log.trace("[{}] Forwarding message to device actor {}", id, toCoreMsg.getToDeviceActorMsg());
                         forwardToDeviceActor(toCoreMsg.getToDeviceActorMsg(), callback);
+                    } else if (toCoreMsg.hasToDeviceActorBatchMsg()) {
+                        log.trace("[{}] Forwarding batch of {} messages to device actors", id, toCoreMsg.getToDeviceActorBatchMsg().getMsgsCount());
+                        forwardToDeviceActor(toCoreMsg.getToDeviceActorBatchMsg(), callback);
                     } else if (toCoreMsg.hasDeviceStateServiceMsg()) {
                         log.trace("[{}] Forwarding message to device state service {}", id, toCoreMsg.getDeviceStateServiceMsg());
                         forwardToStateService(toCoreMsg.getDeviceStateServiceMsg(), callback);
@@ -396,6 +400,9 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
             callback.onSuccess();
         } else if (toCoreNotification.hasResourceCacheInvalidateMsg()) {
             forwardToResourceService(toCoreNotification.getResourceCacheInvalidateMsg(), callback);
+        } else if (toCoreNotification.hasDeviceStateHandoffMsg()) {
+            log.trace("[{}] Forwarding device state handoff of partition {} to device state service", id, toCoreNotification.getDeviceStateHandoffMsg().getPartition());
+            stateService.onHandoffMsg(toCoreNotification.getDeviceStateHandoffMsg(), callback);
         } else if (toCoreNotification.hasToEdqsCoreServiceMsg()) {
             edqsService.processSystemMsg(JacksonUtil.fromBytes(toCoreNotification.getToEdqsCoreServiceMsg().getValue().toByteArray(), ToCoreEdqsMsg.class));
             callback.onSuccess();
@@ -687,6 +694,18 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
         }
     }
 
+    private void forwardToDeviceActor(TransportProtos.TransportToDeviceActorBatchMsg batchMsg, TbCallback callback) {
+        List<TransportToDeviceActorMsg> msgs = batchMsg.getMsgsList();
+        if (msgs.isEmpty()) {
+            callback.onSuccess();
+            return;
+        }
+        MultipleTbCallback multipleCallback = new MultipleTbCallback(msgs.size(), callback);
+        for (TransportToDeviceActorMsg toDeviceActorMsg : msgs) {
+            forwardToDeviceActor(toDeviceActorMsg, multipleCallback);
+        }
+    }
+
     private void forwardToDeviceActor(TransportToDeviceActorMsg toDeviceActorMsg, TbCallback callback) {
         if (statsEnabled) {
             stats.log(toDeviceActorMsg);
@@ -19,6 +19,7 @@ import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.msg.queue.RuleEngineException;
+import org.thingsboard.server.common.stats.DefaultCounter;
 import org.thingsboard.server.common.stats.StatsCounter;
 import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.common.stats.StatsType;
@@ -29,9 +30,11 @@ import org.thingsboard.server.service.queue.processing.TbRuleEngineProcessingRes
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 public class TbRuleEngineConsumerStats {
@@ -44,7 +47,12 @@ public class TbRuleEngineConsumerStats {
     public static final String FAILED_MSGS = "failedMsgs";
     public static final String SUCCESSFUL_ITERATIONS = "successfulIterations";
     public static final String FAILED_ITERATIONS = "failedIterations";
+    public static final String PACK_TIMEOUTS = "packTimeouts";
+    public static final String RETRIED_MSGS = "retriedMsgs";
     public static final String TENANT_ID_TAG = "tenantId";
+    public static final String PARTITION_TAG = "partition";
+    public static final String OTHER_TENANTS_TAG = "other";
+    public static final int DEFAULT_MAX_TENANT_TAGS = 100;
 
     private final StatsFactory statsFactory;
 
@@ -59,18 +67,31 @@ public class TbRuleEngineConsumerStats {
     private final StatsCounter successIterationsCounter;
     private final StatsCounter failedIterationsCounter;
 
+    private final StatsCounter packTimeoutsCounter;
+    private final StatsCounter retriedMsgsCounter;
+
     private final List<StatsCounter> counters = new ArrayList<>();
     private final ConcurrentMap<UUID, TbTenantRuleEngineStats> tenantStats = new ConcurrentHashMap<>();
-    private final ConcurrentMap<TenantId, Timer> tenantMsgProcessTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> tenantMsgProcessTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DefaultCounter> tenantMsgCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> packProcessTimers = new ConcurrentHashMap<>();
+    private final Set<UUID> taggedTenants = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger taggedTenantsCount = new AtomicInteger();
     private final ConcurrentMap<TenantId, RuleEngineException> tenantExceptions = new ConcurrentHashMap<>();
 
     private final String queueName;
     private final TenantId tenantId;
+    private final int maxTenantTags;
 
     public TbRuleEngineConsumerStats(QueueKey queueKey, StatsFactory statsFactory) {
+        this(queueKey, statsFactory, DEFAULT_MAX_TENANT_TAGS);
+    }
+
+    public TbRuleEngineConsumerStats(QueueKey queueKey, StatsFactory statsFactory, int maxTenantTags) {
         this.queueName = queueKey.getQueueName();
         this.tenantId = queueKey.getTenantId();
         this.statsFactory = statsFactory;
+        this.maxTenantTags = maxTenantTags;
 
         String statsKey = StatsType.RULE_ENGINE.getName() + "." + queueName;
         String tenant = tenantId == null || tenantId.isSysTenantId() ? "system" : tenantId.toString();
@@ -82,6 +103,8 @@ public class TbRuleEngineConsumerStats {
         this.tmpFailedMsgCounter = statsFactory.createStatsCounter(statsKey, TMP_FAILED, TENANT_ID_TAG, tenant);
         this.successIterationsCounter = statsFactory.createStatsCounter(statsKey, SUCCESSFUL_ITERATIONS, TENANT_ID_TAG, tenant);
         this.failedIterationsCounter = statsFactory.createStatsCounter(statsKey, FAILED_ITERATIONS, TENANT_ID_TAG, tenant);
+        this.packTimeoutsCounter = statsFactory.createStatsCounter(statsKey, PACK_TIMEOUTS, TENANT_ID_TAG, tenant);
+        this.retriedMsgsCounter = statsFactory.createStatsCounter(statsKey, RETRIED_MSGS, TENANT_ID_TAG, tenant);
 
         counters.add(totalMsgCounter);
         counters.add(successMsgCounter);
@@ -92,23 +115,64 @@ public class TbRuleEngineConsumerStats {
         counters.add(tmpFailedMsgCounter);
         counters.add(successIterationsCounter);
         counters.add(failedIterationsCounter);
+        counters.add(packTimeoutsCounter);
+        counters.add(retriedMsgsCounter);
     }
 
     public Timer getTimer(TenantId tenantId, String status) {
-        return tenantMsgProcessTimers.computeIfAbsent(tenantId,
-                id -> statsFactory.createTimer(StatsType.RULE_ENGINE.getName() + "." + queueName,
-                        "tenantId", tenantId.getId().toString(),
+        String tenantTag = getTenantTag(tenantId.getId());
+        return tenantMsgProcessTimers.computeIfAbsent(tenantTag + "_" + status,
+                key -> statsFactory.createTimer(StatsType.RULE_ENGINE.getName() + "." + queueName,
+                        TENANT_ID_TAG, tenantTag,
                         "status", status
                 ));
     }
 
+    /**
+     * @param partition partition of the consumer that processed the pack, or "all" if the consumer reads all partitions of the queue
+     */
+    public Timer getPackTimer(String partition) {
+        return packProcessTimers.computeIfAbsent(partition,
+                key -> statsFactory.createTimer(StatsType.RULE_ENGINE.getName() + "." + queueName + ".pack",
+                        PARTITION_TAG, partition));
+    }
+
+    public void logRetry(int retriedMsgs) {
+        retriedMsgsCounter.add(retriedMsgs);
+    }
+
+    /**
+     * Tenants are tagged by id until the max number of tagged tenants is reached, the rest share the "other" tag.
+     * Keeps the number of the per-tenant time series bounded for the deployments with many tenants.
+     */
+    String getTenantTag(UUID tenantId) {
+        if (taggedTenants.contains(tenantId)) {
+            return tenantId.toString();
+        }
+        // the slot is reserved before the tenant is added, so the concurrent callers can't exceed the limit
+        if (taggedTenantsCount.getAndUpdate(count -> count < maxTenantTags ? count + 1 : count) < maxTenantTags) {
+            if (!taggedTenants.add(tenantId)) {
+                // the tenant was tagged by a concurrent caller meanwhile
+                taggedTenantsCount.decrementAndGet();
+            }
+            return tenantId.toString();
+        }
+        return OTHER_TENANTS_TAG;
+    }
+
     public void log(TbRuleEngineProcessingResult msg, boolean finalIterationForPack) {
         int success = msg.getSuccessMap().size();
         int pending = msg.getPendingMap().size();
         int failed = msg.getFailedMap().size();
         totalMsgCounter.add(success + pending + failed);
         successMsgCounter.add(success);
-        msg.getSuccessMap().values().forEach(m -> getTenantStats(m).logSuccess());
+        msg.getSuccessMap().values().forEach(m -> {
+            getTenantStats(m).logSuccess();
+            getTenantMsgCounter(m).increment();
+        });
+        if (msg.isTimeout()) {
+            packTimeoutsCounter.increment();
+        }
         if (finalIterationForPack) {
             if (pending > 0 || failed > 0) {
                 timeoutMsgCounter.add(pending);
@@ -142,6 +206,13 @@ public class TbRuleEngineConsumerStats {
         return tenantStats.computeIfAbsent(new UUID(reMsg.getTenantIdMSB(), reMsg.getTenantIdLSB()), TbTenantRuleEngineStats::new);
     }
 
+    private DefaultCounter getTenantMsgCounter(TbProtoQueueMsg<ToRuleEngineMsg> m) {
+        ToRuleEngineMsg reMsg = m.getValue();
+        String tenantTag = getTenantTag(new UUID(reMsg.getTenantIdMSB(), reMsg.getTenantIdLSB()));
+        return tenantMsgCounters.computeIfAbsent(tenantTag, tag -> statsFactory.createDefaultCounter(
+                StatsType.RULE_ENGINE.getName() + "." + queueName + ".tenantMsgs", TENANT_ID_TAG, tag));
+    }
+
     public ConcurrentMap<UUID, TbTenantRuleEngineStats> getTenantStats() {
         return tenantStats;
     }
@@ -34,19 +34,27 @@ import java.util.concurrent.TimeUnit;
 public class TbRuleEngineProcessingStrategyFactory {
 
     public TbRuleEngineProcessingStrategy newInstance(String name, ProcessingStrategy processingStrategy) {
+        return newInstance(name, processingStrategy, true);
+    }
+
+    /**
+     * @param pauseBetweenRetries whether to pause before the reprocessing of the pack. Disabled when the messages
+     *                            to reprocess are published to the retry topic and the pause is applied by its consumer
+     */
+    public TbRuleEngineProcessingStrategy newInstance(String name, ProcessingStrategy processingStrategy, boolean pauseBetweenRetries) {
         switch (processingStrategy.getType()) {
             case SKIP_ALL_FAILURES:
                 return new SkipStrategy(name, false);
             case SKIP_ALL_FAILURES_AND_TIMED_OUT:
                 return new SkipStrategy(name, true);
             case RETRY_ALL:
-                return new RetryStrategy(name, true, true, true, processingStrategy);
+                return new RetryStrategy(name, true, true, true, pauseBetweenRetries, processingStrategy);
             case RETRY_FAILED:
-                return new RetryStrategy(name, false, true, false, processingStrategy);
+                return new RetryStrategy(name, false, true, false, pauseBetweenRetries, processingStrategy);
             case RETRY_TIMED_OUT:
-                return new RetryStrategy(name, false, false, true, processingStrategy);
+                return new RetryStrategy(name, false, false, true, pauseBetweenRetries, processingStrategy);
             case RETRY_FAILED_AND_TIMED_OUT:
-                return new RetryStrategy(name, false, true, true, processingStrategy);
+                return new RetryStrategy(name, false, true, true, pauseBetweenRetries, processingStrategy);
             default:
                 throw new RuntimeException("TbRuleEngineProcessingStrategy with type " + processingStrategy.getType() + " is not supported!");
         }
@@ -60,13 +68,14 @@ public class TbRuleEngineProcessingStrategyFactory {
         private final int maxRetries;
         private final double maxAllowedFailurePercentage;
         private final long maxPauseBetweenRetries;
+        private final boolean pauseEnabled;
 
         private long pauseBetweenRetries;
 
         private int initialTotalCount;
         private int retryCount;
 
-        public RetryStrategy(String queueName, boolean retrySuccessful, boolean retryFailed, boolean retryTimeout, ProcessingStrategy processingStrategy) {
+        public RetryStrategy(String queueName, boolean retrySuccessful, boolean retryFailed, boolean retryTimeout, boolean pauseEnabled, ProcessingStrategy processingStrategy) {
             this.queueName = queueName;
             this.retrySuccessful = retrySuccessful;
             this.retryFailed = retryFailed;
@@ -75,6 +84,7 @@ public class TbRuleEngineProcessingStrategyFactory {
             this.maxAllowedFailurePercentage = processingStrategy.getFailurePercentage();
             this.pauseBetweenRetries = processingStrategy.getPauseBetweenRetries();
             this.maxPauseBetweenRetries = processingStrategy.getMaxPauseBetweenRetries();
+            this.pauseEnabled = pauseEnabled;
         }
 
         @Override
@@ -127,7 +137,7 @@ public class TbRuleEngineProcessingStrategyFactory {
                     if (log.isTraceEnabled()) {
                         toReprocess.forEach((id, msg) -> log.trace("Going to reprocess [{}]: {}", id, ProtoUtils.fromTbMsgProto(result.getQueueName(), msg.getValue(), TbMsgCallback.EMPTY)));
                     }
-                    if (pauseBetweenRetries > 0) {
+                    if (pauseEnabled && pauseBetweenRetries > 0) {
                         try {
                             Thread.sleep(TimeUnit.SECONDS.toMillis(pauseBetweenRetries));
                         } catch (InterruptedException e) {
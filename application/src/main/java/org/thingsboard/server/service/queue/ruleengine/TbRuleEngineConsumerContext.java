@@ -21,6 +21,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.dao.tenant.TbTenantProfileCache;
 import org.thingsboard.server.queue.TbQueueAdmin;
 import org.thingsboard.server.queue.discovery.PartitionService;
 import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
@@ -45,10 +46,34 @@ public class TbRuleEngineConsumerContext {
     private boolean statsEnabled;
     @Value("${queue.rule-engine.prometheus-stats.enabled:false}")
     private boolean prometheusStatsEnabled;
+    @Value("${queue.rule-engine.stats.max-tenant-tags:100}")
+    private int statsMaxTenantTags;
     @Value("${queue.rule-engine.topic-deletion-delay:15}")
     private int topicDeletionDelayInSec;
     @Value("${queue.rule-engine.management-thread-pool-size:12}")
     private int mgmtThreadPoolSize;
+    @Value("${queue.rule-engine.pipeline.enabled:false}")
+    private boolean pipelineEnabled;
+    @Value("${queue.rule-engine.pipeline.max_packs_in_flight:4}")
+    private int pipelineMaxPacksInFlight;
+    @Value("${queue.rule-engine.pipeline.min_pack_size:50}")
+    private int pipelineMinPackSize;
+    @Value("${queue.rule-engine.pipeline.max_pack_size:1000}")
+    private int pipelineMaxPackSize;
+    @Value("${queue.rule-engine.pipeline.target_pack_latency_ms:500}")
+    private long pipelineTargetPackLatencyMs;
+    @Value("${queue.rule-engine.fair_scheduling.enabled:false}")
+    private boolean fairSchedulingEnabled;
+    @Value("${queue.rule-engine.fair_scheduling.quantum:10}")
+    private int fairSchedulingQuantum;
+    @Value("${queue.rule-engine.fair_scheduling.max_in_flight_per_tenant:100}")
+    private int fairSchedulingMaxInFlightPerTenant;
+    @Value("${queue.rule-engine.retry_topic.enabled:false}")
+    private boolean retryTopicEnabled;
+    @Value("${queue.rule-engine.retry_topic.sequential_strategies:false}")
+    private boolean retryTopicSequentialStrategies;
+    @Value("${queue.rule-engine.retry_topic.dlq_enabled:true}")
+    private boolean retryTopicDlqEnabled;
 
     private final ActorSystemContext actorContext;
     private final StatsFactory statsFactory;
@@ -60,5 +85,6 @@ public class TbRuleEngineConsumerContext {
     private final PartitionService partitionService;
     private final TbQueueProducerProvider producerProvider;
     private final TbQueueAdmin queueAdmin;
+    private final TbTenantProfileCache tenantProfileCache;
 
 }
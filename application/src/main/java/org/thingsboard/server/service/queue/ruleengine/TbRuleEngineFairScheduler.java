@@ -0,0 +1,113 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Fair scheduling of the messages polled from a queue shared by many tenants. The polled messages are split into packs
+ * that are processed one after another: each pack contains at most {@code maxInFlightPerTenant * weight} messages of a tenant,
+ * and the messages of the tenants are interleaved within the pack with deficit round robin ({@code quantum * weight} messages
+ * of a tenant per round). The order of the messages of a single tenant is preserved.
+ * <p>
+ * So a burst of a single tenant is spread over several packs, while the messages of the other tenants are processed with the first one.
+ */
+public class TbRuleEngineFairScheduler {
+
+    private final int quantum;
+    private final int maxInFlightPerTenant;
+    private final ToIntFunction<UUID> weightProvider;
+
+    public TbRuleEngineFairScheduler(int quantum, int maxInFlightPerTenant, ToIntFunction<UUID> weightProvider) {
+        this.quantum = Math.max(1, quantum);
+        this.maxInFlightPerTenant = Math.max(1, maxInFlightPerTenant);
+        this.weightProvider = weightProvider;
+    }
+
+    public List<List<TbProtoQueueMsg<ToRuleEngineMsg>>> schedule(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs) {
+        Map<UUID, TenantQueue> tenantQueues = new LinkedHashMap<>();
+        for (TbProtoQueueMsg<ToRuleEngineMsg> msg : msgs) {
+            ToRuleEngineMsg value = msg.getValue();
+            UUID tenantId = new UUID(value.getTenantIdMSB(), value.getTenantIdLSB());
+            tenantQueues.computeIfAbsent(tenantId, id -> new TenantQueue(Math.max(1, weightProvider.applyAsInt(id)))).msgs.add(msg);
+        }
+        if (tenantQueues.size() == 1 && msgs.size() <= tenantQueues.values().iterator().next().getPackLimit()) {
+            return List.of(msgs);
+        }
+        List<List<TbProtoQueueMsg<ToRuleEngineMsg>>> packs = new ArrayList<>();
+        while (!tenantQueues.isEmpty()) {
+            packs.add(nextPack(tenantQueues));
+        }
+        return packs;
+    }
+
+    private List<TbProtoQueueMsg<ToRuleEngineMsg>> nextPack(Map<UUID, TenantQueue> tenantQueues) {
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> pack = new ArrayList<>();
+        Map<UUID, TenantQueue> active = new LinkedHashMap<>(tenantQueues);
+        Map<UUID, Integer> inPack = new HashMap<>();
+        active.values().forEach(queue -> queue.deficit = 0);
+        while (!active.isEmpty()) {
+            Iterator<Map.Entry<UUID, TenantQueue>> it = active.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<UUID, TenantQueue> entry = it.next();
+                TenantQueue queue = entry.getValue();
+                int count = inPack.getOrDefault(entry.getKey(), 0);
+                queue.deficit += quantum * queue.weight;
+                while (queue.deficit > 0 && !queue.msgs.isEmpty() && count < queue.getPackLimit()) {
+                    pack.add(queue.msgs.poll());
+                    queue.deficit--;
+                    count++;
+                }
+                inPack.put(entry.getKey(), count);
+                if (queue.msgs.isEmpty()) {
+                    tenantQueues.remove(entry.getKey());
+                    it.remove();
+                } else if (count >= queue.getPackLimit()) {
+                    it.remove();
+                }
+            }
+        }
+        return pack;
+    }
+
+    private class TenantQueue {
+
+        private final int weight;
+        private final ArrayDeque<TbProtoQueueMsg<ToRuleEngineMsg>> msgs = new ArrayDeque<>();
+        private int deficit;
+
+        private TenantQueue(int weight) {
+            this.weight = weight;
+        }
+
+        private int getPackLimit() {
+            return maxInFlightPerTenant * weight;
+        }
+
+    }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.TbQueueConsumer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps up to {@code maxPacksInFlight} packs of one consumer in processing at the same time.
+ * The consumer position is committed only up to the last pack for which all previous packs are processed too,
+ * so a slow pack delays the commit, but not the processing of the next packs.
+ * <p>
+ * Not thread-safe: all methods must be called from the consumer thread.
+ */
+@Slf4j
+public class TbRuleEnginePackPipeline {
+
+    private final TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer;
+    private final PackProcessor packProcessor;
+    private final Executor executor;
+    private final TbRuleEnginePackSizer packSizer;
+    private final int maxPacksInFlight;
+    private final long waitIntervalMs;
+    private final BooleanSupplier running;
+
+    private final Deque<InFlightPack> inFlight = new ArrayDeque<>();
+
+    public TbRuleEnginePackPipeline(TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer, PackProcessor packProcessor,
+                                    Executor executor, TbRuleEnginePackSizer packSizer, int maxPacksInFlight,
+                                    long waitIntervalMs, BooleanSupplier running) {
+        this.consumer = consumer;
+        this.packProcessor = packProcessor;
+        this.executor = executor;
+        this.packSizer = packSizer;
+        this.maxPacksInFlight = Math.max(1, maxPacksInFlight);
+        this.waitIntervalMs = waitIntervalMs;
+        this.running = running;
+    }
+
+    /**
+     * Splits the polled messages into packs and submits them for processing, waiting while the pipeline is full.
+     *
+     * @param position the consumer position after the poll, committed when the last pack and all previous ones are processed
+     */
+    public void submit(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs, Object position) throws InterruptedException {
+        int packSize = packSizer.getPackSize();
+        for (int from = 0; from < msgs.size(); from += packSize) {
+            int to = Math.min(from + packSize, msgs.size());
+            if (!awaitInFlight(maxPacksInFlight - 1)) {
+                return;
+            }
+            List<TbProtoQueueMsg<ToRuleEngineMsg>> pack = msgs.subList(from, to);
+            CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(() -> process(pack), executor);
+            inFlight.add(new InFlightPack(future, to == msgs.size() ? position : null));
+        }
+        commitCompleted();
+    }
+
+    /**
+     * Waits until all the packs are processed and commits them.
+     */
+    public void drain() throws InterruptedException {
+        awaitInFlight(0);
+    }
+
+    public void commitCompleted() {
+        Object position = null;
+        while (!inFlight.isEmpty() && inFlight.peek().isProcessed()) {
+            InFlightPack pack = inFlight.poll();
+            if (pack.position() != null) {
+                position = pack.position();
+            }
+        }
+        if (position != null) {
+            consumer.commit(position);
+        }
+    }
+
+    public int getPacksInFlight() {
+        return inFlight.size();
+    }
+
+    private boolean awaitInFlight(int maxInFlight) throws InterruptedException {
+        commitCompleted();
+        while (inFlight.size() > maxInFlight) {
+            if (!running.getAsBoolean()) {
+                return false;
+            }
+            try {
+                inFlight.peek().future().get(waitIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException ignored) {
+            }
+            commitCompleted();
+        }
+        return true;
+    }
+
+    private boolean process(List<TbProtoQueueMsg<ToRuleEngineMsg>> pack) {
+        long startTs = System.currentTimeMillis();
+        try {
+            boolean processed = packProcessor.process(pack);
+            if (processed) {
+                packSizer.onPackProcessed(pack.size(), System.currentTimeMillis() - startTs);
+            }
+            return processed;
+        } catch (Exception e) {
+            // same as for the sequential processing: the failed pack does not block the commit of the next ones
+            log.warn("[{}] Failed to process pack of {} messages", consumer.getTopic(), pack.size(), e);
+            return true;
+        }
+    }
+
+    public interface PackProcessor {
+
+        /**
+         * @return true if the pack is processed and can be committed, false if the processing was interrupted by the consumer stop
+         */
+        boolean process(List<TbProtoQueueMsg<ToRuleEngineMsg>> pack) throws Exception;
+
+    }
+
+    private record InFlightPack(CompletableFuture<Boolean> future, Object position) {
+
+        boolean isProcessed() {
+            return future.isDone() && future.join();
+        }
+
+    }
+
+}
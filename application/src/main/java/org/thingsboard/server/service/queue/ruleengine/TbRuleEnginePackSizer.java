@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+/**
+ * Adapts the size of the packs submitted by {@link TbRuleEnginePackPipeline} to the observed processing latency:
+ * the size is halved when a pack takes longer than the target latency, and grows by the minimum pack size
+ * when a full pack is processed in time.
+ */
+public class TbRuleEnginePackSizer {
+
+    private final int minPackSize;
+    private final int maxPackSize;
+    private final long targetLatencyMs;
+
+    private volatile int packSize;
+
+    public TbRuleEnginePackSizer(int minPackSize, int maxPackSize, long targetLatencyMs) {
+        this.minPackSize = Math.max(1, minPackSize);
+        this.maxPackSize = Math.max(this.minPackSize, maxPackSize);
+        this.targetLatencyMs = targetLatencyMs;
+        this.packSize = this.maxPackSize;
+    }
+
+    public int getPackSize() {
+        return packSize;
+    }
+
+    public synchronized void onPackProcessed(int size, long latencyMs) {
+        if (latencyMs > targetLatencyMs) {
+            packSize = Math.max(minPackSize, packSize / 2);
+        } else if (size >= packSize) {
+            packSize = Math.min(maxPackSize, packSize + minPackSize);
+        }
+    }
+
+}
@@ -18,10 +18,12 @@ package org.thingsboard.server.service.queue.ruleengine;
 import com.google.protobuf.ProtocolStringList;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.common.data.TenantProfile;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.EntityIdFactory;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.queue.Queue;
+import org.thingsboard.server.common.data.queue.SubmitStrategyType;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.gen.MsgProtos;
 import org.thingsboard.server.common.msg.queue.QueueToRuleEngineMsg;
@@ -34,6 +36,7 @@ import org.thingsboard.server.common.util.ProtoUtils;
 import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
 import org.thingsboard.server.queue.TbQueueConsumer;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.common.ToRuleEngineMsgBatchCodec;
 import org.thingsboard.server.queue.common.consumer.MainQueueConsumerManager;
 import org.thingsboard.server.queue.common.consumer.TbQueueConsumerManagerTask;
 import org.thingsboard.server.queue.common.consumer.TbQueueConsumerManagerTask.DeleteQueueTask;
@@ -47,12 +50,15 @@ import org.thingsboard.server.service.queue.processing.TbRuleEngineProcessingRes
 import org.thingsboard.server.service.queue.processing.TbRuleEngineProcessingStrategy;
 import org.thingsboard.server.service.queue.processing.TbRuleEngineSubmitStrategy;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -66,6 +72,10 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
 
     private final TbRuleEngineConsumerContext ctx;
     private final TbRuleEngineConsumerStats stats;
+    private final TbRuleEngineFairScheduler fairScheduler;
+    private final Map<TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>>, TbRuleEnginePackPipeline> pipelines = new ConcurrentHashMap<>();
+    private final MainQueueConsumerManager<TbProtoQueueMsg<ToRuleEngineMsg>, Queue> retryConsumerManager;
+    private final TbRuleEngineRetryPublisher retryPublisher;
 
     @Builder(builderMethodName = "create") // not to conflict with super.builder()
     public TbRuleEngineQueueConsumerManager(TbRuleEngineConsumerContext ctx,
@@ -80,11 +90,76 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
                 },
                 consumerExecutor, scheduler, taskExecutor, null);
         this.ctx = ctx;
-        this.stats = new TbRuleEngineConsumerStats(queueKey, ctx.getStatsFactory());
+        this.stats = new TbRuleEngineConsumerStats(queueKey, ctx.getStatsFactory(), ctx.getStatsMaxTenantTags());
+        // isolated queues hold the messages of a single tenant, nothing to schedule there
+        this.fairScheduler = ctx.isFairSchedulingEnabled() && queueKey.getTenantId().isSysTenantId() ?
+                new TbRuleEngineFairScheduler(ctx.getFairSchedulingQuantum(), ctx.getFairSchedulingMaxInFlightPerTenant(), this::getTenantWeight) : null;
+        if (ctx.isRetryTopicEnabled()) {
+            this.retryPublisher = new TbRuleEngineRetryPublisher(ctx.getProducerProvider().getRuleEngineMsgProducer(), ctx.getPartitionService(), ctx.isRetryTopicDlqEnabled());
+            this.retryConsumerManager = MainQueueConsumerManager.<TbProtoQueueMsg<ToRuleEngineMsg>, Queue>builder()
+                    .queueKey(queueKey + "-retry")
+                    .msgPackProcessor(this::processRetryMsgs)
+                    .consumerCreator((queueConfig, tpi) -> {
+                        Integer partitionId = tpi != null ? tpi.getPartition().orElse(-1) : null;
+                        return ctx.getQueueFactory().createToRuleEngineMsgConsumer(queueConfig, partitionId);
+                    })
+                    .consumerExecutor(consumerExecutor)
+                    .scheduler(scheduler)
+                    .taskExecutor(taskExecutor)
+                    .build();
+        } else {
+            this.retryPublisher = null;
+            this.retryConsumerManager = null;
+        }
+    }
+
+    @Override
+    public void init(Queue config) {
+        super.init(config);
+        if (retryConsumerManager != null) {
+            retryConsumerManager.update(toRetryQueue(config));
+        }
+    }
+
+    @Override
+    public void update(Queue config) {
+        super.update(config);
+        if (retryConsumerManager != null) {
+            retryConsumerManager.update(toRetryQueue(config));
+        }
+    }
+
+    @Override
+    public void update(Set<TopicPartitionInfo> partitions) {
+        super.update(partitions);
+        if (retryConsumerManager != null) {
+            retryConsumerManager.update(partitions.stream()
+                    .map(tpi -> tpi.withTopic(tpi.getTopic() + TbRuleEngineRetryPublisher.RETRY_TOPIC_SUFFIX))
+                    .collect(Collectors.toSet()));
+        }
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (retryConsumerManager != null) {
+            retryConsumerManager.stop();
+        }
+    }
+
+    @Override
+    public void awaitStop() {
+        super.awaitStop();
+        if (retryConsumerManager != null) {
+            retryConsumerManager.awaitStop();
+        }
     }
 
     public void delete(boolean drainQueue) {
         addTask(new DeleteQueueTask(drainQueue));
+        if (retryConsumerManager != null) {
+            retryConsumerManager.stop();
+        }
     }
 
     @Override
@@ -106,14 +181,16 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
                 drainQueue(queueConsumers);
             }
 
+            if (retryConsumerManager != null) {
+                retryConsumerManager.awaitStop();
+                Set<TopicPartitionInfo> retryPartitions = retryConsumerManager.getPartitions();
+                if (retryPartitions != null) {
+                    retryPartitions.forEach(tpi -> deleteTopic(tpi.getFullTopicName()));
+                }
+            }
             queueConsumers.forEach(consumer -> {
                 for (String topic : consumer.getFullTopicNames()) {
-                    try {
-                        ctx.getQueueAdmin().deleteTopic(topic);
-                        log.info("Deleted topic {}", topic);
-                    } catch (Exception e) {
-                        log.error("Failed to delete topic {}", topic, e);
-                    }
+                    deleteTopic(topic);
                 }
                 try {
                     consumer.unsubscribe();
@@ -124,11 +201,83 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
         });
     }
 
+    private void deleteTopic(String topic) {
+        try {
+            ctx.getQueueAdmin().deleteTopic(topic);
+            log.info("Deleted topic {}", topic);
+        } catch (Exception e) {
+            log.error("Failed to delete topic {}", topic, e);
+        }
+    }
+
     @Override
     protected void processMsgs(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs,
                                TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer,
                                Object consumerKey,
                                Queue queue) throws Exception {
+        msgs = ToRuleEngineMsgBatchCodec.unpack(msgs);
+        String partition = consumerKey instanceof TopicPartitionInfo tpi ? tpi.getPartition().map(String::valueOf).orElse("all") : "all";
+        List<List<TbProtoQueueMsg<ToRuleEngineMsg>>> packs = fairScheduler != null ? fairScheduler.schedule(msgs) : List.of(msgs);
+        msgs = packs.size() == 1 ? packs.get(0) : packs.stream().flatMap(List::stream).collect(Collectors.toList());
+        Object position = isPipelined(queue) ? consumer.getPosition() : null;
+        TbRuleEnginePackPipeline pipeline = pipelines.get(consumer);
+        if (position != null) {
+            if (pipeline == null) {
+                pipelines.keySet().removeIf(TbQueueConsumer::isStopped);
+                pipeline = new TbRuleEnginePackPipeline(consumer, pack -> processPack(pack, consumer, queue, partition), consumerExecutor,
+                        new TbRuleEnginePackSizer(ctx.getPipelineMinPackSize(), ctx.getPipelineMaxPackSize(), ctx.getPipelineTargetPackLatencyMs()),
+                        ctx.getPipelineMaxPacksInFlight(), queue.getPollInterval(), () -> !stopped && !consumer.isStopped());
+                pipelines.put(consumer, pipeline);
+            }
+            pipeline.submit(msgs, position);
+            return;
+        }
+        if (pipeline != null) {
+            // commit of the sequentially processed pack would also commit the packs that are still in flight
+            pipeline.drain();
+            pipelines.remove(consumer);
+        }
+        for (List<TbProtoQueueMsg<ToRuleEngineMsg>> pack : packs) {
+            if (!processPack(pack, consumer, queue, partition)) {
+                return;
+            }
+        }
+        consumer.commit();
+    }
+
+    @Override
+    protected void onEmptyPoll(TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer) {
+        TbRuleEnginePackPipeline pipeline = pipelines.get(consumer);
+        if (pipeline != null) {
+            pipeline.commitCompleted();
+        }
+    }
+
+    private int getTenantWeight(UUID tenantId) {
+        try {
+            TenantProfile tenantProfile = ctx.getTenantProfileCache().get(TenantId.fromUUID(tenantId));
+            return tenantProfile != null ? tenantProfile.getDefaultProfileConfiguration().getRuleEngineQueueWeight() : 1;
+        } catch (Exception e) {
+            log.debug("[{}] Failed to resolve rule engine queue weight of the tenant", tenantId, e);
+            return 1;
+        }
+    }
+
+    private boolean isPipelined(Queue queue) {
+        if (!ctx.isPipelineEnabled()) {
+            return false;
+        }
+        // sequential strategies rely on the next pack being submitted only after the previous one is processed
+        return isUnorderedSubmitStrategy(queue);
+    }
+
+    /**
+     * @return true if the pack is processed and can be committed, false if the consumer was stopped
+     */
+    private boolean processPack(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs,
+                                TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer,
+                                Queue queue, String partition) throws Exception {
+        long startTs = System.nanoTime();
         TbRuleEngineSubmitStrategy submitStrategy = getSubmitStrategy(queue);
         TbRuleEngineProcessingStrategy ackStrategy = getProcessingStrategy(queue);
         submitStrategy.init(msgs);
@@ -156,12 +305,92 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
 
             if (decision.isCommit()) {
                 submitStrategy.stop();
-                consumer.commit();
-                break;
+                recordPackTime(partition, startTs);
+                return true;
             } else {
+                if (ctx.isStatsEnabled()) {
+                    stats.logRetry(decision.getReprocessMap().size());
+                }
+                if (isRetryTopicUsed(queue)) {
+                    if (retryPublisher.publish(queue, decision.getReprocessMap().values(), queue.getPackProcessingTimeout())) {
+                        submitStrategy.stop();
+                        recordPackTime(partition, startTs);
+                        return true;
+                    }
+                    log.warn("[{}] Failed to publish {} messages to the retry topic, going to reprocess them within the pack", queueKey, decision.getReprocessMap().size());
+                }
                 submitStrategy.update(decision.getReprocessMap());
             }
         }
+        return false;
+    }
+
+    private void recordPackTime(String partition, long startTs) {
+        if (ctx.isPrometheusStatsEnabled()) {
+            stats.getPackTimer(partition).record(System.nanoTime() - startTs, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Processes the messages from the retry topic once they are due. The messages are processed in the order of their due time,
+     * the consumer waits for the next due message, so the pause between retries never blocks the main partition.
+     */
+    private void processRetryMsgs(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs,
+                                  TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer,
+                                  Object consumerKey,
+                                  Queue retryQueue) throws Exception {
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> pending = new ArrayList<>(ToRuleEngineMsgBatchCodec.unpack(msgs));
+        pending.sort(Comparator.comparingLong(msg -> msg.getValue().getRetryDueTs()));
+        Queue queue = config;
+        int from = 0;
+        while (from < pending.size()) {
+            long delay = pending.get(from).getValue().getRetryDueTs() - System.currentTimeMillis();
+            while (delay > 0) {
+                if (stopped || consumer.isStopped()) {
+                    return;
+                }
+                Thread.sleep(Math.min(delay, retryQueue.getPollInterval()));
+                delay = pending.get(from).getValue().getRetryDueTs() - System.currentTimeMillis();
+            }
+            long ts = System.currentTimeMillis();
+            int to = from + 1;
+            while (to < pending.size() && pending.get(to).getValue().getRetryDueTs() <= ts) {
+                to++;
+            }
+            if (!processPack(pending.subList(from, to), consumer, queue, "retry")) {
+                return;
+            }
+            from = to;
+        }
+        consumer.commit();
+    }
+
+    private boolean isRetryTopicUsed(Queue queue) {
+        if (retryPublisher == null) {
+            return false;
+        }
+        // retried messages are processed after the next messages of the same entity, so sequential strategies keep in-pack retries by default
+        return ctx.isRetryTopicSequentialStrategies() || isUnorderedSubmitStrategy(queue);
+    }
+
+    private static boolean isUnorderedSubmitStrategy(Queue queue) {
+        SubmitStrategyType submitStrategyType = queue.getSubmitStrategy().getType();
+        return submitStrategyType == SubmitStrategyType.BURST || submitStrategyType == SubmitStrategyType.BATCH;
+    }
+
+    private static Queue toRetryQueue(Queue queue) {
+        Queue retryQueue = new Queue(queue.getId());
+        retryQueue.setTenantId(queue.getTenantId());
+        // the name is part of the consumer group id, which must differ from the one of the main topic consumers
+        retryQueue.setName(queue.getName() + TbRuleEngineRetryPublisher.RETRY_TOPIC_SUFFIX);
+        retryQueue.setTopic(queue.getTopic() + TbRuleEngineRetryPublisher.RETRY_TOPIC_SUFFIX);
+        retryQueue.setPollInterval(queue.getPollInterval());
+        retryQueue.setPartitions(queue.getPartitions());
+        retryQueue.setConsumerPerPartition(queue.isConsumerPerPartition());
+        retryQueue.setPackProcessingTimeout(queue.getPackProcessingTimeout());
+        retryQueue.setSubmitStrategy(queue.getSubmitStrategy());
+        retryQueue.setProcessingStrategy(queue.getProcessingStrategy());
+        return retryQueue;
     }
 
     private TbRuleEngineSubmitStrategy getSubmitStrategy(Queue queue) {
@@ -169,6 +398,10 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
     }
 
     private TbRuleEngineProcessingStrategy getProcessingStrategy(Queue queue) {
+        if (isRetryTopicUsed(queue)) {
+            // the pause between retries is applied by the retry topic consumer
+            return ctx.getProcessingStrategyFactory().newInstance(queue.getName(), queue.getProcessingStrategy(), false);
+        }
         return ctx.getProcessingStrategyFactory().newInstance(queue.getName(), queue.getProcessingStrategy());
     }
 
@@ -236,6 +469,7 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
                     if (msgs.isEmpty()) {
                         continue;
                     }
+                    msgs = ToRuleEngineMsgBatchCodec.unpack(msgs);
                     for (TbProtoQueueMsg<ToRuleEngineMsg> msg : msgs) {
                         try {
                             MsgProtos.TbMsgProto tbMsgProto = ProtoUtils.getTbMsgProto(msg.getValue());
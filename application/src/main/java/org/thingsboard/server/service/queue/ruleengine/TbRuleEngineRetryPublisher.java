@@ -0,0 +1,132 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.EntityIdFactory;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.queue.ProcessingStrategy;
+import org.thingsboard.server.common.data.queue.Queue;
+import org.thingsboard.server.common.msg.gen.MsgProtos;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.common.util.ProtoUtils;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueMsgMetadata;
+import org.thingsboard.server.queue.TbQueueProducer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.discovery.PartitionService;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes the messages to reprocess to the retry topic of the queue instead of reprocessing them within the pack.
+ * Each message gets the number of the failed attempts and the time of the next attempt, calculated with the same
+ * exponential backoff as the in-pack retries of the processing strategy. Messages that exceed the max retries
+ * of the processing strategy are published to the dead letter topic, if enabled, or dropped.
+ */
+@Slf4j
+public class TbRuleEngineRetryPublisher {
+
+    public static final String RETRY_TOPIC_SUFFIX = ".retry";
+    public static final String DLQ_TOPIC_SUFFIX = ".dlq";
+
+    private final TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> producer;
+    private final PartitionService partitionService;
+    private final boolean dlqEnabled;
+
+    public TbRuleEngineRetryPublisher(TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> producer, PartitionService partitionService, boolean dlqEnabled) {
+        this.producer = producer;
+        this.partitionService = partitionService;
+        this.dlqEnabled = dlqEnabled;
+    }
+
+    /**
+     * @return true if all the messages are published (or dropped) within the timeout, false otherwise
+     */
+    public boolean publish(Queue queue, Collection<TbProtoQueueMsg<ToRuleEngineMsg>> msgs, long timeoutMs) throws InterruptedException {
+        ProcessingStrategy processingStrategy = queue.getProcessingStrategy();
+        CountDownLatch latch = new CountDownLatch(msgs.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        TbQueueCallback callback = new TbQueueCallback() {
+            @Override
+            public void onSuccess(TbQueueMsgMetadata metadata) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                log.warn("[{}] Failed to publish message to the retry topic", queue.getName(), t);
+                failed.set(true);
+                latch.countDown();
+            }
+        };
+        long ts = System.currentTimeMillis();
+        for (TbProtoQueueMsg<ToRuleEngineMsg> msg : msgs) {
+            ToRuleEngineMsg value = msg.getValue();
+            int attempt = value.getRetryAttempt() + 1;
+            String topicSuffix;
+            if (processingStrategy.getRetries() > 0 && attempt > processingStrategy.getRetries()) {
+                if (!dlqEnabled) {
+                    log.debug("[{}] Skip reprocess of the message [{}] due to max retries", queue.getName(), msg.getKey());
+                    latch.countDown();
+                    continue;
+                }
+                topicSuffix = DLQ_TOPIC_SUFFIX;
+            } else {
+                topicSuffix = RETRY_TOPIC_SUFFIX;
+            }
+            ToRuleEngineMsg retryMsg = value.toBuilder()
+                    .setRetryAttempt(attempt)
+                    .setRetryDueTs(ts + getBackoffMs(processingStrategy, attempt))
+                    .build();
+            try {
+                TopicPartitionInfo tpi = resolve(queue, value);
+                producer.send(tpi.withTopic(tpi.getTopic() + topicSuffix), new TbProtoQueueMsg<>(msg.getKey(), retryMsg, msg.getHeaders()), callback);
+            } catch (Exception e) {
+                callback.onFailure(e);
+            }
+        }
+        return latch.await(timeoutMs, TimeUnit.MILLISECONDS) && !failed.get();
+    }
+
+    private TopicPartitionInfo resolve(Queue queue, ToRuleEngineMsg msg) throws InvalidProtocolBufferException {
+        TenantId tenantId = TenantId.fromUUID(new UUID(msg.getTenantIdMSB(), msg.getTenantIdLSB()));
+        MsgProtos.TbMsgProto tbMsgProto = ProtoUtils.getTbMsgProto(msg);
+        EntityId originator = EntityIdFactory.getByTypeAndUuid(tbMsgProto.getEntityType(), new UUID(tbMsgProto.getEntityIdMSB(), tbMsgProto.getEntityIdLSB()));
+        return partitionService.resolve(ServiceType.TB_RULE_ENGINE, queue.getName(), tenantId, originator);
+    }
+
+    static long getBackoffMs(ProcessingStrategy processingStrategy, int attempt) {
+        long pause = processingStrategy.getPauseBetweenRetries();
+        long maxPause = processingStrategy.getMaxPauseBetweenRetries();
+        if (pause <= 0) {
+            return 0;
+        }
+        if (maxPause > pause) {
+            pause = Math.min(maxPause, pause << Math.min(attempt - 1, 30));
+        }
+        return TimeUnit.SECONDS.toMillis(pause);
+    }
+
+}
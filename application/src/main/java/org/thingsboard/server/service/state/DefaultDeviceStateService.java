@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import jakarta.annotation.PostConstruct;
@@ -34,6 +35,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.common.util.ThingsBoardExecutors;
@@ -47,6 +49,7 @@ import org.thingsboard.server.common.data.DeviceIdInfo;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.exception.TenantNotFoundException;
+import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -82,7 +85,13 @@ import org.thingsboard.server.dao.sql.query.EntityQueryRepository;
 import org.thingsboard.server.dao.timeseries.TimeseriesService;
 import org.thingsboard.server.dao.util.DbTypeInfoComponent;
 import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueMsgMetadata;
 import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.queue.discovery.QueueKey;
+import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
+import org.thingsboard.server.queue.discovery.event.PartitionMovementPlanEvent;
+import org.thingsboard.server.queue.discovery.event.PartitionMovementPlanEvent.PartitionMove;
 import org.thingsboard.server.queue.util.TbCoreComponent;
 import org.thingsboard.server.service.partition.AbstractPartitionBasedService;
 import org.thingsboard.server.service.telemetry.TelemetrySubscriptionService;
@@ -187,10 +196,23 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
     @Value("${state.telemetryTtl:0}")
     private int telemetryTtl;
 
+    @Value("${state.handoff.enabled:false}")
+    private boolean handoffEnabled;
+
+    @Value("${state.handoff.pack_size:1000}")
+    private int handoffPackSize;
+
+    @Value("${state.handoff.wait_timeout_ms:10000}")
+    private long handoffWaitTimeoutMs;
+
+    @Autowired
+    private TbServiceInfoProvider serviceInfoProvider;
+
     private ListeningExecutorService deviceStateExecutor;
     private ListeningExecutorService deviceStateCallbackExecutor;
 
     final ConcurrentMap<DeviceId, DeviceStateData> deviceStates = new ConcurrentHashMap<>();
+    final ConcurrentMap<Integer, DeviceStateHandoff> pendingHandoffs = new ConcurrentHashMap<>();
 
     @PostConstruct
     public void init() {
@@ -406,6 +428,159 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
         }
     }
 
+    @Override
+    public void onHandoffMsg(TransportProtos.DeviceStateHandoffMsgProto proto, TbCallback callback) {
+        if (!handoffEnabled) {
+            callback.onSuccess();
+            return;
+        }
+        DeviceStateHandoff handoff = getOrCreateHandoff(proto.getPartition());
+        for (TransportProtos.DeviceStateSnapshotProto snapshot : proto.getStatesList()) {
+            DeviceStateData stateData = fromSnapshotProto(snapshot);
+            handoff.states.put(stateData.getDeviceId(), stateData);
+        }
+        if (proto.getLast()) {
+            log.info("[{}] Received handoff of {} device states", proto.getPartition(), handoff.states.size());
+            handoff.completed.set(null);
+        }
+        callback.onSuccess();
+    }
+
+    /**
+     * Device states of the partitions that move between the services are handed off by the previous owner,
+     * so the new owner does not need to load them from the DB. Devices that are missing in the handoff
+     * (or the whole partition, if the handoff does not complete in time) are loaded from the DB as usual.
+     */
+    @EventListener(PartitionMovementPlanEvent.class)
+    public void onPartitionMovementPlan(PartitionMovementPlanEvent event) {
+        if (!handoffEnabled) {
+            return;
+        }
+        String serviceId = serviceInfoProvider.getServiceId();
+        QueueKey coreQueueKey = new QueueKey(ServiceType.TB_CORE);
+        Map<Integer, String> targets = new HashMap<>();
+        for (PartitionMove move : event.getMovesFrom(serviceId)) {
+            if (coreQueueKey.equals(move.queueKey()) && !move.to().isEmpty()) {
+                targets.put(move.partition(), move.to().get(0));
+            }
+        }
+        for (PartitionMove move : event.getMovesTo(serviceId)) {
+            if (coreQueueKey.equals(move.queueKey()) && move.from().stream().anyMatch(event::isActive)) {
+                getOrCreateHandoff(move.partition());
+            }
+        }
+        if (!targets.isEmpty()) {
+            // submitted before the partition change event is processed, so the states are not cleaned up yet
+            scheduledExecutor.submit(() -> handOffDeviceStates(targets));
+        }
+    }
+
+    private DeviceStateHandoff getOrCreateHandoff(int partition) {
+        return pendingHandoffs.computeIfAbsent(partition, key -> {
+            DeviceStateHandoff handoff = new DeviceStateHandoff();
+            scheduledExecutor.schedule(() -> {
+                if (pendingHandoffs.remove(key, handoff) && handoff.completed.set(null)) {
+                    log.info("[{}] Device states handoff was not completed in {} ms", key, handoffWaitTimeoutMs);
+                }
+            }, handoffWaitTimeoutMs, TimeUnit.MILLISECONDS);
+            return handoff;
+        });
+    }
+
+    void handOffDeviceStates(Map<Integer, String> targets) {
+        partitionedEntities.forEach((tpi, deviceIds) -> {
+            Integer partition = tpi.getPartition().orElse(null);
+            String targetServiceId = partition != null ? targets.get(partition) : null;
+            if (targetServiceId == null) {
+                return;
+            }
+            List<TransportProtos.DeviceStateSnapshotProto> snapshots = new ArrayList<>(deviceIds.size());
+            for (DeviceId deviceId : deviceIds) {
+                DeviceStateData stateData = deviceStates.get(deviceId);
+                if (stateData != null) {
+                    snapshots.add(toSnapshotProto(stateData));
+                }
+            }
+            List<List<TransportProtos.DeviceStateSnapshotProto>> packs = snapshots.isEmpty() ?
+                    List.of(Collections.emptyList()) : Lists.partition(snapshots, handoffPackSize);
+            for (int i = 0; i < packs.size(); i++) {
+                TransportProtos.DeviceStateHandoffMsgProto msg = TransportProtos.DeviceStateHandoffMsgProto.newBuilder()
+                        .setPartition(partition)
+                        .addAllStates(packs.get(i))
+                        .setLast(i == packs.size() - 1)
+                        .build();
+                clusterService.pushNotificationToCore(targetServiceId, msg, new TbQueueCallback() {
+                    @Override
+                    public void onSuccess(TbQueueMsgMetadata metadata) {
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        log.warn("[{}] Failed to hand off device states to {}", partition, targetServiceId, t);
+                    }
+                });
+            }
+            log.info("[{}] Handed off {} device states to {}", partition, snapshots.size(), targetServiceId);
+        });
+    }
+
+    static TransportProtos.DeviceStateSnapshotProto toSnapshotProto(DeviceStateData stateData) {
+        DeviceState state = stateData.getState();
+        var builder = TransportProtos.DeviceStateSnapshotProto.newBuilder()
+                .setTenantIdMSB(stateData.getTenantId().getId().getMostSignificantBits())
+                .setTenantIdLSB(stateData.getTenantId().getId().getLeastSignificantBits())
+                .setDeviceIdMSB(stateData.getDeviceId().getId().getMostSignificantBits())
+                .setDeviceIdLSB(stateData.getDeviceId().getId().getLeastSignificantBits())
+                .setDeviceCreationTime(stateData.getDeviceCreationTime())
+                .setActive(state.isActive())
+                .setLastConnectTime(state.getLastConnectTime())
+                .setLastActivityTime(state.getLastActivityTime())
+                .setLastDisconnectTime(state.getLastDisconnectTime())
+                .setLastInactivityAlarmTime(state.getLastInactivityAlarmTime())
+                .setInactivityTimeout(state.getInactivityTimeout());
+        if (stateData.getCustomerId() != null) {
+            builder.setCustomerIdMSB(stateData.getCustomerId().getId().getMostSignificantBits())
+                    .setCustomerIdLSB(stateData.getCustomerId().getId().getLeastSignificantBits());
+        }
+        TbMsgMetaData md = stateData.getMetaData();
+        if (md != null) {
+            Optional.ofNullable(md.getValue("deviceName")).ifPresent(builder::setDeviceName);
+            Optional.ofNullable(md.getValue("deviceLabel")).ifPresent(builder::setDeviceLabel);
+            Optional.ofNullable(md.getValue("deviceType")).ifPresent(builder::setDeviceType);
+        }
+        return builder.build();
+    }
+
+    static DeviceStateData fromSnapshotProto(TransportProtos.DeviceStateSnapshotProto proto) {
+        DeviceState deviceState = DeviceState.builder()
+                .active(proto.getActive())
+                .lastConnectTime(proto.getLastConnectTime())
+                .lastActivityTime(proto.getLastActivityTime())
+                .lastDisconnectTime(proto.getLastDisconnectTime())
+                .lastInactivityAlarmTime(proto.getLastInactivityAlarmTime())
+                .inactivityTimeout(proto.getInactivityTimeout())
+                .build();
+        TbMsgMetaData md = new TbMsgMetaData();
+        if (proto.hasDeviceName()) {
+            md.putValue("deviceName", proto.getDeviceName());
+        }
+        if (proto.hasDeviceLabel()) {
+            md.putValue("deviceLabel", proto.getDeviceLabel());
+        }
+        if (proto.hasDeviceType()) {
+            md.putValue("deviceType", proto.getDeviceType());
+        }
+        boolean hasCustomer = proto.getCustomerIdMSB() != 0 || proto.getCustomerIdLSB() != 0;
+        return DeviceStateData.builder()
+                .tenantId(TenantId.fromUUID(new UUID(proto.getTenantIdMSB(), proto.getTenantIdLSB())))
+                .customerId(hasCustomer ? new CustomerId(new UUID(proto.getCustomerIdMSB(), proto.getCustomerIdLSB())) : null)
+                .deviceId(new DeviceId(new UUID(proto.getDeviceIdMSB(), proto.getDeviceIdLSB())))
+                .deviceCreationTime(proto.getDeviceCreationTime())
+                .metaData(md)
+                .state(deviceState)
+                .build();
+    }
+
     private void initializeActivityState(DeviceId deviceId, DeviceStateData fetchedState) {
         DeviceStateData cachedState = deviceStates.putIfAbsent(fetchedState.getDeviceId(), fetchedState);
         boolean activityState = Objects.requireNonNullElse(cachedState, fetchedState).getState().isActive();
@@ -433,44 +608,87 @@ public class DefaultDeviceStateService extends AbstractPartitionBasedService<Dev
         }
 
         for (var entry : tpiDeviceMap.entrySet()) {
-            AtomicInteger counter = new AtomicInteger(0);
-            // hard-coded limit of 1000 is due to the Entity Data Query limitations and should not be changed.
-            for (List<DeviceIdInfo> partition : Lists.partition(entry.getValue(), 1000)) {
-                log.info("[{}] Submit task for device states: {}", entry.getKey(), partition.size());
-                DevicePackFutureHolder devicePackFutureHolder = new DevicePackFutureHolder();
-                var devicePackFuture = deviceStateExecutor.submit(() -> {
-                    try {
-                        List<DeviceStateData> states;
-                        if (persistToTelemetry && !dbTypeInfoComponent.isLatestTsDaoStoredToSql()) {
-                            states = fetchDeviceStateDataUsingSeparateRequests(partition);
-                        } else {
-                            states = fetchDeviceStateDataUsingEntityDataQuery(partition);
-                        }
-                        if (devicePackFutureHolder.future == null || !devicePackFutureHolder.future.isCancelled()) {
-                            for (var state : states) {
-                                TopicPartitionInfo tpi = entry.getKey();
-                                Set<DeviceId> deviceIds = partitionedEntities.get(tpi);
-                                boolean isMyPartition = deviceIds != null;
-                                if (isMyPartition) {
-                                    deviceIds.add(state.getDeviceId());
-                                    deviceStates.putIfAbsent(state.getDeviceId(), state);
-                                    checkAndUpdateState(state.getDeviceId(), state);
-                                } else {
-                                    log.debug("[{}] Device belongs to external partition {}", state.getDeviceId(), tpi.getFullTopicName());
-                                }
+            TopicPartitionInfo tpi = entry.getKey();
+            DeviceStateHandoff handoff = tpi.getPartition().map(pendingHandoffs::get).orElse(null);
+            if (handoff == null) {
+                result.put(tpi, submitDevicePacks(tpi, entry.getValue()));
+            } else {
+                log.info("[{}] Waiting for the device states handoff", tpi);
+                var handoffFuture = Futures.transformAsync(handoff.completed, __ -> {
+                    pendingHandoffs.remove(tpi.getPartition().get(), handoff);
+                    List<DeviceIdInfo> notHandedOff = applyHandoff(tpi, entry.getValue(), handoff);
+                    return Futures.allAsList(submitDevicePacks(tpi, notHandedOff));
+                }, deviceStateExecutor);
+                result.put(tpi, new ArrayList<>(List.of(handoffFuture)));
+            }
+        }
+        return result;
+    }
+
+    private List<ListenableFuture<?>> submitDevicePacks(TopicPartitionInfo tpi, List<DeviceIdInfo> devices) {
+        List<ListenableFuture<?>> futures = new ArrayList<>();
+        AtomicInteger counter = new AtomicInteger(0);
+        // hard-coded limit of 1000 is due to the Entity Data Query limitations and should not be changed.
+        for (List<DeviceIdInfo> partition : Lists.partition(devices, 1000)) {
+            log.info("[{}] Submit task for device states: {}", tpi, partition.size());
+            DevicePackFutureHolder devicePackFutureHolder = new DevicePackFutureHolder();
+            var devicePackFuture = deviceStateExecutor.submit(() -> {
+                try {
+                    List<DeviceStateData> states;
+                    if (persistToTelemetry && !dbTypeInfoComponent.isLatestTsDaoStoredToSql()) {
+                        states = fetchDeviceStateDataUsingSeparateRequests(partition);
+                    } else {
+                        states = fetchDeviceStateDataUsingEntityDataQuery(partition);
+                    }
+                    if (devicePackFutureHolder.future == null || !devicePackFutureHolder.future.isCancelled()) {
+                        for (var state : states) {
+                            Set<DeviceId> deviceIds = partitionedEntities.get(tpi);
+                            boolean isMyPartition = deviceIds != null;
+                            if (isMyPartition) {
+                                deviceIds.add(state.getDeviceId());
+                                deviceStates.putIfAbsent(state.getDeviceId(), state);
+                                checkAndUpdateState(state.getDeviceId(), state);
+                            } else {
+                                log.debug("[{}] Device belongs to external partition {}", state.getDeviceId(), tpi.getFullTopicName());
                             }
-                            log.info("[{}] Initialized {} out of {} device states", entry.getKey().getPartition().orElse(0), counter.addAndGet(states.size()), entry.getValue().size());
                         }
-                    } catch (Throwable t) {
-                        log.error("Unexpected exception while device pack fetching", t);
-                        throw t;
+                        log.info("[{}] Initialized {} out of {} device states", tpi.getPartition().orElse(0), counter.addAndGet(states.size()), devices.size());
                     }
-                });
-                devicePackFutureHolder.future = devicePackFuture;
-                result.computeIfAbsent(entry.getKey(), tmp -> new ArrayList<>()).add(devicePackFuture);
+                } catch (Throwable t) {
+                    log.error("Unexpected exception while device pack fetching", t);
+                    throw t;
+                }
+            });
+            devicePackFutureHolder.future = devicePackFuture;
+            futures.add(devicePackFuture);
+        }
+        return futures;
+    }
+
+    private List<DeviceIdInfo> applyHandoff(TopicPartitionInfo tpi, List<DeviceIdInfo> devices, DeviceStateHandoff handoff) {
+        Set<DeviceId> deviceIds = partitionedEntities.get(tpi);
+        if (deviceIds == null) {
+            return Collections.emptyList();
+        }
+        List<DeviceIdInfo> notHandedOff = new ArrayList<>();
+        for (DeviceIdInfo idInfo : devices) {
+            DeviceStateData state = handoff.states.get(idInfo.getDeviceId());
+            if (state != null) {
+                deviceIds.add(state.getDeviceId());
+                deviceStates.putIfAbsent(state.getDeviceId(), state);
+                checkAndUpdateState(state.getDeviceId(), state);
+            } else {
+                notHandedOff.add(idInfo);
             }
         }
-        return result;
+        log.info("[{}] Initialized {} device states from the handoff, {} will be fetched from the DB",
+                tpi.getPartition().orElse(0), devices.size() - notHandedOff.size(), notHandedOff.size());
+        return notHandedOff;
+    }
+
+    private static class DeviceStateHandoff {
+        private final ConcurrentMap<DeviceId, DeviceStateData> states = new ConcurrentHashMap<>();
+        private final SettableFuture<Void> completed = SettableFuture.create();
     }
 
     private static class DevicePackFutureHolder {
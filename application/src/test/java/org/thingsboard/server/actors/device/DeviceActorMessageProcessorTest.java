@@ -22,18 +22,27 @@ import org.thingsboard.common.util.LinkedHashMapRemoveEldest;
 import org.thingsboard.server.actors.ActorSystemContext;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.queue.TbCallback;
 import org.thingsboard.server.dao.device.DeviceService;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionEvent;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionEventMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.SessionInfoProto;
+import org.thingsboard.server.gen.transport.TransportProtos.SubscriptionInfoProto;
+import org.thingsboard.server.gen.transport.TransportProtos.TransportToDeviceActorMsg;
 import org.thingsboard.server.service.transport.TbCoreToTransportService;
+import org.thingsboard.server.service.transport.msg.TransportToDeviceActorMsgWrapper;
 
 import java.util.UUID;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.BDDMockito.willReturn;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class DeviceActorMessageProcessorTest {
 
@@ -83,4 +92,40 @@ public class DeviceActorMessageProcessorTest {
         assertThat(processor.rpcSubscriptions.size(), is(MAX_CONCURRENT_SESSIONS_PER_DEVICE-1));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenSessionActivityMsgs_whenGetCoalescingKey_thenOnlyActivityReportsOfSameSessionAreCoalesced() {
+        DeviceActor actor = new DeviceActor(systemContext, tenantId, deviceId);
+        UUID sessionId = UUID.randomUUID();
+        var activity1 = activityMsg(sessionId, 1000L, mock(TbCallback.class));
+        var activity2 = activityMsg(sessionId, 2000L, mock(TbCallback.class));
+        var otherSessionActivity = activityMsg(UUID.randomUUID(), 2000L, mock(TbCallback.class));
+        var sessionClose = new TransportToDeviceActorMsgWrapper(TransportToDeviceActorMsg.newBuilder(activity1.getMsg())
+                .setSessionEvent(SessionEventMsg.newBuilder().setEvent(SessionEvent.CLOSED).build())
+                .build(), mock(TbCallback.class));
+
+        assertThat(actor.getCoalescingKey(activity1), notNullValue());
+        assertThat(actor.getCoalescingKey(activity1), is(actor.getCoalescingKey(activity2)));
+        assertThat(actor.getCoalescingKey(activity1).equals(actor.getCoalescingKey(otherSessionActivity)), is(false));
+        assertThat(actor.getCoalescingKey(sessionClose), nullValue());
+
+        actor.onCoalesced(activity1, activity2);
+        verify(activity1.getCallback()).onSuccess();
+    }
+
+    private TransportToDeviceActorMsgWrapper activityMsg(UUID sessionId, long lastActivityTime, TbCallback callback) {
+        SessionInfoProto sessionInfo = SessionInfoProto.newBuilder()
+                .setSessionIdMSB(sessionId.getMostSignificantBits())
+                .setSessionIdLSB(sessionId.getLeastSignificantBits())
+                .setTenantIdMSB(tenantId.getId().getMostSignificantBits())
+                .setTenantIdLSB(tenantId.getId().getLeastSignificantBits())
+                .setDeviceIdMSB(deviceId.getId().getMostSignificantBits())
+                .setDeviceIdLSB(deviceId.getId().getLeastSignificantBits())
+                .build();
+        return new TransportToDeviceActorMsgWrapper(TransportToDeviceActorMsg.newBuilder()
+                .setSessionInfo(sessionInfo)
+                .setSubscriptionInfo(SubscriptionInfoProto.newBuilder().setLastActivityTime(lastActivityTime).build())
+                .build(), callback);
+    }
+
+}
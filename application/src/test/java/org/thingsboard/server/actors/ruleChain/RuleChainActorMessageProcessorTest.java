@@ -0,0 +1,241 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors.ruleChain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.rule.engine.filter.TbMsgTypeFilterNode;
+import org.thingsboard.rule.engine.transform.TbDeleteKeysNode;
+import org.thingsboard.server.actors.ActorSystemContext;
+import org.thingsboard.server.actors.TbActorCtx;
+import org.thingsboard.server.actors.TbActorId;
+import org.thingsboard.server.actors.TbActorRef;
+import org.thingsboard.server.actors.TbEntityActorId;
+import org.thingsboard.server.common.data.TenantProfile;
+import org.thingsboard.server.common.data.debug.DebugSettings;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.RuleChainId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.msg.TbMsgType;
+import org.thingsboard.server.common.data.msg.TbNodeConnectionType;
+import org.thingsboard.server.common.data.relation.EntityRelation;
+import org.thingsboard.server.common.data.rule.RuleChain;
+import org.thingsboard.server.common.data.rule.RuleChainType;
+import org.thingsboard.server.common.data.rule.RuleNode;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+import org.thingsboard.server.common.msg.queue.QueueToRuleEngineMsg;
+import org.thingsboard.server.common.msg.queue.TbMsgCallback;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.common.stats.TbApiUsageReportClient;
+import org.thingsboard.server.dao.rule.RuleChainService;
+import org.thingsboard.server.dao.tenant.TbTenantProfileCache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RuleChainActorMessageProcessorTest {
+
+    private static final String TIMESERIES_NODE_TYPE = "org.thingsboard.rule.engine.telemetry.TbMsgTimeseriesNode";
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final RuleChainId ruleChainId = new RuleChainId(UUID.randomUUID());
+
+    @Mock
+    private ActorSystemContext systemContext;
+    @Mock
+    private RuleChainService ruleChainService;
+    @Mock
+    private TbTenantProfileCache tenantProfileCache;
+    @Mock
+    private TbApiUsageReportClient apiUsageClient;
+    @Mock
+    private TbActorCtx actorCtx;
+    @Mock
+    private TbActorRef parent;
+    @Mock
+    private TbMsgCallback callback;
+
+    private RuleNode filterNode;
+    private RuleNode deleteKeysNode;
+    private RuleNode saveNode;
+    private final Map<TbActorId, TbActorRef> nodeActors = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        filterNode = ruleNode(TbMsgTypeFilterNode.class.getName(), "{\"messageTypes\":[\"POST_TELEMETRY_REQUEST\"]}");
+        filterNode.setDebugSettings(DebugSettings.until(System.currentTimeMillis() + 60000));
+        deleteKeysNode = ruleNode(TbDeleteKeysNode.class.getName(), "{\"deleteFrom\":\"METADATA\",\"keys\":[\"secret\"]}");
+        saveNode = ruleNode(TIMESERIES_NODE_TYPE, "{}");
+
+        RuleChain ruleChain = new RuleChain(ruleChainId);
+        ruleChain.setTenantId(tenantId);
+        ruleChain.setName("Root Rule Chain");
+        ruleChain.setType(RuleChainType.CORE);
+        ruleChain.setFirstRuleNodeId(filterNode.getId());
+
+        given(systemContext.getRuleChainService()).willReturn(ruleChainService);
+        given(systemContext.getTenantProfileCache()).willReturn(tenantProfileCache);
+        given(systemContext.getApiUsageClient()).willReturn(apiUsageClient);
+        given(systemContext.getRuleChainFusionMaxDepth()).willReturn(16);
+        given(systemContext.getRuleChainFusionNodeTypes()).willReturn(Set.of(TbMsgTypeFilterNode.class.getName(), TbDeleteKeysNode.class.getName()));
+        given(systemContext.resolve(any(TenantId.class), any(EntityId.class), any(TbMsg.class)))
+                .willReturn(TopicPartitionInfo.builder().topic("tb_rule_engine.main").myPartition(true).build());
+        given(tenantProfileCache.get(tenantId)).willReturn(new TenantProfile());
+        given(callback.isMsgValid()).willReturn(true);
+
+        given(ruleChainService.findRuleChainById(tenantId, ruleChainId)).willReturn(ruleChain);
+        given(ruleChainService.getRuleChainNodes(tenantId, ruleChainId)).willReturn(List.of(filterNode, deleteKeysNode, saveNode));
+        given(ruleChainService.getRuleNodeRelations(TenantId.SYS_TENANT_ID, filterNode.getId()))
+                .willReturn(List.of(new EntityRelation(filterNode.getId(), deleteKeysNode.getId(), TbNodeConnectionType.TRUE)));
+        given(ruleChainService.getRuleNodeRelations(TenantId.SYS_TENANT_ID, deleteKeysNode.getId()))
+                .willReturn(List.of(new EntityRelation(deleteKeysNode.getId(), saveNode.getId(), TbNodeConnectionType.SUCCESS)));
+        given(ruleChainService.getRuleNodeRelations(TenantId.SYS_TENANT_ID, saveNode.getId())).willReturn(List.of());
+
+        given(actorCtx.getOrCreateChildActor(any(), any(), any(), any())).willAnswer(invocation -> {
+            TbActorId actorId = invocation.getArgument(0);
+            return nodeActors.computeIfAbsent(actorId, id -> {
+                TbActorRef actorRef = mock(TbActorRef.class);
+                given(actorRef.getActorId()).willReturn(id);
+                return actorRef;
+            });
+        });
+        given(actorCtx.getActorId()).willReturn(new TbEntityActorId(ruleChainId));
+    }
+
+    @Test
+    void givenFusionEnabled_whenMsgPassesLinearNodes_thenNodesAreExecutedInlineUpToStatefulNode() {
+        given(systemContext.isRuleChainFusionEnabled()).willReturn(true);
+        RuleChainActorMessageProcessor processor = createAndStartProcessor();
+
+        processor.onQueueToRuleEngineMsg(new QueueToRuleEngineMsg(tenantId, newMsg(), null, null));
+
+        then(nodeActor(filterNode)).should(never()).tell(any());
+        then(nodeActor(deleteKeysNode)).should(never()).tell(any());
+        ArgumentCaptor<RuleChainToRuleNodeMsg> captor = ArgumentCaptor.forClass(RuleChainToRuleNodeMsg.class);
+        then(nodeActor(saveNode)).should().tell(captor.capture());
+        RuleChainToRuleNodeMsg delivered = captor.getValue();
+        assertThat(delivered.getFromRelationType()).isEqualTo(TbNodeConnectionType.SUCCESS);
+        assertThat(delivered.getMsg().getMetaData().getValue("secret")).isNull();
+        assertThat(delivered.getMsg().getMetaData().getValue("deviceName")).isEqualTo("Sensor A");
+        // 2 inline executions and 2 inline tell next calls instead of 4 mailbox hops
+        assertThat(processor.getFusedHops()).isEqualTo(4);
+
+        then(systemContext).should().persistDebugInput(eq(tenantId), eq(filterNode.getId()), any(TbMsg.class), eq(""));
+        then(systemContext).should().persistDebugOutput(eq(tenantId), eq(filterNode.getId()), any(TbMsg.class), eq(TbNodeConnectionType.TRUE), isNull(), isNull());
+        then(callback).should().onProcessingEnd(filterNode.getId());
+        then(callback).should().onProcessingEnd(deleteKeysNode.getId());
+        then(callback).should(never()).onSuccess();
+        then(callback).should(never()).onFailure(any());
+    }
+
+    @Test
+    void givenFusionEnabled_whenMsgIsNoLongerValid_thenFusedNodesSkipIt() {
+        given(systemContext.isRuleChainFusionEnabled()).willReturn(true);
+        // valid on the rule chain entry, expired by the time it reaches the first fused node
+        given(callback.isMsgValid()).willReturn(true, false);
+        RuleChainActorMessageProcessor processor = createAndStartProcessor();
+
+        processor.onQueueToRuleEngineMsg(new QueueToRuleEngineMsg(tenantId, newMsg(), null, null));
+
+        then(systemContext).should(never()).persistDebugInput(any(), any(), any(TbMsg.class), any());
+        then(callback).should(never()).onProcessingStart(any());
+        then(nodeActor(saveNode)).should(never()).tell(any());
+    }
+
+    @Test
+    void givenFusionDisabled_whenMsgArrives_thenMsgIsDeliveredToFirstNodeActor() {
+        RuleChainActorMessageProcessor processor = createAndStartProcessor();
+
+        processor.onQueueToRuleEngineMsg(new QueueToRuleEngineMsg(tenantId, newMsg(), null, null));
+
+        then(nodeActor(filterNode)).should().tell(any(RuleChainToRuleNodeMsg.class));
+        then(nodeActor(saveNode)).should(never()).tell(any());
+        assertThat(processor.getFusedHops()).isZero();
+    }
+
+    @Test
+    void givenMaxDepthReached_whenMsgArrives_thenRemainingNodesAreReachedViaActorMailbox() {
+        given(systemContext.isRuleChainFusionEnabled()).willReturn(true);
+        given(systemContext.getRuleChainFusionMaxDepth()).willReturn(1);
+        RuleChainActorMessageProcessor processor = createAndStartProcessor();
+
+        processor.onQueueToRuleEngineMsg(new QueueToRuleEngineMsg(tenantId, newMsg(), null, null));
+
+        then(nodeActor(filterNode)).should(never()).tell(any());
+        ArgumentCaptor<RuleChainToRuleNodeMsg> captor = ArgumentCaptor.forClass(RuleChainToRuleNodeMsg.class);
+        then(nodeActor(deleteKeysNode)).should().tell(captor.capture());
+        assertThat(captor.getValue().getFromRelationType()).isEqualTo(TbNodeConnectionType.TRUE);
+        then(nodeActor(saveNode)).should(never()).tell(any());
+    }
+
+    private RuleChainActorMessageProcessor createAndStartProcessor() {
+        RuleChain ruleChain = ruleChainService.findRuleChainById(tenantId, ruleChainId);
+        RuleChainActorMessageProcessor processor = new RuleChainActorMessageProcessor(tenantId, ruleChain, systemContext, parent, actorCtx);
+        processor.start(actorCtx);
+        return processor;
+    }
+
+    private TbActorRef nodeActor(RuleNode ruleNode) {
+        return nodeActors.get(new TbEntityActorId(ruleNode.getId()));
+    }
+
+    private TbMsg newMsg() {
+        TbMsgMetaData metaData = new TbMsgMetaData();
+        metaData.putValue("deviceName", "Sensor A");
+        metaData.putValue("secret", "42");
+        return TbMsg.newMsg()
+                .type(TbMsgType.POST_TELEMETRY_REQUEST)
+                .originator(new DeviceId(UUID.randomUUID()))
+                .copyMetaData(metaData)
+                .data("{\"temperature\":25}")
+                .callback(callback)
+                .build();
+    }
+
+    private RuleNode ruleNode(String type, String configuration) {
+        RuleNode ruleNode = new RuleNode(new RuleNodeId(UUID.randomUUID()));
+        ruleNode.setRuleChainId(ruleChainId);
+        ruleNode.setName(type.substring(type.lastIndexOf('.') + 1));
+        ruleNode.setType(type);
+        ruleNode.setConfiguration(JacksonUtil.toJsonNode(configuration));
+        return ruleNode;
+    }
+
+}
@@ -24,6 +24,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.context.ApplicationEventPublisher;
@@ -40,6 +41,7 @@ import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
 import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.gen.transport.TransportProtos.ServiceInfo;
 import org.thingsboard.server.queue.discovery.event.PartitionChangeEvent;
+import org.thingsboard.server.queue.discovery.event.PartitionMovementPlanEvent;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -419,7 +421,77 @@ public class HashPartitionServiceTest {
         return systemQueue;
     }
 
+    @Test
+    public void testConsistentHashAssignmentMovesFewPartitions() {
+        int partitions = 120;
+        int[] topology = {3, 4, 5, 6, 5, 4, 3};
+        int moduloMoved = simulateTopologyChanges("modulo", partitions, topology);
+        int consistentHashMoved = simulateTopologyChanges("consistent_hash", partitions, topology);
+        log.info("Moved partitions: modulo {}, consistent_hash {}", moduloMoved, consistentHashMoved);
+
+        // each change moves at least partitions / servers; the bounded load adds a few more
+        int minMoved = 0;
+        for (int i = 1; i < topology.length; i++) {
+            minMoved += partitions / Math.max(topology[i - 1], topology[i]);
+        }
+        assertThat(consistentHashMoved).isLessThan(minMoved * 2);
+        assertThat(consistentHashMoved).isLessThan(moduloMoved / 2);
+    }
+
+    @Test
+    public void testConsistentHashAssignmentBoundedLoad() {
+        HashPartitionService partitionService = createPartitionService("consistent_hash", 120);
+        List<ServiceInfo> services = createCoreServices(7);
+        List<List<ServiceInfo>> assignment = partitionService.resolveAssignment(services, new QueueKey(ServiceType.TB_CORE), 120, new HashMap<>());
+
+        Map<String, Integer> loads = new HashMap<>();
+        assignment.forEach(owners -> {
+            assertThat(owners).hasSize(1);
+            loads.merge(owners.get(0).getServiceId(), 1, Integer::sum);
+        });
+        assertThat(loads).hasSize(7);
+        assertThat(loads.values()).allSatisfy(load -> assertThat(load).isLessThanOrEqualTo((int) Math.ceil(1.25 * 120 / 7)));
+
+        // the same assignment is computed independently on every service
+        assertThat(createPartitionService("consistent_hash", 120).resolveAssignment(services, new QueueKey(ServiceType.TB_CORE), 120, new HashMap<>()))
+                .isEqualTo(assignment);
+    }
+
+    private int simulateTopologyChanges(String assignmentStrategy, int partitions, int[] topology) {
+        applicationEventPublisher = mock(ApplicationEventPublisher.class);
+        HashPartitionService partitionService = createPartitionService(assignmentStrategy, partitions);
+        int moved = 0;
+        for (int servers : topology) {
+            List<ServiceInfo> services = createCoreServices(servers);
+            partitionService.recalculatePartitions(services.get(0), services.subList(1, services.size()));
+            for (Invocation invocation : Mockito.mockingDetails(applicationEventPublisher).getInvocations()) {
+                if (invocation.getArgument(0) instanceof PartitionMovementPlanEvent planEvent) {
+                    moved += (int) planEvent.getMoves().stream()
+                            .filter(move -> move.queueKey().equals(new QueueKey(ServiceType.TB_CORE)))
+                            .count();
+                }
+            }
+            Mockito.clearInvocations(applicationEventPublisher);
+        }
+        return moved;
+    }
+
+    private List<ServiceInfo> createCoreServices(int count) {
+        List<ServiceInfo> services = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            services.add(ServiceInfo.newBuilder()
+                    .setServiceId("tb-core-" + i)
+                    .addAllServiceTypes(Collections.singletonList(ServiceType.TB_CORE.name()))
+                    .build());
+        }
+        return services;
+    }
+
     private HashPartitionService createPartitionService() {
+        return createPartitionService("modulo", 10);
+    }
+
+    private HashPartitionService createPartitionService(String assignmentStrategy, int corePartitions) {
         HashPartitionService partitionService = new HashPartitionService(
                 applicationEventPublisher,
                 serviceInfoProvider,
@@ -427,7 +499,7 @@ public class HashPartitionServiceTest {
                 Optional.of(queueRoutingInfoService),
                 topicService);
         ReflectionTestUtils.setField(partitionService, "coreTopic", "tb.core");
-        ReflectionTestUtils.setField(partitionService, "corePartitions", 10);
+        ReflectionTestUtils.setField(partitionService, "corePartitions", corePartitions);
         ReflectionTestUtils.setField(partitionService, "cfEventTopic", "tb_cf_event");
         ReflectionTestUtils.setField(partitionService, "cfStateTopic", "tb_cf_state");
         ReflectionTestUtils.setField(partitionService, "vcTopic", "tb.vc");
@@ -437,6 +509,9 @@ public class HashPartitionServiceTest {
         ReflectionTestUtils.setField(partitionService, "edgePartitions", 10);
         ReflectionTestUtils.setField(partitionService, "edqsPartitions", 12);
         ReflectionTestUtils.setField(partitionService, "defaultTasksPartitions", 12);
+        ReflectionTestUtils.setField(partitionService, "assignmentStrategy", assignmentStrategy);
+        ReflectionTestUtils.setField(partitionService, "consistentHashVirtualNodes", 100);
+        ReflectionTestUtils.setField(partitionService, "consistentHashLoadFactor", 1.25);
         partitionService.init();
         partitionService.partitionsInit();
         return partitionService;
@@ -0,0 +1,106 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.stats.DefaultStatsFactory;
+import org.thingsboard.server.queue.discovery.QueueKey;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TbRuleEngineConsumerStatsTest {
+
+    MeterRegistry meterRegistry;
+    TbRuleEngineConsumerStats stats;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DefaultStatsFactory statsFactory = new DefaultStatsFactory();
+        ReflectionTestUtils.setField(statsFactory, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(statsFactory, "metricsEnabled", true);
+        stats = new TbRuleEngineConsumerStats(new QueueKey(ServiceType.TB_RULE_ENGINE, "Main"), statsFactory, 2);
+    }
+
+    @Test
+    void givenSameTenant_whenGetTimerWithDifferentStatus_thenSeparateTimersAreCreated() {
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+
+        assertThat(stats.getTimer(tenantId, "SUCCESSFUL")).isNotSameAs(stats.getTimer(tenantId, "FAILED"));
+        assertThat(stats.getTimer(tenantId, "SUCCESSFUL")).isSameAs(stats.getTimer(tenantId, "SUCCESSFUL"));
+        assertThat(meterRegistry.find("ruleEngine.Main").tag("tenantId", tenantId.toString()).timers()).hasSize(2);
+    }
+
+    @Test
+    void givenMoreTenantsThanMaxTags_whenGetTimer_thenOtherTenantsShareTag() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        assertThat(stats.getTenantTag(first)).isEqualTo(first.toString());
+        assertThat(stats.getTenantTag(second)).isEqualTo(second.toString());
+        assertThat(stats.getTenantTag(third)).isEqualTo(TbRuleEngineConsumerStats.OTHER_TENANTS_TAG);
+        assertThat(stats.getTenantTag(first)).isEqualTo(first.toString());
+
+        stats.getTimer(TenantId.fromUUID(third), "SUCCESSFUL");
+        stats.getTimer(TenantId.fromUUID(UUID.randomUUID()), "SUCCESSFUL");
+        assertThat(meterRegistry.find("ruleEngine.Main").tag("tenantId", TbRuleEngineConsumerStats.OTHER_TENANTS_TAG).timers()).hasSize(1);
+    }
+
+    @Test
+    void givenConcurrentCallers_whenGetTenantTag_thenMaxTagsIsNotExceeded() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> tasks = IntStream.range(0, 64)
+                    .mapToObj(i -> (Callable<String>) () -> stats.getTenantTag(UUID.randomUUID()))
+                    .toList();
+            Set<String> tags = new HashSet<>();
+            for (Future<String> tag : executor.invokeAll(tasks)) {
+                tags.add(tag.get());
+            }
+
+            assertThat(tags).hasSize(3).contains(TbRuleEngineConsumerStats.OTHER_TENANTS_TAG);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void givenPartition_whenGetPackTimer_thenTimerIsTaggedWithPartition() {
+        stats.getPackTimer("3").record(Duration.ofMillis(5));
+        stats.getPackTimer("3").record(Duration.ofMillis(7));
+
+        assertThat(meterRegistry.get("ruleEngine.Main.pack").tag("partition", "3").timer().count()).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbRuleEngineFairSchedulerTest {
+
+    private final UUID tenantA = UUID.randomUUID();
+    private final UUID tenantB = UUID.randomUUID();
+    private final UUID tenantC = UUID.randomUUID();
+
+    @Test
+    public void testSingleTenantWithinLimitIsNotSplit() {
+        TbRuleEngineFairScheduler scheduler = new TbRuleEngineFairScheduler(10, 100, tenantId -> 1);
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs = msgs(tenantA, 50);
+
+        List<List<TbProtoQueueMsg<ToRuleEngineMsg>>> packs = scheduler.schedule(msgs);
+
+        assertThat(packs).hasSize(1);
+        assertThat(packs.get(0)).isSameAs(msgs);
+    }
+
+    @Test
+    public void testTenantsAreInterleavedByWeight() {
+        Map<UUID, Integer> weights = Map.of(tenantA, 1, tenantB, 2);
+        TbRuleEngineFairScheduler scheduler = new TbRuleEngineFairScheduler(2, 100, weights::get);
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs = new ArrayList<>();
+        msgs.addAll(msgs(tenantA, 6));
+        msgs.addAll(msgs(tenantB, 6));
+
+        List<List<TbProtoQueueMsg<ToRuleEngineMsg>>> packs = scheduler.schedule(msgs);
+
+        assertThat(packs).hasSize(1);
+        assertThat(tenants(packs.get(0))).containsExactly(
+                tenantA, tenantA, tenantB, tenantB, tenantB, tenantB,
+                tenantA, tenantA, tenantB, tenantB,
+                tenantA, tenantA);
+    }
+
+    @Test
+    public void testPerTenantLimitPerPack() {
+        Map<UUID, Integer> weights = Map.of(tenantA, 1, tenantB, 1, tenantC, 3);
+        TbRuleEngineFairScheduler scheduler = new TbRuleEngineFairScheduler(5, 10, weights::get);
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs = new ArrayList<>();
+        msgs.addAll(msgs(tenantA, 35));
+        msgs.addAll(msgs(tenantB, 5));
+        msgs.addAll(msgs(tenantC, 35));
+
+        List<List<TbProtoQueueMsg<ToRuleEngineMsg>>> packs = scheduler.schedule(msgs);
+
+        assertThat(packs).hasSize(4);
+        assertThat(countByTenant(packs.get(0))).isEqualTo(Map.of(tenantA, 10L, tenantB, 5L, tenantC, 30L));
+        assertThat(countByTenant(packs.get(1))).isEqualTo(Map.of(tenantA, 10L, tenantC, 5L));
+        assertThat(countByTenant(packs.get(2))).isEqualTo(Map.of(tenantA, 10L));
+        assertThat(countByTenant(packs.get(3))).isEqualTo(Map.of(tenantA, 5L));
+    }
+
+    @Test
+    public void testOrderOfTenantMsgsIsPreserved() {
+        TbRuleEngineFairScheduler scheduler = new TbRuleEngineFairScheduler(3, 7, tenantId -> 1);
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            msgs.addAll(msgs(i % 3 == 0 ? tenantA : tenantB, 1));
+        }
+
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> scheduled = scheduler.schedule(msgs).stream().flatMap(List::stream).toList();
+
+        assertThat(scheduled).containsExactlyInAnyOrderElementsOf(msgs);
+        for (UUID tenantId : List.of(tenantA, tenantB)) {
+            assertThat(scheduled.stream().filter(msg -> tenantId.equals(tenantId(msg))).toList())
+                    .containsExactlyElementsOf(msgs.stream().filter(msg -> tenantId.equals(tenantId(msg))).toList());
+        }
+    }
+
+    /**
+     * Simulates a poll of a shared queue with a burst of a noisy tenant followed by the messages of the quiet tenants.
+     * Every message takes one unit of processing time, so the latency of a message is its position in the processing order.
+     */
+    @Test
+    public void testQuietTenantsLatencyWithNoisyNeighbour() {
+        List<UUID> quietTenants = new ArrayList<>();
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs = new ArrayList<>(msgs(tenantA, 2000));
+        for (int i = 0; i < 10; i++) {
+            UUID quietTenant = UUID.randomUUID();
+            quietTenants.add(quietTenant);
+            msgs.addAll(msgs(quietTenant, 5));
+        }
+
+        long fifoP99 = quietP99(msgs, quietTenants);
+        long fairP99 = quietP99(new TbRuleEngineFairScheduler(10, 100, tenantId -> 1).schedule(msgs).stream()
+                .flatMap(List::stream).toList(), quietTenants);
+
+        assertThat(fifoP99).isGreaterThan(2000);
+        assertThat(fairP99).isLessThanOrEqualTo(150);
+    }
+
+    private long quietP99(List<TbProtoQueueMsg<ToRuleEngineMsg>> processingOrder, List<UUID> quietTenants) {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < processingOrder.size(); i++) {
+            if (quietTenants.contains(tenantId(processingOrder.get(i)))) {
+                latencies.add((long) i + 1);
+            }
+        }
+        latencies.sort(Long::compare);
+        return latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+    }
+
+    private static Map<UUID, Long> countByTenant(List<TbProtoQueueMsg<ToRuleEngineMsg>> pack) {
+        return pack.stream().collect(Collectors.groupingBy(TbRuleEngineFairSchedulerTest::tenantId, Collectors.counting()));
+    }
+
+    private static List<UUID> tenants(List<TbProtoQueueMsg<ToRuleEngineMsg>> pack) {
+        return pack.stream().map(TbRuleEngineFairSchedulerTest::tenantId).toList();
+    }
+
+    private static UUID tenantId(TbProtoQueueMsg<ToRuleEngineMsg> msg) {
+        return new UUID(msg.getValue().getTenantIdMSB(), msg.getValue().getTenantIdLSB());
+    }
+
+    private static List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs(UUID tenantId, int count) {
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            msgs.add(new TbProtoQueueMsg<>(UUID.randomUUID(), ToRuleEngineMsg.newBuilder()
+                    .setTenantIdMSB(tenantId.getMostSignificantBits())
+                    .setTenantIdLSB(tenantId.getLeastSignificantBits())
+                    .build()));
+        }
+        return msgs;
+    }
+
+}
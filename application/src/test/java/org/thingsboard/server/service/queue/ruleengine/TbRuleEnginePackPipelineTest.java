@@ -0,0 +1,137 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.TbQueueConsumer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class TbRuleEnginePackPipelineTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    public void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCommitWaitsForPreviousPacks() throws Exception {
+        TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer = mock(TbQueueConsumer.class);
+        Map<Integer, CountDownLatch> latches = new ConcurrentHashMap<>();
+        TbRuleEnginePackPipeline pipeline = new TbRuleEnginePackPipeline(consumer, pack -> {
+            latches.computeIfAbsent(pack.size(), size -> new CountDownLatch(1)).await();
+            return true;
+        }, executor, new TbRuleEnginePackSizer(1, 10, 60000), 3, 10, () -> true);
+
+        pipeline.submit(msgs(1), "first");
+        pipeline.submit(msgs(2), "second");
+        latches.computeIfAbsent(2, size -> new CountDownLatch(1)).countDown();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> latches.get(2).getCount() == 0);
+        Thread.sleep(50);
+        pipeline.commitCompleted();
+
+        verify(consumer, never()).commit(any());
+        assertThat(pipeline.getPacksInFlight()).isEqualTo(2);
+
+        latches.computeIfAbsent(1, size -> new CountDownLatch(1)).countDown();
+        pipeline.drain();
+
+        verify(consumer).commit("second");
+        verify(consumer, never()).commit("first");
+        assertThat(pipeline.getPacksInFlight()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testMaxPacksInFlight() throws Exception {
+        TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer = mock(TbQueueConsumer.class);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Integer> packSizes = new ArrayList<>();
+        TbRuleEnginePackPipeline pipeline = new TbRuleEnginePackPipeline(consumer, pack -> {
+            synchronized (packSizes) {
+                packSizes.add(pack.size());
+            }
+            latch.await();
+            return true;
+        }, executor, new TbRuleEnginePackSizer(2, 2, 60000), 2, 10, () -> true);
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        executor.submit(() -> {
+            pipeline.submit(msgs(5), "position");
+            submitted.countDown();
+            return null;
+        });
+
+        assertThat(submitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        synchronized (packSizes) {
+            assertThat(packSizes).containsExactly(2, 2);
+        }
+
+        latch.countDown();
+        assertThat(submitted.await(5, TimeUnit.SECONDS)).isTrue();
+        synchronized (packSizes) {
+            assertThat(packSizes).containsExactly(2, 2, 1);
+        }
+    }
+
+    @Test
+    public void testPackSizer() {
+        TbRuleEnginePackSizer packSizer = new TbRuleEnginePackSizer(10, 100, 500);
+        assertThat(packSizer.getPackSize()).isEqualTo(100);
+
+        packSizer.onPackProcessed(100, 1000);
+        assertThat(packSizer.getPackSize()).isEqualTo(50);
+        packSizer.onPackProcessed(50, 1000);
+        packSizer.onPackProcessed(25, 1000);
+        packSizer.onPackProcessed(12, 1000);
+        assertThat(packSizer.getPackSize()).isEqualTo(10);
+
+        packSizer.onPackProcessed(5, 100);
+        assertThat(packSizer.getPackSize()).isEqualTo(10);
+        packSizer.onPackProcessed(10, 100);
+        assertThat(packSizer.getPackSize()).isEqualTo(20);
+    }
+
+    private static List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs(int count) {
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            msgs.add(new TbProtoQueueMsg<>(UUID.randomUUID(), ToRuleEngineMsg.getDefaultInstance()));
+        }
+        return msgs;
+    }
+
+}
@@ -47,6 +47,7 @@ import org.thingsboard.server.common.msg.queue.QueueToRuleEngineMsg;
 import org.thingsboard.server.common.msg.queue.ServiceType;
 import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
 import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.dao.tenant.TbTenantProfileCache;
 import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
 import org.thingsboard.server.queue.TbQueueAdmin;
 import org.thingsboard.server.queue.TbQueueProducer;
@@ -122,6 +123,8 @@ public class TbRuleEngineQueueConsumerManagerTest {
     private TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> ruleEngineMsgProducer;
     @Mock
     private TbQueueAdmin queueAdmin;
+    @Mock
+    private TbTenantProfileCache tenantProfileCache;
     private TbRuleEngineConsumerContext ruleEngineConsumerContext;
     private ExecutorService consumersExecutor;
     private ScheduledExecutorService scheduler;
@@ -140,7 +143,7 @@ public class TbRuleEngineQueueConsumerManagerTest {
         ruleEngineConsumerContext = new TbRuleEngineConsumerContext(
                 actorContext, statsFactory, spy(new TbRuleEngineSubmitStrategyFactory()),
                 spy(new TbRuleEngineProcessingStrategyFactory()), queueFactory, statisticsService,
-                serviceInfoProvider, partitionService, producerProvider, queueAdmin
+                serviceInfoProvider, partitionService, producerProvider, queueAdmin, tenantProfileCache
         );
         consumers = ConcurrentHashMap.newKeySet();
         generateQueueMsgs = true;
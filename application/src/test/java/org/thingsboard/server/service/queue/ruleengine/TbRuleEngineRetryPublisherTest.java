@@ -0,0 +1,163 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.thingsboard.server.common.data.EntityType;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.queue.ProcessingStrategy;
+import org.thingsboard.server.common.data.queue.ProcessingStrategyType;
+import org.thingsboard.server.common.data.queue.Queue;
+import org.thingsboard.server.common.msg.gen.MsgProtos;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueProducer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.discovery.PartitionService;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TbRuleEngineRetryPublisherTest {
+
+    private TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> producer;
+    private Queue queue;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    public void beforeEach() {
+        producer = mock(TbQueueProducer.class);
+        doAnswer(inv -> {
+            inv.<TbQueueCallback>getArgument(2).onSuccess(null);
+            return null;
+        }).when(producer).send(any(), any(), any());
+
+        queue = new Queue();
+        queue.setName("Main");
+        queue.setTopic("tb_rule_engine.main");
+        ProcessingStrategy processingStrategy = new ProcessingStrategy();
+        processingStrategy.setType(ProcessingStrategyType.RETRY_FAILED_AND_TIMED_OUT);
+        processingStrategy.setRetries(3);
+        processingStrategy.setPauseBetweenRetries(3);
+        processingStrategy.setMaxPauseBetweenRetries(10);
+        queue.setProcessingStrategy(processingStrategy);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testPublishToRetryTopic() throws Exception {
+        TbRuleEngineRetryPublisher publisher = new TbRuleEngineRetryPublisher(producer, partitionService(), true);
+        long ts = System.currentTimeMillis();
+
+        boolean published = publisher.publish(queue, List.of(msg(0), msg(1)), 1000);
+
+        assertThat(published).isTrue();
+        ArgumentCaptor<TopicPartitionInfo> tpiCaptor = ArgumentCaptor.forClass(TopicPartitionInfo.class);
+        ArgumentCaptor<TbProtoQueueMsg<ToRuleEngineMsg>> msgCaptor = ArgumentCaptor.forClass(TbProtoQueueMsg.class);
+        verify(producer, times(2)).send(tpiCaptor.capture(), msgCaptor.capture(), any());
+        assertThat(tpiCaptor.getAllValues()).allSatisfy(tpi -> {
+            assertThat(tpi.getFullTopicName()).isEqualTo("tb_rule_engine.main.retry.3");
+        });
+        ToRuleEngineMsg first = msgCaptor.getAllValues().get(0).getValue();
+        assertThat(first.getRetryAttempt()).isEqualTo(1);
+        assertThat(first.getRetryDueTs()).isBetween(ts + 3000, System.currentTimeMillis() + 3000);
+        ToRuleEngineMsg second = msgCaptor.getAllValues().get(1).getValue();
+        assertThat(second.getRetryAttempt()).isEqualTo(2);
+        assertThat(second.getRetryDueTs()).isBetween(ts + 6000, System.currentTimeMillis() + 6000);
+    }
+
+    @Test
+    public void testPublishToDlqAfterMaxRetries() throws Exception {
+        TbRuleEngineRetryPublisher publisher = new TbRuleEngineRetryPublisher(producer, partitionService(), true);
+
+        assertThat(publisher.publish(queue, List.of(msg(3)), 1000)).isTrue();
+
+        ArgumentCaptor<TopicPartitionInfo> tpiCaptor = ArgumentCaptor.forClass(TopicPartitionInfo.class);
+        verify(producer).send(tpiCaptor.capture(), any(), any());
+        assertThat(tpiCaptor.getValue().getFullTopicName()).isEqualTo("tb_rule_engine.main.dlq.3");
+    }
+
+    @Test
+    public void testDropAfterMaxRetriesWhenDlqDisabled() throws Exception {
+        TbRuleEngineRetryPublisher publisher = new TbRuleEngineRetryPublisher(producer, partitionService(), false);
+
+        assertThat(publisher.publish(queue, List.of(msg(3)), 1000)).isTrue();
+
+        verify(producer, never()).send(any(), any(), any());
+    }
+
+    @Test
+    public void testPublishFailure() throws Exception {
+        doAnswer(inv -> {
+            inv.<TbQueueCallback>getArgument(2).onFailure(new RuntimeException("Kafka is down"));
+            return null;
+        }).when(producer).send(any(), any(), any());
+        TbRuleEngineRetryPublisher publisher = new TbRuleEngineRetryPublisher(producer, partitionService(), true);
+
+        assertThat(publisher.publish(queue, List.of(msg(0)), 1000)).isFalse();
+    }
+
+    @Test
+    public void testBackoff() {
+        ProcessingStrategy processingStrategy = queue.getProcessingStrategy();
+
+        assertThat(TbRuleEngineRetryPublisher.getBackoffMs(processingStrategy, 1)).isEqualTo(3000);
+        assertThat(TbRuleEngineRetryPublisher.getBackoffMs(processingStrategy, 2)).isEqualTo(6000);
+        assertThat(TbRuleEngineRetryPublisher.getBackoffMs(processingStrategy, 3)).isEqualTo(10000);
+        assertThat(TbRuleEngineRetryPublisher.getBackoffMs(processingStrategy, 100)).isEqualTo(10000);
+
+        processingStrategy.setMaxPauseBetweenRetries(0);
+        assertThat(TbRuleEngineRetryPublisher.getBackoffMs(processingStrategy, 3)).isEqualTo(3000);
+
+        processingStrategy.setPauseBetweenRetries(0);
+        assertThat(TbRuleEngineRetryPublisher.getBackoffMs(processingStrategy, 3)).isZero();
+    }
+
+    private PartitionService partitionService() {
+        PartitionService partitionService = mock(PartitionService.class);
+        when(partitionService.resolve(any(), eq(queue.getName()), any(), any()))
+                .thenReturn(new TopicPartitionInfo(queue.getTopic(), TenantId.SYS_TENANT_ID, 3, true));
+        return partitionService;
+    }
+
+    private static TbProtoQueueMsg<ToRuleEngineMsg> msg(int retryAttempt) {
+        UUID tenantId = UUID.randomUUID();
+        UUID deviceId = UUID.randomUUID();
+        return new TbProtoQueueMsg<>(UUID.randomUUID(), ToRuleEngineMsg.newBuilder()
+                .setTenantIdMSB(tenantId.getMostSignificantBits())
+                .setTenantIdLSB(tenantId.getLeastSignificantBits())
+                .setTbMsgProto(MsgProtos.TbMsgProto.newBuilder()
+                        .setEntityType(EntityType.DEVICE.name())
+                        .setEntityIdMSB(deviceId.getMostSignificantBits())
+                        .setEntityIdLSB(deviceId.getLeastSignificantBits()))
+                .setRetryAttempt(retryAttempt)
+                .build());
+    }
+
+}
@@ -91,7 +91,7 @@ public class TbRuleEngineStrategyTest {
         ruleEngineConsumerContext = new TbRuleEngineConsumerContext(
                 actorContext, mock(), new TbRuleEngineSubmitStrategyFactory(),
                 new TbRuleEngineProcessingStrategyFactory(), mock(), mock(),
-                mock(), mock(), mock(), mock()
+                mock(), mock(), mock(), mock(), mock()
         );
         when(consumer.isStopped()).thenReturn(false);
     }
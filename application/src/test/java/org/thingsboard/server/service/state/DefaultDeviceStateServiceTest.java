@@ -17,6 +17,7 @@ package org.thingsboard.server.service.state;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,6 +35,8 @@ import org.thingsboard.rule.engine.api.AttributesSaveRequest;
 import org.thingsboard.server.cluster.TbClusterService;
 import org.thingsboard.server.common.data.AttributeScope;
 import org.thingsboard.server.common.data.Device;
+import org.thingsboard.server.common.data.DeviceIdInfo;
+import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -41,6 +44,7 @@ import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.data.kv.AttributesSaveResult;
 import org.thingsboard.server.common.data.msg.TbMsgType;
 import org.thingsboard.server.common.data.notification.rule.trigger.DeviceActivityTrigger;
+import org.thingsboard.server.common.data.page.PageData;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.TbMsgMetaData;
 import org.thingsboard.server.common.msg.notification.NotificationRuleProcessor;
@@ -53,6 +57,9 @@ import org.thingsboard.server.dao.sql.query.EntityQueryRepository;
 import org.thingsboard.server.dao.timeseries.TimeseriesService;
 import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.queue.discovery.QueueKey;
+import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
+import org.thingsboard.server.queue.discovery.event.PartitionMovementPlanEvent;
 import org.thingsboard.server.queue.usagestats.DefaultTbApiUsageReportClient;
 import org.thingsboard.server.service.telemetry.TelemetrySubscriptionService;
 
@@ -60,6 +67,7 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -83,6 +91,7 @@ import static org.mockito.BDDMockito.willReturn;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -1122,6 +1131,94 @@ class DefaultDeviceStateServiceTest {
         });
     }
 
+    @Test
+    void givenDeviceStateData_whenConvertedToHandoffSnapshotAndBack_thenStateIsPreserved() {
+        // GIVEN
+        DeviceStateData stateData = createHandoffStateData(true);
+
+        // WHEN
+        DeviceStateData restored = DefaultDeviceStateService.fromSnapshotProto(DefaultDeviceStateService.toSnapshotProto(stateData));
+
+        // THEN
+        assertThat(restored).isEqualTo(stateData);
+    }
+
+    @Test
+    void givenPartitionMovesToAnotherService_whenHandOffDeviceStates_thenStatesArePushedToNewOwner() {
+        // GIVEN
+        ReflectionTestUtils.setField(service, "handoffPackSize", 1000);
+        DeviceStateData stateData = createHandoffStateData(true);
+        service.deviceStates.put(deviceId, stateData);
+        service.getPartitionedEntities(tpi).add(deviceId);
+
+        // WHEN
+        service.handOffDeviceStates(Map.of(0, "tb-core-1"));
+
+        // THEN
+        ArgumentCaptor<TransportProtos.DeviceStateHandoffMsgProto> msgCaptor = ArgumentCaptor.forClass(TransportProtos.DeviceStateHandoffMsgProto.class);
+        then(clusterService).should().pushNotificationToCore(eq("tb-core-1"), msgCaptor.capture(), any());
+        TransportProtos.DeviceStateHandoffMsgProto msg = msgCaptor.getValue();
+        assertThat(msg.getPartition()).isEqualTo(0);
+        assertThat(msg.getLast()).isTrue();
+        assertThat(msg.getStatesList()).containsExactly(DefaultDeviceStateService.toSnapshotProto(stateData));
+    }
+
+    @Test
+    void givenHandoffFromPreviousOwner_whenPartitionAdded_thenDeviceStatesAreNotFetchedFromDb() throws Exception {
+        // GIVEN
+        ListeningScheduledExecutorService scheduledExecutor = MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+        try {
+            TbServiceInfoProvider serviceInfoProvider = mock(TbServiceInfoProvider.class);
+            given(serviceInfoProvider.getServiceId()).willReturn("tb-core-0");
+            ReflectionTestUtils.setField(service, "serviceInfoProvider", serviceInfoProvider);
+            ReflectionTestUtils.setField(service, "scheduledExecutor", scheduledExecutor);
+            ReflectionTestUtils.setField(service, "handoffEnabled", true);
+            ReflectionTestUtils.setField(service, "handoffWaitTimeoutMs", TimeUnit.MINUTES.toMillis(1));
+            given(deviceService.findDeviceIdInfos(any())).willReturn(new PageData<>(List.of(new DeviceIdInfo(tenantId.getId(), null, deviceId.getId())), 1, 1, false));
+
+            var move = new PartitionMovementPlanEvent.PartitionMove(new QueueKey(ServiceType.TB_CORE), 0, List.of("tb-core-1"), List.of("tb-core-0"));
+            service.onPartitionMovementPlan(new PartitionMovementPlanEvent(this, List.of(move), 10, Set.of("tb-core-0", "tb-core-1")));
+            DeviceStateData stateData = createHandoffStateData(false);
+
+            // WHEN
+            service.onHandoffMsg(TransportProtos.DeviceStateHandoffMsgProto.newBuilder()
+                    .setPartition(0)
+                    .addStates(DefaultDeviceStateService.toSnapshotProto(stateData))
+                    .setLast(true)
+                    .build(), TbCallback.EMPTY);
+            var fetchTasks = service.onAddedPartitions(Set.of(tpi));
+            Futures.allAsList(fetchTasks.get(tpi)).get(5, TimeUnit.SECONDS);
+
+            // THEN
+            assertThat(service.deviceStates.get(deviceId)).isEqualTo(stateData);
+            assertThat(service.getPartitionedEntities(tpi)).containsExactly(deviceId);
+            assertThat(service.pendingHandoffs).isEmpty();
+            then(entityQueryRepository).shouldHaveNoInteractions();
+        } finally {
+            scheduledExecutor.shutdownNow();
+        }
+    }
+
+    private DeviceStateData createHandoffStateData(boolean active) {
+        TbMsgMetaData md = new TbMsgMetaData();
+        md.putValue("deviceName", "Thermostat A");
+        md.putValue("deviceType", "thermostat");
+        return DeviceStateData.builder()
+                .tenantId(tenantId)
+                .customerId(new CustomerId(UUID.fromString("aa4c3b21-8cd1-4a9b-9c3f-1f7b0c2c6a11")))
+                .deviceId(deviceId)
+                .deviceCreationTime(1000L)
+                .metaData(md)
+                .state(DeviceState.builder()
+                        .active(active)
+                        .lastConnectTime(2000L)
+                        .lastActivityTime(3000L)
+                        .lastDisconnectTime(1500L)
+                        .inactivityTimeout(defaultInactivityTimeoutMs)
+                        .build())
+                .build();
+    }
+
     private void mockSuccessfulSaveAttributes() {
         lenient().when(telemetrySubscriptionService.saveAttributesInternal(any())).thenAnswer(invocation -> {
             AttributesSaveRequest request = invocation.getArgument(0);
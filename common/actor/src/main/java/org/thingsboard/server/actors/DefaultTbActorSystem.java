@@ -22,6 +22,7 @@ import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.server.common.msg.TbActorMsg;
 
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -47,15 +48,23 @@ public class DefaultTbActorSystem implements TbActorSystem {
     private final TbActorSystemSettings settings;
     @Getter
     private final ScheduledExecutorService scheduler;
+    @Getter
+    private final TbActorSystemMetrics metrics;
 
     public DefaultTbActorSystem(TbActorSystemSettings settings) {
+        this(settings, null);
+    }
+
+    public DefaultTbActorSystem(TbActorSystemSettings settings, TbActorSystemMetrics metrics) {
         this.settings = settings;
+        this.metrics = metrics;
         this.scheduler = ThingsBoardExecutors.newScheduledThreadPool(settings.getSchedulerPoolSize(), "actor-system-scheduler");
     }
 
     @Override
     public void createDispatcher(String dispatcherId, ExecutorService executor) {
-        Dispatcher current = dispatchers.putIfAbsent(dispatcherId, new Dispatcher(dispatcherId, executor));
+        Dispatcher current = dispatchers.putIfAbsent(dispatcherId, new Dispatcher(dispatcherId, executor,
+                metrics != null ? metrics.getDispatcherStats(dispatcherId) : null));
         if (current != null) {
             throw new RuntimeException("Dispatcher with id [" + dispatcherId + "] is already registered!");
         }
@@ -112,7 +121,8 @@ public class DefaultTbActorSystem implements TbActorSystem {
                             throw new TbActorNotRegisteredException(parent, "Parent Actor with id [" + parent + "] is not registered!");
                         }
                     }
-                    TbActorMailbox mailbox = new TbActorMailbox(this, settings, actorId, parentRef, actor, dispatcher);
+                    TbActorMailbox mailbox = new TbActorMailbox(this, settings, actorId, parentRef, actor, dispatcher,
+                            metrics != null ? metrics.getActorTypeStats(actor.getClass().getSimpleName()) : null);
                     actors.put(actorId, mailbox);
                     mailbox.initActor();
                     actorMailbox = mailbox;
@@ -191,6 +201,20 @@ public class DefaultTbActorSystem implements TbActorSystem {
         }
     }
 
+    @Override
+    public TbActorSystemStats getStats(int topActorsLimit) {
+        if (metrics == null) {
+            return null;
+        }
+        List<TbActorStats> topActors = actors.values().stream()
+                .filter(mailbox -> mailbox.getSampledMsgs() > 0)
+                .sorted(Comparator.comparingLong(TbActorMailbox::getSampledTimeNanos).reversed())
+                .limit(Math.max(0, topActorsLimit))
+                .map(TbActorMailbox::toStats)
+                .collect(Collectors.toList());
+        return new TbActorSystemStats(metrics.getSampleRate(), metrics.getDispatcherStats(), metrics.getActorTypeStats(), topActors);
+    }
+
     @Override
     public void stop(TbActorRef actorRef) {
         stop(actorRef.getActorId());
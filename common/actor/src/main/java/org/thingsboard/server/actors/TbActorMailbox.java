@@ -16,7 +16,6 @@
 package org.thingsboard.server.actors;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.common.util.RecoveryAware;
@@ -24,7 +23,10 @@ import org.thingsboard.server.common.msg.MsgType;
 import org.thingsboard.server.common.msg.TbActorMsg;
 import org.thingsboard.server.common.msg.TbActorStopReason;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -33,7 +35,6 @@ import java.util.function.Supplier;
 
 @Slf4j
 @Getter
-@RequiredArgsConstructor
 public final class TbActorMailbox implements TbActorCtx {
 
     private static final boolean HIGH_PRIORITY = true;
@@ -58,7 +59,33 @@ public final class TbActorMailbox implements TbActorCtx {
     private final AtomicBoolean destroyInProgress = new AtomicBoolean();
     private volatile TbActorStopReason stopReason;
 
+    private final TbDispatcherStats dispatcherStats;
+    private final TbActorTypeStats actorTypeStats;
+    private int msgCounter;
+    private volatile long sampledMsgs;
+    private volatile long sampledTimeNanos;
+    private volatile long maxProcessingTimeNanos;
+
+    public TbActorMailbox(TbActorSystem system, TbActorSystemSettings settings, TbActorId selfId, TbActorRef parentRef, TbActor actor, Dispatcher dispatcher) {
+        this(system, settings, selfId, parentRef, actor, dispatcher, null);
+    }
+
+    public TbActorMailbox(TbActorSystem system, TbActorSystemSettings settings, TbActorId selfId, TbActorRef parentRef, TbActor actor, Dispatcher dispatcher,
+                          TbActorTypeStats actorTypeStats) {
+        this.system = system;
+        this.settings = settings;
+        this.selfId = selfId;
+        this.parentRef = parentRef;
+        this.actor = actor;
+        this.dispatcher = dispatcher;
+        this.dispatcherStats = dispatcher != null && actorTypeStats != null ? dispatcher.getStats() : null;
+        this.actorTypeStats = dispatcherStats != null ? actorTypeStats : null;
+    }
+
     public void initActor() {
+        if (actorTypeStats != null) {
+            actorTypeStats.onCreated();
+        }
         dispatcher.getExecutor().execute(() -> tryInit(1));
     }
 
@@ -73,6 +100,9 @@ public final class TbActorMailbox implements TbActorCtx {
                 }
             }
         } catch (Throwable t) {
+            if (actorTypeStats != null) {
+                actorTypeStats.onInitFailure();
+            }
             InitFailureStrategy strategy;
             int attemptIdx = attempt + 1;
             if (isUnrecoverable(t)) {
@@ -111,6 +141,9 @@ public final class TbActorMailbox implements TbActorCtx {
             } else {
                 normalPriorityMsgs.add(msg);
             }
+            if (dispatcherStats != null) {
+                dispatcherStats.onMsgEnqueued();
+            }
             tryProcessQueue(true);
         } else {
             if (highPriority && msg.getMsgType().equals(MsgType.RULE_NODE_UPDATED_MSG)) {
@@ -146,6 +179,10 @@ public final class TbActorMailbox implements TbActorCtx {
     }
 
     private void processMailbox() {
+        if (settings.getCoalescingBatchSize() > 0 && actor instanceof TbCoalescingActor coalescingActor) {
+            processMailboxBatch(coalescingActor);
+            return;
+        }
         boolean noMoreElements = false;
         for (int i = 0; i < settings.getActorThroughput(); i++) {
             TbActorMsg msg = highPriorityMsgs.poll();
@@ -153,24 +190,104 @@ public final class TbActorMailbox implements TbActorCtx {
                 msg = normalPriorityMsgs.poll();
             }
             if (msg != null) {
-                try {
-                    log.trace("[{}] Going to process message: {}", selfId, msg);
-                    actor.process(msg);
-                } catch (TbRuleNodeUpdateException updateException) {
-                    stopReason = TbActorStopReason.INIT_FAILED;
-                    destroy(updateException.getCause());
-                } catch (Throwable t) {
-                    log.debug("[{}] Failed to process message: {}", selfId, msg, t);
-                    ProcessFailureStrategy strategy = actor.onProcessFailure(msg, t);
-                    if (strategy.isStop()) {
-                        system.stop(selfId);
-                    }
-                }
+                processMsg(msg);
             } else {
                 noMoreElements = true;
                 break;
             }
         }
+        onMailboxProcessed(noMoreElements);
+    }
+
+    private void processMailboxBatch(TbCoalescingActor coalescingActor) {
+        int batchSize = settings.getCoalescingBatchSize();
+        List<TbActorMsg> batch = new ArrayList<>(Math.min(batchSize, normalPriorityMsgs.size()));
+        TbActorMsg msg;
+        while (batch.size() < batchSize && (msg = normalPriorityMsgs.poll()) != null) {
+            batch.add(msg);
+        }
+        if (batch.size() > 1) {
+            coalesce(coalescingActor, batch);
+        }
+        for (TbActorMsg batchMsg : batch) {
+            if (batchMsg != null) {
+                processHighPriorityMsgs();
+                processMsg(batchMsg);
+            }
+        }
+        processHighPriorityMsgs();
+        onMailboxProcessed(batch.size() < batchSize && highPriorityMsgs.isEmpty());
+    }
+
+    private void coalesce(TbCoalescingActor coalescingActor, List<TbActorMsg> batch) {
+        Map<Object, TbActorMsg> latestMsgs = new HashMap<>();
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            TbActorMsg msg = batch.get(i);
+            Object key = coalescingActor.getCoalescingKey(msg);
+            if (key != null) {
+                TbActorMsg latest = latestMsgs.putIfAbsent(key, msg);
+                if (latest != null) {
+                    log.trace("[{}] Coalesced message: {}", selfId, msg);
+                    batch.set(i, null);
+                    onMsgDropped();
+                    coalescingActor.onCoalesced(msg, latest);
+                }
+            }
+        }
+    }
+
+    private void processHighPriorityMsgs() {
+        TbActorMsg msg;
+        for (int i = 0; i < settings.getActorThroughput() && (msg = highPriorityMsgs.poll()) != null; i++) {
+            processMsg(msg);
+        }
+    }
+
+    private void processMsg(TbActorMsg msg) {
+        long startTs = 0L;
+        if (dispatcherStats != null) {
+            dispatcherStats.onMsgProcessed();
+            if (++msgCounter % actorTypeStats.getSampleRate() == 0) {
+                startTs = System.nanoTime();
+            }
+        }
+        try {
+            log.trace("[{}] Going to process message: {}", selfId, msg);
+            actor.process(msg);
+        } catch (TbRuleNodeUpdateException updateException) {
+            stopReason = TbActorStopReason.INIT_FAILED;
+            destroy(updateException.getCause());
+        } catch (Throwable t) {
+            log.debug("[{}] Failed to process message: {}", selfId, msg, t);
+            ProcessFailureStrategy strategy = actor.onProcessFailure(msg, t);
+            if (strategy.isStop()) {
+                system.stop(selfId);
+            }
+        }
+        if (startTs != 0L) {
+            recordProcessingTime(System.nanoTime() - startTs);
+        }
+    }
+
+    // Invoked by the single thread that currently owns the mailbox, hence the plain read-modify-write of the volatile fields.
+    private void recordProcessingTime(long nanos) {
+        sampledMsgs++;
+        sampledTimeNanos += nanos;
+        if (nanos > maxProcessingTimeNanos) {
+            maxProcessingTimeNanos = nanos;
+        }
+        actorTypeStats.recordProcessingTime(nanos);
+    }
+
+    TbActorStats toStats() {
+        long msgs = sampledMsgs;
+        long timeNanos = sampledTimeNanos;
+        return new TbActorStats(String.valueOf(selfId), actorTypeStats != null ? actorTypeStats.getActorType() : actor.getClass().getSimpleName(),
+                dispatcher != null ? dispatcher.getDispatcherId() : null, highPriorityMsgs.size() + normalPriorityMsgs.size(),
+                msgs, timeNanos, msgs > 0 ? timeNanos / msgs : 0L, maxProcessingTimeNanos);
+    }
+
+    private void onMailboxProcessed(boolean noMoreElements) {
         if (noMoreElements) {
             busy.set(FREE);
             dispatcher.getExecutor().execute(() -> tryProcessQueue(false));
@@ -233,16 +350,21 @@ public final class TbActorMailbox implements TbActorCtx {
         if (stopReason == null) {
             stopReason = TbActorStopReason.STOPPED;
         }
-        destroyInProgress.set(true);
+        boolean destroyed = destroyInProgress.getAndSet(true);
+        if (!destroyed && actorTypeStats != null) {
+            actorTypeStats.onDestroyed();
+        }
         dispatcher.getExecutor().execute(() -> {
             try {
                 ready.set(NOT_READY);
                 actor.destroy(stopReason, cause);
                 highPriorityMsgs.removeIf(msg -> {
+                    onMsgDropped();
                     msg.onTbActorStopped(stopReason);
                     return true;
                 });
                 normalPriorityMsgs.removeIf(msg -> {
+                    onMsgDropped();
                     msg.onTbActorStopped(stopReason);
                     return true;
                 });
@@ -252,6 +374,12 @@ public final class TbActorMailbox implements TbActorCtx {
         });
     }
 
+    private void onMsgDropped() {
+        if (dispatcherStats != null) {
+            dispatcherStats.onMsgDropped();
+        }
+    }
+
     @Override
     public TbActorId getActorId() {
         return selfId;
@@ -53,4 +53,6 @@ public interface TbActorSystem {
     void broadcastToChildren(TbActorId parent, Predicate<TbActorId> childFilter, TbActorMsg msg);
 
     List<TbActorId> filterChildren(TbActorId parent, Predicate<TbActorId> childFilter);
+
+    TbActorSystemStats getStats(int topActorsLimit);
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the actor system statistics: message backlog per dispatcher and lifecycle counters
+ * and sampled processing time per actor type. Only one of {@code sampleRate} messages is timed.
+ */
+public class TbActorSystemMetrics {
+
+    @Getter
+    private final int sampleRate;
+    private final Listener listener;
+    private final ConcurrentMap<String, TbDispatcherStats> dispatcherStats = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TbActorTypeStats> actorTypeStats = new ConcurrentHashMap<>();
+
+    public TbActorSystemMetrics(int sampleRate) {
+        this(sampleRate, null);
+    }
+
+    public TbActorSystemMetrics(int sampleRate, Listener listener) {
+        this.sampleRate = Math.max(1, sampleRate);
+        this.listener = listener;
+    }
+
+    public TbDispatcherStats getDispatcherStats(String dispatcherId) {
+        TbDispatcherStats stats = dispatcherStats.get(dispatcherId);
+        if (stats == null) {
+            stats = dispatcherStats.computeIfAbsent(dispatcherId, id -> {
+                TbDispatcherStats newStats = new TbDispatcherStats(id);
+                if (listener != null) {
+                    listener.onDispatcherRegistered(newStats);
+                }
+                return newStats;
+            });
+        }
+        return stats;
+    }
+
+    public TbActorTypeStats getActorTypeStats(String actorType) {
+        TbActorTypeStats stats = actorTypeStats.get(actorType);
+        if (stats == null) {
+            stats = actorTypeStats.computeIfAbsent(actorType, type -> {
+                TbActorTypeStats newStats = new TbActorTypeStats(type, sampleRate);
+                if (listener != null) {
+                    listener.onActorTypeRegistered(newStats);
+                }
+                return newStats;
+            });
+        }
+        return stats;
+    }
+
+    public List<TbDispatcherStats> getDispatcherStats() {
+        return new ArrayList<>(dispatcherStats.values());
+    }
+
+    public List<TbActorTypeStats> getActorTypeStats() {
+        return new ArrayList<>(actorTypeStats.values());
+    }
+
+    public interface Listener {
+
+        default void onDispatcherRegistered(TbDispatcherStats stats) {
+        }
+
+        default void onActorTypeRegistered(TbActorTypeStats stats) {
+        }
+
+    }
+
+}
@@ -23,5 +23,17 @@ public class TbActorSystemSettings {
     private final int actorThroughput;
     private final int schedulerPoolSize;
     private final int maxActorInitAttempts;
+    private final int coalescingBatchSize;
+
+    public TbActorSystemSettings(int actorThroughput, int schedulerPoolSize, int maxActorInitAttempts) {
+        this(actorThroughput, schedulerPoolSize, maxActorInitAttempts, 0);
+    }
+
+    public TbActorSystemSettings(int actorThroughput, int schedulerPoolSize, int maxActorInitAttempts, int coalescingBatchSize) {
+        this.actorThroughput = actorThroughput;
+        this.schedulerPoolSize = schedulerPoolSize;
+        this.maxActorInitAttempts = maxActorInitAttempts;
+        this.coalescingBatchSize = coalescingBatchSize;
+    }
 
 }
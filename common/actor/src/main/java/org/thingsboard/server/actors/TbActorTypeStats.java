@@ -0,0 +1,101 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+public class TbActorTypeStats {
+
+    @Getter
+    private final String actorType;
+    @Getter
+    private final int sampleRate;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder initFailures = new LongAdder();
+    private final LongAdder sampledMsgs = new LongAdder();
+    private final LongAdder sampledTimeNanos = new LongAdder();
+    private final AtomicLong maxProcessingTimeNanos = new AtomicLong();
+    /**
+     * Optional external recorder of the sampled processing time (e.g. Micrometer timer).
+     */
+    @Setter
+    private volatile LongConsumer recorder;
+
+    TbActorTypeStats(String actorType, int sampleRate) {
+        this.actorType = actorType;
+        this.sampleRate = sampleRate;
+    }
+
+    void onCreated() {
+        created.increment();
+    }
+
+    void onDestroyed() {
+        destroyed.increment();
+    }
+
+    void onInitFailure() {
+        initFailures.increment();
+    }
+
+    void recordProcessingTime(long nanos) {
+        sampledMsgs.increment();
+        sampledTimeNanos.add(nanos);
+        if (nanos > maxProcessingTimeNanos.get()) {
+            maxProcessingTimeNanos.accumulateAndGet(nanos, Math::max);
+        }
+        LongConsumer recorder = this.recorder;
+        if (recorder != null) {
+            recorder.accept(nanos);
+        }
+    }
+
+    public long getCreated() {
+        return created.sum();
+    }
+
+    public long getDestroyed() {
+        return destroyed.sum();
+    }
+
+    public long getActive() {
+        return created.sum() - destroyed.sum();
+    }
+
+    public long getInitFailures() {
+        return initFailures.sum();
+    }
+
+    public long getSampledMsgs() {
+        return sampledMsgs.sum();
+    }
+
+    public long getAvgProcessingTimeNanos() {
+        long count = sampledMsgs.sum();
+        return count > 0 ? sampledTimeNanos.sum() / count : 0L;
+    }
+
+    public long getMaxProcessingTimeNanos() {
+        return maxProcessingTimeNanos.get();
+    }
+
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors;
+
+import org.thingsboard.server.common.msg.TbActorMsg;
+
+/**
+ * Actor that allows the mailbox to drain normal priority messages in batches and drop redundant ones.
+ * Within a batch, only the latest message for each coalescing key is processed, at its original position.
+ * High priority messages are never coalesced and are still processed before the next message of the batch.
+ */
+public interface TbCoalescingActor extends TbActor {
+
+    /**
+     * @return key that identifies redundant messages, or {@code null} if the message must always be processed
+     */
+    Object getCoalescingKey(TbActorMsg msg);
+
+    /**
+     * Called for each message that was replaced by a newer message with the same key.
+     * Implementations should complete callbacks of the dropped message, if any.
+     */
+    default void onCoalesced(TbActorMsg dropped, TbActorMsg retained) {
+    }
+
+}
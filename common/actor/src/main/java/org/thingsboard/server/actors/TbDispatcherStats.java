@@ -0,0 +1,54 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class TbDispatcherStats {
+
+    @Getter
+    private final String dispatcherId;
+    private final LongAdder backlog = new LongAdder();
+    private final LongAdder processedMsgs = new LongAdder();
+
+    TbDispatcherStats(String dispatcherId) {
+        this.dispatcherId = dispatcherId;
+    }
+
+    void onMsgEnqueued() {
+        backlog.increment();
+    }
+
+    void onMsgProcessed() {
+        backlog.decrement();
+        processedMsgs.increment();
+    }
+
+    void onMsgDropped() {
+        backlog.decrement();
+    }
+
+    public long getBacklog() {
+        return backlog.sum();
+    }
+
+    public long getProcessedMsgs() {
+        return processedMsgs.sum();
+    }
+
+}
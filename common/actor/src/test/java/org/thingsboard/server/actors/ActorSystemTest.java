@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -37,6 +38,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @Slf4j
 public class ActorSystemTest {
@@ -111,6 +114,141 @@ public class ActorSystemTest {
         testActorsAndMessages(1000, 1000, 10);
     }
 
+    @Test
+    public void test1KActorsAnd1KMessagesVirtualThreads() throws InterruptedException {
+        assumeTrue(ThingsBoardExecutors.isVirtualThreadSupported(), "Virtual threads require Java 21+");
+        executor = ThingsBoardExecutors.newVirtualThreadPerTaskExecutor(getClass().getSimpleName());
+        actorSystem.createDispatcher(ROOT_DISPATCHER, executor);
+        testActorsAndMessages(1000, 1000, 10);
+    }
+
+    @Test
+    public void testBlockingActorsOnVirtualThreadDispatcher() throws InterruptedException {
+        assumeTrue(ThingsBoardExecutors.isVirtualThreadSupported(), "Virtual threads require Java 21+");
+        int actorsCount = parallelism * 50;
+        long blockMs = 100;
+
+        executor = ThingsBoardExecutors.newWorkStealingPool(parallelism, getClass());
+        actorSystem.createDispatcher(ROOT_DISPATCHER, executor);
+        long platformDuration = testBlockingActors(ROOT_DISPATCHER, actorsCount, blockMs);
+
+        String virtualDispatcher = "virtual-dispatcher";
+        ExecutorService virtualExecutor = ThingsBoardExecutors.newVirtualThreadPerTaskExecutor(getClass().getSimpleName());
+        actorSystem.createDispatcher(virtualDispatcher, virtualExecutor);
+        long virtualDuration = testBlockingActors(virtualDispatcher, actorsCount, blockMs);
+
+        log.info("Blocking actors: {}, platform dispatcher: {} ms, virtual dispatcher: {} ms", actorsCount, platformDuration, virtualDuration);
+        // platform pool processes at most 'parallelism' blocked actors at a time: ~50 x blockMs in total
+        assertThat(virtualDuration).isLessThan(platformDuration / 2);
+    }
+
+    @Test
+    public void testVirtualThreadDispatcherNotSupported() {
+        assumeFalse(ThingsBoardExecutors.isVirtualThreadSupported());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> ThingsBoardExecutors.newVirtualThreadPerTaskExecutor(getClass().getSimpleName()));
+    }
+
+    @Test
+    public void testCoalescingActorProcessesLatestMsgAndHighPriorityFirst() throws InterruptedException {
+        TbActorSystem coalescingSystem = new DefaultTbActorSystem(new TbActorSystemSettings(5, parallelism, 42, 1000));
+        try {
+            executor = ThingsBoardExecutors.newWorkStealingPool(parallelism, getClass());
+            coalescingSystem.createDispatcher(ROOT_DISPATCHER, executor);
+            CountDownLatch gate = new CountDownLatch(1);
+            var creator = new CoalescingTestActor.CoalescingTestActorCreator(new TbEntityActorId(new DeviceId(UUID.randomUUID())), gate);
+            TbActorRef actorRef = coalescingSystem.createRootActor(ROOT_DISPATCHER, creator);
+            CoalescingTestActor actor = creator.getActor();
+
+            actorRef.tell(new IntTbActorMsg(0));
+            Awaitility.await("actor is blocked by the first msg").atMost(TIMEOUT_AWAIT_MAX_SEC, TimeUnit.SECONDS)
+                    .until(() -> actorRef instanceof TbActorMailbox mailbox && mailbox.getNormalPriorityMsgs().isEmpty());
+            for (int i = 1; i <= 100; i++) {
+                actorRef.tell(new IntTbActorMsg(i));
+            }
+            actorRef.tell(new IntTbActorMsg(-2));
+            actorRef.tellWithHighPriority(new IntTbActorMsg(-1));
+            gate.countDown();
+
+            Awaitility.await("all messages processed").atMost(TIMEOUT_AWAIT_MAX_SEC, TimeUnit.SECONDS)
+                    .until(() -> actor.getProcessed().size() == 4);
+            assertThat(actor.getProcessed()).containsExactly(0, -1, 100, -2);
+            assertThat(actor.getCoalesced().get()).isEqualTo(99);
+        } finally {
+            coalescingSystem.stop();
+        }
+    }
+
+    @Test
+    public void testCoalescingDisabledByDefault() throws InterruptedException {
+        executor = ThingsBoardExecutors.newWorkStealingPool(parallelism, getClass());
+        actorSystem.createDispatcher(ROOT_DISPATCHER, executor);
+        CountDownLatch gate = new CountDownLatch(1);
+        var creator = new CoalescingTestActor.CoalescingTestActorCreator(new TbEntityActorId(new DeviceId(UUID.randomUUID())), gate);
+        TbActorRef actorRef = actorSystem.createRootActor(ROOT_DISPATCHER, creator);
+        gate.countDown();
+        for (int i = 1; i <= 100; i++) {
+            actorRef.tell(new IntTbActorMsg(i));
+        }
+        Awaitility.await("all messages processed").atMost(TIMEOUT_AWAIT_MAX_SEC, TimeUnit.SECONDS)
+                .until(() -> creator.getActor().getProcessed().size() == 100);
+        assertThat(creator.getActor().getCoalesced().get()).isZero();
+    }
+
+    @Test
+    public void testMetricsCollected() throws InterruptedException {
+        List<String> registeredActorTypes = new CopyOnWriteArrayList<>();
+        TbActorSystemMetrics metrics = new TbActorSystemMetrics(1, new TbActorSystemMetrics.Listener() {
+            @Override
+            public void onActorTypeRegistered(TbActorTypeStats stats) {
+                registeredActorTypes.add(stats.getActorType());
+            }
+        });
+        TbActorSystem metricsSystem = new DefaultTbActorSystem(new TbActorSystemSettings(5, parallelism, 42), metrics);
+        try {
+            executor = ThingsBoardExecutors.newWorkStealingPool(parallelism, getClass());
+            metricsSystem.createDispatcher(ROOT_DISPATCHER, executor);
+            ActorTestCtx blockingCtx = getActorTestCtx(10);
+            ActorTestCtx failedCtx = getActorTestCtx(1);
+            TbActorId blockingActorId = new TbEntityActorId(new DeviceId(UUID.randomUUID()));
+            TbActorRef blockingActor = metricsSystem.createRootActor(ROOT_DISPATCHER,
+                    new BlockingProcessActor.BlockingProcessActorCreator(blockingActorId, blockingCtx, 5));
+            TbActorRef failedActor = metricsSystem.createRootActor(ROOT_DISPATCHER, new FailedToInitActor.FailedToInitActorCreator(
+                    new TbEntityActorId(new DeviceId(UUID.randomUUID())), failedCtx, 2, 1));
+            for (int i = 0; i < 10; i++) {
+                blockingActor.tell(new IntTbActorMsg(i));
+            }
+            failedActor.tell(new IntTbActorMsg(42));
+
+            Assertions.assertTrue(blockingCtx.getLatch().await(TIMEOUT_AWAIT_MAX_SEC, TimeUnit.SECONDS));
+            Assertions.assertTrue(failedCtx.getLatch().await(TIMEOUT_AWAIT_MAX_SEC, TimeUnit.SECONDS));
+            TbActorTypeStats blockingStats = metrics.getActorTypeStats(BlockingProcessActor.class.getSimpleName());
+            Awaitility.await("processing time recorded").atMost(TIMEOUT_AWAIT_MAX_SEC, TimeUnit.SECONDS)
+                    .until(() -> blockingStats.getSampledMsgs() == 10);
+            assertThat(blockingStats.getCreated()).isEqualTo(1);
+            assertThat(blockingStats.getMaxProcessingTimeNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+            assertThat(metrics.getActorTypeStats(FailedToInitActor.class.getSimpleName()).getInitFailures()).isEqualTo(2);
+            assertThat(registeredActorTypes).containsExactlyInAnyOrder(BlockingProcessActor.class.getSimpleName(), FailedToInitActor.class.getSimpleName());
+
+            TbActorSystemStats stats = metricsSystem.getStats(1);
+            assertThat(stats.getDispatchers()).hasSize(1);
+            assertThat(stats.getDispatchers().get(0).getBacklog()).isZero();
+            assertThat(stats.getDispatchers().get(0).getProcessedMsgs()).isEqualTo(11);
+            assertThat(stats.getTopActors()).hasSize(1);
+            assertThat(stats.getTopActors().get(0).getActorId()).isEqualTo(blockingActorId.toString());
+
+            metricsSystem.stop(blockingActorId);
+            assertThat(blockingStats.getDestroyed()).isEqualTo(1);
+            assertThat(blockingStats.getActive()).isZero();
+        } finally {
+            metricsSystem.stop();
+        }
+    }
+
+    @Test
+    public void testMetricsDisabledByDefault() {
+        assertThat(actorSystem.getStats(10)).isNull();
+    }
+
     @Test
     public void testNoMessagesAfterDestroy() throws InterruptedException {
         executor = ThingsBoardExecutors.newWorkStealingPool(parallelism, getClass());
@@ -265,6 +403,23 @@ public class ActorSystemTest {
         }
     }
 
+    private long testBlockingActors(String dispatcher, int actorsCount, long blockMs) throws InterruptedException {
+        List<ActorTestCtx> testCtxes = new ArrayList<>();
+        List<TbActorRef> actorRefs = new ArrayList<>();
+        for (int actorIdx = 0; actorIdx < actorsCount; actorIdx++) {
+            ActorTestCtx testCtx = getActorTestCtx(1);
+            actorRefs.add(actorSystem.createRootActor(dispatcher, new BlockingProcessActor.BlockingProcessActorCreator(
+                    new TbEntityActorId(new DeviceId(UUID.randomUUID())), testCtx, blockMs)));
+            testCtxes.add(testCtx);
+        }
+        long start = System.nanoTime();
+        actorRefs.forEach(actorRef -> actorRef.tell(new IntTbActorMsg(42)));
+        for (ActorTestCtx testCtx : testCtxes) {
+            Assertions.assertTrue(testCtx.getLatch().await(TIMEOUT_AWAIT_MAX_SEC, TimeUnit.SECONDS));
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
     private ActorTestCtx getActorTestCtx(int i) {
         CountDownLatch countDownLatch = new CountDownLatch(1);
         AtomicLong actual = new AtomicLong();
@@ -0,0 +1,63 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors;
+
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.common.msg.TbActorMsg;
+
+@Slf4j
+public class BlockingProcessActor extends TestRootActor {
+
+    private final long blockMs;
+
+    public BlockingProcessActor(TbActorId actorId, ActorTestCtx testCtx, long blockMs) {
+        super(actorId, testCtx);
+        this.blockMs = blockMs;
+    }
+
+    @Override
+    public boolean process(TbActorMsg msg) {
+        try {
+            Thread.sleep(blockMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return super.process(msg);
+    }
+
+    public static class BlockingProcessActorCreator implements TbActorCreator {
+
+        private final TbActorId actorId;
+        private final ActorTestCtx testCtx;
+        private final long blockMs;
+
+        public BlockingProcessActorCreator(TbActorId actorId, ActorTestCtx testCtx, long blockMs) {
+            this.actorId = actorId;
+            this.testCtx = testCtx;
+            this.blockMs = blockMs;
+        }
+
+        @Override
+        public TbActorId createActorId() {
+            return actorId;
+        }
+
+        @Override
+        public TbActor createActor() {
+            return new BlockingProcessActor(actorId, testCtx, blockMs);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.actors;
+
+import lombok.Getter;
+import org.thingsboard.server.common.msg.TbActorMsg;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces all positive messages. Message with zero value blocks the actor until the gate is opened.
+ */
+public class CoalescingTestActor extends AbstractTbActor implements TbCoalescingActor {
+
+    private static final Object POSITIVE_KEY = new Object();
+
+    @Getter
+    private final TbActorId actorId;
+    private final CountDownLatch gate;
+    @Getter
+    private final List<Integer> processed = new CopyOnWriteArrayList<>();
+    @Getter
+    private final AtomicInteger coalesced = new AtomicInteger();
+
+    public CoalescingTestActor(TbActorId actorId, CountDownLatch gate) {
+        this.actorId = actorId;
+        this.gate = gate;
+    }
+
+    @Override
+    public boolean process(TbActorMsg msg) {
+        int value = ((IntTbActorMsg) msg).getValue();
+        if (value == 0) {
+            try {
+                gate.await(ActorSystemTest.TIMEOUT_AWAIT_MAX_SEC, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        processed.add(value);
+        return true;
+    }
+
+    @Override
+    public Object getCoalescingKey(TbActorMsg msg) {
+        return ((IntTbActorMsg) msg).getValue() > 0 ? POSITIVE_KEY : null;
+    }
+
+    @Override
+    public void onCoalesced(TbActorMsg dropped, TbActorMsg retained) {
+        coalesced.incrementAndGet();
+    }
+
+    public static class CoalescingTestActorCreator implements TbActorCreator {
+
+        private final TbActorId actorId;
+        @Getter
+        private final CoalescingTestActor actor;
+
+        public CoalescingTestActorCreator(TbActorId actorId, CountDownLatch gate) {
+            this.actorId = actorId;
+            this.actor = new CoalescingTestActor(actorId, gate);
+        }
+
+        @Override
+        public TbActorId createActorId() {
+            return actorId;
+        }
+
+        @Override
+        public TbActor createActor() {
+            return actor;
+        }
+    }
+}
@@ -71,6 +71,8 @@ public interface TbClusterService extends TbQueueClusterService {
 
     void pushNotificationToCore(String targetServiceId, RestApiCallResponseMsgProto msg, TbQueueCallback callback);
 
+    void pushNotificationToCore(String targetServiceId, TransportProtos.DeviceStateHandoffMsgProto msg, TbQueueCallback callback);
+
     void pushMsgToRuleEngine(TopicPartitionInfo tpi, UUID msgId, ToRuleEngineMsg msg, TbQueueCallback callback);
 
     void pushMsgToRuleEngine(TenantId tenantId, EntityId entityId, TbMsg msg, TbQueueCallback callback);
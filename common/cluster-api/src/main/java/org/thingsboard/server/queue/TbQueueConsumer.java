@@ -36,6 +36,18 @@ public interface TbQueueConsumer<T extends TbQueueMsg> {
 
     void commit();
 
+    /**
+     * Returns a snapshot of the consumer position after the last poll, that can be committed later with {@link #commit(Object)}
+     * while the consumer keeps polling. Returns null if the consumer can only commit everything it has polled.
+     */
+    default Object getPosition() {
+        return null;
+    }
+
+    default void commit(Object position) {
+        commit();
+    }
+
     boolean isStopped();
 
     List<String> getFullTopicNames();
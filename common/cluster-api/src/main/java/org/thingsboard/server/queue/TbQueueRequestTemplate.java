@@ -17,6 +17,9 @@ package org.thingsboard.server.queue;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import org.thingsboard.server.common.stats.MessagesStats;
+import org.thingsboard.server.common.stats.StatsFactory;
+
+import java.util.function.Function;
 
 public interface TbQueueRequestTemplate<Request extends TbQueueMsg, Response extends TbQueueMsg> {
 
@@ -31,4 +34,11 @@ public interface TbQueueRequestTemplate<Request extends TbQueueMsg, Response ext
     void stop();
 
     void setMessagesStats(MessagesStats messagesStats);
+
+    /**
+     * Enables the timers of the time until the response is received, tagged with the request type and the status.
+     */
+    default void setLatencyStats(StatsFactory statsFactory, String key, Function<Request, String> requestTypeResolver) {
+    }
+
 }
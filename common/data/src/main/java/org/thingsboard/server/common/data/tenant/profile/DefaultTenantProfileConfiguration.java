@@ -113,6 +113,8 @@ public class DefaultTenantProfileConfiguration implements TenantProfileConfigura
     private long maxDPStorageDays;
     @Schema(example = "50")
     private int maxRuleNodeExecutionsPerMessage;
+    @Schema(description = "Share of the tenant in the shared Rule Engine queues when the fair scheduling is enabled. 0 means the default weight of 1", example = "1")
+    private int ruleEngineQueueWeight;
     @Schema(example = "15")
     private int maxDebugModeDurationMinutes;
     @Schema(example = "0")
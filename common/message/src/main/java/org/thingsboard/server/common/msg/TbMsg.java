@@ -16,12 +16,17 @@
 package org.thingsboard.server.common.msg;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.id.CalculatedFieldId;
@@ -79,6 +84,14 @@ public final class TbMsg implements Serializable {
     @JsonIgnore
     transient private final TbMsgCallback callback;
 
+    //Parsed data, shared by the copies of the msg with the same data
+    @Getter(value = AccessLevel.NONE)
+    @Setter(value = AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @JsonIgnore
+    transient private volatile JsonNode dataJson;
+
     public static TbMsgBuilder newMsg() {
         return new TbMsgBuilder();
     }
@@ -253,6 +266,29 @@ public final class TbMsg implements Serializable {
                 metaData, dataType, proto.getData(), ruleChainId, ruleNodeId, correlationId, partition, calculatedFieldIds, ctx, callback);
     }
 
+    /**
+     * Returns the data parsed as JSON. The data is parsed once and the tree is shared by all the rule nodes that process
+     * the msg and its copies with the same data, so the tree must not be modified. Use {@link #getDataAsJsonCopy()} to modify it.
+     */
+    @JsonIgnore
+    public JsonNode getDataAsJson() {
+        JsonNode json = dataJson;
+        if (json == null) {
+            json = JacksonUtil.toJsonNode(data);
+            dataJson = json;
+        }
+        return json;
+    }
+
+    /**
+     * Returns a copy of the parsed data that can be modified and set to the new msg with {@link TbMsgBuilder#dataAsJson(JsonNode)}.
+     */
+    @JsonIgnore
+    public JsonNode getDataAsJsonCopy() {
+        JsonNode json = getDataAsJson();
+        return json != null ? json.deepCopy() : null;
+    }
+
     public int getAndIncrementRuleNodeCounter() {
         return ctx.getAndIncrementRuleNodeCounter();
     }
@@ -363,6 +399,7 @@ public final class TbMsg implements Serializable {
         protected TbMsgMetaData metaData;
         protected TbMsgDataType dataType;
         protected String data;
+        protected JsonNode dataJson;
         protected RuleChainId ruleChainId;
         protected RuleNodeId ruleNodeId;
         protected UUID correlationId;
@@ -384,6 +421,7 @@ public final class TbMsg implements Serializable {
             this.metaData = tbMsg.metaData;
             this.dataType = tbMsg.dataType;
             this.data = tbMsg.data;
+            this.dataJson = tbMsg.dataJson;
             this.ruleChainId = tbMsg.ruleChainId;
             this.ruleNodeId = tbMsg.ruleNodeId;
             this.correlationId = tbMsg.correlationId;
@@ -451,10 +489,23 @@ public final class TbMsg implements Serializable {
         }
 
         public TbMsgBuilder data(String data) {
+            if (!Objects.equals(this.data, data)) {
+                this.dataJson = null;
+            }
             this.data = data;
             return this;
         }
 
+        /**
+         * Sets the data serialized from the JSON tree. The tree is kept as the parsed data of the new msg,
+         * so the following rule nodes do not parse it again, and must not be modified afterwards.
+         */
+        public TbMsgBuilder dataAsJson(JsonNode data) {
+            this.data = JacksonUtil.toString(data);
+            this.dataJson = data;
+            return this;
+        }
+
         public TbMsgBuilder ruleChainId(RuleChainId ruleChainId) {
             this.ruleChainId = ruleChainId;
             return this;
@@ -495,7 +546,9 @@ public final class TbMsg implements Serializable {
         }
 
         public TbMsg build() {
-            return new TbMsg(queueName, id, ts, internalType, type, originator, customerId, metaData, dataType, data, ruleChainId, ruleNodeId, correlationId, partition, previousCalculatedFieldIds, ctx, callback);
+            TbMsg tbMsg = new TbMsg(queueName, id, ts, internalType, type, originator, customerId, metaData, dataType, data, ruleChainId, ruleNodeId, correlationId, partition, previousCalculatedFieldIds, ctx, callback);
+            tbMsg.dataJson = dataJson;
+            return tbMsg;
         }
 
         public String toString() {
@@ -16,58 +16,332 @@
 package org.thingsboard.server.common.msg;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import lombok.Data;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.io.Serial;
 import java.io.Serializable;
-import java.util.Collections;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Data
+/**
+ * Metadata of the {@link TbMsg}. The entries are stored as a compact array of alternating keys and values that is never
+ * modified in place: every modification replaces the array, so {@link #copy()} just shares the array of the original
+ * metadata and the copies are independent from each other. Metadata is copied for every outgoing relation of the rule node,
+ * while modified by a few of the rule nodes only.
+ * <p>
+ * The Java serialization form is kept as it was before the entries array: a single {@code data} map field.
+ */
 public final class TbMsgMetaData implements Serializable {
 
+    @Serial
+    private static final long serialVersionUID = 8337349516167782704L;
+    @Serial
+    private static final ObjectStreamField[] serialPersistentFields = {new ObjectStreamField("data", Map.class)};
+
+    private static final String[] NO_ENTRIES = new String[0];
+
     public static final TbMsgMetaData EMPTY = new TbMsgMetaData(0);
 
-    private final Map<String, String> data;
+    /**
+     * Keys that are present in the metadata of most of the messages. Keys are replaced with the same instances
+     * to share the memory and to compare the keys by reference on lookup
+     * */
+    private static final Map<String, String> COMMON_KEYS = Stream.of(
+            "deviceName", "deviceType", "deviceLabel", "ts", "customerId", "customerName", "customerTitle",
+            "assetName", "assetType", "assetLabel", "entityName", "entityType", "notifyDevice", "scope", "userId",
+            "userName", "userFirstName", "userLastName", "userEmail", "requestUUID", "expirationTime", "oneway",
+            "persistent", "originatorServiceId", "ruleNodeId", "originatorType", "deviceProfileName"
+    ).collect(Collectors.toUnmodifiableMap(key -> key, key -> key));
+
+    private final boolean readOnly;
+    private volatile String[] entries;
 
     public TbMsgMetaData() {
-        data = new ConcurrentHashMap<>();
+        this.readOnly = false;
+        this.entries = NO_ENTRIES;
     }
 
     public TbMsgMetaData(Map<String, String> data) {
-        this.data = new ConcurrentHashMap<>();
-        data.forEach(this::putValue);
+        this.readOnly = false;
+        this.entries = toEntries(data);
     }
 
     /**
      * Internal constructor to create immutable TbMsgMetaData.EMPTY
      * */
     private TbMsgMetaData(int ignored) {
-        data = Collections.emptyMap();
+        this.readOnly = true;
+        this.entries = NO_ENTRIES;
+    }
+
+    private TbMsgMetaData(String[] entries) {
+        this.readOnly = false;
+        this.entries = entries;
     }
 
     public String getValue(String key) {
-        return data.get(key);
+        String[] entries = this.entries;
+        int idx = indexOf(entries, key);
+        return idx >= 0 ? entries[idx + 1] : null;
     }
 
     public void putValue(String key, String value) {
         if (key != null && value != null) {
-            data.put(key, value);
+            put(key, value);
         }
     }
 
+    /**
+     * @return a live view of the metadata: modifications of the map are applied to the metadata
+     */
+    public Map<String, String> getData() {
+        return readOnly ? Map.of() : new DataView();
+    }
+
     public Map<String, String> values() {
-        return new HashMap<>(data);
+        String[] entries = this.entries;
+        Map<String, String> values = new HashMap<>(entries.length);
+        for (int i = 0; i < entries.length; i += 2) {
+            values.put(entries[i], entries[i + 1]);
+        }
+        return values;
     }
 
     public TbMsgMetaData copy() {
-        return new TbMsgMetaData(data);
+        return new TbMsgMetaData(entries);
     }
 
     @JsonIgnore
     public boolean isEmpty() {
-        return data == null || data.isEmpty();
+        return entries.length == 0;
+    }
+
+    private synchronized String put(String key, String value) {
+        checkWritable();
+        String[] entries = this.entries;
+        int idx = indexOf(entries, key);
+        String[] newEntries;
+        String oldValue = null;
+        if (idx >= 0) {
+            oldValue = entries[idx + 1];
+            if (oldValue.equals(value)) {
+                return oldValue;
+            }
+            newEntries = entries.clone();
+        } else {
+            newEntries = Arrays.copyOf(entries, entries.length + 2);
+            idx = entries.length;
+            newEntries[idx] = intern(key);
+        }
+        newEntries[idx + 1] = value;
+        this.entries = newEntries;
+        return oldValue;
+    }
+
+    private synchronized String remove(Object key) {
+        checkWritable();
+        String[] entries = this.entries;
+        int idx = indexOf(entries, key);
+        if (idx < 0) {
+            return null;
+        }
+        String[] newEntries = new String[entries.length - 2];
+        System.arraycopy(entries, 0, newEntries, 0, idx);
+        System.arraycopy(entries, idx + 2, newEntries, idx, entries.length - idx - 2);
+        this.entries = newEntries;
+        return entries[idx + 1];
+    }
+
+    private synchronized void clear() {
+        checkWritable();
+        this.entries = NO_ENTRIES;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static int indexOf(String[] entries, Object key) {
+        for (int i = 0; i < entries.length; i += 2) {
+            if (entries[i] == key) {
+                return i;
+            }
+        }
+        if (key != null) {
+            for (int i = 0; i < entries.length; i += 2) {
+                if (entries[i].equals(key)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String[] toEntries(Map<String, String> data) {
+        String[] entries = new String[data.size() * 2];
+        int size = 0;
+        for (Map.Entry<String, String> entry : data.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                entries[size++] = intern(entry.getKey());
+                entries[size++] = entry.getValue();
+            }
+        }
+        return size == entries.length ? entries : Arrays.copyOf(entries, size);
+    }
+
+    private static String intern(String key) {
+        return COMMON_KEYS.getOrDefault(key, key);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        String[] entries = this.entries;
+        String[] otherEntries = ((TbMsgMetaData) o).entries;
+        if (entries.length != otherEntries.length) {
+            return false;
+        }
+        for (int i = 0; i < entries.length; i += 2) {
+            int idx = indexOf(otherEntries, entries[i]);
+            if (idx < 0 || !entries[i + 1].equals(otherEntries[idx + 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        String[] entries = this.entries;
+        int hashCode = 0;
+        for (int i = 0; i < entries.length; i += 2) {
+            hashCode += entries[i].hashCode() ^ entries[i + 1].hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "TbMsgMetaData(data=" + values() + ")";
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("data", new ConcurrentHashMap<>(values()));
+        out.writeFields();
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        Map<String, String> data = (Map<String, String>) fields.get("data", null);
+        this.entries = data != null ? toEntries(data) : NO_ENTRIES;
+    }
+
+    private class DataView extends AbstractMap<String, String> {
+
+        @Override
+        public int size() {
+            return entries.length / 2;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(entries, key) >= 0;
+        }
+
+        @Override
+        public String get(Object key) {
+            String[] entries = TbMsgMetaData.this.entries;
+            int idx = indexOf(entries, key);
+            return idx >= 0 ? entries[idx + 1] : null;
+        }
+
+        @Override
+        public String put(String key, String value) {
+            return TbMsgMetaData.this.put(Objects.requireNonNull(key), Objects.requireNonNull(value));
+        }
+
+        @Override
+        public String remove(Object key) {
+            return TbMsgMetaData.this.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            TbMsgMetaData.this.clear();
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new EntryIterator(entries);
+                }
+
+                @Override
+                public int size() {
+                    return DataView.this.size();
+                }
+            };
+        }
+
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<String, String>> {
+
+        private final String[] snapshot;
+        private int next;
+        private String lastKey;
+
+        private EntryIterator(String[] snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < snapshot.length;
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastKey = snapshot[next];
+            Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<>(lastKey, snapshot[next + 1]);
+            next += 2;
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            TbMsgMetaData.this.remove(lastKey);
+            lastKey = null;
+        }
+
     }
 
 }
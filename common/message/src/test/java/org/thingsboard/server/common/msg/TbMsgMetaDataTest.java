@@ -21,8 +21,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class TbMsgMetaDataTest {
@@ -53,4 +61,115 @@ public class TbMsgMetaDataTest {
         Map<String, String> dataActual = tbMsgMetaData.copy().getData();
         assertEquals(metadataExpected.size() - 1, dataActual.size());
     }
+
+    @Test
+    public void testCopyIsIndependent() {
+        TbMsgMetaData original = new TbMsgMetaData(metadataExpected);
+        TbMsgMetaData copy = original.copy();
+
+        copy.putValue("deviceName", "Other Device");
+        copy.getData().remove("ts");
+        original.putValue("newKey", "newValue");
+
+        assertThat(original.getValue("deviceName")).isEqualTo("Test Device");
+        assertThat(original.getValue("ts")).isEqualTo("1645112691407");
+        assertThat(copy.getValue("deviceName")).isEqualTo("Other Device");
+        assertThat(copy.getValue("ts")).isNull();
+        assertThat(copy.getValue("newKey")).isNull();
+        assertThat(copy.getData()).containsOnlyKeys("deviceName", "deviceType");
+    }
+
+    @Test
+    public void testDataIsLiveView() {
+        TbMsgMetaData metaData = new TbMsgMetaData(metadataExpected);
+        Map<String, String> data = metaData.getData();
+
+        data.put("key", "value");
+        data.keySet().removeIf(key -> key.startsWith("device"));
+        metaData.putValue("ts", "1");
+
+        assertThat(metaData.values()).isEqualTo(Map.of("key", "value", "ts", "1"));
+        assertThat(data).isEqualTo(Map.of("key", "value", "ts", "1"));
+    }
+
+    @Test
+    public void testCommonKeysAreInterned() {
+        TbMsgMetaData metaData = new TbMsgMetaData(Map.of(new String("deviceName"), "Test Device"));
+        metaData.putValue(new String("deviceType"), "default");
+
+        assertThat(metaData.getData().keySet()).allSatisfy(key -> assertThat(key).isIn("deviceName", "deviceType"))
+                .anySatisfy(key -> assertThat(key).isSameAs("deviceName"))
+                .anySatisfy(key -> assertThat(key).isSameAs("deviceType"));
+    }
+
+    @Test
+    public void testEqualsIgnoresOrder() {
+        Map<String, String> reversed = new LinkedHashMap<>();
+        reversed.put("ts", "1645112691407");
+        reversed.put("deviceType", "default");
+        reversed.put("deviceName", "Test Device");
+
+        TbMsgMetaData metaData = new TbMsgMetaData(metadataExpected);
+
+        assertThat(metaData).isEqualTo(new TbMsgMetaData(reversed));
+        assertThat(metaData.hashCode()).isEqualTo(new TbMsgMetaData(reversed).hashCode());
+        assertThat(metaData).isNotEqualTo(new TbMsgMetaData(Map.of("ts", "1645112691407")));
+    }
+
+    @Test
+    public void testEmptyIsReadOnly() {
+        assertThatThrownBy(() -> TbMsgMetaData.EMPTY.putValue("key", "value")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(TbMsgMetaData.EMPTY.copy().isEmpty()).isTrue();
+        TbMsgMetaData copy = TbMsgMetaData.EMPTY.copy();
+        copy.putValue("key", "value");
+        assertThat(copy.getValue("key")).isEqualTo("value");
+        assertThat(TbMsgMetaData.EMPTY.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        TbMsgMetaData metaData = new TbMsgMetaData(metadataExpected);
+
+        String json = objectMapper.writeValueAsString(metaData);
+        assertThat(objectMapper.readValue(json, TbMsgMetaData.class)).isEqualTo(metaData);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(metaData);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertThat(in.readObject()).isEqualTo(metaData);
+        }
+    }
+
+    @Test
+    public void testDeserializationOfPreviousFormat() throws Exception {
+        // TbMsgMetaData with the "data" map field, serialized by the version before the entries array
+        byte[] bytes = Base64.getDecoder().decode("rO0ABXNyAC9vcmcudGhpbmdzYm9hcmQuc2VydmVyLmNvbW1vbi5tc2cuVGJNc2dNZXRhRGF0YXO0NzY3dKEwAgABTAAEZGF0YXQA"
+                + "D0xqYXZhL3V0aWwvTWFwO3hwc3IAJmphdmEudXRpbC5jb25jdXJyZW50LkNvbmN1cnJlbnRIYXNoTWFwZJneEp2HKT0DAANJAAtz"
+                + "ZWdtZW50TWFza0kADHNlZ21lbnRTaGlmdFsACHNlZ21lbnRzdAAxW0xqYXZhL3V0aWwvY29uY3VycmVudC9Db25jdXJyZW50SGFz"
+                + "aE1hcCRTZWdtZW50O3hwAAAADwAAABx1cgAxW0xqYXZhLnV0aWwuY29uY3VycmVudC5Db25jdXJyZW50SGFzaE1hcCRTZWdtZW50"
+                + "O1J3P0Eymzl0AgAAeHAAAAAQc3IALmphdmEudXRpbC5jb25jdXJyZW50LkNvbmN1cnJlbnRIYXNoTWFwJFNlZ21lbnQfNkyQWJMp"
+                + "PQIAAUYACmxvYWRGYWN0b3J4cgAoamF2YS51dGlsLmNvbmN1cnJlbnQubG9ja3MuUmVlbnRyYW50TG9ja2ZVqCwsyGrrAgABTAAE"
+                + "c3luY3QAL0xqYXZhL3V0aWwvY29uY3VycmVudC9sb2Nrcy9SZWVudHJhbnRMb2NrJFN5bmM7eHBzcgA0amF2YS51dGlsLmNvbmN1"
+                + "cnJlbnQubG9ja3MuUmVlbnRyYW50TG9jayROb25mYWlyU3luY2WIMudTe78LAgAAeHIALWphdmEudXRpbC5jb25jdXJyZW50Lmxv"
+                + "Y2tzLlJlZW50cmFudExvY2skU3luY7geopSqRFp8AgAAeHIANWphdmEudXRpbC5jb25jdXJyZW50LmxvY2tzLkFic3RyYWN0UXVl"
+                + "dWVkU3luY2hyb25pemVyZlWoQ3U/UuMCAAFJAAVzdGF0ZXhyADZqYXZhLnV0aWwuY29uY3VycmVudC5sb2Nrcy5BYnN0cmFjdE93"
+                + "bmFibGVTeW5jaHJvbml6ZXIz36+5rW1vqQIAAHhwAAAAAD9AAABzcQB+AAhzcQB+AAwAAAAAP0AAAHNxAH4ACHNxAH4ADAAAAAA/"
+                + "QAAAc3EAfgAIc3EAfgAMAAAAAD9AAABzcQB+AAhzcQB+AAwAAAAAP0AAAHNxAH4ACHNxAH4ADAAAAAA/QAAAc3EAfgAIc3EAfgAM"
+                + "AAAAAD9AAABzcQB+AAhzcQB+AAwAAAAAP0AAAHNxAH4ACHNxAH4ADAAAAAA/QAAAc3EAfgAIc3EAfgAMAAAAAD9AAABzcQB+AAhz"
+                + "cQB+AAwAAAAAP0AAAHNxAH4ACHNxAH4ADAAAAAA/QAAAc3EAfgAIc3EAfgAMAAAAAD9AAABzcQB+AAhzcQB+AAwAAAAAP0AAAHNx"
+                + "AH4ACHNxAH4ADAAAAAA/QAAAc3EAfgAIc3EAfgAMAAAAAD9AAAB0AApkZXZpY2VOYW1ldAAIU2Vuc29yIEF0AAJ0c3QADTE3MDAw"
+                + "MDAwMDAwMDBwcHg=");
+
+        TbMsgMetaData metaData;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            metaData = (TbMsgMetaData) in.readObject();
+        }
+
+        assertThat(metaData.values()).isEqualTo(Map.of("deviceName", "Sensor A", "ts", "1700000000000"));
+        metaData.putValue("deviceType", "default");
+        assertThat(metaData.getValue("deviceType")).isEqualTo("default");
+    }
+
 }
@@ -0,0 +1,96 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.msg;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.msg.TbMsgType;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbMsgTest {
+
+    private static final String DATA = "{\"temperature\":25,\"humidity\":60}";
+
+    @Test
+    public void testDataAsJsonIsParsedOnce() {
+        TbMsg msg = newMsg(DATA);
+
+        JsonNode json = msg.getDataAsJson();
+
+        assertThat(json).isEqualTo(JacksonUtil.toJsonNode(DATA));
+        assertThat(msg.getDataAsJson()).isSameAs(json);
+        assertThat(msg.copy().build().getDataAsJson()).isSameAs(json);
+        assertThat(msg.transform().metaData(TbMsgMetaData.EMPTY).build().getDataAsJson()).isSameAs(json);
+    }
+
+    @Test
+    public void testDataAsJsonCopyDoesNotChangeMsg() {
+        TbMsg msg = newMsg(DATA);
+
+        ObjectNode copy = (ObjectNode) msg.getDataAsJsonCopy();
+        copy.put("temperature", 30);
+
+        assertThat(msg.getDataAsJson().get("temperature").asInt()).isEqualTo(25);
+        assertThat(msg.getData()).isEqualTo(DATA);
+    }
+
+    @Test
+    public void testDataAsJsonIsResetWhenDataChanged() {
+        TbMsg msg = newMsg(DATA);
+        JsonNode json = msg.getDataAsJson();
+
+        TbMsg sameData = msg.transform().data(new String(DATA)).build();
+        TbMsg newData = msg.transform().data("{\"temperature\":30}").build();
+
+        assertThat(sameData.getDataAsJson()).isSameAs(json);
+        assertThat(newData.getDataAsJson().get("temperature").asInt()).isEqualTo(30);
+    }
+
+    @Test
+    public void testDataFromJson() {
+        ObjectNode json = JacksonUtil.newObjectNode().put("temperature", 25).put("humidity", 60);
+
+        TbMsg msg = newMsg(DATA).transform().dataAsJson(json).build();
+
+        assertThat(msg.getData()).isEqualTo(DATA);
+        assertThat(msg.getDataAsJson()).isSameAs(json);
+        assertThat(msg).isEqualTo(msg.copy().data(DATA).build());
+    }
+
+    @Test
+    public void testEmptyData() {
+        TbMsg msg = newMsg(TbMsg.EMPTY_STRING);
+
+        assertThat(msg.getDataAsJson()).isNull();
+        assertThat(msg.getDataAsJsonCopy()).isNull();
+    }
+
+    private static TbMsg newMsg(String data) {
+        return TbMsg.newMsg()
+                .type(TbMsgType.POST_TELEMETRY_REQUEST)
+                .originator(new DeviceId(UUID.randomUUID()))
+                .metaData(TbMsgMetaData.EMPTY)
+                .data(data)
+                .build();
+    }
+
+}
@@ -160,6 +160,16 @@ public abstract class AbstractTbQueueConsumerTemplate<R, T extends TbQueueMsg> i
         }
     }
 
+    @Override
+    public void commit(Object position) {
+        consumerLock.lock();
+        try {
+            doCommit(position);
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
     @Override
     public void stop() {
         stopped = true;
@@ -192,6 +202,10 @@ public abstract class AbstractTbQueueConsumerTemplate<R, T extends TbQueueMsg> i
 
     abstract protected void doCommit();
 
+    protected void doCommit(Object position) {
+        doCommit();
+    }
+
     abstract protected void doUnsubscribe();
 
     @Override
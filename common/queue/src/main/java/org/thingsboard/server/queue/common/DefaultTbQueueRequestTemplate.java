@@ -18,6 +18,9 @@ package org.thingsboard.server.queue.common;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.GeneratedMessageV3;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.Nullable;
 import lombok.Builder;
 import lombok.Getter;
@@ -26,6 +29,7 @@ import org.thingsboard.common.util.TbStopWatch;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
 import org.thingsboard.server.common.stats.MessagesStats;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.queue.TbQueueAdmin;
 import org.thingsboard.server.queue.TbQueueCallback;
 import org.thingsboard.server.queue.TbQueueConsumer;
@@ -34,16 +38,18 @@ import org.thingsboard.server.queue.TbQueueMsgMetadata;
 import org.thingsboard.server.queue.TbQueueProducer;
 import org.thingsboard.server.queue.TbQueueRequestTemplate;
 
+import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 @Slf4j
 public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response extends TbQueueMsg> extends AbstractTbQueueTemplate
@@ -52,7 +58,13 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
     private final TbQueueAdmin queueAdmin;
     private final TbQueueProducer<Request> requestTemplate;
     private final TbQueueConsumer<Response> responseTemplate;
-    final ConcurrentHashMap<UUID, DefaultTbQueueRequestTemplate.ResponseMetaData<Response>> pendingRequests = new ConcurrentHashMap<>();
+    static final int PENDING_REQUESTS_SHARDS = 16;
+    static final int TIMER_WHEEL_SIZE = 512;
+
+    final TbQueuePendingRequests<Response> pendingRequests;
+    // request id is sent as 16 bytes UUID (instance id and sequence number) to stay compatible with the response templates
+    final long instanceId;
+    private final AtomicLong requestSeq = new AtomicLong();
     final boolean internalExecutor;
     final ExecutorService executor;
     final long maxRequestTimeoutNs;
@@ -60,10 +72,12 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
     final long maxPendingRequests;
     final long pollInterval;
     volatile boolean stopped = false;
-    long nextCleanupNs = 0L;
-    private final Lock cleanerLock = new ReentrantLock();
 
     private MessagesStats messagesStats;
+    private StatsFactory statsFactory;
+    private String latencyStatsKey;
+    private Function<Request, String> requestTypeResolver;
+    private final ConcurrentMap<String, Timer> latencyTimers = new ConcurrentHashMap<>();
 
     @Builder
     public DefaultTbQueueRequestTemplate(TbQueueAdmin queueAdmin,
@@ -82,6 +96,12 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
         this.pollInterval = pollInterval;
         this.internalExecutor = (executor == null);
         this.executor = internalExecutor ? createExecutor() : executor;
+        this.pendingRequests = new TbQueuePendingRequests<>(PENDING_REQUESTS_SHARDS, TIMER_WHEEL_SIZE, this.maxRequestTimeoutNs / TIMER_WHEEL_SIZE);
+        long instanceId;
+        do {
+            instanceId = ThreadLocalRandom.current().nextLong();
+        } while (instanceId == 0);
+        this.instanceId = instanceId;
     }
 
     ExecutorService createExecutor() {
@@ -109,42 +129,18 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
     }
 
     void fetchAndProcessResponses() {
-        final long pendingRequestsCount = pendingRequests.mappingCount();
+        final long pendingRequestsCount = pendingRequests.size();
         log.trace("Starting template pool topic {}, for pendingRequests {}", responseTemplate.getTopic(), pendingRequestsCount);
         List<Response> responses = doPoll(); //poll js responses
         log.trace("Completed template poll topic {}, for pendingRequests [{}], received [{}] responses", responseTemplate.getTopic(), pendingRequestsCount, responses.size());
         responses.forEach(this::processResponse); //this can take a long time
         responseTemplate.commit();
-        tryCleanStaleRequests();
+        expireStaleRequests();
     }
 
-    private boolean tryCleanStaleRequests() {
-        if (!cleanerLock.tryLock()) {
-            return false;
-        }
-        try {
-            log.trace("tryCleanStaleRequest...");
-            final long currentNs = getCurrentClockNs();
-            if (nextCleanupNs < currentNs) {
-                pendingRequests.forEach((key, value) -> {
-                    if (value.expTime < currentNs) {
-                        ResponseMetaData<Response> staleRequest = pendingRequests.remove(key);
-                        if (staleRequest != null) {
-                            setTimeoutException(key, staleRequest, currentNs);
-                        }
-                    }
-                });
-                setupNextCleanup();
-            }
-        } finally {
-            cleanerLock.unlock();
-        }
-        return true;
-    }
-
-    void setupNextCleanup() {
-        nextCleanupNs = getCurrentClockNs() + maxRequestTimeoutNs;
-        log.trace("setupNextCleanup {}", nextCleanupNs);
+    void expireStaleRequests() {
+        final long currentNs = getCurrentClockNs();
+        pendingRequests.expire(currentNs, staleRequest -> setTimeoutException(staleRequest.getRequestId(), staleRequest, currentNs));
     }
 
     List<Response> doPoll() {
@@ -155,27 +151,30 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
         LockSupport.parkNanos(nanos);
     }
 
-    void setTimeoutException(UUID key, ResponseMetaData<Response> staleRequest, long currentNs) {
+    void setTimeoutException(long key, ResponseMetaData<Response> staleRequest, long currentNs) {
         if (currentNs >= staleRequest.getSubmitTime() + staleRequest.getTimeout()) {
             log.debug("Request timeout detected, currentNs [{}], {}, key [{}]", currentNs, staleRequest, key);
         } else {
             log.info("Request timeout detected, currentNs [{}], {}, key [{}]", currentNs, staleRequest, key);
         }
+        recordLatency(staleRequest, currentNs, "timeout");
         staleRequest.future.setException(new TimeoutException());
     }
 
     void processResponse(Response response) {
         byte[] requestIdHeader = response.getHeaders().get(REQUEST_ID_HEADER);
-        UUID requestId;
-        if (requestIdHeader == null) {
+        if (requestIdHeader == null || requestIdHeader.length != 16) {
             log.error("[{}] Missing requestId in header and body", response);
         } else {
-            requestId = bytesToUuid(requestIdHeader);
+            ByteBuffer requestIdBuf = ByteBuffer.wrap(requestIdHeader);
+            long responseInstanceId = requestIdBuf.getLong();
+            long requestId = requestIdBuf.getLong();
             log.trace("[{}] Response received: {}", requestId, response);
-            ResponseMetaData<Response> expectedResponse = pendingRequests.remove(requestId);
+            ResponseMetaData<Response> expectedResponse = responseInstanceId == instanceId ? pendingRequests.remove(requestId) : null;
             if (expectedResponse == null) {
                 log.debug("[{}] Invalid or stale request, response: {}", requestId, String.valueOf(response).replace("\n", " "));
             } else {
+                recordLatency(expectedResponse, getCurrentClockNs(), "success");
                 expectedResponse.future.set(response);
             }
         }
@@ -203,6 +202,34 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
         this.messagesStats = messagesStats;
     }
 
+    @Override
+    public void setLatencyStats(StatsFactory statsFactory, String key, Function<Request, String> requestTypeResolver) {
+        this.statsFactory = statsFactory;
+        this.latencyStatsKey = key;
+        this.requestTypeResolver = requestTypeResolver;
+    }
+
+    /**
+     * Resolves the type of a request wrapper message (like TransportApiRequestMsg) as the name of its first set message field.
+     */
+    public static String getProtoRequestType(TbProtoQueueMsg<?> msg) {
+        GeneratedMessageV3 value = msg.getValue();
+        for (FieldDescriptor field : value.getDescriptorForType().getFields()) {
+            if (field.getJavaType() == FieldDescriptor.JavaType.MESSAGE && !field.isRepeated() && value.hasField(field)) {
+                return field.getName();
+            }
+        }
+        return value.getDescriptorForType().getName();
+    }
+
+    private void recordLatency(ResponseMetaData<Response> request, long currentNs, String status) {
+        if (request.requestType != null) {
+            latencyTimers.computeIfAbsent(request.requestType + ":" + status,
+                            k -> statsFactory.createTimer(latencyStatsKey, "requestType", request.requestType, "status", status))
+                    .record(currentNs - request.submitTime, TimeUnit.NANOSECONDS);
+        }
+    }
+
     @Override
     public ListenableFuture<Response> send(Request request) {
         return send(request, this.maxRequestTimeoutNs);
@@ -219,19 +246,20 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
     }
 
     private ListenableFuture<Response> send(Request request, long requestTimeoutNs, Integer partition) {
-        if (pendingRequests.mappingCount() >= maxPendingRequests) {
+        if (pendingRequests.size() >= maxPendingRequests) {
             log.warn("Pending request map is full [{}]! Consider to increase maxPendingRequests or increase processing performance. Request is {}", maxPendingRequests, request);
             return Futures.immediateFailedFuture(new RuntimeException("Pending request map is full!"));
         }
-        UUID requestId = UUID.randomUUID();
-        request.getHeaders().put(REQUEST_ID_HEADER, uuidToBytes(requestId));
+        long requestId = requestSeq.incrementAndGet();
+        request.getHeaders().put(REQUEST_ID_HEADER, ByteBuffer.allocate(16).putLong(instanceId).putLong(requestId).array());
         request.getHeaders().put(RESPONSE_TOPIC_HEADER, stringToBytes(responseTemplate.getTopic()));
         request.getHeaders().put(EXPIRE_TS_HEADER, longToBytes(getCurrentTimeMs() + maxRequestTimeout));
         long currentClockNs = getCurrentClockNs();
         SettableFuture<Response> future = SettableFuture.create();
-        ResponseMetaData<Response> responseMetaData = new ResponseMetaData<>(currentClockNs + requestTimeoutNs, future, currentClockNs, requestTimeoutNs);
+        String requestType = requestTypeResolver != null ? requestTypeResolver.apply(request) : null;
+        ResponseMetaData<Response> responseMetaData = new ResponseMetaData<>(requestId, currentClockNs + requestTimeoutNs, future, currentClockNs, requestTimeoutNs, requestType);
         log.trace("pending {}", responseMetaData);
-        if (pendingRequests.putIfAbsent(requestId, responseMetaData) != null) {
+        if (!pendingRequests.put(requestId, responseMetaData)) {
             log.warn("Pending request already exists [{}]!", maxPendingRequests);
             return Futures.immediateFailedFuture(new RuntimeException("Pending request already exists !" + requestId));
         }
@@ -254,7 +282,7 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
         return System.currentTimeMillis();
     }
 
-    void sendToRequestTemplate(Request request, UUID requestId, Integer partition, SettableFuture<Response> future, ResponseMetaData<Response> responseMetaData) {
+    void sendToRequestTemplate(Request request, long requestId, Integer partition, SettableFuture<Response> future, ResponseMetaData<Response> responseMetaData) {
         log.trace("[{}] Sending request, key [{}], expTime [{}], request {}", requestId, request.getKey(), responseMetaData.expTime, request);
         if (messagesStats != null) {
             messagesStats.incrementTotal();
@@ -277,7 +305,9 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
                 if (messagesStats != null) {
                     messagesStats.incrementFailed();
                 }
-                pendingRequests.remove(requestId);
+                if (pendingRequests.remove(requestId) != null) {
+                    recordLatency(responseMetaData, getCurrentClockNs(), "failure");
+                }
                 future.setException(t);
             }
         });
@@ -285,22 +315,30 @@ public class DefaultTbQueueRequestTemplate<Request extends TbQueueMsg, Response
 
     @Getter
     static class ResponseMetaData<T> {
+        private final long requestId;
         private final long submitTime;
         private final long timeout;
         private final long expTime;
         private final SettableFuture<T> future;
+        private final String requestType;
+        // position in the timer wheel of the pending requests, guarded by the lock of the shard
+        int wheelBucket = -1;
+        int wheelIndex;
 
-        ResponseMetaData(long ts, SettableFuture<T> future, long submitTime, long timeout) {
+        ResponseMetaData(long requestId, long ts, SettableFuture<T> future, long submitTime, long timeout, String requestType) {
+            this.requestId = requestId;
             this.submitTime = submitTime;
             this.timeout = timeout;
             this.expTime = ts;
             this.future = future;
+            this.requestType = requestType;
         }
 
         @Override
         public String toString() {
             return "ResponseMetaData{" +
-                    "submitTime=" + submitTime +
+                    "requestId=" + requestId +
+                    ", submitTime=" + submitTime +
                     ", calculatedExpTime=" + (submitTime + timeout) +
                     ", deltaMs=" + (expTime - submitTime) +
                     ", expTime=" + expTime +
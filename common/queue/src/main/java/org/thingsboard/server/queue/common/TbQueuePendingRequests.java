@@ -0,0 +1,280 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Pending requests of {@link DefaultTbQueueRequestTemplate}, keyed by the positive request sequence number.
+ * <p>
+ * The requests are spread over shards by the sequence number, each shard with its own lock, open addressing map
+ * of primitive keys and hashed timer wheel. Expiration visits only the wheel buckets of the elapsed ticks
+ * instead of scanning all the pending requests. Removed requests leave their wheel bucket right away, so completed
+ * responses are not retained until the expiration tick.
+ */
+class TbQueuePendingRequests<T> {
+
+    private final Shard<T>[] shards;
+    private final int shardMask;
+    private final long tickNs;
+    private final int wheelSize;
+    private final AtomicLong size = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    TbQueuePendingRequests(int shardCount, int wheelSize, long tickNs) {
+        int shardsPow2 = Integer.highestOneBit(Math.max(1, shardCount - 1) << 1);
+        this.shards = new Shard[shardsPow2];
+        this.shardMask = shardsPow2 - 1;
+        this.wheelSize = Integer.highestOneBit(Math.max(1, wheelSize - 1) << 1);
+        this.tickNs = Math.max(1, tickNs);
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard<>(this.wheelSize);
+        }
+    }
+
+    long size() {
+        return size.get();
+    }
+
+    /**
+     * @return false if a request with the same id is already pending
+     */
+    boolean put(long requestId, DefaultTbQueueRequestTemplate.ResponseMetaData<T> request) {
+        Shard<T> shard = shard(requestId);
+        shard.lock.lock();
+        try {
+            if (!shard.put(requestId, request)) {
+                return false;
+            }
+            shard.schedule(request, Math.floorDiv(request.getExpTime(), tickNs), Math.floorDiv(request.getSubmitTime(), tickNs));
+        } finally {
+            shard.lock.unlock();
+        }
+        size.incrementAndGet();
+        return true;
+    }
+
+    DefaultTbQueueRequestTemplate.ResponseMetaData<T> remove(long requestId) {
+        Shard<T> shard = shard(requestId);
+        DefaultTbQueueRequestTemplate.ResponseMetaData<T> request;
+        shard.lock.lock();
+        try {
+            request = shard.remove(requestId);
+            if (request != null) {
+                shard.unschedule(request);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        if (request != null) {
+            size.decrementAndGet();
+        }
+        return request;
+    }
+
+    /**
+     * Removes the requests with expiration time before {@code currentNs} and passes them to {@code onExpired}.
+     */
+    void expire(long currentNs, Consumer<DefaultTbQueueRequestTemplate.ResponseMetaData<T>> onExpired) {
+        long currentTick = Math.floorDiv(currentNs, tickNs);
+        List<DefaultTbQueueRequestTemplate.ResponseMetaData<T>> expired = new ArrayList<>();
+        for (Shard<T> shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.advance(currentTick, currentNs, expired);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        if (!expired.isEmpty()) {
+            size.addAndGet(-expired.size());
+            expired.forEach(onExpired);
+        }
+    }
+
+    private Shard<T> shard(long requestId) {
+        return shards[(int) (requestId & shardMask)];
+    }
+
+    private static final class Shard<T> {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] keys = new long[INITIAL_CAPACITY]; // 0 is a free slot
+        private Object[] values = new Object[INITIAL_CAPACITY];
+        private int count;
+
+        private final List<DefaultTbQueueRequestTemplate.ResponseMetaData<T>>[] wheel;
+        private final int wheelMask;
+        private long lastTick = Long.MIN_VALUE;
+
+        @SuppressWarnings("unchecked")
+        Shard(int wheelSize) {
+            this.wheel = new List[wheelSize];
+            this.wheelMask = wheelSize - 1;
+        }
+
+        boolean put(long key, DefaultTbQueueRequestTemplate.ResponseMetaData<T> value) {
+            if ((count + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            count++;
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        DefaultTbQueueRequestTemplate.ResponseMetaData<T> remove(long key) {
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == 0) {
+                    return null;
+                }
+                i = (i + 1) & mask;
+            }
+            var value = (DefaultTbQueueRequestTemplate.ResponseMetaData<T>) values[i];
+            // backward shift deletion keeps the probe sequences without tombstones
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (keys[j] == 0) {
+                    break;
+                }
+                int k = index(keys[j], mask);
+                if ((j > i && (k <= i || k > j)) || (j < i && (k <= i && k > j))) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            keys[i] = 0;
+            values[i] = null;
+            count--;
+            if (keys.length > INITIAL_CAPACITY && count * 8 < keys.length) {
+                resize(keys.length / 2);
+            }
+            return value;
+        }
+
+        void schedule(DefaultTbQueueRequestTemplate.ResponseMetaData<T> request, long expTick, long submitTick) {
+            if (lastTick == Long.MIN_VALUE) {
+                lastTick = submitTick - 1;
+            }
+            long tick = Math.max(expTick, lastTick + 1);
+            int bucket = (int) (tick & wheelMask);
+            if (wheel[bucket] == null) {
+                wheel[bucket] = new ArrayList<>();
+            }
+            wheel[bucket].add(request);
+            request.wheelBucket = bucket;
+            request.wheelIndex = wheel[bucket].size() - 1;
+        }
+
+        void unschedule(DefaultTbQueueRequestTemplate.ResponseMetaData<T> request) {
+            int bucketIdx = request.wheelBucket;
+            if (bucketIdx < 0) {
+                return;
+            }
+            List<DefaultTbQueueRequestTemplate.ResponseMetaData<T>> bucket = wheel[bucketIdx];
+            // the order within a bucket doesn't matter, so the last request takes the freed position
+            var last = bucket.remove(bucket.size() - 1);
+            if (last != request) {
+                bucket.set(request.wheelIndex, last);
+                last.wheelIndex = request.wheelIndex;
+            }
+            request.wheelBucket = -1;
+            if (bucket.isEmpty()) {
+                wheel[bucketIdx] = null;
+            }
+        }
+
+        void advance(long currentTick, long currentNs, List<DefaultTbQueueRequestTemplate.ResponseMetaData<T>> expired) {
+            if (lastTick == Long.MIN_VALUE || currentTick <= lastTick) {
+                return;
+            }
+            // after a full rotation all the buckets are visited, the remaining requests wait for the next rounds
+            long ticks = Math.min(currentTick - lastTick, wheel.length);
+            for (long t = 1; t <= ticks; t++) {
+                int bucketIdx = (int) ((lastTick + t) & wheelMask);
+                List<DefaultTbQueueRequestTemplate.ResponseMetaData<T>> bucket = wheel[bucketIdx];
+                if (bucket != null) {
+                    expireBucket(bucket, currentNs, expired);
+                    if (bucket.isEmpty()) {
+                        wheel[bucketIdx] = null; // releases the capacity grown during a burst
+                    }
+                }
+            }
+            lastTick = currentTick;
+        }
+
+        private void expireBucket(List<DefaultTbQueueRequestTemplate.ResponseMetaData<T>> bucket, long currentNs,
+                                  List<DefaultTbQueueRequestTemplate.ResponseMetaData<T>> expired) {
+            int kept = 0;
+            for (int i = 0; i < bucket.size(); i++) {
+                var request = bucket.get(i);
+                if (request.getExpTime() <= currentNs) {
+                    remove(request.getRequestId());
+                    request.wheelBucket = -1;
+                    expired.add(request);
+                    continue;
+                }
+                request.wheelIndex = kept;
+                bucket.set(kept++, request);
+            }
+            bucket.subList(kept, bucket.size()).clear();
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[capacity];
+            values = new Object[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int j = index(oldKeys[i], mask);
+                    while (keys[j] != 0) {
+                        j = (j + 1) & mask;
+                    }
+                    keys[j] = oldKeys[i];
+                    values[j] = oldValues[i];
+                }
+            }
+        }
+
+        private static int index(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.common.util.ThingsBoardExecutors;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueMsgMetadata;
+import org.thingsboard.server.queue.TbQueueProducer;
+import org.thingsboard.server.queue.settings.TbQueueRuleEngineSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers the messages per topic partition and sends them packed into a single envelope record,
+ * see {@link ToRuleEngineMsgBatchCodec}. A batch is sent when it reaches the maximum size or after the linger time.
+ * The callbacks of the packed messages are completed with the result of the envelope.
+ */
+@Slf4j
+public class TbRuleEngineBatchingProducer implements TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> {
+
+    private final TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> delegate;
+    private final int maxBatchSize;
+    private final int maxBatchBytes;
+    private final ConcurrentMap<TopicPartitionInfo, PendingBatch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public TbRuleEngineBatchingProducer(TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> delegate,
+                                        int maxBatchSize, int maxBatchBytes, long lingerMs) {
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.scheduler = ThingsBoardExecutors.newSingleThreadScheduledExecutor("rule-engine-batch-producer");
+        this.scheduler.scheduleWithFixedDelay(this::flush, lingerMs, lingerMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> wrapIfEnabled(TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> producer,
+                                                                             TbQueueRuleEngineSettings settings) {
+        if (!settings.isBatchEnvelopeEnabled()) {
+            return producer;
+        }
+        return new TbRuleEngineBatchingProducer(producer, settings.getBatchEnvelopeMaxSize(),
+                settings.getBatchEnvelopeMaxBytes(), settings.getBatchEnvelopeLingerMs());
+    }
+
+    @Override
+    public String getDefaultTopic() {
+        return delegate.getDefaultTopic();
+    }
+
+    @Override
+    public void send(TopicPartitionInfo tpi, TbProtoQueueMsg<ToRuleEngineMsg> msg, TbQueueCallback callback) {
+        if (msg.getValue().hasBatch()) {
+            delegate.send(tpi, msg, callback);
+            return;
+        }
+        PendingBatch batch = batches.computeIfAbsent(tpi, k -> new PendingBatch());
+        // drained batches are sent under the lock of the partition, so the concurrent flush can't reorder them
+        synchronized (batch) {
+            batch.msgs.add(new PendingMsg(msg, callback));
+            batch.bytes += msg.getValue().getSerializedSize();
+            if (batch.msgs.size() >= maxBatchSize || batch.bytes >= maxBatchBytes) {
+                send(tpi, batch.drain());
+            }
+        }
+    }
+
+    void flush() {
+        batches.forEach((tpi, batch) -> {
+            synchronized (batch) {
+                if (batch.msgs.isEmpty()) {
+                    return;
+                }
+                List<PendingMsg> toSend = batch.drain();
+                try {
+                    send(tpi, toSend);
+                } catch (Exception e) {
+                    log.warn("[{}] Failed to send batch of {} messages", tpi, toSend.size(), e);
+                }
+            }
+        });
+    }
+
+    private void send(TopicPartitionInfo tpi, List<PendingMsg> msgs) {
+        if (msgs.size() == 1) {
+            PendingMsg msg = msgs.get(0);
+            delegate.send(tpi, msg.msg(), msg.callback());
+            return;
+        }
+        List<ToRuleEngineMsg> values = new ArrayList<>(msgs.size());
+        for (PendingMsg msg : msgs) {
+            values.add(msg.msg().getValue());
+        }
+        TbProtoQueueMsg<ToRuleEngineMsg> envelope = new TbProtoQueueMsg<>(msgs.get(0).msg().getKey(), ToRuleEngineMsgBatchCodec.pack(values));
+        delegate.send(tpi, envelope, new TbQueueCallback() {
+            @Override
+            public void onSuccess(TbQueueMsgMetadata metadata) {
+                for (PendingMsg msg : msgs) {
+                    if (msg.callback() != null) {
+                        msg.callback().onSuccess(metadata);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                for (PendingMsg msg : msgs) {
+                    if (msg.callback() != null) {
+                        msg.callback().onFailure(t);
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+        flush();
+        delegate.stop();
+    }
+
+    private record PendingMsg(TbProtoQueueMsg<ToRuleEngineMsg> msg, TbQueueCallback callback) {}
+
+    private static class PendingBatch {
+
+        private List<PendingMsg> msgs = new ArrayList<>();
+        private int bytes;
+
+        List<PendingMsg> drain() {
+            List<PendingMsg> result = msgs;
+            msgs = new ArrayList<>();
+            bytes = 0;
+            return result;
+        }
+
+    }
+
+}
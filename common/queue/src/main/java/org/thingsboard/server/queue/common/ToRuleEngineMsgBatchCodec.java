@@ -0,0 +1,141 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.common;
+
+import org.thingsboard.server.common.msg.gen.MsgProtos.TbMsgMetaDataProto;
+import org.thingsboard.server.common.msg.gen.MsgProtos.TbMsgProto;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineBatchEntryProto;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineBatchMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs many {@link ToRuleEngineMsg} into a single envelope message and unpacks them back.
+ * See {@code ToRuleEngineBatchMsg} in queue.proto for the format.
+ */
+public final class ToRuleEngineMsgBatchCodec {
+
+    private ToRuleEngineMsgBatchCodec() {
+    }
+
+    public static ToRuleEngineMsg pack(List<ToRuleEngineMsg> msgs) {
+        ToRuleEngineMsg first = msgs.get(0);
+        long tenantIdMSB = first.getTenantIdMSB();
+        long tenantIdLSB = first.getTenantIdLSB();
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        ToRuleEngineBatchMsg.Builder batch = ToRuleEngineBatchMsg.newBuilder()
+                .setTenantIdMSB(tenantIdMSB)
+                .setTenantIdLSB(tenantIdLSB);
+        for (ToRuleEngineMsg msg : msgs) {
+            ToRuleEngineBatchEntryProto.Builder entry = ToRuleEngineBatchEntryProto.newBuilder();
+            ToRuleEngineMsg.Builder msgBuilder = msg.toBuilder();
+            if (msg.getTenantIdMSB() == tenantIdMSB && msg.getTenantIdLSB() == tenantIdLSB) {
+                msgBuilder.clearTenantIdMSB().clearTenantIdLSB();
+                entry.setBatchTenant(true);
+            }
+            if (msg.hasTbMsgProto()) {
+                TbMsgProto tbMsg = msg.getTbMsgProto();
+                TbMsgProto.Builder tbMsgBuilder = tbMsg.toBuilder();
+                if (!tbMsg.getType().isEmpty()) {
+                    entry.setTypeRef(ref(dictionary, tbMsg.getType()));
+                    tbMsgBuilder.clearType();
+                }
+                if (!tbMsg.getEntityType().isEmpty()) {
+                    entry.setEntityTypeRef(ref(dictionary, tbMsg.getEntityType()));
+                    tbMsgBuilder.clearEntityType();
+                }
+                Map<String, String> metaData = tbMsg.getMetaData().getDataMap();
+                if (!metaData.isEmpty()) {
+                    metaData.forEach((key, value) -> {
+                        entry.addMetaDataKeyRefs(ref(dictionary, key));
+                        entry.addMetaDataValues(value);
+                    });
+                    tbMsgBuilder.clearMetaData();
+                }
+                msgBuilder.setTbMsgProto(tbMsgBuilder);
+            }
+            batch.addEntries(entry.setMsg(msgBuilder));
+        }
+        batch.addAllDictionary(dictionary.keySet());
+        return ToRuleEngineMsg.newBuilder().setBatch(batch).build();
+    }
+
+    public static List<ToRuleEngineMsg> unpack(ToRuleEngineMsg envelope) {
+        ToRuleEngineBatchMsg batch = envelope.getBatch();
+        List<ToRuleEngineMsg> msgs = new ArrayList<>(batch.getEntriesCount());
+        for (ToRuleEngineBatchEntryProto entry : batch.getEntriesList()) {
+            ToRuleEngineMsg msg = entry.getMsg();
+            ToRuleEngineMsg.Builder msgBuilder = msg.toBuilder();
+            if (entry.getBatchTenant()) {
+                msgBuilder.setTenantIdMSB(batch.getTenantIdMSB()).setTenantIdLSB(batch.getTenantIdLSB());
+            }
+            if (msg.hasTbMsgProto()) {
+                TbMsgProto.Builder tbMsgBuilder = msgBuilder.getTbMsgProtoBuilder();
+                if (entry.getTypeRef() > 0) {
+                    tbMsgBuilder.setType(batch.getDictionary(entry.getTypeRef() - 1));
+                }
+                if (entry.getEntityTypeRef() > 0) {
+                    tbMsgBuilder.setEntityType(batch.getDictionary(entry.getEntityTypeRef() - 1));
+                }
+                if (entry.getMetaDataKeyRefsCount() > 0) {
+                    TbMsgMetaDataProto.Builder metaData = TbMsgMetaDataProto.newBuilder();
+                    for (int i = 0; i < entry.getMetaDataKeyRefsCount(); i++) {
+                        metaData.putData(batch.getDictionary(entry.getMetaDataKeyRefs(i) - 1), entry.getMetaDataValues(i));
+                    }
+                    tbMsgBuilder.setMetaData(metaData);
+                }
+            }
+            msgs.add(msgBuilder.build());
+        }
+        return msgs;
+    }
+
+    /**
+     * Replaces the envelopes in the polled messages with the messages they contain, keeping the order.
+     */
+    public static List<TbProtoQueueMsg<ToRuleEngineMsg>> unpack(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs) {
+        boolean hasBatch = false;
+        for (TbProtoQueueMsg<ToRuleEngineMsg> msg : msgs) {
+            if (msg.getValue().hasBatch()) {
+                hasBatch = true;
+                break;
+            }
+        }
+        if (!hasBatch) {
+            return msgs;
+        }
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> result = new ArrayList<>(msgs.size());
+        for (TbProtoQueueMsg<ToRuleEngineMsg> msg : msgs) {
+            if (msg.getValue().hasBatch()) {
+                for (ToRuleEngineMsg unpacked : unpack(msg.getValue())) {
+                    result.add(new TbProtoQueueMsg<>(msg.getKey(), unpacked, msg.getHeaders()));
+                }
+            } else {
+                result.add(msg);
+            }
+        }
+        return result;
+    }
+
+    private static int ref(Map<String, Integer> dictionary, String value) {
+        return dictionary.computeIfAbsent(value, v -> dictionary.size() + 1);
+    }
+
+}
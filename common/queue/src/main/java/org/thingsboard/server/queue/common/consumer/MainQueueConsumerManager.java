@@ -224,6 +224,7 @@ public class MainQueueConsumerManager<M extends TbQueueMsg, C extends QueueConfi
                 try {
                     List<M> msgs = consumer.poll(config.getPollInterval());
                     if (msgs.isEmpty()) {
+                        onEmptyPoll(consumer);
                         continue;
                     }
                     processMsgs(msgs, consumer, consumerKey, config);
@@ -256,6 +257,9 @@ public class MainQueueConsumerManager<M extends TbQueueMsg, C extends QueueConfi
         log.trace("Processed {} messages", msgs.size());
     }
 
+    protected void onEmptyPoll(TbQueueConsumer<M> consumer) {
+    }
+
     public void stop() {
         log.debug("[{}] Stopping consumers", queueKey);
         consumerWrapper.getConsumers().forEach(TbQueueConsumerTask::initiateStop);
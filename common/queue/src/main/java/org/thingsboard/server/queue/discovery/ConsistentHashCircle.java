@@ -19,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
 
 /**
  * Created by ashvayka on 23.09.18.
@@ -55,6 +56,13 @@ public class ConsistentHashCircle<T> {
         return circle.get(hash);
     }
 
+    /**
+     * Returns the instances starting from the given hash clockwise, wrapping around the circle.
+     */
+    public Iterable<T> clockwise(long hash) {
+        return () -> Stream.concat(circle.tailMap(hash).values().stream(), circle.headMap(hash).values().stream()).iterator();
+    }
+
     public void log() {
         circle.forEach((key, value) -> log.debug("{} -> {}", key, value));
     }
@@ -0,0 +1,104 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.discovery;
+
+import com.google.common.hash.HashFunction;
+import org.thingsboard.server.gen.transport.TransportProtos.ServiceInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns partitions to servers with consistent hashing with bounded loads.
+ * <p>
+ * Every server is placed on the hash circle with a number of virtual nodes. A partition goes to the first server
+ * clockwise from the hash of the partition key that has less than {@code ceil(loadFactor * partitions / servers)}
+ * partitions already. When a server is added or removed, mostly the partitions of this server move,
+ * while with the modulo assignment almost all partitions move.
+ * <p>
+ * The result depends only on the server ids, so all the nodes compute the same assignment independently.
+ */
+public class ConsistentHashPartitionAssigner {
+
+    private final HashFunction hashFunction;
+    private final int virtualNodes;
+    private final double loadFactor;
+    private final ConcurrentMap<List<String>, ConsistentHashCircle<ServiceInfo>> circles = new ConcurrentHashMap<>();
+
+    public ConsistentHashPartitionAssigner(HashFunction hashFunction, int virtualNodes, double loadFactor) {
+        this.hashFunction = hashFunction;
+        this.virtualNodes = Math.max(1, virtualNodes);
+        this.loadFactor = Math.max(1.0, loadFactor);
+    }
+
+    /**
+     * @param servers   servers sorted by service id
+     * @param keyPrefix prefix of the partition keys; partitions with the same key go to the same server if the load allows
+     * @return the server for every partition index
+     */
+    public List<ServiceInfo> assign(List<ServiceInfo> servers, String keyPrefix, int partitions) {
+        List<ServiceInfo> result = new ArrayList<>(partitions);
+        if (servers.isEmpty()) {
+            for (int i = 0; i < partitions; i++) {
+                result.add(null);
+            }
+            return result;
+        }
+        ConsistentHashCircle<ServiceInfo> circle = getCircle(servers);
+        int capacity = (int) Math.ceil(loadFactor * partitions / servers.size());
+        Map<String, Integer> loads = new HashMap<>();
+        for (int partition = 0; partition < partitions; partition++) {
+            long hash = hash(keyPrefix + partition);
+            ServiceInfo owner = null;
+            for (ServiceInfo server : circle.clockwise(hash)) {
+                if (loads.getOrDefault(server.getServiceId(), 0) < capacity) {
+                    owner = server;
+                    break;
+                }
+            }
+            loads.merge(owner.getServiceId(), 1, Integer::sum);
+            result.add(owner);
+        }
+        return result;
+    }
+
+    public void clearCache() {
+        circles.clear();
+    }
+
+    private ConsistentHashCircle<ServiceInfo> getCircle(List<ServiceInfo> servers) {
+        List<String> serviceIds = servers.stream().map(ServiceInfo::getServiceId).toList();
+        return circles.computeIfAbsent(serviceIds, ids -> {
+            ConsistentHashCircle<ServiceInfo> circle = new ConsistentHashCircle<>();
+            for (ServiceInfo server : servers) {
+                for (int i = 0; i < virtualNodes; i++) {
+                    circle.put(hash(server.getServiceId() + "#" + i), server);
+                }
+            }
+            return circle;
+        });
+    }
+
+    private long hash(String key) {
+        return hashFunction.hashString(key, StandardCharsets.UTF_8).padToLong();
+    }
+
+}
@@ -38,6 +38,8 @@ import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.gen.transport.TransportProtos.ServiceInfo;
 import org.thingsboard.server.queue.discovery.event.ClusterTopologyChangeEvent;
 import org.thingsboard.server.queue.discovery.event.PartitionChangeEvent;
+import org.thingsboard.server.queue.discovery.event.PartitionMovementPlanEvent;
+import org.thingsboard.server.queue.discovery.event.PartitionMovementPlanEvent.PartitionMove;
 import org.thingsboard.server.queue.discovery.event.ServiceListChangedEvent;
 import org.thingsboard.server.queue.util.AfterStartUp;
 import org.thingsboard.server.queue.util.PropertyUtils;
@@ -94,6 +96,12 @@ public class HashPartitionService implements PartitionService {
     private String tasksPartitionsPerType;
     @Value("${queue.partitions.hash_function_name:murmur3_128}")
     private String hashFunctionName;
+    @Value("${queue.partitions.assignment_strategy:modulo}")
+    private String assignmentStrategy;
+    @Value("${queue.partitions.consistent_hash.virtual_nodes:100}")
+    private int consistentHashVirtualNodes;
+    @Value("${queue.partitions.consistent_hash.load_factor:1.25}")
+    private double consistentHashLoadFactor;
 
     private final ApplicationEventPublisher applicationEventPublisher;
     private final TbServiceInfoProvider serviceInfoProvider;
@@ -114,10 +122,17 @@ public class HashPartitionService implements PartitionService {
     private volatile Map<TenantProfileId, List<ServiceInfo>> responsibleServices = Collections.emptyMap();
 
     private HashFunction hashFunction;
+    private ConsistentHashPartitionAssigner consistentHashAssigner;
+    private Map<QueueKey, List<List<String>>> currentAssignment;
 
     @PostConstruct
     public void init() {
         this.hashFunction = forName(hashFunctionName);
+        if ("consistent_hash".equalsIgnoreCase(assignmentStrategy)) {
+            this.consistentHashAssigner = new ConsistentHashPartitionAssigner(hashFunction, consistentHashVirtualNodes, consistentHashLoadFactor);
+        } else if (!"modulo".equalsIgnoreCase(assignmentStrategy)) {
+            throw new IllegalArgumentException("Partitions assignment strategy '" + assignmentStrategy + "' is not supported");
+        }
 
         QueueKey coreKey = new QueueKey(ServiceType.TB_CORE);
         partitionSizesMap.put(coreKey, corePartitions);
@@ -439,20 +454,26 @@ public class HashPartitionService implements PartitionService {
         responsibleServices.values().forEach(list -> list.sort(Comparator.comparing(ServiceInfo::getServiceId)));
 
         final ConcurrentMap<QueueKey, List<Integer>> newPartitions = new ConcurrentHashMap<>();
+        final Map<QueueKey, List<List<String>>> newAssignment = new HashMap<>();
+        if (consistentHashAssigner != null) {
+            consistentHashAssigner.clearCache();
+        }
         partitionSizesMap.forEach((queueKey, size) -> {
+            List<List<ServiceInfo>> assignment = resolveAssignment(queueServicesMap.get(queueKey), queueKey, size, responsibleServices);
+            List<List<String>> assignmentIds = new ArrayList<>(size);
             for (int i = 0; i < size; i++) {
-                try {
-                    List<ServiceInfo> services = resolveByPartitionIdx(queueServicesMap.get(queueKey), queueKey, i, responsibleServices);
-                    log.trace("Server responsible for {}[{}] - {}", queueKey, i, services);
-                    if (services.contains(currentService)) {
-                        newPartitions.computeIfAbsent(queueKey, key -> new ArrayList<>()).add(i);
-                    }
-                } catch (Exception e) {
-                    log.warn("Failed to resolve server responsible for {}[{}]", queueKey, i, e);
+                List<ServiceInfo> services = assignment.get(i);
+                log.trace("Server responsible for {}[{}] - {}", queueKey, i, services);
+                if (services.contains(currentService)) {
+                    newPartitions.computeIfAbsent(queueKey, key -> new ArrayList<>()).add(i);
                 }
+                assignmentIds.add(toServiceIds(services));
             }
+            newAssignment.put(queueKey, assignmentIds);
         });
         this.responsibleServices = responsibleServices;
+        publishMovementPlan(currentAssignment, newAssignment, currentService, otherServices);
+        currentAssignment = newAssignment;
 
         final ConcurrentMap<QueueKey, List<Integer>> oldPartitions = myPartitions;
         myPartitions = newPartitions;
@@ -520,6 +541,40 @@ public class HashPartitionService implements PartitionService {
         applicationEventPublisher.publishEvent(new ServiceListChangedEvent(otherServices, currentService));
     }
 
+    private void publishMovementPlan(Map<QueueKey, List<List<String>>> oldAssignment, Map<QueueKey, List<List<String>>> newAssignment,
+                                     ServiceInfo currentService, List<ServiceInfo> otherServices) {
+        if (oldAssignment == null) {
+            return;
+        }
+        List<PartitionMove> moves = new ArrayList<>();
+        int totalPartitions = 0;
+        for (Map.Entry<QueueKey, List<List<String>>> entry : newAssignment.entrySet()) {
+            List<List<String>> newOwners = entry.getValue();
+            totalPartitions += newOwners.size();
+            List<List<String>> oldOwners = oldAssignment.get(entry.getKey());
+            if (oldOwners == null || oldOwners.size() != newOwners.size()) {
+                continue; // new queue or changed partitions count, nothing to hand off
+            }
+            for (int i = 0; i < newOwners.size(); i++) {
+                if (!oldOwners.get(i).isEmpty() && !oldOwners.get(i).equals(newOwners.get(i))) {
+                    moves.add(new PartitionMove(entry.getKey(), i, oldOwners.get(i), newOwners.get(i)));
+                }
+            }
+        }
+        if (moves.isEmpty()) {
+            return;
+        }
+        log.info("Partition movement plan: {} of {} partitions change the owner", moves.size(), totalPartitions);
+        try {
+            Set<String> serviceIds = new HashSet<>();
+            serviceIds.add(currentService.getServiceId());
+            otherServices.forEach(serviceInfo -> serviceIds.add(serviceInfo.getServiceId()));
+            applicationEventPublisher.publishEvent(new PartitionMovementPlanEvent(this, moves, totalPartitions, serviceIds));
+        } catch (Exception e) {
+            log.error("Failed to publish partition movement plan", e);
+        }
+    }
+
     private void publishPartitionChangeEvent(ServiceType serviceType,
                                              Map<QueueKey, Set<TopicPartitionInfo>> newPartitions,
                                              Map<QueueKey, Set<TopicPartitionInfo>> oldPartitions) {
@@ -700,6 +755,36 @@ public class HashPartitionService implements PartitionService {
         }
     }
 
+    protected List<List<ServiceInfo>> resolveAssignment(List<ServiceInfo> servers, QueueKey queueKey, int partitions,
+                                                        Map<TenantProfileId, List<ServiceInfo>> responsibleServices) {
+        List<List<ServiceInfo>> assignment = new ArrayList<>(partitions);
+        if (consistentHashAssigner != null && queueKey.getType() != ServiceType.EDQS) {
+            List<ServiceInfo> candidates = Collections.emptyList();
+            try {
+                candidates = resolveCandidates(servers, queueKey, responsibleServices);
+            } catch (Exception e) {
+                log.warn("Failed to resolve servers responsible for {}", queueKey, e);
+            }
+            // partitions of the same tenant in different Rule Engine queues get the same keys, to be processed by the same servers
+            String keyPrefix = queueKey.getType() == ServiceType.TB_RULE_ENGINE ?
+                    queueKey.getTenantId().getId() + "_" : queueKey.getType() + "_" + queueKey.getQueueName() + "_";
+            for (ServiceInfo server : consistentHashAssigner.assign(candidates, keyPrefix, partitions)) {
+                assignment.add(server != null ? List.of(server) : Collections.emptyList());
+            }
+            return assignment;
+        }
+        for (int i = 0; i < partitions; i++) {
+            List<ServiceInfo> services = Collections.emptyList();
+            try {
+                services = resolveByPartitionIdx(servers, queueKey, i, responsibleServices);
+            } catch (Exception e) {
+                log.warn("Failed to resolve server responsible for {}[{}]", queueKey, i, e);
+            }
+            assignment.add(services);
+        }
+        return assignment;
+    }
+
     @NotNull
     protected List<ServiceInfo> resolveByPartitionIdx(List<ServiceInfo> servers, QueueKey queueKey, int partition,
                                                       Map<TenantProfileId, List<ServiceInfo>> responsibleServices) {
@@ -707,6 +792,33 @@ public class HashPartitionService implements PartitionService {
             return Collections.emptyList();
         }
 
+        TenantId tenantId = queueKey.getTenantId();
+        if (queueKey.getType() == ServiceType.TB_RULE_ENGINE) {
+            servers = resolveCandidates(servers, queueKey, responsibleServices);
+            if (servers.isEmpty()) {
+                return Collections.emptyList();
+            }
+            int hash = hash(tenantId.getId());
+            ServiceInfo server = servers.get(Math.abs((hash + partition) % servers.size()));
+            return server != null ? List.of(server) : Collections.emptyList();
+        } else if (queueKey.getType() == ServiceType.EDQS) {
+            List<List<ServiceInfo>> sets = servers.stream().collect(Collectors.groupingBy(ServiceInfo::getLabel))
+                    .entrySet().stream().sorted(Map.Entry.comparingByKey()).map(Map.Entry::getValue).toList();
+            return sets.get(partition % sets.size());
+        } else {
+            ServiceInfo server = servers.get(partition % servers.size());
+            return server != null ? List.of(server) : Collections.emptyList();
+        }
+    }
+
+    /**
+     * Returns the servers that can be responsible for the queue partitions, taking into account the servers dedicated to tenant profiles.
+     */
+    private List<ServiceInfo> resolveCandidates(List<ServiceInfo> servers, QueueKey queueKey,
+                                                Map<TenantProfileId, List<ServiceInfo>> responsibleServices) {
+        if (servers == null || servers.isEmpty()) {
+            return Collections.emptyList();
+        }
         TenantId tenantId = queueKey.getTenantId();
         if (queueKey.getType() == ServiceType.TB_RULE_ENGINE) {
             if (!responsibleServices.isEmpty()) { // if there are any dedicated servers
@@ -731,23 +843,10 @@ public class HashPartitionService implements PartitionService {
                     }
                     responsibleServices.put(profileId, responsible);
                 }
-                if (responsible.isEmpty()) {
-                    return Collections.emptyList();
-                }
-                servers = responsible;
+                return responsible;
             }
-
-            int hash = hash(tenantId.getId());
-            ServiceInfo server = servers.get(Math.abs((hash + partition) % servers.size()));
-            return server != null ? List.of(server) : Collections.emptyList();
-        } else if (queueKey.getType() == ServiceType.EDQS) {
-            List<List<ServiceInfo>> sets = servers.stream().collect(Collectors.groupingBy(ServiceInfo::getLabel))
-                    .entrySet().stream().sorted(Map.Entry.comparingByKey()).map(Map.Entry::getValue).toList();
-            return sets.get(partition % sets.size());
-        } else {
-            ServiceInfo server = servers.get(partition % servers.size());
-            return server != null ? List.of(server) : Collections.emptyList();
         }
+        return servers;
     }
 
     private int hash(UUID key) {
@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.discovery.event;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.thingsboard.server.queue.discovery.QueueKey;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Partitions that change the owner after the cluster topology change. Published before the {@link PartitionChangeEvent},
+ * so the services that lose the partitions can hand off the state of these partitions to the new owners.
+ */
+@ToString(callSuper = true)
+public class PartitionMovementPlanEvent extends TbApplicationEvent {
+
+    @Serial
+    private static final long serialVersionUID = 2385761308459832650L;
+
+    @Getter
+    private final List<PartitionMove> moves;
+    @Getter
+    private final int totalPartitions;
+    @Getter
+    private final Set<String> serviceIds;
+
+    public PartitionMovementPlanEvent(Object source, List<PartitionMove> moves, int totalPartitions, Set<String> serviceIds) {
+        super(source);
+        this.moves = moves;
+        this.totalPartitions = totalPartitions;
+        this.serviceIds = serviceIds;
+    }
+
+    public List<PartitionMove> getMovesFrom(String serviceId) {
+        return moves.stream().filter(move -> move.from().contains(serviceId) && !move.to().contains(serviceId)).toList();
+    }
+
+    /**
+     * Whether the service is still part of the cluster after the change, i.e. is able to hand off the state.
+     */
+    public boolean isActive(String serviceId) {
+        return serviceIds.contains(serviceId);
+    }
+
+    public List<PartitionMove> getMovesTo(String serviceId) {
+        return moves.stream().filter(move -> move.to().contains(serviceId) && !move.from().contains(serviceId)).toList();
+    }
+
+    public record PartitionMove(QueueKey queueKey, int partition, List<String> from, List<String> to) implements Serializable {}
+
+}
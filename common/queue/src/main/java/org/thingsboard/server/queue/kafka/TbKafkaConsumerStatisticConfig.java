@@ -34,4 +34,6 @@ public class TbKafkaConsumerStatisticConfig {
     private Long printIntervalMs;
     @Value("${queue.kafka.consumer-stats.kafka-response-timeout-ms:1000}")
     private Long kafkaResponseTimeoutMs;
+    @Value("${queue.kafka.consumer-stats.metrics-enabled:false}")
+    private Boolean metricsEnabled;
 }
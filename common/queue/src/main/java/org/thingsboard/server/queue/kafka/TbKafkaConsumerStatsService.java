@@ -29,28 +29,39 @@ import org.apache.kafka.common.TopicPartition;
 import org.springframework.stereotype.Component;
 import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.server.common.data.StringUtils;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.queue.util.TbKafkaComponent;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 @TbKafkaComponent
 public class TbKafkaConsumerStatsService {
+
+    public static final String LAG_STATS_KEY = "kafka.consumer.lag";
+    public static final String TOTAL_LAG_STATS_KEY = "kafka.consumer.lag.total";
+
     private final Set<String> monitoredGroups = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<GroupTopicPartition, AtomicLong> partitionLags = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> groupLags = new ConcurrentHashMap<>();
 
     private final TbKafkaSettings kafkaSettings;
     private final KafkaAdmin kafkaAdmin;
     private final TbKafkaConsumerStatisticConfig statsConfig;
+    private final StatsFactory statsFactory;
 
     private Consumer<String, byte[]> consumer;
     private ScheduledExecutorService statsPrintScheduler;
@@ -73,7 +84,7 @@ public class TbKafkaConsumerStatsService {
     private void startLogScheduling() {
         Duration timeoutDuration = Duration.ofMillis(statsConfig.getKafkaResponseTimeoutMs());
         statsPrintScheduler.scheduleWithFixedDelay(() -> {
-            if (!isStatsPrintRequired()) {
+            if (!isStatsPrintRequired() && !statsConfig.getMetricsEnabled()) {
                 return;
             }
             for (String groupId : monitoredGroups) {
@@ -83,7 +94,10 @@ public class TbKafkaConsumerStatsService {
                     Map<TopicPartition, Long> endOffsets = consumer.endOffsets(groupOffsets.keySet(), timeoutDuration);
 
                     List<GroupTopicStats> lagTopicsStats = getTopicsStatsWithLag(groupOffsets, endOffsets);
-                    if (!lagTopicsStats.isEmpty()) {
+                    if (statsConfig.getMetricsEnabled()) {
+                        updateLagGauges(groupId, groupOffsets, endOffsets);
+                    }
+                    if (!lagTopicsStats.isEmpty() && isStatsPrintRequired()) {
                         StringBuilder builder = new StringBuilder();
                         for (int i = 0; i < lagTopicsStats.size(); i++) {
                             builder.append(lagTopicsStats.get(i).toString());
@@ -125,6 +139,39 @@ public class TbKafkaConsumerStatsService {
         return consumerGroupStats;
     }
 
+    /**
+     * Lag gauges are created once per group and topic partition of the group, so the cardinality is bounded by the number
+     * of partitions of the monitored topics. Gauges of the partitions that are no longer consumed by the group report zero lag.
+     */
+    private void updateLagGauges(String groupId, Map<TopicPartition, OffsetAndMetadata> groupOffsets, Map<TopicPartition, Long> endOffsets) {
+        long totalLag = 0;
+        Set<GroupTopicPartition> reported = new HashSet<>();
+        for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : groupOffsets.entrySet()) {
+            TopicPartition topicPartition = entry.getKey();
+            Long endOffset = endOffsets.get(topicPartition);
+            if (endOffset == null || entry.getValue() == null) {
+                continue;
+            }
+            long lag = Math.max(0, endOffset - entry.getValue().offset());
+            GroupTopicPartition key = new GroupTopicPartition(groupId, topicPartition.topic(), topicPartition.partition());
+            getPartitionLagGauge(key).set(lag);
+            reported.add(key);
+            totalLag += lag;
+        }
+        partitionLags.forEach((key, lag) -> {
+            if (key.groupId().equals(groupId) && !reported.contains(key)) {
+                lag.set(0);
+            }
+        });
+        groupLags.computeIfAbsent(groupId, id -> statsFactory.createGauge(TOTAL_LAG_STATS_KEY, new AtomicLong(), "groupId", id))
+                .set(totalLag);
+    }
+
+    private AtomicLong getPartitionLagGauge(GroupTopicPartition key) {
+        return partitionLags.computeIfAbsent(key, k -> statsFactory.createGauge(LAG_STATS_KEY, new AtomicLong(),
+                "groupId", k.groupId(), "topic", k.topic(), "partition", Integer.toString(k.partition())));
+    }
+
     public void registerClientGroup(String groupId) {
         if (statsConfig.getEnabled() && !StringUtils.isEmpty(groupId)) {
             monitoredGroups.add(groupId);
@@ -134,6 +181,15 @@ public class TbKafkaConsumerStatsService {
     public void unregisterClientGroup(String groupId) {
         if (statsConfig.getEnabled() && !StringUtils.isEmpty(groupId)) {
             monitoredGroups.remove(groupId);
+            partitionLags.forEach((key, lag) -> {
+                if (key.groupId().equals(groupId)) {
+                    lag.set(0);
+                }
+            });
+            AtomicLong groupLag = groupLags.get(groupId);
+            if (groupLag != null) {
+                groupLag.set(0);
+            }
         }
     }
 
@@ -148,6 +204,8 @@ public class TbKafkaConsumerStatsService {
     }
 
 
+    private record GroupTopicPartition(String groupId, String topic, int partition) {}
+
     @Builder
     @Data
     private static class GroupTopicStats {
@@ -24,6 +24,7 @@ import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.springframework.util.StopWatch;
 import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
@@ -65,6 +66,7 @@ public class TbKafkaConsumerTemplate<T extends TbQueueMsg> extends AbstractTbQue
     private final boolean stopWhenRead; // stop consuming when reached end offset remembered on start
     private int readCount;
     private Map<Integer, Long> endOffsets; // needed if stopWhenRead is true
+    private final Map<TopicPartition, Long> polledOffsets = new HashMap<>(); // next offsets after the polled records
 
     @Builder
     private TbKafkaConsumerTemplate(TbKafkaSettings settings, TbKafkaDecoder<T> decoder,
@@ -94,6 +96,7 @@ public class TbKafkaConsumerTemplate<T extends TbQueueMsg> extends AbstractTbQue
 
     @Override
     protected void doSubscribe(Set<TopicPartitionInfo> partitions) {
+        polledOffsets.clear();
         Map<String, List<Integer>> topics;
         if (partitions == null) {
             topics = Collections.emptyMap();
@@ -167,6 +170,7 @@ public class TbKafkaConsumerTemplate<T extends TbQueueMsg> extends AbstractTbQue
             recordList = new ArrayList<>(256);
             records.forEach(record -> {
                 recordList.add(record);
+                polledOffsets.put(new TopicPartition(record.topic(), record.partition()), record.offset() + 1);
                 if (stopWhenRead && endOffsets != null) {
                     readCount++;
                     int partition = record.partition();
@@ -224,6 +228,37 @@ public class TbKafkaConsumerTemplate<T extends TbQueueMsg> extends AbstractTbQue
         }
     }
 
+    @Override
+    public Object getPosition() {
+        if (groupId == null) {
+            return null;
+        }
+        consumerLock.lock();
+        try {
+            return Map.copyOf(polledOffsets);
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    protected void doCommit(Object position) {
+        if (groupId == null) {
+            return;
+        }
+        Set<TopicPartition> assignment = consumer.assignment();
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        ((Map<TopicPartition, Long>) position).forEach((topicPartition, offset) -> {
+            if (assignment.contains(topicPartition)) {
+                offsets.put(topicPartition, new OffsetAndMetadata(offset));
+            }
+        });
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+    }
+
     @Override
     protected void doUnsubscribe() {
         if (consumer != null) {
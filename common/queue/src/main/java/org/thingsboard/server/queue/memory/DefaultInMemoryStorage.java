@@ -15,26 +15,74 @@
  */
 package org.thingsboard.server.queue.memory;
 
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.queue.TbQueueMsg;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Keeps the messages of every topic in a bounded lock-free ring buffer.
+ * Topics of partitioned queues are resolved to one topic per partition (e.g. "tb_rule_engine.main.3"), so every partition has its own buffer.
+ * When a buffer is full, the producer waits up to {@code maxBlockMs} for free space and the message is rejected after that.
+ */
 @Component
+@ConditionalOnProperty(prefix = "queue.in_memory.storage", value = "type", havingValue = "memory", matchIfMissing = true)
 @Slf4j
 public final class DefaultInMemoryStorage implements InMemoryStorage {
-    private final ConcurrentHashMap<String, BlockingQueue<TbQueueMsg>> storage = new ConcurrentHashMap<>();
+
+    private static final int MAX_POLL_SIZE = 1000;
+    private static final long BLOCKED_PUT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final ConcurrentHashMap<String, InMemoryRingBuffer<TbQueueMsg>> storage = new ConcurrentHashMap<>();
+    private final AtomicLong blockedPuts = new AtomicLong();
+    private final AtomicLong rejectedPuts = new AtomicLong();
+    private long lastReportedRejectedPuts;
+
+    @Value("${queue.in_memory.partition_capacity:32768}")
+    private int partitionCapacity = 32768;
+    @Value("${queue.in_memory.max_block_ms:1000}")
+    private long maxBlockMs = 1000;
+
+    @Autowired(required = false)
+    private StatsFactory statsFactory;
+
+    public DefaultInMemoryStorage() {
+    }
+
+    DefaultInMemoryStorage(int partitionCapacity, long maxBlockMs) {
+        this.partitionCapacity = partitionCapacity;
+        this.maxBlockMs = maxBlockMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (statsFactory != null) {
+            statsFactory.createGauge("inMemoryQueue", "lag", this, DefaultInMemoryStorage::getLagTotal);
+            statsFactory.createGauge("inMemoryQueue", "blockedPuts", blockedPuts, AtomicLong::get);
+            statsFactory.createGauge("inMemoryQueue", "rejectedPuts", rejectedPuts, AtomicLong::get);
+        }
+    }
 
     @Override
     public void printStats() {
+        long rejected = rejectedPuts.get();
+        if (rejected > lastReportedRejectedPuts) {
+            log.warn("[{}] messages were rejected because in-memory queue partitions are full, total blocked puts: [{}]",
+                    rejected - lastReportedRejectedPuts, blockedPuts.get());
+            lastReportedRejectedPuts = rejected;
+        }
         if (log.isDebugEnabled()) {
             storage.forEach((topic, queue) -> {
                 if (queue.size() > 0) {
@@ -46,31 +94,51 @@ public final class DefaultInMemoryStorage implements InMemoryStorage {
 
     @Override
     public int getLagTotal() {
-        return storage.values().stream().map(BlockingQueue::size).reduce(0, Integer::sum);
+        int lag = 0;
+        for (InMemoryRingBuffer<TbQueueMsg> queue : storage.values()) {
+            lag += queue.size();
+        }
+        return lag;
     }
 
     @Override
     public int getLag(String topic) {
-        return Optional.ofNullable(storage.get(topic)).map(Collection::size).orElse(0);
+        InMemoryRingBuffer<TbQueueMsg> queue = storage.get(topic);
+        return queue != null ? queue.size() : 0;
     }
 
     @Override
     public boolean put(String topic, TbQueueMsg msg) {
-        return storage.computeIfAbsent(topic, (t) -> new LinkedBlockingQueue<>()).add(msg);
+        InMemoryRingBuffer<TbQueueMsg> queue = storage.computeIfAbsent(topic, t -> new InMemoryRingBuffer<>(partitionCapacity));
+        return queue.offer(msg) || putBlocking(topic, queue, msg);
+    }
+
+    private boolean putBlocking(String topic, InMemoryRingBuffer<TbQueueMsg> queue, TbQueueMsg msg) {
+        blockedPuts.incrementAndGet();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBlockMs);
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(BLOCKED_PUT_PARK_NANOS);
+            if (queue.offer(msg)) {
+                return true;
+            }
+        }
+        rejectedPuts.incrementAndGet();
+        log.trace("[{}] Partition is full, capacity [{}]", topic, queue.capacity());
+        return false;
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T extends TbQueueMsg> List<T> get(String topic) throws InterruptedException {
-        final BlockingQueue<TbQueueMsg> queue = storage.get(topic);
+        final InMemoryRingBuffer<TbQueueMsg> queue = storage.get(topic);
         if (queue != null) {
             final TbQueueMsg firstMsg = queue.poll();
             if (firstMsg != null) {
                 final int queueSize = queue.size();
                 if (queueSize > 0) {
-                    final List<TbQueueMsg> entities = new ArrayList<>(Math.min(queueSize, 999) + 1);
+                    final List<TbQueueMsg> entities = new ArrayList<>(Math.min(queueSize, MAX_POLL_SIZE - 1) + 1);
                     entities.add(firstMsg);
-                    queue.drainTo(entities, 999);
+                    queue.drainTo(entities, MAX_POLL_SIZE - 1);
                     return (List<T>) entities;
                 }
                 return Collections.singletonList((T) firstMsg);
@@ -79,4 +147,8 @@ public final class DefaultInMemoryStorage implements InMemoryStorage {
         return Collections.emptyList();
     }
 
+    long getRejectedPuts() {
+        return rejectedPuts.get();
+    }
+
 }
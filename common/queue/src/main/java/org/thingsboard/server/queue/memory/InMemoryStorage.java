@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.queue.memory;
 
+import org.thingsboard.server.queue.TbQueueCallback;
 import org.thingsboard.server.queue.TbQueueMsg;
 
 import java.util.List;
@@ -29,6 +30,23 @@ public interface InMemoryStorage {
 
     boolean put(String topic, TbQueueMsg msg);
 
+    default void put(String topic, TbQueueMsg msg, TbQueueCallback callback) {
+        boolean result = put(topic, msg);
+        if (callback != null) {
+            if (result) {
+                callback.onSuccess(null);
+            } else {
+                callback.onFailure(new RuntimeException("Failure add msg to InMemoryQueue"));
+            }
+        }
+    }
+
     <T extends TbQueueMsg> List<T> get(String topic) throws InterruptedException;
 
+    default void commit(String topic) {
+    }
+
+    default void seekToCommitted(String topic) {
+    }
+
 }
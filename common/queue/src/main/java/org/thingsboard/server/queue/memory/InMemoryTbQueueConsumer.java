@@ -48,12 +48,14 @@ public class InMemoryTbQueueConsumer<T extends TbQueueMsg> implements TbQueueCon
     @Override
     public void subscribe() {
         partitions = Collections.singleton(new TopicPartitionInfo(topic, null, null, true));
+        partitions.forEach(tpi -> storage.seekToCommitted(tpi.getFullTopicName()));
         subscribed = true;
     }
 
     @Override
     public void subscribe(Set<TopicPartitionInfo> partitions) {
         this.partitions = partitions;
+        partitions.forEach(tpi -> storage.seekToCommitted(tpi.getFullTopicName()));
         subscribed = true;
     }
 
@@ -102,6 +104,9 @@ public class InMemoryTbQueueConsumer<T extends TbQueueMsg> implements TbQueueCon
 
     @Override
     public void commit() {
+        if (subscribed) {
+            partitions.forEach(tpi -> storage.commit(tpi.getFullTopicName()));
+        }
     }
 
     @Override
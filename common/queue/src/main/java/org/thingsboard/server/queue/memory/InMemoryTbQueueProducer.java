@@ -35,16 +35,7 @@ public class InMemoryTbQueueProducer<T extends TbQueueMsg> implements TbQueuePro
 
     @Override
     public void send(TopicPartitionInfo tpi, T msg, TbQueueCallback callback) {
-        boolean result = storage.put(tpi.getFullTopicName(), msg);
-        if (result) {
-            if (callback != null) {
-                callback.onSuccess(null);
-            }
-        } else {
-            if (callback != null) {
-                callback.onFailure(new RuntimeException("Failure add msg to InMemoryQueue"));
-            }
-        }
+        storage.put(tpi.getFullTopicName(), msg, callback);
     }
 
     @Override
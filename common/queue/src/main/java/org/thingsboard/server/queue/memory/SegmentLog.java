@@ -0,0 +1,284 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.memory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.queue.TbQueueCallback;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of a single topic (partition), stored in memory-mapped segment files.
+ * <p>
+ * Records are read sequentially from the read position, which is reset to the committed position on restart,
+ * so messages that were polled but not committed are delivered again (at-least-once).
+ * Segments that were fully consumed are deleted on commit, and no new segment is created
+ * while the topic already holds {@code maxSegments} segments, so producers get a failure instead of filling the disk.
+ */
+@Slf4j
+class SegmentLog {
+
+    static final int RECORD_HEADER_SIZE = 8; // record length + crc32 of the record
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMMITTED_FILE = "committed.offset";
+    private static final String COMMITTED_TMP_FILE = "committed.offset.tmp";
+
+    private final String topic;
+    private final Path dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private List<TbQueueCallback> pendingCallbacks = new ArrayList<>();
+
+    private Position read;
+    private Position committed;
+    private long endOffset;
+    private boolean committedDirty;
+
+    SegmentLog(String topic, Path dir, int segmentSize, int maxSegments) throws IOException {
+        this.topic = topic;
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(2, maxSegments);
+        Files.createDirectories(dir);
+        recover();
+    }
+
+    synchronized boolean append(byte[] record, TbQueueCallback callback) {
+        int size = RECORD_HEADER_SIZE + record.length;
+        if (size > segmentSize) {
+            log.warn("[{}] Message of {} bytes does not fit into a segment of {} bytes", topic, record.length, segmentSize);
+            return false;
+        }
+        Segment segment = segments.lastEntry().getValue();
+        if (segment.writePosition + size > segment.buffer.capacity()) {
+            if (segments.size() >= maxSegments) {
+                log.debug("[{}] Topic is full, {} segments are not consumed yet", topic, segments.size());
+                return false;
+            }
+            try {
+                segment = createSegment(endOffset);
+            } catch (IOException e) {
+                log.warn("[{}] Failed to create segment", topic, e);
+                return false;
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        segment.buffer.putInt(segment.writePosition + 4, (int) crc.getValue());
+        segment.buffer.put(segment.writePosition + RECORD_HEADER_SIZE, record);
+        segment.buffer.putInt(segment.writePosition, record.length);
+        segment.writePosition += size;
+        segment.dirty = true;
+        endOffset++;
+        if (callback != null) {
+            pendingCallbacks.add(callback);
+        }
+        return true;
+    }
+
+    synchronized List<byte[]> read(int maxRecords) {
+        List<byte[]> records = null;
+        while (read.offset < endOffset && (records == null || records.size() < maxRecords)) {
+            Segment segment = segments.get(read.segmentBase);
+            if (read.position >= segment.writePosition) {
+                Map.Entry<Long, Segment> next = segments.higherEntry(read.segmentBase);
+                read = new Position(next.getKey(), 0, read.offset);
+                continue;
+            }
+            int length = segment.buffer.getInt(read.position);
+            byte[] record = new byte[length];
+            segment.buffer.get(read.position + RECORD_HEADER_SIZE, record);
+            if (records == null) {
+                records = new ArrayList<>(Math.min(maxRecords, (int) Math.min(endOffset - read.offset, Integer.MAX_VALUE)));
+            }
+            records.add(record);
+            read = new Position(read.segmentBase, read.position + RECORD_HEADER_SIZE + length, read.offset + 1);
+        }
+        return records != null ? records : Collections.emptyList();
+    }
+
+    /**
+     * Moves the read position back to the committed one, so the polled but not committed records are read again.
+     */
+    synchronized void seekToCommitted() {
+        read = committed;
+    }
+
+    synchronized void commit() {
+        if (committed.equals(read)) {
+            return;
+        }
+        committed = read;
+        committedDirty = true;
+        while (segments.firstKey() < committed.segmentBase) {
+            Segment segment = segments.pollFirstEntry().getValue();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("[{}] Failed to delete consumed segment {}", topic, segment.path, e);
+            }
+        }
+    }
+
+    synchronized long getLag() {
+        return endOffset - read.offset;
+    }
+
+    /**
+     * Forces the appended records and the committed position to disk and completes the callbacks of the flushed messages.
+     */
+    void flush() {
+        List<Segment> dirty = new ArrayList<>();
+        List<TbQueueCallback> callbacks;
+        Position toPersist = null;
+        synchronized (this) {
+            for (Segment segment : segments.values()) {
+                if (segment.dirty) {
+                    segment.dirty = false;
+                    dirty.add(segment);
+                }
+            }
+            callbacks = pendingCallbacks;
+            pendingCallbacks = new ArrayList<>();
+            if (committedDirty) {
+                committedDirty = false;
+                toPersist = committed;
+            }
+        }
+        try {
+            for (Segment segment : dirty) {
+                segment.buffer.force();
+            }
+            if (toPersist != null) {
+                persistCommitted(toPersist);
+            }
+        } catch (Exception e) {
+            log.warn("[{}] Failed to flush topic", topic, e);
+            callbacks.forEach(callback -> callback.onFailure(e));
+            return;
+        }
+        callbacks.forEach(callback -> callback.onSuccess(null));
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            segments.put(base, openSegment(file, base, (int) Files.size(file)));
+        }
+        if (segments.isEmpty()) {
+            createSegment(0);
+        }
+        Segment last = segments.lastEntry().getValue();
+        endOffset = last.baseOffset + last.recordCount;
+        Segment first = segments.firstEntry().getValue();
+        committed = new Position(first.baseOffset, 0, first.baseOffset);
+        Path committedFile = dir.resolve(COMMITTED_FILE);
+        if (Files.exists(committedFile)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(committedFile));
+            Position position = new Position(buffer.getLong(), buffer.getInt(), buffer.getLong());
+            if (segments.containsKey(position.segmentBase) && position.offset <= endOffset) {
+                committed = position;
+            }
+        }
+        read = committed;
+        log.info("[{}] Recovered {} segments, committed offset: {}, end offset: {}", topic, segments.size(), committed.offset, endOffset);
+    }
+
+    private Segment createSegment(long baseOffset) throws IOException {
+        Path file = dir.resolve(String.format("%020d", baseOffset) + SEGMENT_SUFFIX);
+        Segment segment = openSegment(file, baseOffset, segmentSize);
+        segments.put(baseOffset, segment);
+        return segment;
+    }
+
+    private Segment openSegment(Path file, long baseOffset, int size) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        Segment segment = new Segment(baseOffset, file, buffer);
+        // find the end of the valid records, a torn write at the tail of the segment is discarded
+        int position = 0;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_SIZE <= size) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+            byte[] record = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, record);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("[{}] Discarding corrupted record at position {} of segment {}", topic, position, file);
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+            segment.recordCount++;
+        }
+        segment.writePosition = position;
+        return segment;
+    }
+
+    private void persistCommitted(Position position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        buffer.putLong(position.segmentBase).putInt(position.position).putLong(position.offset);
+        Path tmp = dir.resolve(COMMITTED_TMP_FILE);
+        Files.write(tmp, buffer.array());
+        Files.move(tmp, dir.resolve(COMMITTED_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private record Position(long segmentBase, int position, long offset) {}
+
+    private static class Segment {
+
+        private final long baseOffset;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private long recordCount;
+        private boolean dirty;
+
+        Segment(long baseOffset, Path path, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+    }
+
+}
@@ -0,0 +1,329 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.memory;
+
+import com.google.protobuf.GeneratedMessageV3;
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.thingsboard.common.util.ThingsBoardExecutors;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueMsg;
+import org.thingsboard.server.queue.TbQueueMsgHeaders;
+import org.thingsboard.server.queue.common.DefaultTbQueueMsgHeaders;
+import org.thingsboard.server.queue.common.TbProtoJsQueueMsg;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable storage for the in-memory queue type, intended for single node installations.
+ * Every topic is an append-only log of memory-mapped segment files, see {@link SegmentLog}.
+ * Appended messages are forced to disk by a periodic flush (group commit), which also completes the producer callbacks.
+ * Logs of the topics found in the storage directory are opened on startup, so their uncommitted messages are delivered again.
+ * Only messages of {@link TbProtoQueueMsg} type keep their payload type after restart, other messages are restored as raw data.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "queue.in_memory.storage", value = "type", havingValue = "segment_log")
+public class SegmentLogStorage implements InMemoryStorage {
+
+    private final ConcurrentHashMap<String, SegmentLog> logs = new ConcurrentHashMap<>();
+    private static final byte RAW_ENCODING = 0;
+    private static final byte PROTO_ENCODING = 1;
+    private static final byte JSON_ENCODING = 2;
+
+    private final Map<String, Method> parsers = new ConcurrentHashMap<>();
+    private final Map<String, Method> builders = new ConcurrentHashMap<>();
+
+    @Value("${queue.in_memory.storage.segment_log.path:${user.home}/.queue/segment_log}")
+    private String path;
+    @Value("${queue.in_memory.storage.segment_log.segment_size_bytes:16777216}")
+    private int segmentSize;
+    @Value("${queue.in_memory.storage.segment_log.max_segments_per_topic:64}")
+    private int maxSegmentsPerTopic;
+    @Value("${queue.in_memory.storage.segment_log.flush_interval_ms:10}")
+    private long flushIntervalMs;
+    @Value("${queue.in_memory.storage.segment_log.max_poll_records:1000}")
+    private int maxPollRecords;
+
+    private ScheduledExecutorService flushExecutor;
+
+    public SegmentLogStorage() {
+    }
+
+    SegmentLogStorage(String path, int segmentSize, int maxSegmentsPerTopic, long flushIntervalMs, int maxPollRecords) {
+        this.path = path;
+        this.segmentSize = segmentSize;
+        this.maxSegmentsPerTopic = maxSegmentsPerTopic;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxPollRecords = maxPollRecords;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Using segment log queue storage at {}", path);
+        openExistingLogs();
+        flushExecutor = ThingsBoardExecutors.newSingleThreadScheduledExecutor("segment-log-flush");
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+        }
+        flush();
+    }
+
+    private void openExistingLogs() {
+        Path root = Paths.get(path);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> dirs = Files.list(root)) {
+            dirs.filter(Files::isDirectory).forEach(dir -> getLog(dir.getFileName().toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open segment logs at " + path, e);
+        }
+    }
+
+    void flush() {
+        for (SegmentLog segmentLog : logs.values()) {
+            try {
+                segmentLog.flush();
+            } catch (Exception e) {
+                log.warn("Failed to flush segment log", e);
+            }
+        }
+    }
+
+    @Override
+    public void printStats() {
+        if (log.isDebugEnabled()) {
+            logs.forEach((topic, segmentLog) -> {
+                long lag = segmentLog.getLag();
+                if (lag > 0) {
+                    log.debug("[{}] Queue Size [{}]", topic, lag);
+                }
+            });
+        }
+    }
+
+    @Override
+    public int getLagTotal() {
+        return (int) logs.values().stream().mapToLong(SegmentLog::getLag).sum();
+    }
+
+    @Override
+    public int getLag(String topic) {
+        SegmentLog segmentLog = logs.get(topic);
+        return segmentLog != null ? (int) segmentLog.getLag() : 0;
+    }
+
+    @Override
+    public boolean put(String topic, TbQueueMsg msg) {
+        return getLog(topic).append(encode(msg), null);
+    }
+
+    @Override
+    public void put(String topic, TbQueueMsg msg, TbQueueCallback callback) {
+        if (!getLog(topic).append(encode(msg), callback) && callback != null) {
+            callback.onFailure(new RuntimeException("Failure add msg to segment log of topic " + topic));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends TbQueueMsg> List<T> get(String topic) {
+        SegmentLog segmentLog = logs.get(topic);
+        if (segmentLog == null) {
+            return Collections.emptyList();
+        }
+        List<byte[]> records = segmentLog.read(maxPollRecords);
+        if (records.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<T> msgs = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            msgs.add((T) decode(record));
+        }
+        return msgs;
+    }
+
+    @Override
+    public void commit(String topic) {
+        SegmentLog segmentLog = logs.get(topic);
+        if (segmentLog != null) {
+            segmentLog.commit();
+        }
+    }
+
+    @Override
+    public void seekToCommitted(String topic) {
+        SegmentLog segmentLog = logs.get(topic);
+        if (segmentLog != null) {
+            segmentLog.seekToCommitted();
+        }
+    }
+
+    private SegmentLog getLog(String topic) {
+        return logs.computeIfAbsent(topic, t -> {
+            try {
+                return new SegmentLog(t, Paths.get(path, t), segmentSize, maxSegmentsPerTopic);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open segment log for topic " + t, e);
+            }
+        });
+    }
+
+    private static byte[] encode(TbQueueMsg msg) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            UUID key = msg.getKey();
+            out.writeLong(key.getMostSignificantBits());
+            out.writeLong(key.getLeastSignificantBits());
+            if (msg instanceof TbProtoQueueMsg<?> protoMsg && protoMsg.getValue() != null) {
+                out.writeByte(msg instanceof TbProtoJsQueueMsg ? JSON_ENCODING : PROTO_ENCODING);
+                out.writeUTF(protoMsg.getValue().getClass().getName());
+            } else {
+                out.writeByte(RAW_ENCODING);
+            }
+            Map<String, byte[]> headers = msg.getHeaders().getData();
+            out.writeInt(headers.size());
+            for (Map.Entry<String, byte[]> header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeInt(header.getValue().length);
+                out.write(header.getValue());
+            }
+            byte[] data = msg.getData();
+            out.writeInt(data != null ? data.length : -1);
+            if (data != null) {
+                out.write(data);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TbQueueMsg decode(byte[] record) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            UUID key = new UUID(in.readLong(), in.readLong());
+            byte encoding = in.readByte();
+            String type = encoding != RAW_ENCODING ? in.readUTF() : null;
+            TbQueueMsgHeaders headers = new DefaultTbQueueMsgHeaders();
+            int headersCount = in.readInt();
+            for (int i = 0; i < headersCount; i++) {
+                String name = in.readUTF();
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                headers.put(name, value);
+            }
+            int length = in.readInt();
+            byte[] data = null;
+            if (length >= 0) {
+                data = new byte[length];
+                in.readFully(data);
+            }
+            return switch (encoding) {
+                case PROTO_ENCODING -> new TbProtoQueueMsg<>(key, parse(type, data), headers);
+                case JSON_ENCODING -> new TbProtoJsQueueMsg<>(key, parseJson(type, data), headers);
+                default -> new RawMsg(key, data, headers);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private GeneratedMessageV3 parse(String type, byte[] data) {
+        Method parser = parsers.computeIfAbsent(type, t -> {
+            try {
+                return Class.forName(t).getMethod("parseFrom", byte[].class);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to find parser of " + t, e);
+            }
+        });
+        try {
+            return (GeneratedMessageV3) parser.invoke(null, (Object) data);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to parse message of type " + type, e);
+        }
+    }
+
+    private GeneratedMessageV3 parseJson(String type, byte[] data) {
+        Method builderFactory = builders.computeIfAbsent(type, t -> {
+            try {
+                return Class.forName(t).getMethod("newBuilder");
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to find builder of " + t, e);
+            }
+        });
+        try {
+            Message.Builder builder = (Message.Builder) builderFactory.invoke(null);
+            JsonFormat.parser().ignoringUnknownFields().merge(new String(data, StandardCharsets.UTF_8), builder);
+            return (GeneratedMessageV3) builder.build();
+        } catch (ReflectiveOperationException | IOException e) {
+            throw new IllegalStateException("Failed to parse message of type " + type, e);
+        }
+    }
+
+    private record RawMsg(UUID key, byte[] data, TbQueueMsgHeaders headers) implements TbQueueMsg {
+
+        @Override
+        public UUID getKey() {
+            return key;
+        }
+
+        @Override
+        public TbQueueMsgHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public byte[] getData() {
+            return data;
+        }
+
+    }
+
+}
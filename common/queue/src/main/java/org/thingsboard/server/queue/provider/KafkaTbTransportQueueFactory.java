@@ -33,6 +33,7 @@ import org.thingsboard.server.queue.TbQueueProducer;
 import org.thingsboard.server.queue.TbQueueRequestTemplate;
 import org.thingsboard.server.queue.common.DefaultTbQueueRequestTemplate;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.common.TbRuleEngineBatchingProducer;
 import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
 import org.thingsboard.server.queue.discovery.TopicService;
 import org.thingsboard.server.queue.kafka.TbKafkaAdmin;
@@ -128,7 +129,7 @@ public class KafkaTbTransportQueueFactory implements TbTransportQueueFactory {
         requestBuilder.clientId("transport-node-rule-engine-" + serviceInfoProvider.getServiceId());
         requestBuilder.defaultTopic(topicService.buildTopicName(ruleEngineSettings.getTopic()));
         requestBuilder.admin(ruleEngineAdmin);
-        return requestBuilder.build();
+        return TbRuleEngineBatchingProducer.wrapIfEnabled(requestBuilder.build(), ruleEngineSettings);
     }
 
     @Override
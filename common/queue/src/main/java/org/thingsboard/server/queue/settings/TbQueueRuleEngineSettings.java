@@ -28,4 +28,16 @@ public class TbQueueRuleEngineSettings {
     @Value("${queue.rule-engine.topic}")
     private String topic;
 
+    @Value("${queue.rule-engine.batch_envelope.enabled:false}")
+    private boolean batchEnvelopeEnabled;
+
+    @Value("${queue.rule-engine.batch_envelope.max_batch_size:100}")
+    private int batchEnvelopeMaxSize;
+
+    @Value("${queue.rule-engine.batch_envelope.max_batch_bytes:262144}")
+    private int batchEnvelopeMaxBytes;
+
+    @Value("${queue.rule-engine.batch_envelope.linger_ms:5}")
+    private long batchEnvelopeLingerMs;
+
 }
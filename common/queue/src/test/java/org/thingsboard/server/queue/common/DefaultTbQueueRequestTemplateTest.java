@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.queue.common;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +24,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.queue.TbQueueAdmin;
 import org.thingsboard.server.queue.TbQueueConsumer;
 import org.thingsboard.server.queue.TbQueueMsg;
@@ -106,7 +108,6 @@ public class DefaultTbQueueRequestTemplateTest {
     @Test
     public void givenExternalExecutor_whenInitStop_thenOK() {
         inst.init();
-        assertThat(inst.nextCleanupNs, equalTo(0L));
         verify(queueAdmin, times(1)).createTopicIfNotExists(topic);
         verify(responseTemplate, times(1)).subscribe();
         verify(executorMock, times(1)).submit(any(Runnable.class));
@@ -144,19 +145,19 @@ public class DefaultTbQueueRequestTemplateTest {
 
     @Test
     public void givenMessages_whenSend_thenOK() {
-        willDoNothing().given(inst).sendToRequestTemplate(any(), any(), any(), any(), any());
+        willDoNothing().given(inst).sendToRequestTemplate(any(), anyLong(), any(), any(), any());
         inst.init();
         final int msgCount = 10;
         for (int i = 0; i < msgCount; i++) {
             inst.send(getRequestMsgMock());
         }
-        assertThat(inst.pendingRequests.mappingCount(), equalTo((long) msgCount));
-        verify(inst, times(msgCount)).sendToRequestTemplate(any(), any(), any(), any(), any());
+        assertThat(inst.pendingRequests.size(), equalTo((long) msgCount));
+        verify(inst, times(msgCount)).sendToRequestTemplate(any(), anyLong(), any(), any(), any());
     }
 
     @Test
     public void givenMessagesOverMaxPendingRequests_whenSend_thenImmediateFailedFutureForTheOfRequests() {
-        willDoNothing().given(inst).sendToRequestTemplate(any(), any(), any(), any(), any());
+        willDoNothing().given(inst).sendToRequestTemplate(any(), anyLong(), any(), any(), any());
         inst.init();
         int msgOverflowCount = 10;
         for (int i = 0; i < inst.maxPendingRequests; i++) {
@@ -165,8 +166,8 @@ public class DefaultTbQueueRequestTemplateTest {
         for (int i = 0; i < msgOverflowCount; i++) {
             assertThat("max pending requests overflow", inst.send(getRequestMsgMock()).isDone(), is(true)); //overflow, immediate failed future
         }
-        assertThat(inst.pendingRequests.mappingCount(), equalTo(inst.maxPendingRequests));
-        verify(inst, times((int) inst.maxPendingRequests)).sendToRequestTemplate(any(), any(), any(), any(), any());
+        assertThat(inst.pendingRequests.size(), equalTo(inst.maxPendingRequests));
+        verify(inst, times((int) inst.maxPendingRequests)).sendToRequestTemplate(any(), anyLong(), any(), any(), any());
     }
 
     @SuppressWarnings("unchecked")
@@ -179,7 +180,6 @@ public class DefaultTbQueueRequestTemplateTest {
             return currentTime.get();
         }).given(inst).getCurrentClockNs();
         inst.init();
-        inst.setupNextCleanup();
         willReturn(Collections.emptyList()).given(inst).doPoll();
 
         //when
@@ -194,9 +194,9 @@ public class DefaultTbQueueRequestTemplateTest {
 
         //then
         ArgumentCaptor<DefaultTbQueueRequestTemplate.ResponseMetaData> argumentCaptorResp = ArgumentCaptor.forClass(DefaultTbQueueRequestTemplate.ResponseMetaData.class);
-        ArgumentCaptor<UUID> argumentCaptorUUID = ArgumentCaptor.forClass(UUID.class);
+        ArgumentCaptor<Long> argumentCaptorId = ArgumentCaptor.forClass(Long.class);
         ArgumentCaptor<Long> argumentCaptorLong = ArgumentCaptor.forClass(Long.class);
-        verify(inst, atLeastOnce()).setTimeoutException(argumentCaptorUUID.capture(), argumentCaptorResp.capture(), argumentCaptorLong.capture());
+        verify(inst, atLeastOnce()).setTimeoutException(argumentCaptorId.capture(), argumentCaptorResp.capture(), argumentCaptorLong.capture());
 
         List<DefaultTbQueueRequestTemplate.ResponseMetaData> responseMetaDataList = argumentCaptorResp.getAllValues();
         List<Long> tickTsList = argumentCaptorLong.getAllValues();
@@ -205,6 +205,38 @@ public class DefaultTbQueueRequestTemplateTest {
         }
     }
 
+    @Test
+    public void givenResponse_whenProcessResponse_thenCompleteRequestWithSameId() throws Exception {
+        willDoNothing().given(inst).sendToRequestTemplate(any(), anyLong(), any(), any(), any());
+        inst.init();
+        TbQueueMsg request = new TbProtoQueueMsg<>(UUID.randomUUID(), TransportProtos.TransportApiRequestMsg.getDefaultInstance());
+        ListenableFuture<TbQueueMsg> future = inst.send(request);
+        byte[] requestId = request.getHeaders().get("requestId");
+        assertThat(requestId.length, equalTo(16));
+
+        TbQueueMsg foreignResponse = new TbProtoQueueMsg<>(UUID.randomUUID(), TransportProtos.TransportApiResponseMsg.getDefaultInstance());
+        byte[] foreignRequestId = requestId.clone();
+        foreignRequestId[0]++;
+        foreignResponse.getHeaders().put("requestId", foreignRequestId);
+        inst.processResponse(foreignResponse);
+        assertThat(future.isDone(), is(false));
+
+        TbQueueMsg response = new TbProtoQueueMsg<>(UUID.randomUUID(), TransportProtos.TransportApiResponseMsg.getDefaultInstance());
+        response.getHeaders().put("requestId", requestId);
+        inst.processResponse(response);
+        assertThat(future.get(), is(response));
+        assertThat(inst.pendingRequests.size(), equalTo(0L));
+    }
+
+    @Test
+    public void givenProtoRequest_whenGetRequestType_thenFirstSetFieldName() {
+        TbProtoQueueMsg<TransportProtos.TransportApiRequestMsg> request = new TbProtoQueueMsg<>(UUID.randomUUID(),
+                TransportProtos.TransportApiRequestMsg.newBuilder()
+                        .setValidateTokenRequestMsg(TransportProtos.ValidateDeviceTokenRequestMsg.getDefaultInstance())
+                        .build());
+        assertThat(DefaultTbQueueRequestTemplate.getProtoRequestType(request), equalTo("validateTokenRequestMsg"));
+    }
+
     TbQueueMsg getRequestMsgMock() {
         return mock(TbQueueMsg.class, RETURNS_DEEP_STUBS);
     }
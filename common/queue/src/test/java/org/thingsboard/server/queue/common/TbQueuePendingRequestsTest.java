@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.common;
+
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbQueuePendingRequestsTest {
+
+    private static final long TICK_NS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final TbQueuePendingRequests<Object> pendingRequests = new TbQueuePendingRequests<>(4, 8, TICK_NS);
+
+    @Test
+    public void testPutRemove() {
+        int count = 10000;
+        for (long id = 1; id <= count; id++) {
+            assertThat(pendingRequests.put(id, request(id, 0, TimeUnit.SECONDS.toNanos(10)))).isTrue();
+        }
+        assertThat(pendingRequests.put(1, request(1, 0, 1))).isFalse();
+        assertThat(pendingRequests.size()).isEqualTo(count);
+
+        for (long id = 1; id <= count; id += 2) {
+            assertThat(pendingRequests.remove(id).getRequestId()).isEqualTo(id);
+        }
+        assertThat(pendingRequests.remove(1)).isNull();
+        for (long id = 2; id <= count; id += 2) {
+            assertThat(pendingRequests.remove(id).getRequestId()).isEqualTo(id);
+        }
+        assertThat(pendingRequests.size()).isZero();
+    }
+
+    @Test
+    public void testExpire() {
+        long startNs = TimeUnit.SECONDS.toNanos(1000);
+        pendingRequests.put(1, request(1, startNs, TICK_NS * 2));
+        pendingRequests.put(2, request(2, startNs, TICK_NS * 5));
+        pendingRequests.put(3, request(3, startNs, TICK_NS * 20)); // more than one rotation of the wheel
+        pendingRequests.put(4, request(4, startNs, TICK_NS * 2));
+        pendingRequests.remove(4).getFuture().set("response");
+
+        assertThat(expire(startNs + TICK_NS)).isEmpty();
+        assertThat(expire(startNs + TICK_NS * 3)).containsExactly(1L);
+        assertThat(expire(startNs + TICK_NS * 10)).containsExactly(2L);
+        assertThat(expire(startNs + TICK_NS * 19)).isEmpty();
+        assertThat(expire(startNs + TICK_NS * 21)).containsExactly(3L);
+        assertThat(pendingRequests.size()).isZero();
+    }
+
+    @Test
+    public void testRemovedRequestsLeaveTimerWheel() {
+        long startNs = TimeUnit.SECONDS.toNanos(1000);
+        List<DefaultTbQueueRequestTemplate.ResponseMetaData<Object>> removed = new ArrayList<>();
+        List<Long> remaining = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            var request = request(id, startNs, TICK_NS * 2);
+            pendingRequests.put(id, request);
+            if (id % 3 == 0) {
+                remaining.add(id);
+            } else {
+                removed.add(request);
+            }
+        }
+        for (var request : removed) {
+            assertThat(pendingRequests.remove(request.getRequestId())).isSameAs(request);
+            assertThat(request.wheelBucket).isEqualTo(-1);
+        }
+
+        assertThat(expire(startNs + TICK_NS * 3)).containsExactlyInAnyOrderElementsOf(remaining);
+        assertThat(pendingRequests.size()).isZero();
+    }
+
+    private List<Long> expire(long currentNs) {
+        List<Long> expired = new ArrayList<>();
+        pendingRequests.expire(currentNs, request -> expired.add(request.getRequestId()));
+        return expired;
+    }
+
+    private static DefaultTbQueueRequestTemplate.ResponseMetaData<Object> request(long id, long submitNs, long timeoutNs) {
+        return new DefaultTbQueueRequestTemplate.ResponseMetaData<>(id, submitNs + timeoutNs, SettableFuture.create(), submitNs, timeoutNs, null);
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.common;
+
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.thingsboard.server.common.msg.gen.MsgProtos.TbMsgMetaDataProto;
+import org.thingsboard.server.common.msg.gen.MsgProtos.TbMsgProto;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueMsgMetadata;
+import org.thingsboard.server.queue.TbQueueProducer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ToRuleEngineMsgBatchCodecTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+
+    @Test
+    public void testPackUnpackRoundTrip() throws Exception {
+        List<ToRuleEngineMsg> msgs = List.of(
+                msg(tenantId, "POST_TELEMETRY_REQUEST", "DEVICE", "deviceName", "A", "deviceType", "default"),
+                msg(tenantId, "POST_ATTRIBUTES_REQUEST", "DEVICE", "deviceName", "B"),
+                msg(UUID.randomUUID(), "POST_TELEMETRY_REQUEST", "ASSET"),
+                ToRuleEngineMsg.newBuilder()
+                        .setTenantIdMSB(tenantId.getMostSignificantBits())
+                        .setTenantIdLSB(tenantId.getLeastSignificantBits())
+                        .setTbMsg(ByteString.copyFromUtf8("legacy"))
+                        .addRelationTypes("Success")
+                        .build(),
+                ToRuleEngineMsg.newBuilder()
+                        .setTbMsgProto(TbMsgProto.newBuilder().setId(UUID.randomUUID().toString())
+                                .setMetaData(TbMsgMetaDataProto.newBuilder()))
+                        .build()
+        );
+
+        ToRuleEngineMsg envelope = ToRuleEngineMsgBatchCodec.pack(msgs);
+
+        assertThat(envelope.hasBatch()).isTrue();
+        assertThat(envelope.getBatch().getDictionaryList())
+                .containsExactly("POST_TELEMETRY_REQUEST", "DEVICE", "deviceName", "deviceType", "POST_ATTRIBUTES_REQUEST", "ASSET");
+        assertThat(ToRuleEngineMsgBatchCodec.unpack(envelope)).isEqualTo(msgs);
+        assertThat(ToRuleEngineMsgBatchCodec.unpack(ToRuleEngineMsg.parseFrom(envelope.toByteArray()))).isEqualTo(msgs);
+    }
+
+    @Test
+    public void testEnvelopeIsSmallerThanSeparateMessages() {
+        List<ToRuleEngineMsg> msgs = new ArrayList<>();
+        int separateSize = 0;
+        for (int i = 0; i < 100; i++) {
+            ToRuleEngineMsg msg = msg(tenantId, "POST_TELEMETRY_REQUEST", "DEVICE", "deviceName", "Device " + i, "deviceType", "default", "ts", Long.toString(i));
+            msgs.add(msg);
+            separateSize += msg.getSerializedSize();
+        }
+
+        assertThat(ToRuleEngineMsgBatchCodec.pack(msgs).getSerializedSize()).isLessThan(separateSize);
+    }
+
+    @Test
+    public void testUnpackQueueMsgs() {
+        ToRuleEngineMsg plain = msg(tenantId, "POST_TELEMETRY_REQUEST", "DEVICE");
+        List<ToRuleEngineMsg> packed = List.of(msg(tenantId, "A", "DEVICE"), msg(tenantId, "B", "ASSET"));
+        DefaultTbQueueMsgHeaders headers = new DefaultTbQueueMsgHeaders();
+        headers.put("key", new byte[]{1});
+        UUID envelopeKey = UUID.randomUUID();
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> polled = List.of(
+                new TbProtoQueueMsg<>(UUID.randomUUID(), plain),
+                new TbProtoQueueMsg<>(envelopeKey, ToRuleEngineMsgBatchCodec.pack(packed), headers));
+
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> result = ToRuleEngineMsgBatchCodec.unpack(polled);
+
+        assertThat(result).hasSize(3);
+        assertThat(result.get(0)).isSameAs(polled.get(0));
+        assertThat(result.subList(1, 3)).extracting(TbProtoQueueMsg::getValue).isEqualTo(packed);
+        assertThat(result.subList(1, 3)).allSatisfy(msg -> {
+            assertThat(msg.getKey()).isEqualTo(envelopeKey);
+            assertThat(msg.getHeaders()).isSameAs(headers);
+        });
+
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> withoutBatches = List.of(new TbProtoQueueMsg<>(UUID.randomUUID(), plain));
+        assertThat(ToRuleEngineMsgBatchCodec.unpack(withoutBatches)).isSameAs(withoutBatches);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testBatchingProducer() {
+        TbQueueProducer<TbProtoQueueMsg<ToRuleEngineMsg>> delegate = mock(TbQueueProducer.class);
+        TbRuleEngineBatchingProducer producer = new TbRuleEngineBatchingProducer(delegate, 3, Integer.MAX_VALUE, 60000);
+        TopicPartitionInfo tpi = new TopicPartitionInfo("tb_rule_engine.main", null, 0, true);
+        AtomicInteger succeeded = new AtomicInteger();
+        TbQueueCallback callback = new TbQueueCallback() {
+            @Override
+            public void onSuccess(TbQueueMsgMetadata metadata) {
+                succeeded.incrementAndGet();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+            }
+        };
+
+        for (int i = 0; i < 4; i++) {
+            producer.send(tpi, new TbProtoQueueMsg<>(UUID.randomUUID(), msg(tenantId, "T" + i, "DEVICE")), callback);
+        }
+        var captor = ArgumentCaptor.forClass(TbProtoQueueMsg.class);
+        var callbackCaptor = ArgumentCaptor.forClass(TbQueueCallback.class);
+        verify(delegate, times(1)).send(eq(tpi), captor.capture(), callbackCaptor.capture());
+        assertThat(((ToRuleEngineMsg) captor.getValue().getValue()).getBatch().getEntriesCount()).isEqualTo(3);
+        callbackCaptor.getValue().onSuccess(null);
+        assertThat(succeeded.get()).isEqualTo(3);
+
+        producer.stop();
+        verify(delegate).send(eq(tpi), any(), eq(callback));
+        verify(delegate).stop();
+    }
+
+    private static ToRuleEngineMsg msg(UUID tenantId, String type, String entityType, String... metaData) {
+        TbMsgMetaDataProto.Builder metaDataProto = TbMsgMetaDataProto.newBuilder();
+        for (int i = 0; i < metaData.length; i += 2) {
+            metaDataProto.putData(metaData[i], metaData[i + 1]);
+        }
+        UUID entityId = UUID.randomUUID();
+        return ToRuleEngineMsg.newBuilder()
+                .setTenantIdMSB(tenantId.getMostSignificantBits())
+                .setTenantIdLSB(tenantId.getLeastSignificantBits())
+                .setTbMsgProto(TbMsgProto.newBuilder()
+                        .setId(UUID.randomUUID().toString())
+                        .setType(type)
+                        .setEntityType(entityType)
+                        .setEntityIdMSB(entityId.getMostSignificantBits())
+                        .setEntityIdLSB(entityId.getLeastSignificantBits())
+                        .setMetaData(metaDataProto)
+                        .setData("{\"temperature\":42}")
+                        .setTs(System.currentTimeMillis()))
+                .build();
+    }
+
+}
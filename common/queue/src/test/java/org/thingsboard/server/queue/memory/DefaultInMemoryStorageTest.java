@@ -112,4 +112,19 @@ public class DefaultInMemoryStorageTest {
         testPollOnce(10);
     }
 
+    @Test
+    public void givenFullPartition_whenPut_thenMessageIsRejectedAfterMaxBlockTime() throws InterruptedException {
+        DefaultInMemoryStorage boundedStorage = new DefaultInMemoryStorage(4, 10);
+        for (int i = 0; i < 4; i++) {
+            assertThat(boundedStorage.put(topic, mock(TbQueueMsg.class))).isTrue();
+        }
+        assertThat(boundedStorage.put("other." + topic, mock(TbQueueMsg.class))).as("other partition is not affected").isTrue();
+
+        assertThat(boundedStorage.put(topic, mock(TbQueueMsg.class))).isFalse();
+        assertThat(boundedStorage.getRejectedPuts()).isEqualTo(1);
+
+        assertThat(boundedStorage.get(topic)).hasSize(4);
+        assertThat(boundedStorage.put(topic, mock(TbQueueMsg.class))).isTrue();
+    }
+
 }
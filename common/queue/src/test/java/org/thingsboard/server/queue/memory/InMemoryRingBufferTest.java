@@ -0,0 +1,100 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemoryRingBufferTest {
+
+    @Test
+    public void givenCapacity_whenCreated_thenCapacityIsRoundedUpToPowerOfTwo() {
+        assertThat(new InMemoryRingBuffer<>(1000).capacity()).isEqualTo(1024);
+        assertThat(new InMemoryRingBuffer<>(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    public void givenFullBuffer_whenOffer_thenRejectedUntilPolled() {
+        InMemoryRingBuffer<Integer> buffer = new InMemoryRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    public void givenConcurrentProducersAndConsumers_whenExchangeMessages_thenEveryMessageIsReceivedOnce() throws InterruptedException {
+        int producers = 4;
+        int msgsPerProducer = 10000;
+        InMemoryRingBuffer<Integer> buffer = new InMemoryRingBuffer<>(64);
+        Set<Integer> received = ConcurrentHashMap.newKeySet();
+        AtomicInteger receivedCount = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 2);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int base = p * msgsPerProducer;
+                executor.submit(() -> {
+                    for (int i = 0; i < msgsPerProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+            for (int c = 0; c < 2; c++) {
+                executor.submit(() -> {
+                    while (receivedCount.get() < producers * msgsPerProducer) {
+                        Integer msg = buffer.poll();
+                        if (msg == null) {
+                            Thread.yield();
+                        } else {
+                            received.add(msg);
+                            if (receivedCount.incrementAndGet() == producers * msgsPerProducer) {
+                                done.countDown();
+                            }
+                        }
+                    }
+                });
+            }
+            assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(received).hasSize(producers * msgsPerProducer);
+    }
+
+}
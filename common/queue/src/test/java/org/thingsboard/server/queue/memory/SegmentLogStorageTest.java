@@ -0,0 +1,189 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.memory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.queue.TbQueueCallback;
+import org.thingsboard.server.queue.TbQueueMsg;
+import org.thingsboard.server.queue.TbQueueMsgMetadata;
+import org.thingsboard.server.queue.common.TbProtoJsQueueMsg;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SegmentLogStorageTest {
+
+    private static final String TOPIC = "tb_core.0";
+
+    @TempDir
+    Path dir;
+
+    SegmentLogStorage storage;
+
+    @BeforeEach
+    public void setUp() {
+        storage = newStorage(4096, 3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        storage.destroy();
+    }
+
+    @Test
+    public void givenProtoMessages_whenPoll_thenMessagesAreDecodedInOrder() {
+        UUID key = UUID.randomUUID();
+        TbProtoQueueMsg<TransportProtos.SessionInfoProto> msg = msg(key, 1);
+        msg.getHeaders().put("header", new byte[]{1, 2});
+        storage.put(TOPIC, msg);
+        storage.put(TOPIC, msg(key, 2));
+
+        assertThat(storage.getLag(TOPIC)).isEqualTo(2);
+        List<TbProtoQueueMsg<TransportProtos.SessionInfoProto>> msgs = storage.get(TOPIC);
+
+        assertThat(msgs).hasSize(2);
+        assertThat(msgs.get(0).getKey()).isEqualTo(key);
+        assertThat(msgs.get(0).getValue()).isEqualTo(msg.getValue());
+        assertThat(msgs.get(0).getHeaders().get("header")).containsExactly(1, 2);
+        assertThat(msgs.get(1).getValue().getNodeId()).isEqualTo("2");
+        assertThat(storage.getLagTotal()).isZero();
+    }
+
+    @Test
+    public void givenUncommittedMessages_whenRestart_thenMessagesAreDeliveredAgain() {
+        for (int i = 0; i < 5; i++) {
+            storage.put(TOPIC, msg(UUID.randomUUID(), i));
+        }
+        assertThat(storage.<TbProtoQueueMsg<TransportProtos.SessionInfoProto>>get(TOPIC)).hasSize(5);
+        storage.commit(TOPIC);
+        storage.put(TOPIC, msg(UUID.randomUUID(), 5));
+        assertThat(storage.<TbQueueMsg>get(TOPIC)).hasSize(1);
+        storage.flush();
+
+        storage.destroy();
+
+        storage = newStorage(4096, 3);
+        List<TbProtoQueueMsg<TransportProtos.SessionInfoProto>> msgs = storage.get(TOPIC);
+
+        assertThat(msgs).extracting(msg -> msg.getValue().getNodeId()).containsExactly("5");
+    }
+
+    @Test
+    public void givenUncommittedMessages_whenResubscribe_thenMessagesAreDeliveredAgain() {
+        for (int i = 0; i < 3; i++) {
+            storage.put(TOPIC, msg(UUID.randomUUID(), i));
+        }
+        InMemoryTbQueueConsumer<TbProtoQueueMsg<TransportProtos.SessionInfoProto>> consumer = new InMemoryTbQueueConsumer<>(storage, TOPIC);
+        consumer.subscribe();
+        assertThat(consumer.poll(1)).hasSize(3);
+
+        consumer.subscribe();
+
+        assertThat(consumer.poll(1)).extracting(msg -> msg.getValue().getNodeId()).containsExactly("0", "1", "2");
+        consumer.commit();
+        consumer.subscribe();
+        assertThat(consumer.poll(1)).isEmpty();
+    }
+
+    @Test
+    public void givenJsonEncodedMessage_whenPoll_thenMessageIsDecodedFromJson() {
+        UUID key = UUID.randomUUID();
+        storage.put(TOPIC, new TbProtoJsQueueMsg<>(key, msg(key, 1).getValue()));
+
+        List<TbQueueMsg> msgs = storage.get(TOPIC);
+
+        assertThat(msgs).hasSize(1);
+        assertThat(msgs.get(0)).isInstanceOf(TbProtoJsQueueMsg.class);
+        assertThat(((TbProtoJsQueueMsg<?>) msgs.get(0)).getValue()).isEqualTo(msg(key, 1).getValue());
+    }
+
+    @Test
+    public void givenFullTopic_whenPut_thenFailureUntilSegmentsAreConsumed() {
+        int count = 0;
+        while (storage.put(TOPIC, msg(UUID.randomUUID(), count))) {
+            count++;
+        }
+        assertThat(count).isGreaterThan(0);
+        TestCallback callback = new TestCallback();
+        storage.put(TOPIC, msg(UUID.randomUUID(), count), callback);
+        assertThat(callback.failure).isNotNull();
+        assertThat(segmentFiles()).isEqualTo(3);
+
+        assertThat(storage.<TbQueueMsg>get(TOPIC)).hasSize(count);
+        storage.commit(TOPIC);
+
+        assertThat(segmentFiles()).isEqualTo(1);
+        assertThat(storage.put(TOPIC, msg(UUID.randomUUID(), count))).isTrue();
+    }
+
+    @Test
+    public void givenProducerCallback_whenFlush_thenCallbackIsCompleted() {
+        TestCallback callback = new TestCallback();
+        storage.put(TOPIC, msg(UUID.randomUUID(), 1), callback);
+        assertThat(callback.success).isFalse();
+
+        storage.flush();
+
+        assertThat(callback.success).isTrue();
+    }
+
+    private SegmentLogStorage newStorage(int segmentSize, int maxSegments) {
+        SegmentLogStorage storage = new SegmentLogStorage(dir.toString(), segmentSize, maxSegments, TimeUnit.MINUTES.toMillis(1), 1000);
+        storage.init();
+        return storage;
+    }
+
+    private long segmentFiles() {
+        try (Stream<Path> files = Files.list(dir.resolve(TOPIC))) {
+            return files.filter(file -> file.toString().endsWith(".log")).count();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static TbProtoQueueMsg<TransportProtos.SessionInfoProto> msg(UUID key, int seqNo) {
+        return new TbProtoQueueMsg<>(key, TransportProtos.SessionInfoProto.newBuilder().setNodeId(String.valueOf(seqNo)).build());
+    }
+
+    private static class TestCallback implements TbQueueCallback {
+
+        boolean success;
+        Throwable failure;
+
+        @Override
+        public void onSuccess(TbQueueMsgMetadata metadata) {
+            success = true;
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            failure = t;
+        }
+
+    }
+
+}
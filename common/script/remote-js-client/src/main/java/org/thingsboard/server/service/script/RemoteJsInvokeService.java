@@ -32,10 +32,12 @@ import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.script.api.TbScriptException;
 import org.thingsboard.script.api.js.AbstractJsInvokeService;
 import org.thingsboard.script.api.js.JsScriptInfo;
+import org.thingsboard.server.common.stats.StatsType;
 import org.thingsboard.server.common.stats.TbApiUsageReportClient;
 import org.thingsboard.server.common.stats.TbApiUsageStateClient;
 import org.thingsboard.server.gen.js.JsInvokeProtos;
 import org.thingsboard.server.queue.TbQueueRequestTemplate;
+import org.thingsboard.server.queue.common.DefaultTbQueueRequestTemplate;
 import org.thingsboard.server.queue.common.TbProtoJsQueueMsg;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
 
@@ -111,6 +113,7 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
     @Override
     public void init() {
         super.init();
+        requestTemplate.setLatencyStats(statsFactory, StatsType.JS_INVOKE.getName() + ".latency", DefaultTbQueueRequestTemplate::getProtoRequestType);
         requestTemplate.init();
     }
 
@@ -24,7 +24,8 @@ public enum StatsType {
     RATE_EXECUTOR("rateExecutor"),
     HOUSEKEEPER("housekeeper"),
     EDGE("edge"),
-    EDQS("edqs");
+    EDQS("edqs"),
+    ACTOR_SYSTEM("actorSystem");
 
     private final String name;
 
@@ -15,15 +15,19 @@
  */
 package org.thingsboard.server.transport.coap.client;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.californium.core.coap.CoAP;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.observe.ObserveRelation;
 import org.eclipse.californium.core.server.resources.CoapExchange;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.server.coapserver.CoapServerContext;
 import org.thingsboard.server.coapserver.TbCoapTransportComponent;
 import org.thingsboard.server.common.adaptor.AdaptorException;
@@ -72,9 +76,11 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 
 import static org.eclipse.californium.core.coap.Message.MAX_MID;
 import static org.eclipse.californium.core.coap.Message.NONE;
@@ -92,6 +98,20 @@ public class DefaultCoapClientContext implements CoapClientContext {
     private final ConcurrentMap<DeviceId, TbCoapClientState> clients = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, TbCoapClientState> clientsByToken = new ConcurrentHashMap<>();
 
+    @Value("${transport.coap.notifications.pacing.enabled:false}")
+    private boolean notificationPacingEnabled;
+    @Value("${transport.coap.notifications.pacing.tick_interval_ms:10}")
+    private long notificationPacingTickMs;
+    @Value("${transport.coap.notifications.pacing.max_per_tick:500}")
+    private int notificationPacingMaxPerTick;
+    @Value("${transport.coap.notifications.pacing.max_in_flight_con:1000}")
+    private int notificationPacingMaxInFlight;
+    @Value("${transport.coap.notifications.pacing.max_queue_size:100000}")
+    private int notificationPacingMaxQueueSize;
+
+    private ScheduledExecutorService notificationExecutor;
+    private TbCoapNotificationPacer notificationPacer;
+
     public DefaultCoapClientContext(CoapServerContext config, @Lazy CoapTransportContext transportContext,
                                     TransportService transportService, TransportDeviceProfileCache profileCache,
                                     PartitionService partitionService) {
@@ -102,6 +122,26 @@ public class DefaultCoapClientContext implements CoapClientContext {
         this.partitionService = partitionService;
     }
 
+    @PostConstruct
+    public void init() {
+        if (notificationPacingEnabled) {
+            notificationExecutor = ThingsBoardExecutors.newSingleThreadScheduledExecutor("coap-notifications");
+            notificationPacer = new TbCoapNotificationPacer(notificationExecutor, notificationPacingTickMs,
+                    notificationPacingMaxPerTick, notificationPacingMaxInFlight, notificationPacingMaxQueueSize);
+            notificationPacer.start();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (notificationPacer != null) {
+            notificationPacer.stop();
+        }
+        if (notificationExecutor != null) {
+            notificationExecutor.shutdownNow();
+        }
+    }
+
     @EventListener(DeviceProfileUpdatedEvent.class)
     public void onApplicationEvent(DeviceProfileUpdatedEvent event) {
         var deviceProfile = event.getDeviceProfile();
@@ -522,7 +562,7 @@ public class DefaultCoapClientContext implements CoapClientContext {
                     if (conRequest) {
                         response.addMessageObserver(new TbCoapMessageObserver(requestId, id -> awake(state), id -> asleep(state)));
                     }
-                    respond(attrs.getExchange(), response, state.getContentFormat());
+                    sendNotification(attrs.getExchange(), response, state.getContentFormat(), () -> attrs == state.getAttrs());
                 } catch (AdaptorException e) {
                     log.trace("[{}] Failed to reply due to error", state.getDeviceId(), e);
                     cancelObserveRelation(attrs);
@@ -575,8 +615,8 @@ public class DefaultCoapClientContext implements CoapClientContext {
                 log.trace("[{}][{}] ignore downlink request cause client is sleeping.", deviceId, sessionId);
                 return;
             }
-            boolean sent = false;
             String error = null;
+            Runnable beforeSend = () -> {};
             boolean conRequest = AbstractSyncSessionCallback.isConRequest(state.getRpc());
             int requestId = getNextMsgId();
             try {
@@ -597,14 +637,18 @@ public class DefaultCoapClientContext implements CoapClientContext {
                         }
                     }
 
-                    transportContext.getRpcAwaitingAck().put(requestId, msg);
-                    transportContext.getScheduler().schedule(() -> {
-                        TransportProtos.ToDeviceRpcRequestMsg rpcRequestMsg = transportContext.getRpcAwaitingAck().remove(requestId);
-                        if (rpcRequestMsg != null) {
-                            log.trace("[{}][{}][{}] Going to send to device actor RPC request TIMEOUT status update due to server timeout ...", deviceId, sessionId, requestId);
-                            transportService.process(state.getSession(), msg, RpcStatus.TIMEOUT, TransportServiceCallback.EMPTY);
-                        }
-                    }, Math.min(getTimeout(state, powerMode, profileSettings), msg.getExpirationTime() - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    long timeout = getTimeout(state, powerMode, profileSettings);
+                    // the ACK timeout starts when the notification is actually sent, which may be delayed by the notifications pacer
+                    beforeSend = () -> {
+                        transportContext.getRpcAwaitingAck().put(requestId, msg);
+                        transportContext.getScheduler().schedule(() -> {
+                            TransportProtos.ToDeviceRpcRequestMsg rpcRequestMsg = transportContext.getRpcAwaitingAck().remove(requestId);
+                            if (rpcRequestMsg != null) {
+                                log.trace("[{}][{}][{}] Going to send to device actor RPC request TIMEOUT status update due to server timeout ...", deviceId, sessionId, requestId);
+                                transportService.process(state.getSession(), msg, RpcStatus.TIMEOUT, TransportServiceCallback.EMPTY);
+                            }
+                        }, Math.min(timeout, msg.getExpirationTime() - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    };
 
                     response.addMessageObserver(new TbCoapMessageObserver(requestId, id -> {
                         TransportProtos.ToDeviceRpcRequestMsg rpcRequestMsg = transportContext.getRpcAwaitingAck().remove(id);
@@ -623,8 +667,21 @@ public class DefaultCoapClientContext implements CoapClientContext {
                 if (conRequest) {
                     response.addMessageObserver(new TbCoapMessageObserver(requestId, id -> awake(state), id -> asleep(state)));
                 }
-                respond(state.getRpc().getExchange(), response, state.getContentFormat());
-                sent = true;
+                TbCoapObservationState rpc = state.getRpc();
+                sendNotification(rpc.getExchange(), response, state.getContentFormat(), () -> rpc == state.getRpc(), beforeSend,
+                        new TransportServiceCallback<>() {
+                            @Override
+                            public void onSuccess(Void result) {
+                                onRpcSent(sessionId, msg, conRequest, requestId);
+                            }
+
+                            @Override
+                            public void onError(Throwable e) {
+                                log.trace("[{}][{}][{}] Failed to send RPC request", deviceId, sessionId, requestId, e);
+                                transportContext.getRpcAwaitingAck().remove(requestId);
+                                onRpcError(msg, "Failed to send RPC request: " + e.getMessage());
+                            }
+                        });
             } catch (AdaptorException e) {
                 log.trace("Failed to reply due to error", e);
                 cancelObserveRelation(state.getRpc());
@@ -634,21 +691,28 @@ public class DefaultCoapClientContext implements CoapClientContext {
                 error = "Internal error: " + e.getMessage();
             } finally {
                 if (StringUtils.isNotEmpty(error)) {
-                    transportService.process(state.getSession(),
-                            TransportProtos.ToDeviceRpcResponseMsg.newBuilder()
-                                    .setRequestId(msg.getRequestId()).setError(error).build(), TransportServiceCallback.EMPTY);
-                } else if (sent) {
-                    if (!conRequest) {
-                        log.trace("[{}][{}][{}] Going to send to device actor non-confirmable RPC request DELIVERED status update ...", deviceId, sessionId, requestId);
-                        transportService.process(state.getSession(), msg, RpcStatus.DELIVERED, TransportServiceCallback.EMPTY);
-                    } else if (msg.getPersisted()) {
-                        log.trace("[{}][{}][{}] Going to send to device actor RPC request SENT status update ...", deviceId, sessionId, requestId);
-                        transportService.process(state.getSession(), msg, RpcStatus.SENT, TransportServiceCallback.EMPTY);
-                    }
+                    onRpcError(msg, error);
                 }
             }
         }
 
+        private void onRpcSent(UUID sessionId, TransportProtos.ToDeviceRpcRequestMsg msg, boolean conRequest, int requestId) {
+            DeviceId deviceId = state.getDeviceId();
+            if (!conRequest) {
+                log.trace("[{}][{}][{}] Going to send to device actor non-confirmable RPC request DELIVERED status update ...", deviceId, sessionId, requestId);
+                transportService.process(state.getSession(), msg, RpcStatus.DELIVERED, TransportServiceCallback.EMPTY);
+            } else if (msg.getPersisted()) {
+                log.trace("[{}][{}][{}] Going to send to device actor RPC request SENT status update ...", deviceId, sessionId, requestId);
+                transportService.process(state.getSession(), msg, RpcStatus.SENT, TransportServiceCallback.EMPTY);
+            }
+        }
+
+        private void onRpcError(TransportProtos.ToDeviceRpcRequestMsg msg, String error) {
+            transportService.process(state.getSession(),
+                    TransportProtos.ToDeviceRpcResponseMsg.newBuilder()
+                            .setRequestId(msg.getRequestId()).setError(error).build(), TransportServiceCallback.EMPTY);
+        }
+
         @Override
         public void onToServerRpcResponse(TransportProtos.ToServerRpcResponseMsg msg) {
             log.trace("[{}] Received server rpc response in the wrong session.", state.getSession());
@@ -849,6 +913,34 @@ public class DefaultCoapClientContext implements CoapClientContext {
         //TODO: add optimistic lock check that the client was already deleted and cleanup "clients" map.
     }
 
+    private void sendNotification(CoapExchange exchange, Response response, int defContentFormat, BooleanSupplier isObserving) {
+        sendNotification(exchange, response, defContentFormat, isObserving, () -> {}, TransportServiceCallback.EMPTY);
+    }
+
+    /**
+     * Sends the notification immediately, or through the notifications pacer if pacing is enabled.
+     * The beforeSend task and the callback run when the notification is actually sent.
+     * Without pacing, a send error is thrown to the caller instead of being passed to the callback.
+     */
+    private void sendNotification(CoapExchange exchange, Response response, int defContentFormat, BooleanSupplier isObserving,
+                                  Runnable beforeSend, TransportServiceCallback<Void> callback) {
+        if (notificationPacer == null) {
+            beforeSend.run();
+            respond(exchange, response, defContentFormat);
+            callback.onSuccess(null);
+            return;
+        }
+        notificationPacer.submit(response, () -> {
+            if (!isObserving.getAsBoolean()) {
+                log.trace("Skip notification, the observation was cancelled");
+                return false;
+            }
+            beforeSend.run();
+            respond(exchange, response, defContentFormat);
+            return true;
+        }, callback);
+    }
+
     private void respond(CoapExchange exchange, Response response, int defContentFormat) {
         response.getOptions().setContentFormat(TbCoapContentFormatUtil.getContentFormat(exchange.getRequestOptions().getContentFormat(), defContentFormat));
         exchange.respond(response);
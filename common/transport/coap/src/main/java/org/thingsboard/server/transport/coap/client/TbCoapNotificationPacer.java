@@ -0,0 +1,193 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.coap.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.californium.core.coap.MessageObserverAdapter;
+import org.eclipse.californium.core.coap.Response;
+import org.thingsboard.server.common.transport.TransportServiceCallback;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Paces observe notifications sent to CoAP clients.
+ * Notifications are queued and sent on a shared timer, at most {@code maxPerTick} per tick,
+ * while the number of confirmable notifications awaiting ACK is limited by {@code maxInFlight}.
+ * At most {@code maxQueueSize} notifications are queued, the notifications above that limit are rejected.
+ * Notifications are not coalesced, since attribute notifications carry only the updated attributes.
+ * Retransmission of the confirmable notifications is still handled by the reliability layer of the CoAP endpoint.
+ */
+@Slf4j
+public class TbCoapNotificationPacer {
+
+    private final Queue<PendingNotification> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ScheduledExecutorService timer;
+    private final long tickMs;
+    private final int maxPerTick;
+    private final int maxInFlight;
+    private final int maxQueueSize;
+
+    private ScheduledFuture<?> tickTask;
+
+    public TbCoapNotificationPacer(ScheduledExecutorService timer, long tickMs, int maxPerTick, int maxInFlight, int maxQueueSize) {
+        this.timer = timer;
+        this.tickMs = tickMs;
+        this.maxPerTick = maxPerTick;
+        this.maxInFlight = maxInFlight;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    public void start() {
+        tickTask = timer.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel(false);
+        }
+        PendingNotification notification;
+        while ((notification = poll()) != null) {
+            notification.callback().onError(new IllegalStateException("Notifications pacer is stopped"));
+        }
+    }
+
+    /**
+     * Queues the notification.
+     *
+     * @param response the notification; confirmable notifications count against the in-flight window until acknowledged or failed
+     * @param sendTask sends the notification and returns false if it was not sent, e.g. because the observation was cancelled meanwhile
+     * @param callback completed once the notification is actually sent, or failed if it is rejected or not sent
+     */
+    public void submit(Response response, BooleanSupplier sendTask, TransportServiceCallback<Void> callback) {
+        if (queueSize.incrementAndGet() > maxQueueSize) {
+            queueSize.decrementAndGet();
+            log.trace("Notifications queue is full, {} notifications are queued", maxQueueSize);
+            callback.onError(new IllegalStateException("Notifications queue is full"));
+            return;
+        }
+        queue.add(new PendingNotification(response, sendTask, callback));
+    }
+
+    void tick() {
+        int sent = 0;
+        while (sent < maxPerTick) {
+            PendingNotification notification = queue.peek();
+            if (notification == null) {
+                break;
+            }
+            boolean confirmable = notification.response().isConfirmable();
+            if (confirmable && inFlight.get() >= maxInFlight) {
+                log.trace("Confirmable notifications window is full, {} notifications are queued", queueSize.get());
+                break;
+            }
+            poll();
+            if (send(notification, confirmable)) {
+                sent++;
+            }
+        }
+    }
+
+    private PendingNotification poll() {
+        PendingNotification notification = queue.poll();
+        if (notification != null) {
+            queueSize.decrementAndGet();
+        }
+        return notification;
+    }
+
+    private boolean send(PendingNotification notification, boolean confirmable) {
+        InFlightObserver observer = null;
+        if (confirmable) {
+            inFlight.incrementAndGet();
+            observer = new InFlightObserver();
+            notification.response().addMessageObserver(observer);
+        }
+        Exception error = null;
+        boolean sent = false;
+        try {
+            sent = notification.sendTask().getAsBoolean();
+        } catch (Exception e) {
+            log.debug("Failed to send notification", e);
+            error = e;
+        }
+        if (!sent && observer != null) {
+            observer.release();
+        }
+        if (sent) {
+            notification.callback().onSuccess(null);
+        } else {
+            notification.callback().onError(error != null ? error : new IllegalStateException("Observation is cancelled"));
+        }
+        return sent;
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private record PendingNotification(Response response, BooleanSupplier sendTask, TransportServiceCallback<Void> callback) {}
+
+    private class InFlightObserver extends MessageObserverAdapter {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onAcknowledgement() {
+            release();
+        }
+
+        @Override
+        public void onReject() {
+            release();
+        }
+
+        @Override
+        public void onTimeout() {
+            release();
+        }
+
+        @Override
+        public void onCancel() {
+            release();
+        }
+
+        @Override
+        protected void failed() {
+            release();
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.coap.client;
+
+import org.eclipse.californium.core.coap.CoAP;
+import org.eclipse.californium.core.coap.MessageObserver;
+import org.eclipse.californium.core.coap.Response;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.transport.TransportServiceCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class TbCoapNotificationPacerTest {
+
+    private final TbCoapNotificationPacer pacer = new TbCoapNotificationPacer(mock(ScheduledExecutorService.class), 10, 3, 2, 5);
+
+    @Test
+    public void givenQueuedNotifications_whenTick_thenAtMostMaxPerTickAreSent() {
+        List<Integer> sent = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int id = i;
+            pacer.submit(response(false), () -> sent.add(id), TransportServiceCallback.EMPTY);
+        }
+
+        pacer.tick();
+        assertThat(sent).containsExactly(0, 1, 2);
+
+        pacer.tick();
+        assertThat(sent).containsExactly(0, 1, 2, 3, 4);
+        assertThat(pacer.getQueueSize()).isZero();
+    }
+
+    @Test
+    public void givenConfirmableNotifications_whenWindowIsFull_thenNextAreSentAfterAcknowledgement() {
+        List<Response> responses = new ArrayList<>();
+        List<Response> sent = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Response response = response(true);
+            responses.add(response);
+            pacer.submit(response, () -> sent.add(response), TransportServiceCallback.EMPTY);
+        }
+
+        pacer.tick();
+        assertThat(sent).containsExactly(responses.get(0), responses.get(1));
+        assertThat(pacer.getInFlight()).isEqualTo(2);
+
+        pacer.tick();
+        assertThat(sent).hasSize(2);
+
+        responses.get(0).getMessageObservers().forEach(MessageObserver::onAcknowledgement);
+        assertThat(pacer.getInFlight()).isEqualTo(1);
+
+        pacer.tick();
+        assertThat(sent).containsExactlyElementsOf(responses);
+    }
+
+    @Test
+    public void givenCancelledObservation_whenTick_thenWindowSlotIsReleasedAndCallbackFailed() {
+        TestCallback cancelled = new TestCallback();
+        TestCallback failed = new TestCallback();
+        pacer.submit(response(true), () -> false, cancelled);
+        pacer.submit(response(true), () -> {
+            throw new RuntimeException("Failed to send");
+        }, failed);
+
+        pacer.tick();
+
+        assertThat(pacer.getInFlight()).isZero();
+        assertThat(pacer.getQueueSize()).isZero();
+        assertThat(cancelled.error).isNotNull();
+        assertThat(failed.error).hasMessage("Failed to send");
+    }
+
+    @Test
+    public void givenQueuedNotification_whenSent_thenCallbackIsCompletedOnSend() {
+        TestCallback callback = new TestCallback();
+        pacer.submit(response(false), () -> true, callback);
+        assertThat(callback.success).isFalse();
+
+        pacer.tick();
+
+        assertThat(callback.success).isTrue();
+    }
+
+    @Test
+    public void givenFullQueue_whenSubmit_thenNotificationIsRejected() {
+        for (int i = 0; i < 5; i++) {
+            pacer.submit(response(false), () -> true, TransportServiceCallback.EMPTY);
+        }
+        TestCallback callback = new TestCallback();
+
+        pacer.submit(response(false), () -> true, callback);
+
+        assertThat(callback.error).isNotNull();
+        assertThat(pacer.getQueueSize()).isEqualTo(5);
+    }
+
+    private static Response response(boolean confirmable) {
+        Response response = new Response(CoAP.ResponseCode.CONTENT);
+        response.setConfirmable(confirmable);
+        return response;
+    }
+
+    private static class TestCallback implements TransportServiceCallback<Void> {
+
+        boolean success;
+        Throwable error;
+
+        @Override
+        public void onSuccess(Void msg) {
+            success = true;
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+        }
+
+    }
+
+}
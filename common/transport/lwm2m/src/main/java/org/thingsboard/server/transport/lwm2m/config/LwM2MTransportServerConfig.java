@@ -78,6 +78,14 @@ public class LwM2MTransportServerConfig implements LwM2MSecureServerConfig {
     @Value("${transport.lwm2m.clean_period_in_sec:}")
     private int cleanPeriodInSec;
 
+    @Getter
+    @Value("${transport.lwm2m.registration_store.near_cache.enabled:false}")
+    private boolean registrationNearCacheEnabled;
+
+    @Getter
+    @Value("${transport.lwm2m.registration_store.near_cache.ttl_in_sec:30}")
+    private long registrationNearCacheTtlInSec;
+
     @Getter
     @Value("${transport.lwm2m.server.id:}")
     private Integer id;
@@ -44,6 +44,8 @@ import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.integration.redis.util.RedisLockRegistry;
 import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.server.transport.lwm2m.config.LwM2MTransportServerConfig;
@@ -84,6 +86,7 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
     private static final String OBS_TKNS_REGID_IDX = "TKNS:REGID:"; // secondary index (token list by registration)
     private static final byte[] EXP_EP = "EXP:EP".getBytes(UTF_8); // a sorted set used for registration expiration
     // (expiration date, Endpoint)
+    private static final String REG_INVALIDATE_CHANNEL = "LWM2M:REG:INVALIDATE"; // pub/sub channel used to invalidate the near caches
 
     private final RegistrationSerDes registrationSerDes = new RegistrationSerDes();
     private final ObservationSerDes observationSerDes = new ObservationSerDes();
@@ -109,6 +112,9 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
 
     private final LwM2mVersionedModelProvider modelProvider;
 
+    private final TbLwM2mRegistrationNearCache nearCache;
+    private RedisMessageListenerContainer invalidationListenerContainer;
+
     public TbLwM2mRedisRegistrationStore(LwM2MTransportServerConfig config, RedisConnectionFactory connectionFactory, LwM2mVersionedModelProvider modelProvider) {
         this(config, connectionFactory, DEFAULT_CLEAN_PERIOD, DEFAULT_GRACE_PERIOD, DEFAULT_CLEAN_LIMIT, modelProvider); // default clean period 60s
     }
@@ -119,6 +125,13 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
 
     public TbLwM2mRedisRegistrationStore(LwM2MTransportServerConfig config, RedisConnectionFactory connectionFactory, ScheduledExecutorService schedExecutor, long cleanPeriodInSec,
                                          long lifetimeGracePeriodInSec, int cleanLimit, LwM2mVersionedModelProvider modelProvider) {
+        this(config, connectionFactory, schedExecutor, cleanPeriodInSec, lifetimeGracePeriodInSec, cleanLimit, modelProvider,
+                new TbLwM2mRegistrationNearCache(config.isRegistrationNearCacheEnabled() ? TimeUnit.SECONDS.toMillis(config.getRegistrationNearCacheTtlInSec()) : 0));
+    }
+
+    public TbLwM2mRedisRegistrationStore(LwM2MTransportServerConfig config, RedisConnectionFactory connectionFactory, ScheduledExecutorService schedExecutor, long cleanPeriodInSec,
+                                         long lifetimeGracePeriodInSec, int cleanLimit, LwM2mVersionedModelProvider modelProvider,
+                                         TbLwM2mRegistrationNearCache nearCache) {
         this.connectionFactory = connectionFactory;
         this.schedExecutor = schedExecutor;
         this.cleanPeriod = cleanPeriodInSec;
@@ -127,6 +140,7 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         this.redisLock = new RedisLockRegistry(connectionFactory, "Registration");
         this.config = config;
         this.modelProvider = modelProvider;
+        this.nearCache = nearCache;
     }
 
     /* *************** Redis Key utility function **************** */
@@ -165,16 +179,20 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
                 byte[] k = toEndpointKey(registration.getEndpoint());
                 byte[] old = connection.getSet(k, serializeReg(registration));
 
-                // add registration: secondary indexes
-                byte[] regid_idx = toRegIdKey(registration.getId());
-                connection.set(regid_idx, registration.getEndpoint().getBytes(UTF_8));
-                byte[] addr_idx = toRegAddrKey(registration.getSocketAddress());
-                connection.set(addr_idx, registration.getEndpoint().getBytes(UTF_8));
-                byte[] identity_idx = toRegIdentityKey(registration.getClientTransportData().getIdentity());
-                connection.set(identity_idx, registration.getEndpoint().getBytes(UTF_8));
-
-                // Add or update expiration
-                addOrUpdateExpiration(connection, registration);
+                executePipelined(connection, () -> {
+                    // add registration: secondary indexes
+                    byte[] regid_idx = toRegIdKey(registration.getId());
+                    connection.set(regid_idx, registration.getEndpoint().getBytes(UTF_8));
+                    byte[] addr_idx = toRegAddrKey(registration.getSocketAddress());
+                    connection.set(addr_idx, registration.getEndpoint().getBytes(UTF_8));
+                    byte[] identity_idx = toRegIdentityKey(registration.getClientTransportData().getIdentity());
+                    connection.set(identity_idx, registration.getEndpoint().getBytes(UTF_8));
+
+                    // Add or update expiration
+                    addOrUpdateExpiration(connection, registration);
+                    publishInvalidation(connection, registration.getEndpoint());
+                });
+                nearCache.put(registration);
 
                 if (old != null) {
                     Registration oldRegistration = deserializeReg(old);
@@ -209,9 +227,13 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         try (var connection = connectionFactory.getConnection()) {
 
             // Fetch the registration ep by registration ID index
-            byte[] ep = connection.get(toRegIdKey(update.getRegistrationId()));
+            String ep = nearCache.getEndpoint(update.getRegistrationId());
             if (ep == null) {
-                return null;
+                byte[] epBytes = connection.get(toRegIdKey(update.getRegistrationId()));
+                if (epBytes == null) {
+                    return null;
+                }
+                ep = new String(epBytes, UTF_8);
             }
 
             String lockKey = toLockKey(ep);
@@ -219,27 +241,35 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
                 lock = redisLock.obtain(lockKey);
                 lock.lock();
 
-                // Fetch the registration
+                // Fetch the registration from Redis, the near cache may be stale while another instance holds newer state
                 byte[] data = connection.get(toEndpointKey(ep));
                 if (data == null) {
                     return null;
                 }
-
                 Registration r = deserializeReg(data);
+                if (!r.getId().equals(update.getRegistrationId())) {
+                    // the endpoint was registered again after the cached registration ID index was read
+                    nearCache.invalidate(ep);
+                    return null;
+                }
 
                 Registration updatedRegistration = update.update(r);
 
-                // Store the new registration
-                connection.set(toEndpointKey(updatedRegistration.getEndpoint()), serializeReg(updatedRegistration));
+                executePipelined(connection, () -> {
+                    // Store the new registration
+                    connection.set(toEndpointKey(updatedRegistration.getEndpoint()), serializeReg(updatedRegistration));
 
-                // Add or update expiration
-                addOrUpdateExpiration(connection, updatedRegistration);
+                    // Add or update expiration
+                    addOrUpdateExpiration(connection, updatedRegistration);
 
-                /** Update secondary index :
-                 * If registration is already associated to this address we don't care as we only want to keep the most
-                 * recent binding. */
-                byte[] addr_idx = toRegAddrKey(updatedRegistration.getSocketAddress());
-                connection.set(addr_idx, updatedRegistration.getEndpoint().getBytes(UTF_8));
+                    /** Update secondary index :
+                     * If registration is already associated to this address we don't care as we only want to keep the most
+                     * recent binding. */
+                    byte[] addr_idx = toRegAddrKey(updatedRegistration.getSocketAddress());
+                    connection.set(addr_idx, updatedRegistration.getEndpoint().getBytes(UTF_8));
+                    publishInvalidation(connection, updatedRegistration.getEndpoint());
+                });
+                nearCache.put(updatedRegistration);
                 if (!r.getSocketAddress().equals(updatedRegistration.getSocketAddress())) {
                     removeAddrIndex(connection, r);
                 }
@@ -265,6 +295,11 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
     }
 
     private Registration getRegistration(RedisConnection connection, String registrationId) {
+        Registration registration = nearCache.getByRegistrationId(registrationId);
+        if (registration != null) {
+            return registration;
+        }
+        long invalidationEpoch = nearCache.getInvalidationEpoch();
         byte[] ep = connection.get(toRegIdKey(registrationId));
         if (ep == null) {
             return null;
@@ -274,18 +309,23 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
             return null;
         }
 
-        return deserializeReg(data);
+        return cacheReg(deserializeReg(data), invalidationEpoch);
     }
 
     @Override
     public Registration getRegistrationByEndpoint(String endpoint) {
         Validate.notNull(endpoint);
+        Registration registration = nearCache.getByEndpoint(endpoint);
+        if (registration != null) {
+            return registration;
+        }
+        long invalidationEpoch = nearCache.getInvalidationEpoch();
         try (var connection = connectionFactory.getConnection()) {
             byte[] data = connection.get(toEndpointKey(endpoint));
             if (data == null) {
                 return null;
             }
-            return deserializeReg(data);
+            return cacheReg(deserializeReg(data), invalidationEpoch);
         }
     }
 
@@ -297,11 +337,7 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
             if (ep == null) {
                 return null;
             }
-            byte[] data = connection.get(toEndpointKey(ep));
-            if (data == null) {
-                return null;
-            }
-            return deserializeReg(data);
+            return getRegistrationByEndpoint(connection, ep);
         }
     }
 
@@ -313,14 +349,23 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
             if (ep == null) {
                 return null;
             }
-            byte[] data = connection.get(toEndpointKey(ep));
-            if (data == null) {
-                return null;
-            }
-            return deserializeReg(data);
+            return getRegistrationByEndpoint(connection, ep);
         }
     }
 
+    private Registration getRegistrationByEndpoint(RedisConnection connection, byte[] ep) {
+        Registration registration = nearCache.getByEndpoint(new String(ep, UTF_8));
+        if (registration != null) {
+            return registration;
+        }
+        long invalidationEpoch = nearCache.getInvalidationEpoch();
+        byte[] data = connection.get(toEndpointKey(ep));
+        if (data == null) {
+            return null;
+        }
+        return cacheReg(deserializeReg(data), invalidationEpoch);
+    }
+
     @Override
     public Iterator<Registration> getAllRegistrations() {
         try (var connection = connectionFactory.getConnection()) {
@@ -376,11 +421,13 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
             if (!removeOnlyIfNotAlive || !r.isAlive(gracePeriod)) {
                 long nbRemoved = connection.del(toRegIdKey(r.getId()));
                 if (nbRemoved > 0) {
+                    nearCache.invalidate(r.getEndpoint());
                     connection.del(toEndpointKey(r.getEndpoint()));
                     Collection<Observation> obsRemoved = unsafeRemoveAllObservations(connection, r.getId());
                     removeAddrIndex(connection, r);
                     removeIdentityIndex(connection, r);
                     removeExpiration(connection, r);
+                    publishInvalidation(connection, r.getEndpoint());
                     return new Deregistration(r, obsRemoved);
                 }
             }
@@ -428,6 +475,34 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         connection.zRem(EXP_EP, registration.getEndpoint().getBytes(UTF_8));
     }
 
+    private void publishInvalidation(RedisConnection connection, String endpoint) {
+        if (nearCache.isEnabled()) {
+            connection.publish(REG_INVALIDATE_CHANNEL.getBytes(UTF_8), nearCache.toInvalidationMsg(endpoint));
+        }
+    }
+
+    private Registration cacheReg(Registration registration, long invalidationEpoch) {
+        nearCache.put(registration, invalidationEpoch);
+        return registration;
+    }
+
+    /**
+     * Sends the write commands in a single round trip. The commands must not use the replies, since they are null while pipelining.
+     * Redis cluster connections do not support pipelining, so the commands are executed one by one.
+     */
+    private void executePipelined(RedisConnection connection, Runnable commands) {
+        if (connection instanceof RedisClusterConnection) {
+            commands.run();
+            return;
+        }
+        connection.openPipeline();
+        try {
+            commands.run();
+        } finally {
+            connection.closePipeline();
+        }
+    }
+
     private byte[] toRegIdKey(String registrationId) {
         return toKey(REG_EP_REGID_IDX, registrationId);
     }
@@ -710,6 +785,14 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         if (!started) {
             started = true;
             cleanerTask = schedExecutor.scheduleAtFixedRate(new Cleaner(), cleanPeriod, cleanPeriod, TimeUnit.SECONDS);
+            if (nearCache.isEnabled() && invalidationListenerContainer == null) {
+                invalidationListenerContainer = new RedisMessageListenerContainer();
+                invalidationListenerContainer.setConnectionFactory(connectionFactory);
+                invalidationListenerContainer.addMessageListener((message, pattern) -> nearCache.onInvalidationMsg(message.getBody()),
+                        new ChannelTopic(REG_INVALIDATE_CHANNEL));
+                invalidationListenerContainer.afterPropertiesSet();
+                invalidationListenerContainer.start();
+            }
         }
     }
 
@@ -733,6 +816,14 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
     @Override
     public synchronized void destroy() {
         started = false;
+        if (invalidationListenerContainer != null) {
+            try {
+                invalidationListenerContainer.destroy();
+            } catch (Exception e) {
+                log.warn("Failed to stop registration invalidation listener.", e);
+            }
+            invalidationListenerContainer = null;
+        }
         schedExecutor.shutdownNow();
         try {
             schedExecutor.awaitTermination(5, TimeUnit.SECONDS);
@@ -748,9 +839,21 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
             try (var connection = connectionFactory.getConnection()) {
                 Set<byte[]> endpointsExpired = connection.zRangeByScore(EXP_EP, Double.NEGATIVE_INFINITY,
                         System.currentTimeMillis(), 0, cleanLimit);
+                if (endpointsExpired == null || endpointsExpired.isEmpty()) {
+                    return;
+                }
 
-                for (byte[] endpoint : endpointsExpired) {
-                    Registration r = deserializeReg(connection.get(toEndpointKey(endpoint)));
+                // fetch all expired registrations in a single round trip
+                byte[][] endpointKeys = endpointsExpired.stream().map(TbLwM2mRedisRegistrationStore.this::toEndpointKey).toArray(byte[][]::new);
+                List<byte[]> registrations = connection.mGet(endpointKeys);
+                if (registrations == null) {
+                    return;
+                }
+                for (byte[] data : registrations) {
+                    if (data == null) {
+                        continue;
+                    }
+                    Registration r = deserializeReg(data);
                     if (!r.isAlive(gracePeriod)) {
                         Deregistration dereg = removeRegistration(connection, r.getId(), true);
                         if (dereg != null)
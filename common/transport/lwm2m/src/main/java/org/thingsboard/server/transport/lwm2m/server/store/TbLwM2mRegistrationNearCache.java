@@ -0,0 +1,143 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.lwm2m.server.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.leshan.server.registration.Registration;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * In-process near cache of the registrations kept in Redis.
+ * Registrations written by this instance are cached until they are removed or invalidated by another instance through Redis pub/sub.
+ * Entries also expire after the configured TTL, which bounds staleness if an invalidation message is lost.
+ */
+@Slf4j
+public class TbLwM2mRegistrationNearCache {
+
+    private static final char MSG_SEPARATOR = ':';
+
+    private final ConcurrentMap<String, CachedRegistration> registrationsByEndpoint = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> endpointsByRegistrationId = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+    private final String instanceId = UUID.randomUUID().toString();
+    private final long ttlMs;
+
+    public TbLwM2mRegistrationNearCache(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public boolean isEnabled() {
+        return ttlMs > 0;
+    }
+
+    public Registration getByEndpoint(String endpoint) {
+        if (!isEnabled()) {
+            return null;
+        }
+        CachedRegistration cached = registrationsByEndpoint.get(endpoint);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.expirationTime() < currentTimeMillis()) {
+            invalidate(endpoint);
+            return null;
+        }
+        return cached.registration();
+    }
+
+    public Registration getByRegistrationId(String registrationId) {
+        String endpoint = getEndpoint(registrationId);
+        if (endpoint == null) {
+            return null;
+        }
+        Registration registration = getByEndpoint(endpoint);
+        return registration != null && registration.getId().equals(registrationId) ? registration : null;
+    }
+
+    public String getEndpoint(String registrationId) {
+        return isEnabled() ? endpointsByRegistrationId.get(registrationId) : null;
+    }
+
+    /**
+     * Returns the epoch to pass to {@link #put(Registration, long)} when the registration is read from Redis,
+     * so that a read that raced with an invalidation does not cache the outdated registration.
+     */
+    public long getInvalidationEpoch() {
+        return invalidationEpoch.get();
+    }
+
+    public void put(Registration registration) {
+        if (!isEnabled()) {
+            return;
+        }
+        CachedRegistration previous = registrationsByEndpoint.put(registration.getEndpoint(),
+                new CachedRegistration(registration, currentTimeMillis() + ttlMs));
+        if (previous != null && !previous.registration().getId().equals(registration.getId())) {
+            endpointsByRegistrationId.remove(previous.registration().getId(), registration.getEndpoint());
+        }
+        endpointsByRegistrationId.put(registration.getId(), registration.getEndpoint());
+    }
+
+    public void put(Registration registration, long invalidationEpoch) {
+        if (this.invalidationEpoch.get() == invalidationEpoch) {
+            put(registration);
+        }
+    }
+
+    public void invalidate(String endpoint) {
+        CachedRegistration removed = registrationsByEndpoint.remove(endpoint);
+        if (removed != null) {
+            endpointsByRegistrationId.remove(removed.registration().getId(), endpoint);
+        }
+    }
+
+    public byte[] toInvalidationMsg(String endpoint) {
+        return (instanceId + MSG_SEPARATOR + endpoint).getBytes(UTF_8);
+    }
+
+    public void onInvalidationMsg(byte[] msg) {
+        String str = new String(msg, UTF_8);
+        int idx = str.indexOf(MSG_SEPARATOR);
+        if (idx < 0) {
+            log.debug("Ignoring invalid registration invalidation message: [{}]", str);
+            return;
+        }
+        if (instanceId.equals(str.substring(0, idx))) {
+            return;
+        }
+        String endpoint = str.substring(idx + 1);
+        log.trace("[{}] Invalidating registration updated by another instance", endpoint);
+        invalidationEpoch.incrementAndGet();
+        invalidate(endpoint);
+    }
+
+    public int size() {
+        return registrationsByEndpoint.size();
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private record CachedRegistration(Registration registration, long expirationTime) {}
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.lwm2m.server.store;
+
+import org.eclipse.leshan.core.endpoint.EndpointUriUtil;
+import org.eclipse.leshan.core.link.Link;
+import org.eclipse.leshan.core.peer.IpPeer;
+import org.eclipse.leshan.server.registration.Registration;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbLwM2mRegistrationNearCacheTest {
+
+    private long now = 1000L;
+
+    private final TbLwM2mRegistrationNearCache cache = new TbLwM2mRegistrationNearCache(100) {
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    };
+
+    @Test
+    public void givenCachedRegistration_whenTtlExpires_thenRegistrationIsEvicted() {
+        Registration registration = registration("regId", "ep");
+        cache.put(registration);
+
+        assertThat(cache.getByEndpoint("ep")).isSameAs(registration);
+        assertThat(cache.getByRegistrationId("regId")).isSameAs(registration);
+
+        now += 101;
+
+        assertThat(cache.getByEndpoint("ep")).isNull();
+        assertThat(cache.getByRegistrationId("regId")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void givenNewRegistrationForSameEndpoint_whenPut_thenOldRegistrationIdIsNotResolved() {
+        cache.put(registration("regId1", "ep"));
+        Registration registration = registration("regId2", "ep");
+        cache.put(registration);
+
+        assertThat(cache.getByRegistrationId("regId1")).isNull();
+        assertThat(cache.getEndpoint("regId1")).isNull();
+        assertThat(cache.getByRegistrationId("regId2")).isSameAs(registration);
+    }
+
+    @Test
+    public void givenInvalidationFromOtherInstance_whenReceived_thenRegistrationIsEvictedAndStaleReadIsNotCached() {
+        TbLwM2mRegistrationNearCache otherCache = new TbLwM2mRegistrationNearCache(100);
+        Registration registration = registration("regId", "ep");
+        cache.put(registration);
+
+        long epoch = cache.getInvalidationEpoch();
+        cache.onInvalidationMsg(otherCache.toInvalidationMsg("ep"));
+        assertThat(cache.getByEndpoint("ep")).isNull();
+
+        cache.put(registration, epoch);
+        assertThat(cache.getByEndpoint("ep")).isNull();
+
+        cache.put(registration, cache.getInvalidationEpoch());
+        assertThat(cache.getByEndpoint("ep")).isSameAs(registration);
+    }
+
+    @Test
+    public void givenInvalidationFromSameInstance_whenReceived_thenRegistrationIsKept() {
+        Registration registration = registration("regId", "ep");
+        cache.put(registration);
+
+        cache.onInvalidationMsg(cache.toInvalidationMsg("ep"));
+
+        assertThat(cache.getByEndpoint("ep")).isSameAs(registration);
+    }
+
+    @Test
+    public void givenDisabledCache_whenPut_thenNothingIsCached() {
+        TbLwM2mRegistrationNearCache disabled = new TbLwM2mRegistrationNearCache(0);
+        disabled.put(registration("regId", "ep"));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.getByEndpoint("ep")).isNull();
+        assertThat(disabled.size()).isZero();
+    }
+
+    private static Registration registration(String id, String endpoint) {
+        return new Registration
+                .Builder(id, endpoint, new IpPeer(new InetSocketAddress(1000)),
+                        EndpointUriUtil.createUri("coap://localhost:5685"))
+                .objectLinks(new Link[0])
+                .build();
+    }
+
+}
@@ -88,6 +88,10 @@ public class MqttTransportContext extends TransportContext {
     @Value("${transport.mqtt.proxy_enabled:false}")
     private boolean proxyEnabled;
 
+    @Getter
+    @Value("${transport.mqtt.sparkplug.report_by_exception:false}")
+    private boolean sparkplugReportByException;
+
     private final AtomicInteger connectionsCounter = new AtomicInteger();
 
     @PostConstruct
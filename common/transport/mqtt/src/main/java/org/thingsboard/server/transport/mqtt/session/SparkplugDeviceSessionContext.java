@@ -25,6 +25,7 @@ import org.thingsboard.server.common.transport.TransportService;
 import org.thingsboard.server.common.transport.auth.TransportDeviceInfo;
 import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.gen.transport.mqtt.SparkplugBProto;
+import org.thingsboard.server.transport.mqtt.util.sparkplug.MetricDataType;
 import org.thingsboard.server.transport.mqtt.util.sparkplug.SparkplugMessageType;
 import org.thingsboard.server.transport.mqtt.util.sparkplug.SparkplugRpcRequestHeader;
 import org.thingsboard.server.transport.mqtt.util.sparkplug.SparkplugTopic;
@@ -64,7 +65,7 @@ public class SparkplugDeviceSessionContext extends AbstractGatewayDeviceSessionC
             } else {
                 throw new IllegalArgumentException("The metric name of device: '" + this.getDeviceInfo().getDeviceName() + "' must not be empty or null! Metric: [" + metric + "]");
             }
-            if (metric.hasAlias() && this.parent.getNodeAlias().putIfAbsent(metric.getAlias(), metric.getName()) != null) {
+            if (metric.hasAlias() && !this.parent.getMetricAliases().put(metric.getAlias(), metric.getName(), MetricDataType.fromInteger(metric.getDatatype()))) {
                 throw new DuplicateKeyException("The alias '" + metric.getAlias() + "' already exists in device: '" + this.getDeviceInfo().getDeviceName() + "'");
             }
         }
@@ -38,6 +38,7 @@ import org.thingsboard.server.gen.transport.mqtt.SparkplugBProto;
 import org.thingsboard.server.transport.mqtt.MqttTransportHandler;
 import org.thingsboard.server.transport.mqtt.util.sparkplug.MetricDataType;
 import org.thingsboard.server.transport.mqtt.util.sparkplug.SparkplugMessageType;
+import org.thingsboard.server.transport.mqtt.util.sparkplug.SparkplugMetricAliasTable;
 import org.thingsboard.server.transport.mqtt.util.sparkplug.SparkplugTopic;
 import org.thingsboard.server.transport.mqtt.util.sparkplug.SpecVersion;
 
@@ -73,7 +74,7 @@ public class SparkplugNodeSessionHandler extends AbstractGatewaySessionHandler<S
     @Getter
     private final Map<String, SparkplugBProto.Payload.Metric> nodeBirthMetrics;
     @Getter
-    private final Map<Long, String> nodeAlias;
+    private final SparkplugMetricAliasTable metricAliases;
     private final MqttTransportHandler parent;
 
     public SparkplugNodeSessionHandler(MqttTransportHandler parent, DeviceSessionCtx deviceSessionCtx, UUID sessionId,
@@ -82,7 +83,7 @@ public class SparkplugNodeSessionHandler extends AbstractGatewaySessionHandler<S
         this.parent = parent;
         this.sparkplugTopicNode = sparkplugTopicNode;
         this.nodeBirthMetrics = new ConcurrentHashMap<>();
-        this.nodeAlias = new ConcurrentHashMap<>();
+        this.metricAliases = new SparkplugMetricAliasTable();
     }
 
     public void setNodeBirthMetrics(java.util.List<org.thingsboard.server.gen.transport.mqtt.SparkplugBProto.Payload.Metric> metrics) throws AdaptorException {
@@ -92,7 +93,7 @@ public class SparkplugNodeSessionHandler extends AbstractGatewaySessionHandler<S
             } else {
                 throw new AdaptorException("The metric name of edgeNode: '" + this.sparkplugTopicNode.getEdgeNodeId() + "' must not be empty or null! Metric: [" + metric + "]");
             }
-            if (metric.hasAlias() && this.nodeAlias.putIfAbsent(metric.getAlias(), metric.getName()) != null) {
+            if (metric.hasAlias() && !this.metricAliases.put(metric.getAlias(), metric.getName(), MetricDataType.fromInteger(metric.getDatatype()))) {
                 throw new AdaptorException("The alias '" + metric.getAlias() + "' already exists in edgeNode: '" + this.sparkplugTopicNode.getEdgeNodeId() + "'");
             }
         }
@@ -238,17 +239,21 @@ public class SparkplugNodeSessionHandler extends AbstractGatewaySessionHandler<S
                                                                                   sparkplugBProto, Set<String> attributesMetricNames, String topicTypeName) throws AdaptorException {
         try {
             List<TransportProtos.PostTelemetryMsg> msgs = new ArrayList<>();
+            boolean reportByException = isReportByException(topicTypeName);
             for (SparkplugBProto.Payload.Metric protoMetric : sparkplugBProto.getMetricsList()) {
-                String metricName = protoMetric.hasName() ? protoMetric.getName() :  protoMetric.hasAlias() ? this.nodeAlias.get(protoMetric.getAlias()) : null;
-                if (metricName == null) {
-                    throw new ThingsboardException("Metric without metricName and alias.", ThingsboardErrorCode.INVALID_ARGUMENTS);
-                } else {
-                    if (attributesMetricNames == null || !matches(attributesMetricNames, metricName)) {
-                        long ts = protoMetric.getTimestamp();
-                        String key = SPARKPLUG_BD_SEQUENCE_NUMBER_KEY.equals(protoMetric.getName()) ?
-                                topicTypeName + " " + protoMetric.getName() : protoMetric.getName();
-                        Optional<TransportProtos.KeyValueProto> keyValueProtoOpt = fromSparkplugBMetricToKeyValueProto(key, protoMetric);
-                        keyValueProtoOpt.ifPresent(kvProto -> msgs.add(postTelemetryMsgCreated(kvProto, ts)));
+                String metricName = getMetricName(protoMetric);
+                if (attributesMetricNames == null || !matches(attributesMetricNames, metricName)) {
+                    long ts = protoMetric.getTimestamp();
+                    String key = SPARKPLUG_BD_SEQUENCE_NUMBER_KEY.equals(metricName) ?
+                            topicTypeName + " " + metricName : metricName;
+                    Optional<TransportProtos.KeyValueProto> keyValueProtoOpt = fromSparkplugBMetricToKeyValueProto(key, getMetricDataType(protoMetric), protoMetric);
+                    if (keyValueProtoOpt.isPresent()) {
+                        TransportProtos.KeyValueProto kvProto = keyValueProtoOpt.get();
+                        if (reportByException && protoMetric.hasAlias() && metricAliases.isUnchanged(protoMetric.getAlias(), kvProto)) {
+                            log.trace("[{}] Skip unchanged metric: [{}]", sessionId, key);
+                            continue;
+                        }
+                        msgs.add(postTelemetryMsgCreated(kvProto, ts));
                     }
                 }
             }
@@ -273,18 +278,14 @@ public class SparkplugNodeSessionHandler extends AbstractGatewaySessionHandler<S
         try {
             List<TransportApiProtos.AttributesMsg> msgs = new ArrayList<>();
             for (SparkplugBProto.Payload.Metric protoMetric : sparkplugBProto.getMetricsList()) {
-                String metricName = protoMetric.hasName() ? protoMetric.getName() :  protoMetric.hasAlias() ? this.nodeAlias.get(protoMetric.getAlias()) : null;
-                if (metricName == null) {
-                    throw new ThingsboardException("Metric without metricName and alias.", ThingsboardErrorCode.INVALID_ARGUMENTS);
-                } else {
-                    if (matches(attributesMetricNames, metricName)) {
-                        TransportApiProtos.AttributesMsg.Builder deviceAttributesMsgBuilder = TransportApiProtos.AttributesMsg.newBuilder();
-                        Optional<TransportProtos.PostAttributeMsg> msgOpt = getPostAttributeMsg(protoMetric);
-                        if (msgOpt.isPresent()) {
-                            deviceAttributesMsgBuilder.setDeviceName(deviceName);
-                            deviceAttributesMsgBuilder.setMsg(msgOpt.get());
-                            msgs.add(deviceAttributesMsgBuilder.build());
-                        }
+                String metricName = getMetricName(protoMetric);
+                if (matches(attributesMetricNames, metricName)) {
+                    TransportApiProtos.AttributesMsg.Builder deviceAttributesMsgBuilder = TransportApiProtos.AttributesMsg.newBuilder();
+                    Optional<TransportProtos.PostAttributeMsg> msgOpt = getPostAttributeMsg(metricName, protoMetric);
+                    if (msgOpt.isPresent()) {
+                        deviceAttributesMsgBuilder.setDeviceName(deviceName);
+                        deviceAttributesMsgBuilder.setMsg(msgOpt.get());
+                        msgs.add(deviceAttributesMsgBuilder.build());
                     }
                 }
             }
@@ -295,6 +296,28 @@ public class SparkplugNodeSessionHandler extends AbstractGatewaySessionHandler<S
         }
     }
 
+    private String getMetricName(SparkplugBProto.Payload.Metric protoMetric) throws ThingsboardException {
+        String metricName = protoMetric.hasName() ? protoMetric.getName() : protoMetric.hasAlias() ? this.metricAliases.getName(protoMetric.getAlias()) : null;
+        if (metricName == null) {
+            throw new ThingsboardException("Metric without metricName and alias.", ThingsboardErrorCode.INVALID_ARGUMENTS);
+        }
+        return metricName;
+    }
+
+    private MetricDataType getMetricDataType(SparkplugBProto.Payload.Metric protoMetric) {
+        if (!protoMetric.hasDatatype() && protoMetric.hasAlias()) {
+            MetricDataType metricDataType = this.metricAliases.getDataType(protoMetric.getAlias());
+            if (metricDataType != null) {
+                return metricDataType;
+            }
+        }
+        return MetricDataType.fromInteger(protoMetric.getDatatype());
+    }
+
+    private boolean isReportByException(String topicTypeName) {
+        return context.isSparkplugReportByException() && !NBIRTH.name().equals(topicTypeName) && !DBIRTH.name().equals(topicTypeName);
+    }
+
     private boolean matches(Set<String> attributesMetricNames, String metricName) {
         for (String attributeMetricFilter : attributesMetricNames) {
             if (metricName.equals(attributeMetricFilter) ||
@@ -306,9 +329,9 @@ public class SparkplugNodeSessionHandler extends AbstractGatewaySessionHandler<S
         return false;
     }
 
-    private Optional<TransportProtos.PostAttributeMsg> getPostAttributeMsg(SparkplugBProto.Payload.Metric
+    private Optional<TransportProtos.PostAttributeMsg> getPostAttributeMsg(String metricName, SparkplugBProto.Payload.Metric
                                                                                    protoMetric) throws ThingsboardException {
-        Optional<TransportProtos.KeyValueProto> keyValueProtoOpt = fromSparkplugBMetricToKeyValueProto(protoMetric.getName(), protoMetric);
+        Optional<TransportProtos.KeyValueProto> keyValueProtoOpt = fromSparkplugBMetricToKeyValueProto(metricName, getMetricDataType(protoMetric), protoMetric);
         if (keyValueProtoOpt.isPresent()) {
             TransportProtos.PostAttributeMsg.Builder builder = TransportProtos.PostAttributeMsg.newBuilder();
             builder.addKv(keyValueProtoOpt.get());
@@ -36,6 +36,9 @@ public class MqttTopicFilterFactory {
             if (filter.equals("#")) {
                 return new AlwaysTrueTopicFilter();
             } else if (filter.contains("+") || filter.contains("#")) {
+                if (WildcardTopicFilter.isSupported(filter)) {
+                    return new WildcardTopicFilter(filter);
+                }
                 String regex = filter
                         .replace("\\", "\\\\")
                         .replace("+", "[^/]+")
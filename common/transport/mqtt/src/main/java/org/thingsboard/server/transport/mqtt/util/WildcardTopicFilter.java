@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.mqtt.util;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Matches topics against a filter with '+' and '#' wildcards level by level, without regular expressions
+ * and without allocating on the matching path. Keeps the semantics of the regex based filter it replaces:
+ * '+' matches exactly one non-empty level and a trailing '/#' matches the parent level and any number of sub-levels.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class WildcardTopicFilter implements MqttTopicFilter {
+
+    static final String SINGLE_LEVEL_WILDCARD = "+";
+    static final String MULTI_LEVEL_WILDCARD = "#";
+
+    private static final char LEVEL_SEPARATOR = '/';
+
+    @Getter
+    @ToString.Include
+    @EqualsAndHashCode.Include
+    private final String filter;
+    private final String[] levels;
+    private final boolean multiLevel;
+
+    public WildcardTopicFilter(String filter) {
+        this.filter = filter;
+        String[] levels = filter.split(String.valueOf(LEVEL_SEPARATOR), -1);
+        this.multiLevel = MULTI_LEVEL_WILDCARD.equals(levels[levels.length - 1]);
+        if (multiLevel) {
+            String[] tmp = new String[levels.length - 1];
+            System.arraycopy(levels, 0, tmp, 0, tmp.length);
+            levels = tmp;
+        }
+        this.levels = levels;
+    }
+
+    /**
+     * Checks whether the filter can be matched level by level. Filters where a wildcard does not occupy
+     * a whole level, or that contain regex special characters, are legacy custom patterns and are handled by {@link RegexTopicFilter}.
+     * A '.' is allowed and matched literally, so that filters like 'spBv1.0/+/DDATA/#' do not fall back to regex.
+     */
+    public static boolean isSupported(String filter) {
+        String[] levels = filter.split(String.valueOf(LEVEL_SEPARATOR), -1);
+        for (int i = 0; i < levels.length; i++) {
+            String level = levels[i];
+            if (level.equals(SINGLE_LEVEL_WILDCARD)) {
+                continue;
+            }
+            if (level.equals(MULTI_LEVEL_WILDCARD)) {
+                if (i == levels.length - 1 && i > 0) {
+                    continue;
+                }
+                return false;
+            }
+            for (int j = 0; j < level.length(); j++) {
+                if ("+#\\[]{}()*?^$|".indexOf(level.charAt(j)) >= 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean filter(String topic) {
+        int length = topic.length();
+        int pos = 0;
+        for (int i = 0; i < levels.length; i++) {
+            if (i > 0) {
+                if (pos >= length || topic.charAt(pos) != LEVEL_SEPARATOR) {
+                    return false;
+                }
+                pos++;
+            }
+            String level = levels[i];
+            if (SINGLE_LEVEL_WILDCARD.equals(level)) {
+                int end = topic.indexOf(LEVEL_SEPARATOR, pos);
+                if (end < 0) {
+                    end = length;
+                }
+                if (end == pos) {
+                    return false;
+                }
+                pos = end;
+            } else {
+                if (!topic.startsWith(level, pos)) {
+                    return false;
+                }
+                pos += level.length();
+            }
+        }
+        if (pos == length) {
+            return true;
+        }
+        return multiLevel && topic.charAt(pos) == LEVEL_SEPARATOR;
+    }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.mqtt.util.sparkplug;
+
+import org.thingsboard.server.gen.transport.TransportProtos;
+
+/**
+ * Compact alias table of an edge node, populated from the NBIRTH/DBIRTH metrics.
+ * Aliases are kept in an open addressing table of primitive longs, so NDATA/DDATA metrics that carry only an alias
+ * are resolved to the metric name and data type without boxing. The last reported value of each alias is kept
+ * in the same slot to support report by exception.
+ */
+public class SparkplugMetricAliasTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] aliases = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private MetricDataType[] dataTypes = new MetricDataType[INITIAL_CAPACITY];
+    private TransportProtos.KeyValueProto[] lastValues = new TransportProtos.KeyValueProto[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Registers the alias of a birth metric. A repeated birth may register the same alias for the same metric again,
+     * and in that case the last reported value is reset.
+     *
+     * @return false if the alias is already registered for another metric
+     */
+    public synchronized boolean put(long alias, String name, MetricDataType dataType) {
+        int idx = indexOf(alias);
+        if (names[idx] != null) {
+            if (!names[idx].equals(name)) {
+                return false;
+            }
+            dataTypes[idx] = dataType;
+            lastValues[idx] = null;
+            return true;
+        }
+        if ((size + 1) * 4 > names.length * 3) {
+            resize();
+            idx = indexOf(alias);
+        }
+        aliases[idx] = alias;
+        names[idx] = name;
+        dataTypes[idx] = dataType;
+        size++;
+        return true;
+    }
+
+    public synchronized String getName(long alias) {
+        return names[indexOf(alias)];
+    }
+
+    public synchronized MetricDataType getDataType(long alias) {
+        return dataTypes[indexOf(alias)];
+    }
+
+    /**
+     * Remembers the value as the last reported one for the alias.
+     *
+     * @return true if the value is the same as the last reported one, so it does not need to be reported again
+     */
+    public synchronized boolean isUnchanged(long alias, TransportProtos.KeyValueProto value) {
+        int idx = indexOf(alias);
+        if (names[idx] == null) {
+            return false;
+        }
+        if (value.equals(lastValues[idx])) {
+            return true;
+        }
+        lastValues[idx] = value;
+        return false;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int indexOf(long alias) {
+        int mask = names.length - 1;
+        int idx = hash(alias) & mask;
+        while (names[idx] != null && aliases[idx] != alias) {
+            idx = (idx + 1) & mask;
+        }
+        return idx;
+    }
+
+    private void resize() {
+        long[] oldAliases = aliases;
+        String[] oldNames = names;
+        MetricDataType[] oldDataTypes = dataTypes;
+        TransportProtos.KeyValueProto[] oldLastValues = lastValues;
+        int capacity = oldNames.length * 2;
+        aliases = new long[capacity];
+        names = new String[capacity];
+        dataTypes = new MetricDataType[capacity];
+        lastValues = new TransportProtos.KeyValueProto[capacity];
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                int idx = indexOf(oldAliases[i]);
+                aliases[idx] = oldAliases[i];
+                names[idx] = oldNames[i];
+                dataTypes[idx] = oldDataTypes[i];
+                lastValues[idx] = oldLastValues[i];
+            }
+        }
+    }
+
+    private static int hash(long alias) {
+        long h = alias * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+}
@@ -51,15 +51,20 @@ public class SparkplugMetricUtil {
     public static final String SPARKPLUG_BD_SEQUENCE_NUMBER_KEY = "bdSeq";
 
     public static Optional<TransportProtos.KeyValueProto> fromSparkplugBMetricToKeyValueProto(String key, SparkplugBProto.Payload.Metric protoMetric) throws ThingsboardException {
+        return fromSparkplugBMetricToKeyValueProto(key, MetricDataType.fromInteger(protoMetric.getDatatype()), protoMetric);
+    }
+
+    /**
+     * Converts the metric using the data type from the birth certificate, since NDATA/DDATA metrics that are sent by alias usually omit it.
+     */
+    public static Optional<TransportProtos.KeyValueProto> fromSparkplugBMetricToKeyValueProto(String key, MetricDataType metricDataType, SparkplugBProto.Payload.Metric protoMetric) throws ThingsboardException {
         // Check if the null flag has been set indicating that the value is null
         if (protoMetric.getIsNull()) {
             return Optional.empty();
         }
         // Otherwise convert the value based on the type
-        int metricType = protoMetric.getDatatype();
+        int metricType = metricDataType.toIntValue();
         TransportProtos.KeyValueProto.Builder builderProto = TransportProtos.KeyValueProto.newBuilder();
-        ArrayNode nodeArray = newArrayNode();
-        MetricDataType metricDataType = MetricDataType.fromInteger(metricType);
         try {
             switch (metricDataType) {
                 case Boolean:
@@ -102,6 +107,7 @@ public class SparkplugMetricUtil {
                             .setStringV(protoMetric.getStringValue()).build());
                 // byte[]
                 case Bytes:
+                    ArrayNode nodeArray = newArrayNode();
                     ByteBuffer byteBuffer = ByteBuffer.wrap(protoMetric.getBytesValue().toByteArray());
                     while (byteBuffer.hasRemaining()) {
                         nodeArray.add(byteBuffer.get());
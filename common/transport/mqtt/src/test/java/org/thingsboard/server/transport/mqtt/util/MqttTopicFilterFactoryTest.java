@@ -20,7 +20,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.script.ScriptException;
+import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -66,4 +68,47 @@ public class MqttTopicFilterFactoryTest {
         assertFalse(filter.filter(TEST_STR_2));
     }
 
+    @Test
+    public void wildcardFiltersAreMatchedWithoutRegex() {
+        assertThat(MqttTopicFilterFactory.toFilter("v1/gateway/+/telemetry")).isInstanceOf(WildcardTopicFilter.class);
+        assertThat(MqttTopicFilterFactory.toFilter("spBv1.0/+/DDATA/#")).isInstanceOf(WildcardTopicFilter.class);
+        assertThat(MqttTopicFilterFactory.toFilter("Sensor/Temperature#")).isInstanceOf(RegexTopicFilter.class);
+        assertThat(MqttTopicFilterFactory.toFilter("sensors/dev+/data")).isInstanceOf(RegexTopicFilter.class);
+        assertThat(MqttTopicFilterFactory.toFilter("sensors/#/data")).isInstanceOf(RegexTopicFilter.class);
+        assertThat(MqttTopicFilterFactory.toFilter("sensors/[0-9]*/+")).isInstanceOf(RegexTopicFilter.class);
+
+        MqttTopicFilter filter = MqttTopicFilterFactory.toFilter("spBv1.0/+/DDATA/#");
+        assertTrue(filter.filter("spBv1.0/group/DDATA/node/device"));
+        assertTrue(filter.filter("spBv1.0/group/DDATA"));
+        assertFalse(filter.filter("spBv1.0/group/NDATA/node"));
+        assertFalse(filter.filter("spBv1.0//DDATA/node"));
+        assertFalse(filter.filter("spBv1.0/group/DDATAX"));
+
+        filter = MqttTopicFilterFactory.toFilter("+/+");
+        assertTrue(filter.filter("a/b"));
+        assertFalse(filter.filter("a/b/c"));
+        assertFalse(filter.filter("a/"));
+        assertFalse(filter.filter("a"));
+    }
+
+    @Test
+    public void wildcardFilterMatchesSameTopicsAsRegexFilter() {
+        List<String> filters = List.of("Sensor/Temperature/House/+", "Sensor/+/House/#", "Sensor/#", "Sensor/Temperature/#",
+                "+/Temperature/+/48", "/+/Temperature2/#", "/#", "+", "v1/devices/me/telemetry/+", "Sensor/ Temperature/#");
+        List<String> topics = List.of(TEST_STR_1, TEST_STR_2, TEST_STR_3, TEST_STR_4, TEST_STR_5, TEST_STR_6, "", "Sensor",
+                "Sensor/", "Sensor//House/48", "Sensor/Temperature/", "v1/devices/me/telemetry/x", "v1/devices/me/telemetry/");
+        for (String topicFilter : filters) {
+            var wildcardFilter = new WildcardTopicFilter(topicFilter);
+            var regexFilter = new RegexTopicFilter(topicFilter
+                    .replace("\\", "\\\\")
+                    .replace("+", "[^/]+")
+                    .replace("/#", "($|/.*)"));
+            for (String topic : topics) {
+                assertThat(wildcardFilter.filter(topic))
+                        .as("filter [%s], topic [%s]", topicFilter, topic)
+                        .isEqualTo(regexFilter.filter(topic));
+            }
+        }
+    }
+
 }
@@ -0,0 +1,66 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.mqtt.util.sparkplug;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.gen.transport.TransportProtos;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SparkplugMetricAliasTableTest {
+
+    @Test
+    public void givenBirthAliases_whenResolving_thenReturnNameAndDataType() {
+        SparkplugMetricAliasTable table = new SparkplugMetricAliasTable();
+        for (long alias = 0; alias < 1000; alias++) {
+            assertThat(table.put(alias * 31, "metric_" + alias, MetricDataType.Int32)).isTrue();
+        }
+        assertThat(table.size()).isEqualTo(1000);
+        for (long alias = 0; alias < 1000; alias++) {
+            assertThat(table.getName(alias * 31)).isEqualTo("metric_" + alias);
+            assertThat(table.getDataType(alias * 31)).isEqualTo(MetricDataType.Int32);
+        }
+        assertThat(table.getName(1)).isNull();
+        assertThat(table.getDataType(1)).isNull();
+    }
+
+    @Test
+    public void givenAliasOfAnotherMetric_whenPut_thenReject() {
+        SparkplugMetricAliasTable table = new SparkplugMetricAliasTable();
+        assertThat(table.put(1, "temperature", MetricDataType.Float)).isTrue();
+        assertThat(table.put(1, "humidity", MetricDataType.Float)).isFalse();
+        assertThat(table.put(1, "temperature", MetricDataType.Double)).isTrue();
+        assertThat(table.getName(1)).isEqualTo("temperature");
+        assertThat(table.getDataType(1)).isEqualTo(MetricDataType.Double);
+    }
+
+    @Test
+    public void givenSameValue_whenCheckingIfUnchanged_thenSkipUntilRebirth() {
+        SparkplugMetricAliasTable table = new SparkplugMetricAliasTable();
+        table.put(7, "temperature", MetricDataType.Int64);
+        var value = TransportProtos.KeyValueProto.newBuilder().setKey("temperature").setType(TransportProtos.KeyValueType.LONG_V).setLongV(21).build();
+        var newValue = value.toBuilder().setLongV(22).build();
+
+        assertThat(table.isUnchanged(7, value)).isFalse();
+        assertThat(table.isUnchanged(7, value)).isTrue();
+        assertThat(table.isUnchanged(7, newValue)).isFalse();
+        assertThat(table.isUnchanged(8, newValue)).isFalse();
+
+        table.put(7, "temperature", MetricDataType.Int64);
+        assertThat(table.isUnchanged(7, newValue)).isFalse();
+    }
+
+}
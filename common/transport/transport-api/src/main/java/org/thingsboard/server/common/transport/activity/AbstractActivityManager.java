@@ -21,6 +21,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategy;
 import org.thingsboard.server.queue.scheduler.SchedulerComponent;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,13 +34,26 @@ import java.util.concurrent.atomic.AtomicLong;
 @Slf4j
 public abstract class AbstractActivityManager<Key, Metadata> implements ActivityManager<Key, Metadata> {
 
-    private final ConcurrentMap<Key, ActivityStateWrapper> states = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Key, ActivityStateWrapper<Metadata>> states = new ConcurrentHashMap<>();
+
+    private final ActivityReportCallback<Key> lastEventReportCallback = new ActivityReportCallback<>() {
+        @Override
+        public void onSuccess(Key key, long reportedTime) {
+            updateLastReportedTime(key, reportedTime);
+        }
+
+        @Override
+        public void onFailure(Key key, Throwable t) {
+            log.debug("Failed to report last activity event for key: [{}].", key, t);
+        }
+    };
 
     @Autowired
     protected SchedulerComponent scheduler;
 
+    // static to avoid keeping a reference to the enclosing manager in every per-key entry
     @Data
-    private class ActivityStateWrapper {
+    private static class ActivityStateWrapper<Metadata> {
 
         private volatile ActivityState<Metadata> state;
         private volatile long lastReportedTime;
@@ -63,6 +78,16 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
 
     protected abstract void reportActivity(Key key, Metadata metadata, long timeToReport, ActivityReportCallback<Key> callback);
 
+    /**
+     * Reports all activity events collected at the end of a reporting period.
+     * Implementations may override this to aggregate the reports into fewer messages.
+     */
+    protected void reportActivity(List<ActivityReport<Key, Metadata>> reports, ActivityReportCallback<Key> callback) {
+        for (ActivityReport<Key, Metadata> report : reports) {
+            reportActivity(report.key(), report.metadata(), report.timeToReport(), callback);
+        }
+    }
+
     @Override
     public void onActivity(Key key, Metadata metadata, long newLastRecordedTime) {
         if (key == null) {
@@ -78,7 +103,7 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
         states.compute(key, (__, stateWrapper) -> {
             if (stateWrapper == null) {
                 ActivityState<Metadata> newState = new ActivityState<>();
-                stateWrapper = new ActivityStateWrapper();
+                stateWrapper = new ActivityStateWrapper<>();
                 stateWrapper.setState(newState);
                 stateWrapper.setStrategy(getStrategy());
             }
@@ -112,18 +137,31 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
     @Override
     public void onReportingPeriodEnd() {
         log.debug("Going to end reporting period.");
-        for (Map.Entry<Key, ActivityStateWrapper> entry : states.entrySet()) {
+        List<ActivityReport<Key, Metadata>> reports = new ArrayList<>();
+        for (Map.Entry<Key, ActivityStateWrapper<Metadata>> entry : states.entrySet()) {
             Key key = entry.getKey();
-            ActivityStateWrapper stateWrapper = entry.getValue();
+            ActivityStateWrapper<Metadata> stateWrapper = entry.getValue();
             try {
-                reportLastEvent(key, stateWrapper);
+                ActivityReport<Key, Metadata> report = getLastEventReport(key, stateWrapper);
+                if (report != null) {
+                    reports.add(report);
+                }
             } catch (Exception e) {
                 log.error("Failed to report last activity event on reporting period end for key: [{}]. State: [{}].", key, stateWrapper, e);
             }
         }
+        if (reports.isEmpty()) {
+            return;
+        }
+        log.debug("Going to report [{}] last activity events.", reports.size());
+        try {
+            reportActivity(reports, lastEventReportCallback);
+        } catch (Exception e) {
+            log.error("Failed to report [{}] last activity events on reporting period end.", reports.size(), e);
+        }
     }
 
-    private void reportLastEvent(Key key, ActivityStateWrapper stateWrapper) {
+    private ActivityReport<Key, Metadata> getLastEventReport(Key key, ActivityStateWrapper<Metadata> stateWrapper) {
         var currentState = stateWrapper.getState();
 
         long lastRecordedTime = currentState.getLastRecordedTime();
@@ -153,25 +191,15 @@ public abstract class AbstractActivityManager<Key, Metadata> implements Activity
         }
 
         if (shouldReport && lastReportedTime < lastRecordedTime) {
-            long timeToReport = lastRecordedTime;
-            log.debug("Going to report last activity event for key: [{}]. Event time: [{}].", key, timeToReport);
-            reportActivity(key, metadata, timeToReport, new ActivityReportCallback<>() {
-                @Override
-                public void onSuccess(Key key, long reportedTime) {
-                    updateLastReportedTime(key, reportedTime);
-                }
-
-                @Override
-                public void onFailure(Key key, Throwable t) {
-                    log.debug("Failed to report last activity event for key: [{}]. Event time: [{}].", key, timeToReport, t);
-                }
-            });
+            log.debug("Going to report last activity event for key: [{}]. Event time: [{}].", key, lastRecordedTime);
+            return new ActivityReport<>(key, metadata, lastRecordedTime);
         }
+        return null;
     }
 
     @Override
     public long getLastRecordedTime(Key key) {
-        ActivityStateWrapper stateWrapper = states.get(key);
+        ActivityStateWrapper<Metadata> stateWrapper = states.get(key);
         return stateWrapper == null ? 0L : stateWrapper.getState().getLastRecordedTime();
     }
 
@@ -99,6 +99,7 @@ import org.thingsboard.server.queue.TbQueueMsgMetadata;
 import org.thingsboard.server.queue.TbQueueProducer;
 import org.thingsboard.server.queue.TbQueueRequestTemplate;
 import org.thingsboard.server.queue.common.AsyncCallbackTemplate;
+import org.thingsboard.server.queue.common.DefaultTbQueueRequestTemplate;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
 import org.thingsboard.server.queue.common.TbRuleEngineProducerService;
 import org.thingsboard.server.queue.common.consumer.QueueConsumerManager;
@@ -111,6 +112,7 @@ import org.thingsboard.server.queue.scheduler.SchedulerComponent;
 import org.thingsboard.server.queue.util.AfterStartUp;
 import org.thingsboard.server.queue.util.TbTransportComponent;
 
+import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -205,6 +207,7 @@ public class DefaultTransportService extends TransportActivityManager implements
         this.scheduler.scheduleAtFixedRate(this::invalidateRateLimits, new Random().nextInt((int) sessionReportTimeout), sessionReportTimeout, TimeUnit.MILLISECONDS);
         transportApiRequestTemplate = queueProvider.createTransportApiRequestTemplate();
         transportApiRequestTemplate.setMessagesStats(transportApiStats);
+        transportApiRequestTemplate.setLatencyStats(statsFactory, StatsType.TRANSPORT.getName() + ".api.latency", DefaultTbQueueRequestTemplate::getProtoRequestType);
         ruleEngineMsgProducer = producerProvider.getRuleEngineMsgProducer();
         tbCoreMsgProducer = producerProvider.getTbCoreMsgProducer();
         transportApiRequestTemplate.init();
@@ -1117,6 +1120,25 @@ public class DefaultTransportService extends TransportActivityManager implements
         if (log.isTraceEnabled()) {
             log.trace("[{}][{}] Pushing to topic {} message {}", tenantId, entityId, tpi.getFullTopicName(), msg);
         }
+        sendToCore(tpi, msg, routingKey, callback);
+    }
+
+    @Override
+    protected TopicPartitionInfo resolveCorePartition(TransportProtos.SessionInfoProto sessionInfo) {
+        return partitionService.resolve(ServiceType.TB_CORE, getTenantId(sessionInfo), getDeviceId(sessionInfo));
+    }
+
+    @Override
+    protected void sendToCore(TopicPartitionInfo tpi, ToCoreMsg msg, TransportServiceCallback<Void> callback) {
+        if (log.isTraceEnabled()) {
+            log.trace("Pushing to topic {} message {}", tpi.getFullTopicName(), msg);
+        }
+        // stable key per target partition, so that batches to the same partition keep their order
+        UUID routingKey = UUID.nameUUIDFromBytes(tpi.getFullTopicName().getBytes(StandardCharsets.UTF_8));
+        sendToCore(tpi, msg, routingKey, callback);
+    }
+
+    private void sendToCore(TopicPartitionInfo tpi, ToCoreMsg msg, UUID routingKey, TransportServiceCallback<Void> callback) {
         TransportTbQueueCallback transportTbQueueCallback = callback != null ?
                 new TransportTbQueueCallback(callback) : null;
         tbCoreProducerStats.incrementTotal();
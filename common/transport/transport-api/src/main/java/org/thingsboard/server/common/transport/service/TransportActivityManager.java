@@ -15,17 +15,24 @@
  */
 package org.thingsboard.server.common.transport.service;
 
+import com.google.common.collect.Lists;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
 import org.thingsboard.server.common.transport.TransportService;
 import org.thingsboard.server.common.transport.TransportServiceCallback;
 import org.thingsboard.server.common.transport.activity.AbstractActivityManager;
+import org.thingsboard.server.common.transport.activity.ActivityReport;
 import org.thingsboard.server.common.transport.activity.ActivityReportCallback;
 import org.thingsboard.server.common.transport.activity.ActivityState;
 import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategy;
 import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategyType;
 import org.thingsboard.server.gen.transport.TransportProtos;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -52,6 +59,12 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
     @Value("${transport.activity.reporting_strategy:LAST}")
     private ActivityStrategyType reportingStrategyType;
 
+    @Value("${transport.activity.batch_reporting.enabled:false}")
+    private boolean batchReportingEnabled;
+
+    @Value("${transport.activity.batch_reporting.max_batch_size:500}")
+    private int maxReportsPerBatch;
+
     @Override
     protected long getReportingPeriodMillis() {
         return sessionReportTimeout;
@@ -111,11 +124,7 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
     protected void reportActivity(UUID sessionId, TransportProtos.SessionInfoProto currentSessionInfo, long timeToReport, ActivityReportCallback<UUID> callback) {
         log.debug("Reporting activity state for session with id: [{}]. Time to report: [{}].", sessionId, timeToReport);
         SessionMetaData session = sessions.get(sessionId);
-        TransportProtos.SubscriptionInfoProto subscriptionInfo = TransportProtos.SubscriptionInfoProto.newBuilder()
-                .setAttributeSubscription(session != null && session.isSubscribedToAttributes())
-                .setRpcSubscription(session != null && session.isSubscribedToRPC())
-                .setLastActivityTime(timeToReport)
-                .build();
+        TransportProtos.SubscriptionInfoProto subscriptionInfo = toSubscriptionInfo(session, timeToReport);
         TransportProtos.SessionInfoProto sessionInfo = session != null ? session.getSessionInfo() : currentSessionInfo;
         process(sessionInfo, subscriptionInfo, new TransportServiceCallback<>() {
             @Override
@@ -131,6 +140,71 @@ public abstract class TransportActivityManager extends AbstractActivityManager<U
         });
     }
 
+    @Override
+    protected void reportActivity(List<ActivityReport<UUID, TransportProtos.SessionInfoProto>> reports, ActivityReportCallback<UUID> callback) {
+        if (!batchReportingEnabled) {
+            super.reportActivity(reports, callback);
+            return;
+        }
+        Map<TopicPartitionInfo, List<ActivityReport<UUID, TransportProtos.SessionInfoProto>>> reportsByPartition = new HashMap<>();
+        for (ActivityReport<UUID, TransportProtos.SessionInfoProto> report : reports) {
+            TopicPartitionInfo tpi;
+            try {
+                tpi = resolveCorePartition(report.metadata());
+            } catch (Exception e) {
+                log.warn("Failed to resolve core partition for session with id: [{}]. Activity report aborted.", report.key(), e);
+                callback.onFailure(report.key(), e);
+                continue;
+            }
+            reportsByPartition.computeIfAbsent(tpi, __ -> new ArrayList<>()).add(report);
+        }
+        reportsByPartition.forEach((tpi, partitionReports) -> {
+            for (var batch : Lists.partition(partitionReports, maxReportsPerBatch)) {
+                reportActivity(tpi, batch, callback);
+            }
+        });
+    }
+
+    private void reportActivity(TopicPartitionInfo tpi, List<ActivityReport<UUID, TransportProtos.SessionInfoProto>> batch, ActivityReportCallback<UUID> callback) {
+        log.debug("Reporting activity state for [{}] sessions to [{}].", batch.size(), tpi.getFullTopicName());
+        var batchMsg = TransportProtos.TransportToDeviceActorBatchMsg.newBuilder();
+        for (ActivityReport<UUID, TransportProtos.SessionInfoProto> report : batch) {
+            SessionMetaData session = sessions.get(report.key());
+            TransportProtos.SessionInfoProto sessionInfo = session != null ? session.getSessionInfo() : report.metadata();
+            batchMsg.addMsgs(TransportProtos.TransportToDeviceActorMsg.newBuilder()
+                    .setSessionInfo(sessionInfo)
+                    .setSubscriptionInfo(toSubscriptionInfo(session, report.timeToReport())));
+        }
+        var toCoreMsg = TransportProtos.ToCoreMsg.newBuilder().setToDeviceActorBatchMsg(batchMsg).build();
+        sendToCore(tpi, toCoreMsg, new TransportServiceCallback<>() {
+            @Override
+            public void onSuccess(Void msgAcknowledged) {
+                for (ActivityReport<UUID, TransportProtos.SessionInfoProto> report : batch) {
+                    callback.onSuccess(report.key(), report.timeToReport());
+                }
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                for (ActivityReport<UUID, TransportProtos.SessionInfoProto> report : batch) {
+                    callback.onFailure(report.key(), e);
+                }
+            }
+        });
+    }
+
+    private static TransportProtos.SubscriptionInfoProto toSubscriptionInfo(SessionMetaData session, long timeToReport) {
+        return TransportProtos.SubscriptionInfoProto.newBuilder()
+                .setAttributeSubscription(session != null && session.isSubscribedToAttributes())
+                .setRpcSubscription(session != null && session.isSubscribedToRPC())
+                .setLastActivityTime(timeToReport)
+                .build();
+    }
+
+    protected abstract TopicPartitionInfo resolveCorePartition(TransportProtos.SessionInfoProto sessionInfo);
+
+    protected abstract void sendToCore(TopicPartitionInfo tpi, TransportProtos.ToCoreMsg msg, TransportServiceCallback<Void> callback);
+
     protected long getCurrentTimeMillis() {
         return System.currentTimeMillis();
     }
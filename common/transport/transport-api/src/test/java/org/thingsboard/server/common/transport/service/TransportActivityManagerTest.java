@@ -26,14 +26,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
 import org.thingsboard.server.common.transport.SessionMsgListener;
 import org.thingsboard.server.common.transport.TransportServiceCallback;
+import org.thingsboard.server.common.transport.activity.ActivityReport;
 import org.thingsboard.server.common.transport.activity.ActivityReportCallback;
 import org.thingsboard.server.common.transport.activity.ActivityState;
 import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategy;
 import org.thingsboard.server.common.transport.activity.strategy.ActivityStrategyType;
 import org.thingsboard.server.gen.transport.TransportProtos;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -189,6 +192,63 @@ public class TransportActivityManagerTest {
         verify(callbackMock).onFailure(SESSION_ID, throwable);
     }
 
+    @Test
+    void givenReportsForSessionsInDifferentPartitions_whenReportingActivityBatch_thenShouldSendOneBatchPerPartition() {
+        // GIVEN
+        ReflectionTestUtils.setField(transportServiceMock, "batchReportingEnabled", true);
+        ReflectionTestUtils.setField(transportServiceMock, "maxReportsPerBatch", 2);
+
+        UUID secondSessionId = UUID.randomUUID();
+        UUID thirdSessionId = UUID.randomUUID();
+        var firstSessionInfo = TransportProtos.SessionInfoProto.newBuilder().setDeviceIdLSB(1L).build();
+        var secondSessionInfo = TransportProtos.SessionInfoProto.newBuilder().setDeviceIdLSB(2L).build();
+        var thirdSessionInfo = TransportProtos.SessionInfoProto.newBuilder().setDeviceIdLSB(3L).build();
+
+        SessionMetaData session = new SessionMetaData(firstSessionInfo, TransportProtos.SessionType.ASYNC, mock(SessionMsgListener.class));
+        session.setSubscribedToRPC(true);
+        sessions.put(SESSION_ID, session);
+
+        var firstPartition = new TopicPartitionInfo("tb_core", null, 0, true);
+        var secondPartition = new TopicPartitionInfo("tb_core", null, 1, true);
+        when(transportServiceMock.resolveCorePartition(firstSessionInfo)).thenReturn(firstPartition);
+        when(transportServiceMock.resolveCorePartition(secondSessionInfo)).thenReturn(secondPartition);
+        when(transportServiceMock.resolveCorePartition(thirdSessionInfo)).thenReturn(firstPartition);
+
+        List<ActivityReport<UUID, TransportProtos.SessionInfoProto>> reports = List.of(
+                new ActivityReport<>(SESSION_ID, firstSessionInfo, 100L),
+                new ActivityReport<>(secondSessionId, secondSessionInfo, 200L),
+                new ActivityReport<>(thirdSessionId, thirdSessionInfo, 300L)
+        );
+        ActivityReportCallback<UUID> callbackMock = mock(ActivityReportCallback.class);
+
+        doCallRealMethod().when(transportServiceMock).reportActivity(reports, callbackMock);
+
+        // WHEN
+        transportServiceMock.reportActivity(reports, callbackMock);
+
+        // THEN
+        ArgumentCaptor<TransportProtos.ToCoreMsg> firstPartitionMsgCaptor = ArgumentCaptor.forClass(TransportProtos.ToCoreMsg.class);
+        ArgumentCaptor<TransportServiceCallback<Void>> firstPartitionCallbackCaptor = ArgumentCaptor.forClass(TransportServiceCallback.class);
+        verify(transportServiceMock).sendToCore(eq(firstPartition), firstPartitionMsgCaptor.capture(), firstPartitionCallbackCaptor.capture());
+        verify(transportServiceMock).sendToCore(eq(secondPartition), any(), any());
+        verify(transportServiceMock, never()).process(any(TransportProtos.SessionInfoProto.class), any(TransportProtos.SubscriptionInfoProto.class), any());
+
+        var batchMsg = firstPartitionMsgCaptor.getValue().getToDeviceActorBatchMsg();
+        assertThat(batchMsg.getMsgsList()).hasSize(2);
+        assertThat(batchMsg.getMsgs(0).getSessionInfo()).isEqualTo(firstSessionInfo);
+        assertThat(batchMsg.getMsgs(0).getSubscriptionInfo()).isEqualTo(TransportProtos.SubscriptionInfoProto.newBuilder()
+                .setRpcSubscription(true)
+                .setLastActivityTime(100L)
+                .build());
+        assertThat(batchMsg.getMsgs(1).getSessionInfo()).isEqualTo(thirdSessionInfo);
+        assertThat(batchMsg.getMsgs(1).getSubscriptionInfo().getLastActivityTime()).isEqualTo(300L);
+
+        firstPartitionCallbackCaptor.getValue().onSuccess(null);
+        verify(callbackMock).onSuccess(SESSION_ID, 100L);
+        verify(callbackMock).onSuccess(thirdSessionId, 300L);
+        verify(callbackMock, never()).onSuccess(eq(secondSessionId), any(Long.class));
+    }
+
     @Test
     void givenActivityHappened_whenRecordActivity_thenShouldDelegateToOnActivity() {
         // GIVEN
@@ -20,6 +20,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -56,6 +57,55 @@ public class ThingsBoardExecutors {
         return newWorkStealingPool(parallelism, clazz.getSimpleName());
     }
 
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     * Virtual threads are available since Java 21, so the API is resolved reflectively
+     * to keep the code base compatible with Java 17 runtimes.
+     *
+     * @param namePrefix used to define thread name
+     * @return the newly created executor
+     * @throws UnsupportedOperationException if the running JVM does not support virtual threads
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix + "-vthread-", 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by the current JVM", e);
+        }
+    }
+
+    /**
+     * Checks whether the running JVM can start virtual threads. The API is present but disabled on Java 19 and 20
+     * without --enable-preview, so a virtual thread is actually started once and the result is cached.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreadSupport.SUPPORTED;
+    }
+
+    private static final class VirtualThreadSupport {
+
+        private static final boolean SUPPORTED = probe();
+
+        private static boolean probe() {
+            try {
+                Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                Thread thread = (Thread) Thread.class.getMethod("startVirtualThread", Runnable.class).invoke(null, (Runnable) () -> {});
+                thread.join();
+                return true;
+            } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+    }
+
     /*
      * executor with limited tasks queue size
      * */
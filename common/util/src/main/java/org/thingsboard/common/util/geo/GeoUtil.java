@@ -22,7 +22,10 @@ import lombok.NonNull;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.CoordinateSequence;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
 import org.locationtech.jts.geom.util.GeometryFixer;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
@@ -36,7 +39,6 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -58,6 +60,10 @@ public class GeoUtil {
     }
 
     public static synchronized boolean contains(@NonNull String polygonInString, @NonNull Coordinates coordinates) {
+        return parsePolygons(polygonInString).contains(coordinates);
+    }
+
+    public static synchronized PreparedPolygons parsePolygons(@NonNull String polygonInString) {
         if (polygonInString.isEmpty() || polygonInString.isBlank()) {
             throw new RuntimeException("Polygon string can't be empty or null!");
         }
@@ -67,22 +73,35 @@ public class GeoUtil {
         Set<Geometry> holes = extractHolesFrom(polygons);
         polygons.removeIf(holes::contains);
 
-        Geometry globalGeometry = unionToGlobalGeometry(polygons, holes);
-        var point = jtsCtx.getShapeFactory().getGeometryFactory()
-                .createPoint(new Coordinate(coordinates.getLatitude(), coordinates.getLongitude()));
+        if (polygons.isEmpty()) {
+            throw new RuntimeException("Error while calculating globalPolygon - the result of all polygons union is null");
+        }
+        return new PreparedPolygons(jtsCtx.getShapeFactory().getGeometryFactory(),
+                PreparedGeometryFactory.prepare(union(polygons)),
+                holes.isEmpty() ? null : PreparedGeometryFactory.prepare(union(holes)));
+    }
 
-        return globalGeometry.contains(point);
+    private static Geometry union(Collection<Geometry> geometries) {
+        if (geometries.size() > 1 && isDisjoint(geometries)) {
+            // disjoint polygons already form a valid multipolygon, no need for the costly overlay
+            return jtsCtx.getShapeFactory().getGeometryFactory().buildGeometry(geometries);
+        }
+        return UnaryUnionOp.union(geometries);
     }
 
-    private static Geometry unionToGlobalGeometry(List<Geometry> polygons, Set<Geometry> holes) {
-        Geometry globalPolygon = polygons.stream().reduce(Geometry::union).orElseThrow(() ->
-                new RuntimeException("Error while calculating globalPolygon - the result of all polygons union is null"));
-        Optional<Geometry> globalHole = holes.stream().reduce(Geometry::union);
-        if (globalHole.isEmpty()) {
-            return globalPolygon;
-        } else {
-            return globalPolygon.difference(globalHole.get());
+    private static boolean isDisjoint(Collection<Geometry> geometries) {
+        STRtree index = new STRtree();
+        for (Geometry geometry : geometries) {
+            index.insert(geometry.getEnvelopeInternal(), geometry);
         }
+        for (Geometry geometry : geometries) {
+            for (Object candidate : index.query(geometry.getEnvelopeInternal())) {
+                if (candidate != geometry && geometry.intersects((Geometry) candidate)) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     private static JsonArray normalizePolygonsJson(JsonArray polygonsJsonArray) {
@@ -107,9 +126,16 @@ public class GeoUtil {
 
     private static Set<Geometry> extractHolesFrom(List<Geometry> polygons) {
         Map<Geometry, List<Geometry>> polygonsHoles = new HashMap<>();
+        // a hole lies within the envelope of its polygon, so only the polygons found by the envelope query are checked
+        STRtree index = new STRtree();
+        for (Geometry polygon : polygons) {
+            index.insert(polygon.getEnvelopeInternal(), polygon);
+        }
 
         for (Geometry polygon : polygons) {
-            List<Geometry> holes = polygons.stream()
+            @SuppressWarnings("unchecked")
+            List<Geometry> candidates = index.query(polygon.getEnvelopeInternal());
+            List<Geometry> holes = candidates.stream()
                     .filter(another -> !another.equalsExact(polygon))
                     .filter(another -> {
                         JtsGeometry currentGeo = jtsCtx.getShapeFactory().makeShape(polygon);
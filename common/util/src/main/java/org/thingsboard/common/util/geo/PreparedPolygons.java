@@ -0,0 +1,46 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.common.util.geo;
+
+import lombok.NonNull;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+
+/**
+ * Polygons definition parsed once and prepared for repeated point lookups.
+ * Holes are checked separately instead of being subtracted from the polygons, which avoids a costly overlay
+ * for definitions with many polygons: a point is contained if it is inside the polygons and not covered by a hole.
+ */
+public class PreparedPolygons {
+
+    private final GeometryFactory geometryFactory;
+    private final PreparedGeometry polygons;
+    private final PreparedGeometry holes;
+
+    PreparedPolygons(GeometryFactory geometryFactory, PreparedGeometry polygons, PreparedGeometry holes) {
+        this.geometryFactory = geometryFactory;
+        this.polygons = polygons;
+        this.holes = holes;
+    }
+
+    public boolean contains(@NonNull Coordinates coordinates) {
+        Point point = geometryFactory.createPoint(new Coordinate(coordinates.getLatitude(), coordinates.getLongitude()));
+        return polygons.contains(point) && (holes == null || !holes.intersects(point));
+    }
+
+}
@@ -59,9 +59,11 @@ public final class TbNodeUtils {
     public static String processPattern(String pattern, TbMsg tbMsg) {
         try {
             String result = processPattern(pattern, tbMsg.getMetaData());
-            JsonNode json = JacksonUtil.toJsonNode(tbMsg.getData());
+            JsonNode json = tbMsg.getDataAsJson();
 
-            result = result.replace(ALL_DATA_TEMPLATE, JacksonUtil.toString(json));
+            if (result.contains(ALL_DATA_TEMPLATE)) {
+                result = result.replace(ALL_DATA_TEMPLATE, JacksonUtil.toString(json));
+            }
 
             if (json.isObject()) {
                 Matcher matcher = DATA_PATTERN.matcher(result);
@@ -16,7 +16,6 @@
 package org.thingsboard.rule.engine.deduplication;
 
 import lombok.Data;
-import org.thingsboard.server.common.msg.TbMsg;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -24,22 +23,22 @@ import java.util.List;
 @Data
 public class DeduplicationData {
 
-    private final List<TbMsg> msgList;
+    private final List<DeduplicationEntry> entries;
     private boolean tickScheduled;
 
     public DeduplicationData() {
-        msgList = new LinkedList<>();
+        entries = new LinkedList<>();
     }
 
     public int size() {
-        return msgList.size();
+        return entries.size();
     }
 
-    public void add(TbMsg msg) {
-        msgList.add(msg);
+    public void add(DeduplicationEntry entry) {
+        entries.add(entry);
     }
 
     public boolean isEmpty() {
-        return msgList.isEmpty();
+        return entries.isEmpty();
     }
 }
@@ -0,0 +1,24 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.deduplication;
+
+/**
+ * Compact form of the pending message: the metadata timestamp used to build the packs and the serialized payload.
+ * The payload is the {@code TbMsgProto} bytes for the FIRST and LAST strategies and the ready-to-merge
+ * JSON element ({@code {"msg":...,"metadata":...}}) for the ALL strategy.
+ */
+public record DeduplicationEntry(long ts, String queueName, byte[] payload) {
+}
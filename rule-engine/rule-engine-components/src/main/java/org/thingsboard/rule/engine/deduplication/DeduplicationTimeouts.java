@@ -0,0 +1,67 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.deduplication;
+
+import org.thingsboard.server.common.data.id.EntityId;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Deduplication timeouts of all originators of the rule node, driven by a single tick message.
+ * Every timeout has the same delay (deduplication interval), so the deadlines are added in ascending order
+ * and the timer wheel reduces to one FIFO slot with O(1) scheduling and expiration.
+ */
+class DeduplicationTimeouts {
+
+    private final ArrayDeque<Timeout> timeouts = new ArrayDeque<>();
+
+    void add(EntityId deduplicationId, long deadlineTs) {
+        timeouts.add(new Timeout(deduplicationId, deadlineTs));
+    }
+
+    List<EntityId> pollExpired(long ts) {
+        Timeout timeout = timeouts.peek();
+        if (timeout == null || timeout.deadlineTs > ts) {
+            return Collections.emptyList();
+        }
+        List<EntityId> expired = new ArrayList<>();
+        while (timeout != null && timeout.deadlineTs <= ts) {
+            expired.add(timeouts.poll().deduplicationId);
+            timeout = timeouts.peek();
+        }
+        return expired;
+    }
+
+    long getNextDeadlineTs() {
+        Timeout timeout = timeouts.peek();
+        return timeout != null ? timeout.deadlineTs : Long.MAX_VALUE;
+    }
+
+    boolean isEmpty() {
+        return timeouts.isEmpty();
+    }
+
+    void clear() {
+        timeouts.clear();
+    }
+
+    private record Timeout(EntityId deduplicationId, long deadlineTs) {
+    }
+
+}
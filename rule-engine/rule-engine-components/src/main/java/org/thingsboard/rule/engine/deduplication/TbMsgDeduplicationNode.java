@@ -16,8 +16,8 @@
 package org.thingsboard.rule.engine.deduplication;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.protobuf.InvalidProtocolBufferException;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.rule.engine.api.RuleNode;
@@ -33,14 +33,17 @@ import org.thingsboard.server.common.data.plugin.ComponentType;
 import org.thingsboard.server.common.data.util.TbPair;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.TbMsgMetaData;
+import org.thingsboard.server.common.msg.gen.MsgProtos.TbMsgProto;
+import org.thingsboard.server.common.msg.queue.TbMsgCallback;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -65,15 +68,21 @@ import static org.thingsboard.server.common.data.DataConstants.QUEUE_NAME;
 public class TbMsgDeduplicationNode implements TbNode {
 
     public static final long TB_MSG_DEDUPLICATION_RETRY_DELAY = 10L;
+    // deadlines are rounded up to the timeout slot, so originators expiring close to each other share the same tick
+    public static final long TB_MSG_DEDUPLICATION_TIMEOUT_SLOT_MS = 100L;
 
     private TbMsgDeduplicationNodeConfiguration config;
 
     private final Map<EntityId, DeduplicationData> deduplicationMap;
+    private final DeduplicationTimeouts timeouts;
     private long deduplicationInterval;
     private String queueName;
+    private boolean tickScheduled;
+    private long tickTs;
 
     public TbMsgDeduplicationNode() {
         this.deduplicationMap = new HashMap<>();
+        this.timeouts = new DeduplicationTimeouts();
     }
 
     @Override
@@ -86,7 +95,7 @@ public class TbMsgDeduplicationNode implements TbNode {
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException, TbNodeException {
         if (msg.isTypeOf(TbMsgType.DEDUPLICATION_TIMEOUT_SELF_MSG)) {
-            processDeduplication(ctx, msg.getOriginator());
+            processTick(ctx);
         } else {
             processOnRegularMsg(ctx, msg);
         }
@@ -95,6 +104,7 @@ public class TbMsgDeduplicationNode implements TbNode {
     @Override
     public void destroy() {
         deduplicationMap.clear();
+        timeouts.clear();
     }
 
     @Override
@@ -118,15 +128,30 @@ public class TbMsgDeduplicationNode implements TbNode {
         DeduplicationData deduplicationMsgs = deduplicationMap.computeIfAbsent(id, k -> new DeduplicationData());
         if (deduplicationMsgs.size() < config.getMaxPendingMsgs()) {
             log.trace("[{}][{}] Adding msg: [{}][{}] to the pending msgs map ...", ctx.getSelfId(), id, msg.getId(), msg.getMetaDataTs());
-            deduplicationMsgs.add(msg);
+            deduplicationMsgs.add(toEntry(msg));
             ctx.ack(msg);
-            scheduleTickMsg(ctx, id, deduplicationMsgs);
+            scheduleTimeout(id, deduplicationMsgs);
+            scheduleTickMsg(ctx);
         } else {
             log.trace("[{}] Max limit of pending messages reached for deduplication id: [{}]", ctx.getSelfId(), id);
             ctx.tellFailure(msg, new RuntimeException("[" + ctx.getSelfId() + "] Max limit of pending messages reached for deduplication id: [" + id + "]"));
         }
     }
 
+    private void processTick(TbContext ctx) {
+        tickScheduled = false;
+        // the tick may be delivered slightly earlier than the deadline it was scheduled for
+        long expirationTs = Math.max(System.currentTimeMillis(), tickTs);
+        for (EntityId deduplicationId : timeouts.pollExpired(expirationTs)) {
+            try {
+                processDeduplication(ctx, deduplicationId);
+            } catch (Exception e) {
+                log.warn("[{}][{}] Failed to process deduplication", ctx.getSelfId(), deduplicationId, e);
+            }
+        }
+        scheduleTickMsg(ctx);
+    }
+
     private void processDeduplication(TbContext ctx, EntityId deduplicationId) {
         DeduplicationData data = deduplicationMap.get(deduplicationId);
         if (data == null) {
@@ -134,22 +159,23 @@ public class TbMsgDeduplicationNode implements TbNode {
         }
         data.setTickScheduled(false);
         if (data.isEmpty()) {
+            deduplicationMap.remove(deduplicationId);
             return;
         }
         long deduplicationTimeoutMs = System.currentTimeMillis();
         try {
             List<TbMsg> deduplicationResults = new ArrayList<>();
-            List<TbMsg> msgList = data.getMsgList();
-            Optional<TbPair<Long, Long>> packBoundsOpt = findValidPack(msgList, deduplicationTimeoutMs);
+            List<DeduplicationEntry> entries = data.getEntries();
+            Optional<TbPair<Long, Long>> packBoundsOpt = findValidPack(entries, deduplicationTimeoutMs);
             while (packBoundsOpt.isPresent()) {
                 TbPair<Long, Long> packBounds = packBoundsOpt.get();
                 if (DeduplicationStrategy.ALL.equals(config.getStrategy())) {
-                    List<TbMsg> pack = new ArrayList<>();
-                    for (Iterator<TbMsg> iterator = msgList.iterator(); iterator.hasNext(); ) {
-                        TbMsg msg = iterator.next();
-                        long msgTs = msg.getMetaDataTs();
+                    List<DeduplicationEntry> pack = new ArrayList<>();
+                    for (Iterator<DeduplicationEntry> iterator = entries.iterator(); iterator.hasNext(); ) {
+                        DeduplicationEntry entry = iterator.next();
+                        long msgTs = entry.ts();
                         if (msgTs >= packBounds.getFirst() && msgTs < packBounds.getSecond()) {
-                            pack.add(msg);
+                            pack.add(entry);
                             iterator.remove();
                         }
                     }
@@ -161,21 +187,22 @@ public class TbMsgDeduplicationNode implements TbNode {
                             .data(getMergedData(pack))
                             .build());
                 } else {
-                    TbMsg resultMsg = null;
+                    DeduplicationEntry resultEntry = null;
                     boolean searchMin = DeduplicationStrategy.FIRST.equals(config.getStrategy());
-                    for (Iterator<TbMsg> iterator = msgList.iterator(); iterator.hasNext(); ) {
-                        TbMsg msg = iterator.next();
-                        long msgTs = msg.getMetaDataTs();
+                    for (Iterator<DeduplicationEntry> iterator = entries.iterator(); iterator.hasNext(); ) {
+                        DeduplicationEntry entry = iterator.next();
+                        long msgTs = entry.ts();
                         if (msgTs >= packBounds.getFirst() && msgTs < packBounds.getSecond()) {
                             iterator.remove();
-                            if (resultMsg == null
-                                    || (searchMin && msg.getMetaDataTs() < resultMsg.getMetaDataTs())
-                                    || (!searchMin && msg.getMetaDataTs() > resultMsg.getMetaDataTs())) {
-                                resultMsg = msg;
+                            if (resultEntry == null
+                                    || (searchMin && msgTs < resultEntry.ts())
+                                    || (!searchMin && msgTs > resultEntry.ts())) {
+                                resultEntry = entry;
                             }
                         }
                     }
-                    if (resultMsg != null) {
+                    if (resultEntry != null) {
+                        TbMsg resultMsg = fromEntry(resultEntry);
                         String queueName1 = queueName != null ? queueName : resultMsg.getQueueName();
                         deduplicationResults.add(TbMsg.newMsg()
                                 .queueName(queueName1)
@@ -187,33 +214,37 @@ public class TbMsgDeduplicationNode implements TbNode {
                                 .build());
                     }
                 }
-                packBoundsOpt = findValidPack(msgList, deduplicationTimeoutMs);
+                packBoundsOpt = findValidPack(entries, deduplicationTimeoutMs);
             }
             deduplicationResults.forEach(outMsg -> enqueueForTellNextWithRetry(ctx, outMsg, 0));
         } finally {
-            if (!data.isEmpty()) {
-                scheduleTickMsg(ctx, deduplicationId, data);
+            if (data.isEmpty()) {
+                deduplicationMap.remove(deduplicationId);
+            } else {
+                scheduleTimeout(deduplicationId, data);
             }
         }
     }
 
-    private void scheduleTickMsg(TbContext ctx, EntityId deduplicationId, DeduplicationData data) {
+    private void scheduleTimeout(EntityId deduplicationId, DeduplicationData data) {
         if (!data.isTickScheduled()) {
-            scheduleTickMsg(ctx, deduplicationId);
+            long deadlineTs = System.currentTimeMillis() + deduplicationInterval + 1;
+            long slotTs = (deadlineTs + TB_MSG_DEDUPLICATION_TIMEOUT_SLOT_MS - 1) / TB_MSG_DEDUPLICATION_TIMEOUT_SLOT_MS * TB_MSG_DEDUPLICATION_TIMEOUT_SLOT_MS;
+            timeouts.add(deduplicationId, slotTs);
             data.setTickScheduled(true);
         }
     }
 
-    private Optional<TbPair<Long, Long>> findValidPack(List<TbMsg> msgs, long deduplicationTimeoutMs) {
-        Optional<TbMsg> min = msgs.stream().min(Comparator.comparing(TbMsg::getMetaDataTs));
-        return min.map(minTsMsg -> {
-            long packStartTs = minTsMsg.getMetaDataTs();
+    private Optional<TbPair<Long, Long>> findValidPack(List<DeduplicationEntry> entries, long deduplicationTimeoutMs) {
+        OptionalLong min = entries.stream().mapToLong(DeduplicationEntry::ts).min();
+        if (min.isPresent()) {
+            long packStartTs = min.getAsLong();
             long packEndTs = packStartTs + deduplicationInterval;
             if (packEndTs <= deduplicationTimeoutMs) {
-                return new TbPair<>(packStartTs, packEndTs);
+                return Optional.of(new TbPair<>(packStartTs, packEndTs));
             }
-            return null;
-        });
+        }
+        return Optional.empty();
     }
 
     private void enqueueForTellNextWithRetry(TbContext ctx, TbMsg msg, int retryAttempt) {
@@ -232,19 +263,42 @@ public class TbMsgDeduplicationNode implements TbNode {
         }
     }
 
-    private void scheduleTickMsg(TbContext ctx, EntityId deduplicationId) {
-        ctx.tellSelf(ctx.newMsg(null, TbMsgType.DEDUPLICATION_TIMEOUT_SELF_MSG, deduplicationId, TbMsgMetaData.EMPTY, TbMsg.EMPTY_STRING), deduplicationInterval + 1);
+    private void scheduleTickMsg(TbContext ctx) {
+        if (!tickScheduled && !timeouts.isEmpty()) {
+            tickTs = timeouts.getNextDeadlineTs();
+            long delay = Math.max(1L, tickTs - System.currentTimeMillis());
+            ctx.tellSelf(ctx.newMsg(null, TbMsgType.DEDUPLICATION_TIMEOUT_SELF_MSG, ctx.getSelfId(), TbMsgMetaData.EMPTY, TbMsg.EMPTY_STRING), delay);
+            tickScheduled = true;
+        }
     }
 
-    private String getMergedData(List<TbMsg> msgs) {
-        ArrayNode mergedData = JacksonUtil.newArrayNode();
-        msgs.forEach(msg -> {
+    private DeduplicationEntry toEntry(TbMsg msg) {
+        if (DeduplicationStrategy.ALL.equals(config.getStrategy())) {
             ObjectNode msgNode = JacksonUtil.newObjectNode();
-            msgNode.set("msg", JacksonUtil.toJsonNode(msg.getData()));
+            msgNode.set("msg", msg.getDataAsJson()); // only serialized below, the shared tree is not modified
             msgNode.set("metadata", JacksonUtil.valueToTree(msg.getMetaData().getData()));
-            mergedData.add(msgNode);
-        });
-        return JacksonUtil.toString(mergedData);
+            return new DeduplicationEntry(msg.getMetaDataTs(), null, JacksonUtil.writeValueAsBytes(msgNode));
+        }
+        return new DeduplicationEntry(msg.getMetaDataTs(), msg.getQueueName(), TbMsg.toProto(msg).toByteArray());
+    }
+
+    private TbMsg fromEntry(DeduplicationEntry entry) {
+        try {
+            return TbMsg.fromProto(entry.queueName(), TbMsgProto.parseFrom(entry.payload()), TbMsgCallback.EMPTY);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Could not parse pending deduplication msg", e);
+        }
+    }
+
+    private String getMergedData(List<DeduplicationEntry> pack) {
+        StringBuilder mergedData = new StringBuilder("[");
+        for (int i = 0; i < pack.size(); i++) {
+            if (i > 0) {
+                mergedData.append(',');
+            }
+            mergedData.append(new String(pack.get(i).payload(), StandardCharsets.UTF_8));
+        }
+        return mergedData.append(']').toString();
     }
 
     private TbMsgMetaData getMetadata() {
@@ -15,6 +15,8 @@
  */
 package org.thingsboard.rule.engine.geo;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -25,6 +27,7 @@ import org.thingsboard.common.util.geo.Coordinates;
 import org.thingsboard.common.util.geo.GeoUtil;
 import org.thingsboard.common.util.geo.Perimeter;
 import org.thingsboard.common.util.geo.PerimeterType;
+import org.thingsboard.common.util.geo.PreparedPolygons;
 import org.thingsboard.common.util.geo.RangeUnit;
 import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNode;
@@ -34,13 +37,24 @@ import org.thingsboard.rule.engine.api.util.TbNodeUtils;
 import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.msg.TbMsg;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
 public abstract class AbstractGeofencingNode<T extends TbGpsGeofencingFilterNodeConfiguration> implements TbNode {
 
+    // total length of the cached definitions, the parsed geometries and their index grow with it
+    private static final long MAX_CACHED_POLYGONS_WEIGHT = 8 * 1024 * 1024;
+    private static final Duration CACHED_POLYGONS_EXPIRE_AFTER_ACCESS = Duration.ofMinutes(10);
+
     protected T config;
     protected JtsSpatialContext jtsCtx;
+    // polygons parsed by definition, so a changed perimeter attribute simply maps to a new entry
+    private final Cache<String, PreparedPolygons> polygonsCache = Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHED_POLYGONS_WEIGHT)
+            .weigher((String definition, PreparedPolygons polygons) -> definition.length())
+            .expireAfterAccess(CACHED_POLYGONS_EXPIRE_AFTER_ACCESS)
+            .build();
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
@@ -77,12 +91,16 @@ public abstract class AbstractGeofencingNode<T extends TbGpsGeofencingFilterNode
             Coordinates perimeterCoordinates = new Coordinates(perimeter.getCenterLatitude(), perimeter.getCenterLongitude());
             return perimeter.getRange() > GeoUtil.distance(entityCoordinates, perimeterCoordinates, perimeter.getRangeUnit());
         } else if (perimeter.getPerimeterType() == PerimeterType.POLYGON) {
-            return GeoUtil.contains(perimeter.getPolygonsDefinition(), new Coordinates(latitude, longitude));
+            return getPolygons(perimeter.getPolygonsDefinition()).contains(new Coordinates(latitude, longitude));
         } else {
             throw new TbNodeException("Unsupported perimeter type: " + perimeter.getPerimeterType() + "!");
         }
     }
 
+    private PreparedPolygons getPolygons(String polygonsDefinition) {
+        return polygonsCache.get(polygonsDefinition, GeoUtil::parsePolygons);
+    }
+
     protected List<Perimeter> getPerimeters(TbMsg msg) throws TbNodeException {
         if (config.isFetchPerimeterInfoFromMessageMetadata()) {
             if (StringUtils.isEmpty(config.getPerimeterKeyName())) {
@@ -16,6 +16,8 @@
 package org.thingsboard.rule.engine.math;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -24,7 +26,6 @@ import lombok.extern.slf4j.Slf4j;
 import net.objecthunter.exp4j.Expression;
 import net.objecthunter.exp4j.ExpressionBuilder;
 import org.springframework.util.ConcurrentReferenceHashMap;
-import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.rule.engine.api.AttributesSaveRequest;
 import org.thingsboard.rule.engine.api.RuleNode;
 import org.thingsboard.rule.engine.api.TbContext;
@@ -37,6 +38,7 @@ import org.thingsboard.rule.engine.util.SemaphoreWithTbMsgQueue;
 import org.thingsboard.server.common.data.AttributeScope;
 import org.thingsboard.server.common.data.StringUtils;
 import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
 import org.thingsboard.server.common.data.kv.DoubleDataEntry;
 import org.thingsboard.server.common.data.kv.KvEntry;
@@ -46,11 +48,16 @@ import org.thingsboard.server.common.msg.TbMsg;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.stream.Collectors;
 
 import static org.thingsboard.common.util.ExpressionFunctionsUtil.userDefinedFunctions;
@@ -84,9 +91,12 @@ import static org.thingsboard.rule.engine.math.TbMathArgumentType.CONSTANT;
 public class TbMathNode implements TbNode {
 
     private static final ConcurrentMap<EntityId, SemaphoreWithTbMsgQueue> locks = new ConcurrentReferenceHashMap<>(16, ConcurrentReferenceHashMap.ReferenceType.WEAK);
-    private final ThreadLocal<Expression> customExpression = new ThreadLocal<>();
+    private static final int MAX_CACHED_ARGUMENTS = 10000;
     private TbMathNodeConfiguration config;
     private boolean msgBodyToJsonConversionRequired;
+    private boolean remoteArgumentsPresent;
+    private MathFunction function;
+    private Cache<ArgumentCacheKey, Optional<KvEntry>> argumentsCache;
 
     @Override
     public void init(TbContext ctx, TbNodeConfiguration configuration) throws TbNodeException {
@@ -105,6 +115,14 @@ public class TbMathNode implements TbNode {
         }
         msgBodyToJsonConversionRequired = config.getArguments().stream().anyMatch(arg -> TbMathArgumentType.MESSAGE_BODY.equals(arg.getType()));
         msgBodyToJsonConversionRequired = msgBodyToJsonConversionRequired || TbMathArgumentType.MESSAGE_BODY.equals(config.getResult().getType());
+        remoteArgumentsPresent = config.getArguments().stream().anyMatch(arg -> isRemote(arg.getType()));
+        function = compileFunction(operation);
+        if (remoteArgumentsPresent && config.getArgumentsCacheTtlSec() > 0) {
+            argumentsCache = Caffeine.newBuilder()
+                    .expireAfterWrite(Duration.ofSeconds(config.getArgumentsCacheTtlSec()))
+                    .maximumSize(MAX_CACHED_ARGUMENTS)
+                    .build();
+        }
     }
 
     @Override
@@ -114,12 +132,14 @@ public class TbMathNode implements TbNode {
     }
 
     ListenableFuture<TbMsg> processMsgAsync(TbContext ctx, TbMsg msg) {
-        var arguments = config.getArguments();
         Optional<ObjectNode> msgBodyOpt = convertMsgBodyIfRequired(msg);
-        var argumentValues = Futures.allAsList(arguments.stream()
-                .map(arg -> resolveArguments(ctx, msg, msgBodyOpt, arg)).collect(Collectors.toList()));
+        if (!remoteArgumentsPresent) {
+            // all arguments come from the message, so there is nothing to wait for
+            return updateMsgAndDb(ctx, msg, msgBodyOpt, function.apply(resolveLocalArguments(msg, msgBodyOpt)));
+        }
+        ListenableFuture<double[]> argumentValues = resolveArguments(ctx, msg, msgBodyOpt);
         ListenableFuture<TbMsg> resultMsgFuture = Futures.transformAsync(argumentValues, args ->
-                updateMsgAndDb(ctx, msg, msgBodyOpt, calculateResult(args)), ctx.getDbCallbackExecutor());
+                updateMsgAndDb(ctx, msg, msgBodyOpt, function.apply(args)), ctx.getDbCallbackExecutor());
         return resultMsgFuture;
     }
 
@@ -151,7 +171,7 @@ public class TbMathNode implements TbNode {
                 .entry(basicTsKvEntry)
                 .future(future)
                 .build());
-        return future;
+        return cacheOnSuccess(future, new ArgumentCacheKey(msg.getOriginator(), TbMathArgumentType.TIME_SERIES, null, mathResultDef.getKey()), basicTsKvEntry);
     }
 
     private ListenableFuture<Void> saveAttribute(TbContext ctx, TbMsg msg, double result, TbMathResult mathResultDef) {
@@ -172,7 +192,18 @@ public class TbMathNode implements TbNode {
                 .entry(kvEntry)
                 .future(future)
                 .build());
-        return future;
+        return cacheOnSuccess(future, new ArgumentCacheKey(msg.getOriginator(), TbMathArgumentType.ATTRIBUTE, attributeScope, mathResultDef.getKey()), kvEntry);
+    }
+
+    // keeps cached arguments consistent with the values saved by this node, e.g. when the result accumulates into an argument
+    private ListenableFuture<Void> cacheOnSuccess(ListenableFuture<Void> saveFuture, ArgumentCacheKey cacheKey, KvEntry savedEntry) {
+        if (argumentsCache == null) {
+            return saveFuture;
+        }
+        return Futures.transform(saveFuture, v -> {
+            argumentsCache.put(cacheKey, Optional.of(savedEntry));
+            return v;
+        }, MoreExecutors.directExecutor());
     }
 
     private boolean isIntegerResult(TbMathResult mathResultDef, TbRuleNodeMathFunctionType function) {
@@ -190,7 +221,7 @@ public class TbMathNode implements TbNode {
     private Optional<ObjectNode> convertMsgBodyIfRequired(TbMsg msg) {
         Optional<ObjectNode> msgBodyOpt;
         if (msgBodyToJsonConversionRequired) {
-            var jsonNode = JacksonUtil.toJsonNode(msg.getData());
+            var jsonNode = msg.getDataAsJsonCopy();
             if (jsonNode.isObject()) {
                 msgBodyOpt = Optional.of((ObjectNode) jsonNode);
             } else {
@@ -221,7 +252,7 @@ public class TbMathNode implements TbNode {
             body.put(mathResultKey, toDoubleValue(mathResultDef, result));
         }
         return msg.transform()
-                .data(JacksonUtil.toString(body))
+                .dataAsJson(body)
                 .build();
     }
 
@@ -237,125 +268,221 @@ public class TbMathNode implements TbNode {
                 .build();
     }
 
-    private double calculateResult(List<TbMathArgumentValue> args) {
-        switch (config.getOperation()) {
+    private MathFunction compileFunction(TbRuleNodeMathFunctionType operation) {
+        switch (operation) {
             case ADD:
-                return apply(args.get(0), args.get(1), Double::sum);
+                return binary(Double::sum);
             case SUB:
-                return apply(args.get(0), args.get(1), (a, b) -> a - b);
+                return binary((a, b) -> a - b);
             case MULT:
-                return apply(args.get(0), args.get(1), (a, b) -> a * b);
+                return binary((a, b) -> a * b);
             case DIV:
-                return apply(args.get(0), args.get(1), (a, b) -> a / b);
+                return binary((a, b) -> a / b);
             case SIN:
-                return apply(args.get(0), Math::sin);
+                return unary(Math::sin);
             case SINH:
-                return apply(args.get(0), Math::sinh);
+                return unary(Math::sinh);
             case COS:
-                return apply(args.get(0), Math::cos);
+                return unary(Math::cos);
             case COSH:
-                return apply(args.get(0), Math::cosh);
+                return unary(Math::cosh);
             case TAN:
-                return apply(args.get(0), Math::tan);
+                return unary(Math::tan);
             case TANH:
-                return apply(args.get(0), Math::tanh);
+                return unary(Math::tanh);
             case ACOS:
-                return apply(args.get(0), Math::acos);
+                return unary(Math::acos);
             case ASIN:
-                return apply(args.get(0), Math::asin);
+                return unary(Math::asin);
             case ATAN:
-                return apply(args.get(0), Math::atan);
+                return unary(Math::atan);
             case ATAN2:
-                return apply(args.get(0), args.get(1), Math::atan2);
+                return binary(Math::atan2);
             case EXP:
-                return apply(args.get(0), Math::exp);
+                return unary(Math::exp);
             case EXPM1:
-                return apply(args.get(0), Math::expm1);
+                return unary(Math::expm1);
             case SQRT:
-                return apply(args.get(0), Math::sqrt);
+                return unary(Math::sqrt);
             case CBRT:
-                return apply(args.get(0), Math::cbrt);
+                return unary(Math::cbrt);
             case GET_EXP:
-                return apply(args.get(0), (x) -> (double) Math.getExponent(x));
+                return unary(x -> Math.getExponent(x));
             case HYPOT:
-                return apply(args.get(0), args.get(1), Math::hypot);
+                return binary(Math::hypot);
             case LOG:
-                return apply(args.get(0), Math::log);
+                return unary(Math::log);
             case LOG10:
-                return apply(args.get(0), Math::log10);
+                return unary(Math::log10);
             case LOG1P:
-                return apply(args.get(0), Math::log1p);
+                return unary(Math::log1p);
             case CEIL:
-                return apply(args.get(0), Math::ceil);
+                return unary(Math::ceil);
             case FLOOR:
-                return apply(args.get(0), Math::floor);
+                return unary(Math::floor);
             case FLOOR_DIV:
-                return apply(args.get(0), args.get(1), (a, b) -> (double) Math.floorDiv(a.longValue(), b.longValue()));
+                return binary((a, b) -> Math.floorDiv((long) a, (long) b));
             case FLOOR_MOD:
-                return apply(args.get(0), args.get(1), (a, b) -> (double) Math.floorMod(a.longValue(), b.longValue()));
+                return binary((a, b) -> Math.floorMod((long) a, (long) b));
             case ABS:
-                return apply(args.get(0), Math::abs);
+                return unary(Math::abs);
             case MIN:
-                return apply(args.get(0), args.get(1), Math::min);
+                return binary(Math::min);
             case MAX:
-                return apply(args.get(0), args.get(1), Math::max);
+                return binary(Math::max);
             case POW:
-                return apply(args.get(0), args.get(1), Math::pow);
+                return binary(Math::pow);
             case SIGNUM:
-                return apply(args.get(0), Math::signum);
+                return unary(Math::signum);
             case RAD:
-                return apply(args.get(0), Math::toRadians);
+                return unary(Math::toRadians);
             case DEG:
-                return apply(args.get(0), Math::toDegrees);
+                return unary(Math::toDegrees);
             case CUSTOM:
-                var expr = customExpression.get();
-                if (expr == null) {
-                    expr = new ExpressionBuilder(config.getCustomFunction())
-                            .functions(userDefinedFunctions)
-                            .implicitMultiplication(true)
-                            .variables(config.getArguments().stream().map(TbMathArgument::getName).collect(Collectors.toSet()))
-                            .build();
-                    customExpression.set(expr);
-                }
-                for (int i = 0; i < config.getArguments().size(); i++) {
-                    expr.setVariable(config.getArguments().get(i).getName(), args.get(i).getValue());
-                }
-                return expr.evaluate();
+                return compileCustomFunction();
             default:
-                throw new RuntimeException("Not supported operation: " + config.getOperation());
+                throw new RuntimeException("Not supported operation: " + operation);
         }
     }
 
-    private double apply(TbMathArgumentValue arg, Function<Double, Double> function) {
-        return function.apply(arg.getValue());
+    private MathFunction compileCustomFunction() {
+        String[] names = config.getArguments().stream().map(TbMathArgument::getName).toArray(String[]::new);
+        Expression compiled = new ExpressionBuilder(config.getCustomFunction())
+                .functions(userDefinedFunctions)
+                .implicitMultiplication(true)
+                .variables(config.getArguments().stream().map(TbMathArgument::getName).collect(Collectors.toSet()))
+                .build();
+        // the expression keeps variable values, so each thread works with its own copy of the compiled expression
+        ThreadLocal<Expression> customExpression = ThreadLocal.withInitial(() -> new Expression(compiled));
+        return args -> {
+            Expression expr = customExpression.get();
+            for (int i = 0; i < names.length; i++) {
+                expr.setVariable(names[i], args[i]);
+            }
+            return expr.evaluate();
+        };
+    }
+
+    private static MathFunction unary(DoubleUnaryOperator function) {
+        return args -> function.applyAsDouble(args[0]);
     }
 
-    private double apply(TbMathArgumentValue arg1, TbMathArgumentValue arg2, BiFunction<Double, Double, Double> function) {
-        return function.apply(arg1.getValue(), arg2.getValue());
+    private static MathFunction binary(DoubleBinaryOperator function) {
+        return args -> function.applyAsDouble(args[0], args[1]);
     }
 
-    ListenableFuture<TbMathArgumentValue> resolveArguments(TbContext ctx, TbMsg msg, Optional<ObjectNode> msgBodyOpt, TbMathArgument arg) {
+    private double[] resolveLocalArguments(TbMsg msg, Optional<ObjectNode> msgBodyOpt) {
+        var arguments = config.getArguments();
+        double[] values = new double[arguments.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = resolveLocalArgument(msg, msgBodyOpt, arguments.get(i));
+        }
+        return values;
+    }
+
+    double resolveLocalArgument(TbMsg msg, Optional<ObjectNode> msgBodyOpt, TbMathArgument arg) {
         String argKey = getKeyFromTemplate(msg, arg.getType(), arg.getKey());
         switch (arg.getType()) {
             case CONSTANT:
-                return Futures.immediateFuture(TbMathArgumentValue.constant(arg));
+                return TbMathArgumentValue.constant(arg).getValue();
             case MESSAGE_BODY:
-                return Futures.immediateFuture(TbMathArgumentValue.fromMessageBody(arg, argKey, msgBodyOpt));
+                return TbMathArgumentValue.fromMessageBody(arg, argKey, msgBodyOpt).getValue();
             case MESSAGE_METADATA:
-                return Futures.immediateFuture(TbMathArgumentValue.fromMessageMetadata(arg, argKey, msg.getMetaData()));
-            case ATTRIBUTE:
-                AttributeScope scope = getAttributeScope(arg.getAttributeScope());
-                return Futures.transform(ctx.getAttributesService().find(ctx.getTenantId(), msg.getOriginator(), scope, argKey),
-                        opt -> getTbMathArgumentValue(arg, opt, "Attribute: " + argKey + " with scope: " + scope + " not found for entity: " + msg.getOriginator())
-                        , MoreExecutors.directExecutor());
-            case TIME_SERIES:
-                return Futures.transform(ctx.getTimeseriesService().findLatest(ctx.getTenantId(), msg.getOriginator(), argKey),
-                        opt -> getTbMathArgumentValue(arg, opt, "Time-series: " + argKey + " not found for entity: " + msg.getOriginator())
-                        , MoreExecutors.directExecutor());
+                return TbMathArgumentValue.fromMessageMetadata(arg, argKey, msg.getMetaData()).getValue();
             default:
                 throw new RuntimeException("Unsupported argument type: " + arg.getType() + "!");
         }
+    }
+
+    /**
+     * Resolves message arguments in place and fetches the remote ones. Attribute arguments with the same scope
+     * are fetched with a single request, and fetched values are cached per originator if the cache TTL is configured.
+     */
+    private ListenableFuture<double[]> resolveArguments(TbContext ctx, TbMsg msg, Optional<ObjectNode> msgBodyOpt) {
+        var arguments = config.getArguments();
+        double[] values = new double[arguments.size()];
+        Map<ArgumentCacheKey, List<Integer>> remoteArguments = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            TbMathArgument arg = arguments.get(i);
+            if (isRemote(arg.getType())) {
+                String argKey = getKeyFromTemplate(msg, arg.getType(), arg.getKey());
+                AttributeScope scope = TbMathArgumentType.ATTRIBUTE.equals(arg.getType()) ? getAttributeScope(arg.getAttributeScope()) : null;
+                remoteArguments.computeIfAbsent(new ArgumentCacheKey(msg.getOriginator(), arg.getType(), scope, argKey), k -> new ArrayList<>(1)).add(i);
+            } else {
+                values[i] = resolveLocalArgument(msg, msgBodyOpt, arg);
+            }
+        }
+        Map<ArgumentCacheKey, Optional<KvEntry>> resolved = new HashMap<>();
+        Map<AttributeScope, List<ArgumentCacheKey>> attributesToFetch = new LinkedHashMap<>();
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (ArgumentCacheKey key : remoteArguments.keySet()) {
+            Optional<KvEntry> cached = argumentsCache != null ? argumentsCache.getIfPresent(key) : null;
+            if (cached != null) {
+                resolved.put(key, cached);
+            } else if (TbMathArgumentType.ATTRIBUTE.equals(key.type())) {
+                attributesToFetch.computeIfAbsent(key.scope(), s -> new ArrayList<>()).add(key);
+            } else {
+                futures.add(Futures.transform(ctx.getTimeseriesService().findLatest(ctx.getTenantId(), msg.getOriginator(), key.key()),
+                        opt -> onFetched(Map.of(key, toKvEntryOpt(opt)), resolved),
+                        MoreExecutors.directExecutor()));
+            }
+        }
+        attributesToFetch.forEach((scope, keys) -> futures.add(fetchAttributes(ctx, msg, scope, keys, resolved)));
+        return Futures.transform(Futures.allAsList(futures), v -> {
+            remoteArguments.forEach((key, indexes) -> {
+                for (int i : indexes) {
+                    values[i] = getTbMathArgumentValue(arguments.get(i), resolved.get(key), getNotFoundError(key)).getValue();
+                }
+            });
+            return values;
+        }, MoreExecutors.directExecutor());
+    }
+
+    private ListenableFuture<Void> fetchAttributes(TbContext ctx, TbMsg msg, AttributeScope scope, List<ArgumentCacheKey> keys, Map<ArgumentCacheKey, Optional<KvEntry>> resolved) {
+        if (keys.size() == 1) {
+            ArgumentCacheKey key = keys.get(0);
+            return Futures.transform(ctx.getAttributesService().find(ctx.getTenantId(), msg.getOriginator(), scope, key.key()),
+                    opt -> onFetched(Map.of(key, toKvEntryOpt(opt)), resolved),
+                    MoreExecutors.directExecutor());
+        }
+        List<String> attributeKeys = keys.stream().map(ArgumentCacheKey::key).collect(Collectors.toList());
+        return Futures.transform(ctx.getAttributesService().find(ctx.getTenantId(), msg.getOriginator(), scope, attributeKeys), entries -> {
+            Map<String, AttributeKvEntry> entriesByKey = new HashMap<>();
+            if (entries != null) {
+                entries.forEach(entry -> entriesByKey.put(entry.getKey(), entry));
+            }
+            Map<ArgumentCacheKey, Optional<KvEntry>> fetched = new HashMap<>();
+            for (ArgumentCacheKey key : keys) {
+                fetched.put(key, Optional.ofNullable(entriesByKey.get(key.key())));
+            }
+            return onFetched(fetched, resolved);
+        }, MoreExecutors.directExecutor());
+    }
+
+    private Void onFetched(Map<ArgumentCacheKey, Optional<KvEntry>> fetched, Map<ArgumentCacheKey, Optional<KvEntry>> resolved) {
+        synchronized (resolved) {
+            resolved.putAll(fetched);
+        }
+        if (argumentsCache != null) {
+            argumentsCache.putAll(fetched);
+        }
+        return null;
+    }
 
+    private static Optional<KvEntry> toKvEntryOpt(Optional<? extends KvEntry> kvOpt) {
+        return kvOpt == null ? Optional.empty() : kvOpt.map(KvEntry.class::cast);
+    }
+
+    private String getNotFoundError(ArgumentCacheKey key) {
+        if (TbMathArgumentType.ATTRIBUTE.equals(key.type())) {
+            return "Attribute: " + key.key() + " with scope: " + key.scope() + " not found for entity: " + key.entityId();
+        } else {
+            return "Time-series: " + key.key() + " not found for entity: " + key.entityId();
+        }
+    }
+
+    private static boolean isRemote(TbMathArgumentType type) {
+        return TbMathArgumentType.ATTRIBUTE.equals(type) || TbMathArgumentType.TIME_SERIES.equals(type);
     }
 
     private String getKeyFromTemplate(TbMsg msg, TbMathArgumentType type, String keyPattern) {
@@ -386,4 +513,14 @@ public class TbMathNode implements TbNode {
         }
     }
 
+    @FunctionalInterface
+    private interface MathFunction {
+
+        double apply(double[] args);
+
+    }
+
+    private record ArgumentCacheKey(EntityId entityId, TbMathArgumentType type, AttributeScope scope, String key) {
+    }
+
 }
@@ -27,6 +27,8 @@ public class TbMathNodeConfiguration implements NodeConfiguration<TbMathNodeConf
     private List<TbMathArgument> arguments;
     private String customFunction;
     private TbMathResult result;
+    // 0 disables caching of the attribute and time-series argument values
+    private int argumentsCacheTtlSec;
 
     @Override
     public TbMathNodeConfiguration defaultConfiguration() {
@@ -20,8 +20,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.rule.engine.profile.state.PersistedAlarmRuleState;
 import org.thingsboard.server.common.adaptor.JsonConverter;
 import org.thingsboard.server.common.data.alarm.AlarmSeverity;
-import org.thingsboard.server.common.data.device.profile.AlarmCondition;
-import org.thingsboard.server.common.data.device.profile.AlarmConditionFilter;
 import org.thingsboard.server.common.data.device.profile.AlarmConditionFilterKey;
 import org.thingsboard.server.common.data.device.profile.AlarmConditionKeyType;
 import org.thingsboard.server.common.data.device.profile.AlarmConditionSpec;
@@ -34,13 +32,8 @@ import org.thingsboard.server.common.data.device.profile.DurationAlarmConditionS
 import org.thingsboard.server.common.data.device.profile.RepeatingAlarmConditionSpec;
 import org.thingsboard.server.common.data.device.profile.SimpleAlarmConditionSpec;
 import org.thingsboard.server.common.data.device.profile.SpecificTimeSchedule;
-import org.thingsboard.server.common.data.query.BooleanFilterPredicate;
-import org.thingsboard.server.common.data.query.ComplexFilterPredicate;
 import org.thingsboard.server.common.data.query.DynamicValue;
 import org.thingsboard.server.common.data.query.FilterPredicateValue;
-import org.thingsboard.server.common.data.query.KeyFilterPredicate;
-import org.thingsboard.server.common.data.query.NumericFilterPredicate;
-import org.thingsboard.server.common.data.query.StringFilterPredicate;
 import org.thingsboard.server.common.msg.tools.SchedulerUtils;
 
 import java.time.Instant;
@@ -48,10 +41,7 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
 
-import static org.thingsboard.server.common.data.StringUtils.equalsAny;
-import static org.thingsboard.server.common.data.StringUtils.splitByCommaWithoutQuotes;
 
 @Data
 @Slf4j
@@ -64,9 +54,17 @@ class AlarmRuleState {
     private PersistedAlarmRuleState state;
     private boolean updateFlag;
     private final DynamicPredicateValueCtx dynamicPredicateValueCtx;
+    private final CompiledAlarmCondition condition;
+    private final CompiledAlarmCondition.DynamicValueResolver dynamicValueResolver = this::getDynamicPredicateValue;
 
     AlarmRuleState(AlarmSeverity severity, AlarmRule alarmRule, Set<AlarmConditionFilterKey> entityKeys, PersistedAlarmRuleState state, DynamicPredicateValueCtx dynamicPredicateValueCtx) {
+        this(severity, alarmRule, new CompiledAlarmCondition(alarmRule.getCondition()), entityKeys, state, dynamicPredicateValueCtx);
+    }
+
+    AlarmRuleState(AlarmSeverity severity, AlarmRule alarmRule, CompiledAlarmCondition condition, Set<AlarmConditionFilterKey> entityKeys,
+                   PersistedAlarmRuleState state, DynamicPredicateValueCtx dynamicPredicateValueCtx) {
         this.severity = severity;
+        this.condition = condition;
         this.alarmRule = alarmRule;
         this.entityKeys = entityKeys;
         if (state != null) {
@@ -117,7 +115,7 @@ class AlarmRuleState {
         boolean active = isActive(data, data.getTs());
         switch (spec.getType()) {
             case SIMPLE:
-                return (active && eval(alarmRule.getCondition(), data)) ? AlarmEvalResult.TRUE : AlarmEvalResult.FALSE;
+                return (active && evalCondition(data)) ? AlarmEvalResult.TRUE : AlarmEvalResult.FALSE;
             case DURATION:
                 return evalDuration(data, active);
             case REPEATING:
@@ -219,7 +217,7 @@ class AlarmRuleState {
     }
 
     private AlarmEvalResult evalRepeating(DataSnapshot data, boolean active) {
-        if (active && eval(alarmRule.getCondition(), data)) {
+        if (active && evalCondition(data)) {
             state.setEventCount(state.getEventCount() + 1);
             updateFlag = true;
             long requiredRepeats = resolveRequiredRepeats(data);
@@ -230,7 +228,7 @@ class AlarmRuleState {
     }
 
     private AlarmEvalResult evalDuration(DataSnapshot data, boolean active) {
-        if (active && eval(alarmRule.getCondition(), data)) {
+        if (active && evalCondition(data)) {
             if (state.getLastEventTs() > 0) {
                 if (data.getTs() > state.getLastEventTs()) {
                     state.setDuration(state.getDuration() + (data.getTs() - state.getLastEventTs()));
@@ -314,181 +312,11 @@ class AlarmRuleState {
         }
     }
 
-    private boolean eval(AlarmCondition condition, DataSnapshot data) {
-        boolean eval = true;
-        for (var filter : condition.getCondition()) {
-            EntityKeyValue value;
-            if (filter.getKey().getType().equals(AlarmConditionKeyType.CONSTANT)) {
-                try {
-                    value = getConstantValue(filter);
-                } catch (RuntimeException e) {
-                    log.warn("Failed to parse constant value from filter: {}", filter, e);
-                    value = null;
-                }
-            } else {
-                value = data.getValue(filter.getKey());
-            }
-            if (value == null) {
-                return false;
-            }
-            eval = eval && eval(data, value, filter.getPredicate(), filter);
-        }
-        return eval;
-    }
-
-    private EntityKeyValue getConstantValue(AlarmConditionFilter filter) {
-        EntityKeyValue value = new EntityKeyValue();
-        String valueStr = filter.getValue().toString();
-        switch (filter.getValueType()) {
-            case STRING:
-                value.setStrValue(valueStr);
-                break;
-            case DATE_TIME:
-                value.setLngValue(Long.valueOf(valueStr));
-                break;
-            case NUMERIC:
-                value.setDblValue(Double.valueOf(valueStr));
-                break;
-            case BOOLEAN:
-                value.setBoolValue(Boolean.valueOf(valueStr));
-                break;
-        }
-        return value;
-    }
-
-    private boolean eval(DataSnapshot data, EntityKeyValue value, KeyFilterPredicate predicate, AlarmConditionFilter filter) {
-        switch (predicate.getType()) {
-            case STRING:
-                return evalStrPredicate(data, value, (StringFilterPredicate) predicate, filter);
-            case NUMERIC:
-                return evalNumPredicate(data, value, (NumericFilterPredicate) predicate, filter);
-            case BOOLEAN:
-                return evalBoolPredicate(data, value, (BooleanFilterPredicate) predicate, filter);
-            case COMPLEX:
-                return evalComplexPredicate(data, value, (ComplexFilterPredicate) predicate, filter);
-            default:
-                return false;
-        }
-    }
-
-    private boolean evalComplexPredicate(DataSnapshot data, EntityKeyValue ekv, ComplexFilterPredicate predicate, AlarmConditionFilter filter) {
-        switch (predicate.getOperation()) {
-            case OR:
-                for (KeyFilterPredicate kfp : predicate.getPredicates()) {
-                    if (eval(data, ekv, kfp, filter)) {
-                        return true;
-                    }
-                }
-                return false;
-            case AND:
-                for (KeyFilterPredicate kfp : predicate.getPredicates()) {
-                    if (!eval(data, ekv, kfp, filter)) {
-                        return false;
-                    }
-                }
-                return true;
-            default:
-                throw new RuntimeException("Operation not supported: " + predicate.getOperation());
-        }
-    }
-
-    private boolean evalBoolPredicate(DataSnapshot data, EntityKeyValue ekv, BooleanFilterPredicate predicate, AlarmConditionFilter filter) {
-        Boolean val = getBoolValue(ekv);
-        if (val == null) {
-            return false;
-        }
-        Boolean predicateValue = getPredicateValue(data, predicate.getValue(), filter, AlarmRuleState::getBoolValue);
-        if (predicateValue == null) {
-            return false;
-        }
-        switch (predicate.getOperation()) {
-            case EQUAL:
-                return val.equals(predicateValue);
-            case NOT_EQUAL:
-                return !val.equals(predicateValue);
-            default:
-                throw new RuntimeException("Operation not supported: " + predicate.getOperation());
-        }
-    }
-
-    private boolean evalNumPredicate(DataSnapshot data, EntityKeyValue ekv, NumericFilterPredicate predicate, AlarmConditionFilter filter) {
-        Double val = getDblValue(ekv);
-        if (val == null) {
-            return false;
-        }
-        Double predicateValue = getPredicateValue(data, predicate.getValue(), filter, AlarmRuleState::getDblValue);
-        if (predicateValue == null) {
-            return false;
-        }
-        switch (predicate.getOperation()) {
-            case NOT_EQUAL:
-                return !val.equals(predicateValue);
-            case EQUAL:
-                return val.equals(predicateValue);
-            case GREATER:
-                return val > predicateValue;
-            case GREATER_OR_EQUAL:
-                return val >= predicateValue;
-            case LESS:
-                return val < predicateValue;
-            case LESS_OR_EQUAL:
-                return val <= predicateValue;
-            default:
-                throw new RuntimeException("Operation not supported: " + predicate.getOperation());
-        }
-    }
-
-    private boolean evalStrPredicate(DataSnapshot data, EntityKeyValue ekv, StringFilterPredicate predicate, AlarmConditionFilter filter) {
-        String val = getStrValue(ekv);
-        if (val == null) {
-            return false;
-        }
-        String predicateValue = getPredicateValue(data, predicate.getValue(), filter, AlarmRuleState::getStrValue);
-        if (predicateValue == null) {
-            return false;
-        }
-        if (predicate.isIgnoreCase()) {
-            val = val.toLowerCase();
-            predicateValue = predicateValue.toLowerCase();
-        }
-        switch (predicate.getOperation()) {
-            case CONTAINS:
-                return val.contains(predicateValue);
-            case EQUAL:
-                return val.equals(predicateValue);
-            case STARTS_WITH:
-                return val.startsWith(predicateValue);
-            case ENDS_WITH:
-                return val.endsWith(predicateValue);
-            case NOT_EQUAL:
-                return !val.equals(predicateValue);
-            case NOT_CONTAINS:
-                return !val.contains(predicateValue);
-            case IN:
-                return equalsAny(val, splitByCommaWithoutQuotes(predicateValue));
-            case NOT_IN:
-                return !equalsAny(val, splitByCommaWithoutQuotes(predicateValue));
-            default:
-                throw new RuntimeException("Operation not supported: " + predicate.getOperation());
-        }
-    }
-
-    private <T> T getPredicateValue(DataSnapshot data, FilterPredicateValue<T> value, AlarmConditionFilter filter, Function<EntityKeyValue, T> transformFunction) {
-        EntityKeyValue ekv = getDynamicPredicateValue(data, value.getDynamicValue());
-        if (ekv != null) {
-            T result = transformFunction.apply(ekv);
-            if (result != null) {
-                return result;
-            }
-        }
-        if (filter.getKey().getType() != AlarmConditionKeyType.CONSTANT) {
-            return value.getDefaultValue();
-        } else {
-            return null;
-        }
+    private boolean evalCondition(DataSnapshot data) {
+        return condition.eval(data, dynamicValueResolver);
     }
 
-    private <T> EntityKeyValue getDynamicPredicateValue(DataSnapshot data, DynamicValue<T> value) {
+    private EntityKeyValue getDynamicPredicateValue(DataSnapshot data, DynamicValue<?> value) {
         EntityKeyValue ekv = null;
         if (value != null) {
             switch (value.getSourceType()) {
@@ -509,7 +337,7 @@ class AlarmRuleState {
         return ekv;
     }
 
-    private static String getStrValue(EntityKeyValue ekv) {
+    static String getStrValue(EntityKeyValue ekv) {
         switch (ekv.getDataType()) {
             case LONG:
                 return ekv.getLngValue() != null ? ekv.getLngValue().toString() : null;
@@ -526,7 +354,7 @@ class AlarmRuleState {
         }
     }
 
-    private static Double getDblValue(EntityKeyValue ekv) {
+    static Double getDblValue(EntityKeyValue ekv) {
         switch (ekv.getDataType()) {
             case LONG:
                 return ekv.getLngValue() != null ? ekv.getLngValue().doubleValue() : null;
@@ -551,7 +379,7 @@ class AlarmRuleState {
         }
     }
 
-    private static Boolean getBoolValue(EntityKeyValue ekv) {
+    static Boolean getBoolValue(EntityKeyValue ekv) {
         switch (ekv.getDataType()) {
             case LONG:
                 return ekv.getLngValue() != null ? ekv.getLngValue() > 0 : null;
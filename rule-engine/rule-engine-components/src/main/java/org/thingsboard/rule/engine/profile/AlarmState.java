@@ -82,8 +82,10 @@ class AlarmState {
         }
     }
 
-    public boolean process(TbContext ctx, long ts) throws ExecutionException, InterruptedException {
+    public boolean process(TbContext ctx, long ts, DataSnapshot data) throws ExecutionException, InterruptedException {
         initCurrentAlarm(ctx);
+        // the alarm may have been skipped by the key-indexed dispatch, so take the device snapshot explicitly
+        this.dataSnapshot = data;
         try {
             return createOrClearAlarms(ctx, null, ts, null, (alarmState, tsParam) -> alarmState.eval(tsParam, dataSnapshot));
         } catch (NumericParseException e) {
@@ -216,13 +218,14 @@ class AlarmState {
                     alarmState.getCreateRuleStates().put(severity, ruleState);
                 }
             }
-            createRulesSortedBySeverityDesc.add(new AlarmRuleState(severity, rule,
+            createRulesSortedBySeverityDesc.add(new AlarmRuleState(severity, rule, deviceProfile.getCompiledCondition(rule),
                     deviceProfile.getCreateAlarmKeys(alarm.getId(), severity), ruleState, dynamicPredicateValueCtx));
         });
         createRulesSortedBySeverityDesc.sort(Comparator.comparingInt(state -> state.getSeverity().ordinal()));
         PersistedAlarmRuleState ruleState = alarmState == null ? null : alarmState.getClearRuleState();
         if (alarmDefinition.getClearRule() != null) {
-            clearState = new AlarmRuleState(null, alarmDefinition.getClearRule(), deviceProfile.getClearAlarmKeys(alarm.getId()), ruleState, dynamicPredicateValueCtx);
+            clearState = new AlarmRuleState(null, alarmDefinition.getClearRule(), deviceProfile.getCompiledCondition(alarmDefinition.getClearRule()),
+                    deviceProfile.getClearAlarmKeys(alarm.getId()), ruleState, dynamicPredicateValueCtx);
         }
     }
 
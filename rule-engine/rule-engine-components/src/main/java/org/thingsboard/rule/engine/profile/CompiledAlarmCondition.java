@@ -0,0 +1,311 @@
+/**
+ * Copyright © 2016-2025 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.rule.engine.profile;
+
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.common.data.device.profile.AlarmCondition;
+import org.thingsboard.server.common.data.device.profile.AlarmConditionFilter;
+import org.thingsboard.server.common.data.device.profile.AlarmConditionFilterKey;
+import org.thingsboard.server.common.data.device.profile.AlarmConditionKeyType;
+import org.thingsboard.server.common.data.query.BooleanFilterPredicate;
+import org.thingsboard.server.common.data.query.ComplexFilterPredicate;
+import org.thingsboard.server.common.data.query.DynamicValue;
+import org.thingsboard.server.common.data.query.FilterPredicateValue;
+import org.thingsboard.server.common.data.query.KeyFilterPredicate;
+import org.thingsboard.server.common.data.query.NumericFilterPredicate;
+import org.thingsboard.server.common.data.query.StringFilterPredicate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import static org.thingsboard.server.common.data.StringUtils.equalsAny;
+import static org.thingsboard.server.common.data.StringUtils.splitByCommaWithoutQuotes;
+
+/**
+ * Alarm condition compiled into a tree of typed predicates: constant values, operations and static predicate values
+ * are resolved once per device profile instead of on every evaluation. Does not hold any device specific state,
+ * so a single instance is shared by the alarm rule states of all devices of the profile.
+ */
+@Slf4j
+class CompiledAlarmCondition {
+
+    private final List<CompiledFilter> filters;
+
+    CompiledAlarmCondition(AlarmCondition condition) {
+        List<AlarmConditionFilter> conditionFilters = condition.getCondition() != null ? condition.getCondition() : Collections.emptyList();
+        List<CompiledFilter> filters = new ArrayList<>(conditionFilters.size());
+        for (AlarmConditionFilter filter : conditionFilters) {
+            boolean constant = filter.getKey().getType().equals(AlarmConditionKeyType.CONSTANT);
+            EntityKeyValue constantValue = null;
+            if (constant) {
+                try {
+                    constantValue = getConstantValue(filter);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to parse constant value from filter: {}", filter, e);
+                }
+            }
+            filters.add(new CompiledFilter(filter.getKey(), constant, constantValue, compile(filter.getPredicate(), filter)));
+        }
+        this.filters = filters;
+    }
+
+    boolean eval(DataSnapshot data, DynamicValueResolver resolver) {
+        for (CompiledFilter filter : filters) {
+            EntityKeyValue value = filter.constant() ? filter.constantValue() : data.getValue(filter.key());
+            if (value == null || !filter.predicate().eval(data, value, resolver)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static EntityKeyValue getConstantValue(AlarmConditionFilter filter) {
+        EntityKeyValue value = new EntityKeyValue();
+        String valueStr = filter.getValue().toString();
+        switch (filter.getValueType()) {
+            case STRING:
+                value.setStrValue(valueStr);
+                break;
+            case DATE_TIME:
+                value.setLngValue(Long.valueOf(valueStr));
+                break;
+            case NUMERIC:
+                value.setDblValue(Double.valueOf(valueStr));
+                break;
+            case BOOLEAN:
+                value.setBoolValue(Boolean.valueOf(valueStr));
+                break;
+        }
+        return value;
+    }
+
+    private static CompiledPredicate compile(KeyFilterPredicate predicate, AlarmConditionFilter filter) {
+        switch (predicate.getType()) {
+            case STRING:
+                return compileStrPredicate((StringFilterPredicate) predicate, filter);
+            case NUMERIC:
+                return compileNumPredicate((NumericFilterPredicate) predicate, filter);
+            case BOOLEAN:
+                return compileBoolPredicate((BooleanFilterPredicate) predicate, filter);
+            case COMPLEX:
+                return compileComplexPredicate((ComplexFilterPredicate) predicate, filter);
+            default:
+                return (data, value, resolver) -> false;
+        }
+    }
+
+    private static CompiledPredicate compileComplexPredicate(ComplexFilterPredicate predicate, AlarmConditionFilter filter) {
+        List<CompiledPredicate> children = new ArrayList<>(predicate.getPredicates().size());
+        for (KeyFilterPredicate child : predicate.getPredicates()) {
+            children.add(compile(child, filter));
+        }
+        switch (predicate.getOperation()) {
+            case OR:
+                return (data, value, resolver) -> {
+                    for (CompiledPredicate child : children) {
+                        if (child.eval(data, value, resolver)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                };
+            case AND:
+                return (data, value, resolver) -> {
+                    for (CompiledPredicate child : children) {
+                        if (!child.eval(data, value, resolver)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            default:
+                return (data, value, resolver) -> {
+                    throw new RuntimeException("Operation not supported: " + predicate.getOperation());
+                };
+        }
+    }
+
+    private static CompiledPredicate compileBoolPredicate(BooleanFilterPredicate predicate, AlarmConditionFilter filter) {
+        CompiledValue<Boolean> predicateValue = compileValue(predicate.getValue(), filter, AlarmRuleState::getBoolValue);
+        BiPredicate<Boolean, Boolean> operation;
+        switch (predicate.getOperation()) {
+            case EQUAL:
+                operation = Boolean::equals;
+                break;
+            case NOT_EQUAL:
+                operation = (val, predicateVal) -> !val.equals(predicateVal);
+                break;
+            default:
+                operation = unsupported(predicate.getOperation());
+        }
+        return compileSimplePredicate(AlarmRuleState::getBoolValue, predicateValue, operation);
+    }
+
+    private static CompiledPredicate compileNumPredicate(NumericFilterPredicate predicate, AlarmConditionFilter filter) {
+        CompiledValue<Double> predicateValue = compileValue(predicate.getValue(), filter, AlarmRuleState::getDblValue);
+        BiPredicate<Double, Double> operation;
+        switch (predicate.getOperation()) {
+            case NOT_EQUAL:
+                operation = (val, predicateVal) -> !val.equals(predicateVal);
+                break;
+            case EQUAL:
+                operation = Double::equals;
+                break;
+            case GREATER:
+                operation = (val, predicateVal) -> val > predicateVal;
+                break;
+            case GREATER_OR_EQUAL:
+                operation = (val, predicateVal) -> val >= predicateVal;
+                break;
+            case LESS:
+                operation = (val, predicateVal) -> val < predicateVal;
+                break;
+            case LESS_OR_EQUAL:
+                operation = (val, predicateVal) -> val <= predicateVal;
+                break;
+            default:
+                operation = unsupported(predicate.getOperation());
+        }
+        return compileSimplePredicate(AlarmRuleState::getDblValue, predicateValue, operation);
+    }
+
+    private static CompiledPredicate compileStrPredicate(StringFilterPredicate predicate, AlarmConditionFilter filter) {
+        boolean ignoreCase = predicate.isIgnoreCase();
+        CompiledValue<String> predicateValue = compileValue(predicate.getValue(), filter, AlarmRuleState::getStrValue);
+        if (ignoreCase) {
+            predicateValue = predicateValue.map(String::toLowerCase);
+        }
+        BiPredicate<String, String> operation;
+        switch (predicate.getOperation()) {
+            case CONTAINS:
+                operation = String::contains;
+                break;
+            case EQUAL:
+                operation = String::equals;
+                break;
+            case STARTS_WITH:
+                operation = String::startsWith;
+                break;
+            case ENDS_WITH:
+                operation = String::endsWith;
+                break;
+            case NOT_EQUAL:
+                operation = (val, predicateVal) -> !val.equals(predicateVal);
+                break;
+            case NOT_CONTAINS:
+                operation = (val, predicateVal) -> !val.contains(predicateVal);
+                break;
+            case IN:
+            case NOT_IN:
+                boolean in = predicate.getOperation() == StringFilterPredicate.StringOperation.IN;
+                if (predicateValue.isStatic() && predicateValue.staticValue() != null) {
+                    List<String> values = splitByCommaWithoutQuotes(predicateValue.staticValue());
+                    operation = (val, predicateVal) -> in == equalsAny(val, values);
+                } else {
+                    operation = (val, predicateVal) -> in == equalsAny(val, splitByCommaWithoutQuotes(predicateVal));
+                }
+                break;
+            default:
+                operation = unsupported(predicate.getOperation());
+        }
+        Function<EntityKeyValue, String> valueFunction = ignoreCase ? ekv -> {
+            String val = AlarmRuleState.getStrValue(ekv);
+            return val != null ? val.toLowerCase() : null;
+        } : AlarmRuleState::getStrValue;
+        return compileSimplePredicate(valueFunction, predicateValue, operation);
+    }
+
+    private static <T> CompiledPredicate compileSimplePredicate(Function<EntityKeyValue, T> valueFunction, CompiledValue<T> predicateValue, BiPredicate<T, T> operation) {
+        return (data, ekv, resolver) -> {
+            T val = valueFunction.apply(ekv);
+            if (val == null) {
+                return false;
+            }
+            T predicateVal = predicateValue.get(data, resolver);
+            if (predicateVal == null) {
+                return false;
+            }
+            return operation.test(val, predicateVal);
+        };
+    }
+
+    private static <T> CompiledValue<T> compileValue(FilterPredicateValue<T> value, AlarmConditionFilter filter, Function<EntityKeyValue, T> transformFunction) {
+        T defaultValue = filter.getKey().getType() != AlarmConditionKeyType.CONSTANT ? value.getDefaultValue() : null;
+        DynamicValue<T> dynamicValue = value.getDynamicValue();
+        if (dynamicValue == null) {
+            return new CompiledValue<>(true, defaultValue, null);
+        }
+        return new CompiledValue<>(false, null, (data, resolver) -> {
+            EntityKeyValue ekv = resolver.resolve(data, dynamicValue);
+            if (ekv != null) {
+                T result = transformFunction.apply(ekv);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return defaultValue;
+        });
+    }
+
+    private static <T> BiPredicate<T, T> unsupported(Object operation) {
+        return (val, predicateVal) -> {
+            throw new RuntimeException("Operation not supported: " + operation);
+        };
+    }
+
+    interface DynamicValueResolver {
+
+        EntityKeyValue resolve(DataSnapshot data, DynamicValue<?> value);
+
+    }
+
+    private interface CompiledPredicate {
+
+        boolean eval(DataSnapshot data, EntityKeyValue value, DynamicValueResolver resolver);
+
+    }
+
+    private interface ValueSupplier<T> {
+
+        T get(DataSnapshot data, DynamicValueResolver resolver);
+
+    }
+
+    private record CompiledFilter(AlarmConditionFilterKey key, boolean constant, EntityKeyValue constantValue, CompiledPredicate predicate) {
+    }
+
+    private record CompiledValue<T>(boolean isStatic, T staticValue, ValueSupplier<T> supplier) {
+
+        T get(DataSnapshot data, DynamicValueResolver resolver) {
+            return isStatic ? staticValue : supplier.get(data, resolver);
+        }
+
+        CompiledValue<T> map(Function<T, T> function) {
+            if (isStatic) {
+                return new CompiledValue<>(true, staticValue != null ? function.apply(staticValue) : null, null);
+            }
+            return new CompiledValue<>(false, null, (data, resolver) -> {
+                T result = supplier.get(data, resolver);
+                return result != null ? function.apply(result) : null;
+            });
+        }
+
+    }
+
+}
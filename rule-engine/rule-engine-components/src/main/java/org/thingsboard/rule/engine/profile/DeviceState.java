@@ -137,8 +137,9 @@ class DeviceState {
     public void harvestAlarms(TbContext ctx, long ts) throws ExecutionException, InterruptedException {
         log.debug("[{}] Going to harvest alarms: {}", ctx.getSelfId(), ts);
         boolean stateChanged = false;
+        dynamicPredicateValueCtx.resetCache();
         for (AlarmState state : alarmStates.values()) {
-            stateChanged |= state.process(ctx, ts);
+            stateChanged |= state.process(ctx, ts, latestValues);
         }
         if (persistState && stateChanged) {
             state.setStateData(JacksonUtil.toString(pds));
@@ -150,6 +151,7 @@ class DeviceState {
         if (latestValues == null) {
             latestValues = fetchLatestValues(ctx, deviceId);
         }
+        dynamicPredicateValueCtx.resetCache();
         boolean stateChanged = false;
         if (msg.isTypeOf(POST_TELEMETRY_REQUEST)) {
             stateChanged = processTelemetryRequest(ctx, msg);
@@ -242,7 +244,7 @@ class DeviceState {
                     .map(DataSnapshot::toConditionKey).collect(Collectors.toSet());
             SnapshotUpdate update = new SnapshotUpdate(AlarmConditionKeyType.ATTRIBUTE, removedKeys);
 
-            for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
+            for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings(update.getKeys())) {
                 AlarmState alarmState = alarmStates.computeIfAbsent(alarm.getId(),
                         a -> new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
                 stateChanged |= alarmState.process(ctx, msg, latestValues, update);
@@ -261,7 +263,7 @@ class DeviceState {
         List<AttributeKvEntry> attributes = JsonConverter.convertToAttributes(JsonParser.parseString(msg.getData()));
         if (!attributes.isEmpty()) {
             SnapshotUpdate update = merge(latestValues, attributes, scope);
-            for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
+            for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings(update.getKeys())) {
                 AlarmState alarmState = alarmStates.computeIfAbsent(alarm.getId(),
                         a -> new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
                 stateChanged |= alarmState.process(ctx, msg, latestValues, update);
@@ -277,7 +279,7 @@ class DeviceState {
 
     protected boolean processTelemetryUpdatedNotification(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException {
         JsonElement msgData = JsonParser.parseString(msg.getData());
-        JsonElement telemetryData = Optional.ofNullable(JsonParser.parseString(msg.getData()))
+        JsonElement telemetryData = Optional.ofNullable(msgData)
                 .filter(JsonElement::isJsonObject)
                 .map(e -> e.getAsJsonObject().get("timeseries"))
                 .orElse(msgData);
@@ -293,7 +295,7 @@ class DeviceState {
             List<KvEntry> data = entry.getValue();
             SnapshotUpdate update = merge(latestValues, ts, data);
             if (update.hasUpdate()) {
-                for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings()) {
+                for (DeviceProfileAlarm alarm : deviceProfile.getAlarmSettings(update.getKeys())) {
                     AlarmState alarmState = alarmStates.computeIfAbsent(alarm.getId(),
                             a -> new AlarmState(this.deviceProfile, deviceId, alarm, getOrInitPersistedAlarmState(alarm), dynamicPredicateValueCtx));
                     try {
@@ -22,4 +22,6 @@ public interface DynamicPredicateValueCtx {
     EntityKeyValue getCustomerValue(String key);
 
     void resetCustomer();
+
+    void resetCache();
 }
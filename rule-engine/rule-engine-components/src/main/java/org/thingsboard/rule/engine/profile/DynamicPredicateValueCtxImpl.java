@@ -25,6 +25,8 @@ import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.kv.AttributeKvEntry;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
@@ -34,6 +36,10 @@ public class DynamicPredicateValueCtxImpl implements DynamicPredicateValueCtx {
     private CustomerId customerId;
     private final DeviceId deviceId;
     private final TbContext ctx;
+    // Lookups are cached only until the next resetCache() call, which the device state does before each message and harvest.
+    // Tenant and customer attribute updates are not routed to the device profile node, so entries can't be invalidated on change.
+    private final Map<String, Optional<EntityKeyValue>> tenantValues = new HashMap<>();
+    private final Map<String, Optional<EntityKeyValue>> customerValues = new HashMap<>();
 
     public DynamicPredicateValueCtxImpl(TenantId tenantId, DeviceId deviceId, TbContext ctx) {
         this.tenantId = tenantId;
@@ -44,22 +50,32 @@ public class DynamicPredicateValueCtxImpl implements DynamicPredicateValueCtx {
 
     @Override
     public EntityKeyValue getTenantValue(String key) {
-        return getValue(tenantId, key);
+        return tenantValues.computeIfAbsent(key, k -> Optional.ofNullable(getValue(tenantId, k))).orElse(null);
     }
 
     @Override
     public EntityKeyValue getCustomerValue(String key) {
-        return customerId == null || customerId.isNullUid() ? null : getValue(customerId, key);
+        if (customerId == null || customerId.isNullUid()) {
+            return null;
+        }
+        return customerValues.computeIfAbsent(key, k -> Optional.ofNullable(getValue(customerId, k))).orElse(null);
     }
 
     @Override
     public void resetCustomer() {
+        customerValues.clear();
         Device device = ctx.getDeviceService().findDeviceById(tenantId, deviceId);
         if (device != null) {
             this.customerId = device.getCustomerId();
         }
     }
 
+    @Override
+    public void resetCache() {
+        tenantValues.clear();
+        customerValues.clear();
+    }
+
     private EntityKeyValue getValue(EntityId entityId, String key) {
         try {
             Optional<AttributeKvEntry> entry = ctx.getAttributesService().find(tenantId, entityId, AttributeScope.SERVER_SCOPE, key).get();
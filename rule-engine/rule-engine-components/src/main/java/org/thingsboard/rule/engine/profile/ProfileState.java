@@ -35,9 +35,12 @@ import org.thingsboard.server.common.data.query.DynamicValueSourceType;
 import org.thingsboard.server.common.data.query.KeyFilterPredicate;
 import org.thingsboard.server.common.data.query.SimpleKeyFilterPredicate;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -55,6 +58,9 @@ class ProfileState {
 
     private final Map<String, Map<AlarmSeverity, Set<AlarmConditionFilterKey>>> alarmCreateKeys = new HashMap<>();
     private final Map<String, Set<AlarmConditionFilterKey>> alarmClearKeys = new HashMap<>();
+    // positions in alarmSettings of the alarms whose create or clear rules reference the key
+    private final Map<AlarmConditionFilterKey, BitSet> alarmsByKey = new HashMap<>();
+    private final Map<AlarmRule, CompiledAlarmCondition> compiledConditions = new IdentityHashMap<>();
 
     ProfileState(DeviceProfile deviceProfile) {
         updateDeviceProfile(deviceProfile);
@@ -65,10 +71,13 @@ class ProfileState {
         alarmSettings.clear();
         alarmCreateKeys.clear();
         alarmClearKeys.clear();
+        alarmsByKey.clear();
+        compiledConditions.clear();
         entityKeys.clear();
         if (deviceProfile.getProfileData().getAlarms() != null) {
             alarmSettings.addAll(deviceProfile.getProfileData().getAlarms());
-            for (DeviceProfileAlarm alarm : deviceProfile.getProfileData().getAlarms()) {
+            for (int i = 0; i < alarmSettings.size(); i++) {
+                DeviceProfileAlarm alarm = alarmSettings.get(i);
                 Map<AlarmSeverity, Set<AlarmConditionFilterKey>> createAlarmKeys = alarmCreateKeys.computeIfAbsent(alarm.getId(), id -> new HashMap<>());
                 alarm.getCreateRules().forEach(((severity, alarmRule) -> {
                     var ruleKeys = createAlarmKeys.computeIfAbsent(severity, id -> new HashSet<>());
@@ -82,6 +91,7 @@ class ProfileState {
                     if (schedule != null) {
                         addScheduleDynamicValues(schedule, entityKeys);
                     }
+                    compiledConditions.put(alarmRule, new CompiledAlarmCondition(alarmRule.getCondition()));
                 }));
                 if (alarm.getClearRule() != null) {
                     var clearAlarmKeys = alarmClearKeys.computeIfAbsent(alarm.getId(), id -> new HashSet<>());
@@ -91,11 +101,24 @@ class ProfileState {
                         addDynamicValuesRecursively(keyFilter.getPredicate(), entityKeys, clearAlarmKeys);
                     }
                     addEntityKeysFromAlarmConditionSpec(alarm.getClearRule());
+                    compiledConditions.put(alarm.getClearRule(), new CompiledAlarmCondition(alarm.getClearRule().getCondition()));
                 }
+                indexAlarmKeys(i, alarm.getId());
             }
         }
     }
 
+    private void indexAlarmKeys(int alarmIdx, String alarmId) {
+        Set<AlarmConditionFilterKey> keys = new HashSet<>(getClearAlarmKeys(alarmId));
+        Map<AlarmSeverity, Set<AlarmConditionFilterKey>> createKeys = alarmCreateKeys.get(alarmId);
+        if (createKeys != null) {
+            createKeys.values().forEach(keys::addAll);
+        }
+        for (AlarmConditionFilterKey key : keys) {
+            alarmsByKey.computeIfAbsent(key, k -> new BitSet()).set(alarmIdx);
+        }
+    }
+
     void addScheduleDynamicValues(AlarmSchedule schedule, final Set<AlarmConditionFilterKey> entityKeys) {
         DynamicValue<String> dynamicValue = schedule.getDynamicValue();
         if (dynamicValue != null && dynamicValue.getSourceAttribute() != null) {
@@ -160,6 +183,32 @@ class ProfileState {
         }
     }
 
+    /**
+     * Returns the alarms, in profile order, whose create or clear rules reference at least one of the updated keys.
+     * The rest of the alarms would reject the update anyway, so there is no need to visit them.
+     */
+    List<DeviceProfileAlarm> getAlarmSettings(Set<AlarmConditionFilterKey> updatedKeys) {
+        BitSet matched = new BitSet();
+        for (AlarmConditionFilterKey key : updatedKeys) {
+            BitSet alarms = alarmsByKey.get(key);
+            if (alarms != null) {
+                matched.or(alarms);
+            }
+        }
+        if (matched.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<DeviceProfileAlarm> result = new ArrayList<>(matched.cardinality());
+        for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1)) {
+            result.add(alarmSettings.get(i));
+        }
+        return result;
+    }
+
+    CompiledAlarmCondition getCompiledCondition(AlarmRule alarmRule) {
+        return compiledConditions.computeIfAbsent(alarmRule, rule -> new CompiledAlarmCondition(rule.getCondition()));
+    }
+
     DeviceProfileId getProfileId() {
         return deviceProfile.getId();
     }
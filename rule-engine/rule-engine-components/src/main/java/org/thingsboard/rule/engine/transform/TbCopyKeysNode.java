@@ -68,23 +68,26 @@ public class TbCopyKeysNode extends TbAbstractTransformNodeWithTbMsgSource {
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException, TbNodeException {
         var metaDataCopy = msg.getMetaData().copy();
-        String msgData = msg.getData();
+        JsonNode msgData = null;
         boolean msgChanged = false;
-        JsonNode dataNode = JacksonUtil.toJsonNode(msgData);
+        JsonNode dataNode = msg.getDataAsJson();
         if (dataNode.isObject()) {
             switch (copyFrom) {
                 case METADATA:
-                    ObjectNode msgDataNode = (ObjectNode) dataNode;
+                    ObjectNode msgDataNode = null;
                     Map<String, String> metaDataMap = metaDataCopy.getData();
                     for (Map.Entry<String, String> entry : metaDataMap.entrySet()) {
                         String mdKey = entry.getKey();
                         String mdValue = entry.getValue();
                         if (matches(mdKey)) {
                             msgChanged = true;
+                            if (msgDataNode == null) {
+                                msgDataNode = (ObjectNode) dataNode.deepCopy();
+                            }
                             msgDataNode.put(mdKey, mdValue);
                         }
                     }
-                    msgData = JacksonUtil.toString(msgDataNode);
+                    msgData = msgDataNode;
                     break;
                 case DATA:
                     Iterator<Map.Entry<String, JsonNode>> iteratorNode = dataNode.fields();
@@ -104,10 +107,15 @@ public class TbCopyKeysNode extends TbAbstractTransformNodeWithTbMsgSource {
                     log.debug("Unexpected CopyFrom value: {}. Allowed values: {}", copyFrom, TbMsgSource.values());
             }
         }
-        ctx.tellSuccess(msgChanged ? msg.transform()
-                .metaData(metaDataCopy)
-                .data(msgData)
-                .build() : msg);
+        if (!msgChanged) {
+            ctx.tellSuccess(msg);
+            return;
+        }
+        TbMsg.TbMsgBuilder transformed = msg.transform().metaData(metaDataCopy);
+        if (msgData != null) {
+            transformed.dataAsJson(msgData);
+        }
+        ctx.tellSuccess(transformed.build());
     }
 
     @Override
@@ -15,6 +15,7 @@
  */
 package org.thingsboard.rule.engine.transform;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
@@ -66,10 +67,14 @@ public class TbJsonPathNode implements TbNode {
     public void onMsg(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException, TbNodeException {
         if (!TbJsonPathNodeConfiguration.DEFAULT_JSON_PATH.equals(this.jsonPathValue)) {
             try {
-                Object jsonPathData = jsonPath.read(msg.getData(), this.configurationJsonPath);
-                ctx.tellSuccess(msg.transform()
-                        .data(JacksonUtil.toString(jsonPathData))
-                        .build());
+                Object jsonPathData = jsonPath.read(msg.getDataAsJson(), this.configurationJsonPath);
+                TbMsg.TbMsgBuilder transformed = msg.transform();
+                if (jsonPathData instanceof JsonNode jsonNode) {
+                    transformed.dataAsJson(jsonNode);
+                } else {
+                    transformed.data(JacksonUtil.toString(jsonPathData));
+                }
+                ctx.tellSuccess(transformed.build());
             } catch (PathNotFoundException e) {
                 ctx.tellFailure(msg, e);
             }
@@ -18,7 +18,6 @@ package org.thingsboard.rule.engine.transform;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
-import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.rule.engine.api.RuleNode;
 import org.thingsboard.rule.engine.api.TbContext;
 import org.thingsboard.rule.engine.api.TbNodeConfiguration;
@@ -68,7 +67,7 @@ public class TbRenameKeysNode extends TbAbstractTransformNodeWithTbMsgSource {
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException, TbNodeException {
         TbMsgMetaData metaDataCopy = msg.getMetaData().copy();
-        String data = msg.getData();
+        JsonNode data = null;
         boolean msgChanged = false;
         switch (renameIn) {
             case METADATA:
@@ -86,9 +85,9 @@ public class TbRenameKeysNode extends TbAbstractTransformNodeWithTbMsgSource {
                 metaDataCopy = new TbMsgMetaData(metaDataMap);
                 break;
             case DATA:
-                JsonNode dataNode = JacksonUtil.toJsonNode(data);
-                if (dataNode.isObject()) {
-                    ObjectNode msgData = (ObjectNode) dataNode;
+                JsonNode dataNode = msg.getDataAsJson();
+                if (dataNode.isObject() && renameKeysMapping.keySet().stream().anyMatch(dataNode::has)) {
+                    ObjectNode msgData = (ObjectNode) dataNode.deepCopy();
                     for (Map.Entry<String, String> entry : renameKeysMapping.entrySet()) {
                         String currentKeyName = entry.getKey();
                         String newKeyName = entry.getValue();
@@ -99,16 +98,21 @@ public class TbRenameKeysNode extends TbAbstractTransformNodeWithTbMsgSource {
                             msgData.remove(currentKeyName);
                         }
                     }
-                    data = JacksonUtil.toString(msgData);
+                    data = msgData;
                 }
                 break;
             default:
                 log.debug("Unexpected RenameIn value: {}. Allowed values: {}", renameIn, TbMsgSource.values());
         }
-        ctx.tellSuccess(msgChanged ? msg.transform()
-                .metaData(metaDataCopy)
-                .data(data)
-                .build() : msg);
+        if (!msgChanged) {
+            ctx.tellSuccess(msg);
+            return;
+        }
+        TbMsg.TbMsgBuilder transformed = msg.transform().metaData(metaDataCopy);
+        if (data != null) {
+            transformed.dataAsJson(data);
+        }
+        ctx.tellSuccess(transformed.build());
     }
 
     @Override
@@ -18,7 +18,6 @@ package org.thingsboard.rule.engine.transform;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import lombok.extern.slf4j.Slf4j;
-import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.rule.engine.api.EmptyNodeConfiguration;
 import org.thingsboard.rule.engine.api.RuleNode;
 import org.thingsboard.rule.engine.api.TbContext;
@@ -57,14 +56,14 @@ public class TbSplitArrayMsgNode implements TbNode {
 
     @Override
     public void onMsg(TbContext ctx, TbMsg msg) throws ExecutionException, InterruptedException, TbNodeException {
-        JsonNode jsonNode = JacksonUtil.toJsonNode(msg.getData());
+        JsonNode jsonNode = msg.getDataAsJson();
         if (jsonNode.isArray()) {
             ArrayNode data = (ArrayNode) jsonNode;
             if (data.isEmpty()) {
                 ctx.ack(msg);
             } else if (data.size() == 1) {
                 ctx.tellSuccess(msg.transform()
-                        .data(JacksonUtil.toString(data.get(0)))
+                        .dataAsJson(data.get(0))
                         .build());
             } else {
                 TbMsgCallbackWrapper wrapper = new MultipleTbMsgsCallbackWrapper(data.size(), new TbMsgCallback() {
@@ -80,7 +79,7 @@ public class TbSplitArrayMsgNode implements TbNode {
                 });
                 data.forEach(msgNode -> {
                     TbMsg outMsg = msg.transform()
-                            .data(JacksonUtil.toString(msgNode))
+                            .dataAsJson(msgNode)
                             .build();
                     ctx.enqueueForTellNext(outMsg, TbNodeConnectionType.SUCCESS, wrapper::onSuccess, wrapper::onFailure);
                 });
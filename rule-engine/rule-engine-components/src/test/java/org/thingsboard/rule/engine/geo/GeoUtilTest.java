@@ -21,6 +21,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.thingsboard.common.util.geo.Coordinates;
 import org.thingsboard.common.util.geo.GeoUtil;
+import org.thingsboard.common.util.geo.PreparedPolygons;
 
 @ExtendWith(MockitoExtension.class)
 public class GeoUtilTest {
@@ -162,4 +163,46 @@ public class GeoUtilTest {
                 );
     }
 
+    @Test
+    public void testParsedPolygonsWithManyPerimeters() {
+        int gridSize = 100;
+        double cellSize = 0.01;
+        StringBuilder polygons = new StringBuilder("[");
+        for (int i = 0; i < gridSize; i++) {
+            for (int j = 0; j < gridSize; j++) {
+                double lat = 40 + i * cellSize;
+                double lon = 20 + j * cellSize;
+                appendSquare(polygons, lat, lon, cellSize / 2);
+                if (hasHole(i, j)) {
+                    appendSquare(polygons, lat + cellSize / 8, lon + cellSize / 8, cellSize / 4);
+                }
+            }
+        }
+        polygons.setCharAt(polygons.length() - 1, ']');
+
+        PreparedPolygons parsed = GeoUtil.parsePolygons(polygons.toString());
+
+        for (int i = 0; i < gridSize; i++) {
+            for (int j = 0; j < gridSize; j++) {
+                double lat = 40 + i * cellSize;
+                double lon = 20 + j * cellSize;
+                Coordinates center = new Coordinates(lat + cellSize / 4, lon + cellSize / 4);
+                Coordinates gap = new Coordinates(lat + cellSize * 0.75, lon + cellSize * 0.75);
+                Assertions.assertEquals(!hasHole(i, j), parsed.contains(center), "Unexpected result for " + center);
+                Assertions.assertFalse(parsed.contains(gap), "Polygons must not contain the dot " + gap);
+            }
+        }
+    }
+
+    private static boolean hasHole(int i, int j) {
+        return (i + j) % 7 == 0;
+    }
+
+    private static void appendSquare(StringBuilder polygons, double lat, double lon, double size) {
+        polygons.append("[[").append(lat).append(',').append(lon).append("],[")
+                .append(lat).append(',').append(lon + size).append("],[")
+                .append(lat + size).append(',').append(lon + size).append("],[")
+                .append(lat + size).append(',').append(lon).append("]],");
+    }
+
 }
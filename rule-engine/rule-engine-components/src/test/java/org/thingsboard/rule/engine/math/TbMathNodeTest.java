@@ -421,6 +421,40 @@ public class TbMathNodeTest {
         assertEquals(4, resultJson.get("result").asInt());
     }
 
+    @Test
+    public void test_attr_and_ts_arguments_cached_by_originator() throws TbNodeException {
+        TbMathNodeConfiguration configuration = new TbMathNodeConfiguration();
+        configuration.setOperation(TbRuleNodeMathFunctionType.ADD);
+        configuration.setResult(new TbMathResult(TbMathArgumentType.MESSAGE_BODY, "result", 2, false, false, null));
+        configuration.setArguments(List.of(
+                new TbMathArgument(TbMathArgumentType.ATTRIBUTE, "a"),
+                new TbMathArgument(TbMathArgumentType.TIME_SERIES, "b")));
+        configuration.setArgumentsCacheTtlSec(60);
+        TbMathNode node = new TbMathNode();
+        node.init(ctx, new TbNodeConfiguration(JacksonUtil.valueToTree(configuration)));
+
+        when(attributesService.find(tenantId, originator, AttributeScope.SERVER_SCOPE, "a"))
+                .thenReturn(Futures.immediateFuture(Optional.of(new BaseAttributeKvEntry(System.currentTimeMillis(), new DoubleDataEntry("a", 2.0)))));
+        when(tsService.findLatest(tenantId, originator, "b"))
+                .thenReturn(Futures.immediateFuture(Optional.of(new BasicTsKvEntry(System.currentTimeMillis(), new LongDataEntry("b", 2L)))));
+
+        for (int i = 0; i < 3; i++) {
+            node.onMsg(ctx, TbMsg.newMsg()
+                    .type(TbMsgType.POST_TELEMETRY_REQUEST)
+                    .originator(originator)
+                    .copyMetaData(TbMsgMetaData.EMPTY)
+                    .data(JacksonUtil.newObjectNode().toString())
+                    .build());
+        }
+
+        ArgumentCaptor<TbMsg> msgCaptor = ArgumentCaptor.forClass(TbMsg.class);
+        verify(ctx, timeout(TIMEOUT).times(3)).tellSuccess(msgCaptor.capture());
+        msgCaptor.getAllValues().forEach(resultMsg ->
+                assertEquals(4, JacksonUtil.toJsonNode(resultMsg.getData()).get("result").asInt()));
+        verify(attributesService, times(1)).find(tenantId, originator, AttributeScope.SERVER_SCOPE, "a");
+        verify(tsService, times(1)).findLatest(tenantId, originator, "b");
+    }
+
     @Test
     public void test_sqrt_5_body() {
         var node = initNode(TbRuleNodeMathFunctionType.SQRT,
@@ -739,7 +773,7 @@ public class TbMathNodeTest {
                 new TbMathArgument(TbMathArgumentType.MESSAGE_BODY, "b")
         ));
 
-        willThrow(new RuntimeException("Message body has no 'delta'")).given(node).resolveArguments(any(), any(), any(), any());
+        willThrow(new RuntimeException("Message body has no 'delta'")).given(node).resolveLocalArgument(any(), any(), any());
 
         EntityId originatorSlow = DeviceId.fromString("7f01170d-6bba-419c-b95c-2b4c3ba32f30");
         CountDownLatch slowProcessingLatch = new CountDownLatch(1);
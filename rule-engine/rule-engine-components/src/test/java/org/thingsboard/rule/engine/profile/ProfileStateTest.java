@@ -17,20 +17,35 @@ package org.thingsboard.rule.engine.profile;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.NullSource;
+import org.thingsboard.server.common.data.DeviceProfile;
+import org.thingsboard.server.common.data.alarm.AlarmSeverity;
+import org.thingsboard.server.common.data.device.profile.AlarmCondition;
+import org.thingsboard.server.common.data.device.profile.AlarmConditionFilter;
 import org.thingsboard.server.common.data.device.profile.AlarmConditionFilterKey;
 import org.thingsboard.server.common.data.device.profile.AlarmConditionKeyType;
+import org.thingsboard.server.common.data.device.profile.AlarmRule;
+import org.thingsboard.server.common.data.device.profile.DeviceProfileAlarm;
+import org.thingsboard.server.common.data.device.profile.DeviceProfileData;
 import org.thingsboard.server.common.data.device.profile.SpecificTimeSchedule;
 import org.thingsboard.server.common.data.query.ComplexFilterPredicate;
 import org.thingsboard.server.common.data.query.DynamicValue;
 import org.thingsboard.server.common.data.query.DynamicValueSourceType;
+import org.thingsboard.server.common.data.query.EntityKeyValueType;
 import org.thingsboard.server.common.data.query.FilterPredicateType;
+import org.thingsboard.server.common.data.query.FilterPredicateValue;
+import org.thingsboard.server.common.data.query.NumericFilterPredicate;
 import org.thingsboard.server.common.data.query.SimpleKeyFilterPredicate;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.willCallRealMethod;
@@ -124,4 +139,58 @@ class ProfileStateTest {
                 new AlarmConditionFilterKey(AlarmConditionKeyType.ATTRIBUTE, "myKey")));
     }
 
+
+    @Test
+    void getAlarmSettingsReturnsOnlyAlarmsReferencingUpdatedKeys() {
+        int alarmsCount = 10_000;
+        List<DeviceProfileAlarm> alarms = new ArrayList<>(alarmsCount);
+        for (int i = 0; i < alarmsCount; i++) {
+            DeviceProfileAlarm alarm = new DeviceProfileAlarm();
+            alarm.setId("alarm" + i);
+            alarm.setAlarmType("alarm" + i);
+            alarm.setCreateRules(new TreeMap<>(Map.of(AlarmSeverity.CRITICAL, numericRule("temperature" + i, NumericFilterPredicate.NumericOperation.GREATER))));
+            if (i % 1000 == 0) {
+                alarm.setClearRule(numericRule("humidity", NumericFilterPredicate.NumericOperation.LESS));
+            }
+            alarms.add(alarm);
+        }
+        DeviceProfileData profileData = new DeviceProfileData();
+        profileData.setAlarms(alarms);
+        DeviceProfile deviceProfile = new DeviceProfile();
+        deviceProfile.setProfileData(profileData);
+
+        ProfileState state = new ProfileState(deviceProfile);
+
+        Assertions.assertThat(state.getAlarmSettings(Set.of(timeseriesKey("temperature42"))))
+                .containsExactly(alarms.get(42));
+        Assertions.assertThat(state.getAlarmSettings(Set.of(timeseriesKey("humidity"), timeseriesKey("temperature1500"))))
+                .extracting(DeviceProfileAlarm::getId)
+                .containsExactly("alarm0", "alarm1000", "alarm1500", "alarm2000", "alarm3000", "alarm4000",
+                        "alarm5000", "alarm6000", "alarm7000", "alarm8000", "alarm9000");
+        Assertions.assertThat(state.getAlarmSettings(Set.of(timeseriesKey("pressure")))).isEmpty();
+        Assertions.assertThat(state.getAlarmSettings(Set.of(new AlarmConditionFilterKey(AlarmConditionKeyType.ATTRIBUTE, "temperature42")))).isEmpty();
+
+        AlarmRule rule = alarms.get(42).getCreateRules().get(AlarmSeverity.CRITICAL);
+        Assertions.assertThat(state.getCompiledCondition(rule)).isSameAs(state.getCompiledCondition(rule));
+    }
+
+    private static AlarmConditionFilterKey timeseriesKey(String key) {
+        return new AlarmConditionFilterKey(AlarmConditionKeyType.TIME_SERIES, key);
+    }
+
+    private static AlarmRule numericRule(String key, NumericFilterPredicate.NumericOperation operation) {
+        NumericFilterPredicate predicate = new NumericFilterPredicate();
+        predicate.setOperation(operation);
+        predicate.setValue(new FilterPredicateValue<>(20.0, null, null));
+        AlarmConditionFilter filter = new AlarmConditionFilter();
+        filter.setKey(timeseriesKey(key));
+        filter.setValueType(EntityKeyValueType.NUMERIC);
+        filter.setPredicate(predicate);
+        AlarmCondition condition = new AlarmCondition();
+        condition.setCondition(List.of(filter));
+        AlarmRule rule = new AlarmRule();
+        rule.setCondition(condition);
+        return rule;
+    }
+
 }
@@ -413,6 +413,43 @@ public class TbMsgDeduplicationNodeTest extends AbstractRuleNodeUpgradeTest {
         Assertions.assertEquals(msgWithLatestTsInSecondPack.getType(), actualMsg.getType());
     }
 
+    @Test
+    public void given_messages_from_multiple_originators_then_singleTickMsgIsScheduled() throws TbNodeException, ExecutionException, InterruptedException {
+        int originatorsCount = 3;
+        config.setInterval(deduplicationInterval);
+        config.setStrategy(DeduplicationStrategy.LAST);
+        nodeConfiguration = new TbNodeConfiguration(JacksonUtil.valueToTree(config));
+        node.init(ctx, nodeConfiguration);
+
+        long expiredTs = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(deduplicationInterval * 2);
+        List<TbMsg> inputMsgs = new ArrayList<>();
+        for (int i = 0; i < originatorsCount; i++) {
+            DeviceId deviceId = new DeviceId(UUID.randomUUID());
+            inputMsgs.add(createMsg(deviceId, expiredTs));
+            inputMsgs.add(createMsg(deviceId, expiredTs + 1));
+        }
+        for (TbMsg msg : inputMsgs) {
+            node.onMsg(ctx, msg);
+        }
+
+        ArgumentCaptor<TbMsg> tickMsgCaptor = ArgumentCaptor.forClass(TbMsg.class);
+        verify(ctx, times(1)).tellSelf(tickMsgCaptor.capture(), anyLong());
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(deduplicationInterval) + 2 * TbMsgDeduplicationNode.TB_MSG_DEDUPLICATION_TIMEOUT_SLOT_MS);
+        node.onMsg(ctx, tickMsgCaptor.getValue());
+
+        ArgumentCaptor<TbMsg> newMsgCaptor = ArgumentCaptor.forClass(TbMsg.class);
+        verify(ctx, times(originatorsCount)).enqueueForTellNext(newMsgCaptor.capture(), eq(TbNodeConnectionType.SUCCESS), any(), any());
+        verify(ctx, times(1)).tellSelf(any(), anyLong());
+        List<TbMsg> resultMsgs = newMsgCaptor.getAllValues();
+        for (int i = 0; i < originatorsCount; i++) {
+            TbMsg expectedMsg = inputMsgs.get(i * 2 + 1);
+            Assertions.assertEquals(expectedMsg.getOriginator(), resultMsgs.get(i).getOriginator());
+            Assertions.assertEquals(expectedMsg.getMetaData(), resultMsgs.get(i).getMetaData());
+            Assertions.assertEquals(expectedMsg.getData(), resultMsgs.get(i).getData());
+        }
+    }
+
     @Test
     public void given_maxRetriesIsZero_when_enqueueFails_then_noRetriesIsScheduled() throws TbNodeException, ExecutionException, InterruptedException {
         int wantedNumberOfTellSelfInvocation = 1;
@@ -62,7 +62,8 @@ export class MathFunctionConfigComponent extends RuleNodeConfigurationComponent
         resultValuePrecision: [configuration ? configuration.result.resultValuePrecision : 0],
         addToBody: [configuration ? configuration.result.addToBody : false],
         addToMetadata: [configuration ? configuration.result.addToMetadata : false]
-      })
+      }),
+      argumentsCacheTtlSec: [configuration?.argumentsCacheTtlSec ?? 0, [Validators.min(0)]]
     });
   }
 